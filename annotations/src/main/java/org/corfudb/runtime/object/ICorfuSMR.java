@@ -12,7 +12,8 @@ import java.util.UUID;
  * Created by mwei on 11/10/16.
  */
 public interface ICorfuSMR<T>
-        extends ICorfuExecutionContext<T>, ICorfuVersionPolicy, AutoCloseable {
+        extends ICorfuExecutionContext<T>, ICorfuVersionPolicy,
+        ICorfuSnapshotable<T>, AutoCloseable {
 
     /** The suffix for all precompiled SMR wrapper classes. */
     String CORFUSMR_SUFFIX = "$CORFUSMR";
@@ -0,0 +1,28 @@
+package org.corfudb.runtime.object;
+
+import org.corfudb.annotations.DontInstrument;
+
+/**
+ * Lets SMR objects expose immutable snapshots of their state, which the
+ * version locked object keeps around so that readers of recent versions
+ * don't have to lock, sync or roll back the object.
+ *
+ * @param <T> The underlying object type
+ */
+public interface ICorfuSnapshotable<T> {
+
+    /**
+     * Returns an object holding the current state of this object, which is not
+     * affected by the updates that follow. Taking a snapshot is expected to be
+     * cheap, typically by sharing structure with this object.
+     *
+     * <p>Only accessors are ever invoked on the snapshot.
+     *
+     * @return a snapshot of this object, or null if this object does not
+     * support snapshots
+     */
+    @DontInstrument
+    default T getSnapshot() {
+        return null;
+    }
+}
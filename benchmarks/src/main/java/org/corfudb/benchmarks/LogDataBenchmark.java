@@ -0,0 +1,77 @@
+package org.corfudb.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.corfudb.common.compression.Codec;
+import org.corfudb.protocols.logprotocol.SMREntry;
+import org.corfudb.protocols.wireprotocol.DataType;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.util.serializer.Serializers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization of a {@link LogData} carrying a single update,
+ * with each payload codec.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LogDataBenchmark {
+
+    @Param({"NONE", "LZ4", "ZSTD"})
+    private Codec.Type codec;
+
+    @Param({"128", "4096"})
+    private int payloadSize;
+
+    private SMREntry update;
+
+    private ByteBuf serializeBuffer;
+
+    private ByteBuf serialized;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        update = new SMREntry("put",
+                new Object[]{"key", Payloads.compressible(payloadSize)}, Serializers.PRIMITIVE);
+        serializeBuffer = Unpooled.buffer();
+        serialized = Unpooled.buffer();
+        new LogData(DataType.DATA, update, codec).doSerialize(serialized);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializeBuffer.release();
+        serialized.release();
+    }
+
+    @Benchmark
+    public ByteBuf serialize() {
+        serializeBuffer.clear();
+        new LogData(DataType.DATA, update, codec).doSerialize(serializeBuffer);
+        return serializeBuffer;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        serialized.readerIndex(0);
+        return new LogData(serialized).getPayload(null);
+    }
+}
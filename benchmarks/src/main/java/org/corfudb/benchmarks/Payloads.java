@@ -0,0 +1,35 @@
+package org.corfudb.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates the payloads used by the benchmarks, deterministically so that
+ * results can be compared across runs.
+ */
+final class Payloads {
+
+    private static final long SEED = 42L;
+
+    private static final byte[] ALPHABET =
+            "abcdefghijklmnopqrstuvwxyz0123456789 {}:,\"".getBytes();
+
+    private Payloads() {
+        // Prevent initializing a utility class
+    }
+
+    /**
+     * Returns a payload drawn from a small alphabet, which compresses roughly like
+     * the serialized records of a table.
+     *
+     * @param size payload size in bytes
+     * @return the payload
+     */
+    static byte[] compressible(int size) {
+        Random random = new Random(SEED);
+        byte[] payload = new byte[size];
+        for (int i = 0; i < size; i++) {
+            payload[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return payload;
+    }
+}
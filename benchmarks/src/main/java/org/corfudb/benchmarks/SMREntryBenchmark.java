@@ -0,0 +1,70 @@
+package org.corfudb.benchmarks;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.corfudb.protocols.logprotocol.SMREntry;
+import org.corfudb.util.serializer.Serializers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization and deserialization of a {@link SMREntry} through {@link Serializers#CORFU}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SMREntryBenchmark {
+
+    @Param({"128", "4096"})
+    private int payloadSize;
+
+    private SMREntry update;
+
+    private ByteBuf serializeBuffer;
+
+    private ByteBuf serialized;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        update = new SMREntry("put",
+                new Object[]{"key", Payloads.compressible(payloadSize)}, Serializers.PRIMITIVE);
+        serializeBuffer = Unpooled.buffer();
+        serialized = Unpooled.buffer();
+        Serializers.CORFU.serialize(update, serialized);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializeBuffer.release();
+        serialized.release();
+    }
+
+    @Benchmark
+    public ByteBuf serialize() {
+        serializeBuffer.clear();
+        Serializers.CORFU.serialize(update, serializeBuffer);
+        return serializeBuffer;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        serialized.readerIndex(0);
+        return Serializers.CORFU.deserialize(serialized, null);
+    }
+}
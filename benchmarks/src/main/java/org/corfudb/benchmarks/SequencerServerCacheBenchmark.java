@@ -0,0 +1,96 @@
+package org.corfudb.benchmarks;
+
+import org.corfudb.infrastructure.SequencerServerCache;
+import org.corfudb.infrastructure.SequencerServerCache.ConflictTxStream;
+import org.corfudb.runtime.view.Address;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflict key updates and lookups on a full {@link SequencerServerCache}, i.e., every new
+ * conflict key evicts the oldest ones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SequencerServerCacheBenchmark {
+
+    private static final int NUM_STREAMS = 100;
+
+    @Param({"250000"})
+    private int cacheSize;
+
+    /**
+     * Number of distinct conflict keys, relative to the cache size.
+     */
+    @Param({"2"})
+    private int keySpaceRatio;
+
+    private SequencerServerCache cache;
+
+    private ConflictTxStream[] conflictKeys;
+
+    private long version;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        UUID[] streams = new UUID[NUM_STREAMS];
+        for (int i = 0; i < NUM_STREAMS; i++) {
+            streams[i] = UUID.randomUUID();
+        }
+
+        conflictKeys = new ConflictTxStream[cacheSize * keySpaceRatio];
+        for (int i = 0; i < conflictKeys.length; i++) {
+            byte[] conflictParam = ByteBuffer.allocate(Integer.BYTES).putInt(i).array();
+            conflictKeys[i] = new ConflictTxStream(streams[i % NUM_STREAMS], conflictParam, Address.NON_ADDRESS);
+        }
+
+        cache = new SequencerServerCache(cacheSize, Address.NON_ADDRESS);
+        for (version = 0; version < cacheSize; version++) {
+            cache.put(randomKey(), version);
+        }
+    }
+
+    private ConflictTxStream randomKey() {
+        return conflictKeys[ThreadLocalRandom.current().nextInt(conflictKeys.length)];
+    }
+
+    @Benchmark
+    public boolean putEvict() {
+        return cache.put(randomKey(), version++);
+    }
+
+    @Benchmark
+    public Long get() {
+        return cache.get(randomKey());
+    }
+
+    @Benchmark
+    public SequencerServerCache invalidateUpTo() {
+        // Evict the oldest 1% of the window, then refill it.
+        long trimMark = cache.firstAddress() + cacheSize / 100;
+        cache.invalidateUpTo(trimMark);
+        while (cache.size() < cacheSize) {
+            cache.put(randomKey(), version++);
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,95 @@
+package org.corfudb.benchmarks;
+
+import org.corfudb.protocols.wireprotocol.StreamAddressRange;
+import org.corfudb.runtime.view.stream.StreamAddressSpace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operations on the address space of a stream, whose updates are interleaved with the
+ * updates of other streams (i.e., one in every {@code stride} global addresses).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StreamAddressSpaceBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int numAddresses;
+
+    @Param({"1", "10"})
+    private int stride;
+
+    private final UUID streamId = UUID.randomUUID();
+
+    private StreamAddressSpace addressSpace;
+
+    private long nextAddress;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        addressSpace = new StreamAddressSpace();
+        for (int i = 0; i < numAddresses; i++) {
+            addressSpace.addAddress((long) i * stride);
+        }
+        nextAddress = (long) numAddresses * stride;
+    }
+
+    @Benchmark
+    public StreamAddressSpace addAddress() {
+        addressSpace.addAddress(nextAddress);
+        nextAddress += stride;
+        return addressSpace;
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return addressSpace.contains(ThreadLocalRandom.current().nextLong(nextAddress));
+    }
+
+    @Benchmark
+    public long getTail() {
+        return addressSpace.getTail();
+    }
+
+    /**
+     * Reads the last 1000 updates of the stream, like a client syncing to the tail.
+     */
+    @Benchmark
+    public StreamAddressSpace getAddressesInRange() {
+        long end = nextAddress - 1000L * stride;
+        return addressSpace.getAddressesInRange(new StreamAddressRange(streamId, nextAddress, end));
+    }
+
+    @Benchmark
+    public StreamAddressSpace copy() {
+        return addressSpace.copy();
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        addressSpace.serialize(new DataOutputStream(bytes));
+        return bytes.size();
+    }
+}
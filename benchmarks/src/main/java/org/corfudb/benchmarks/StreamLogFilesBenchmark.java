@@ -0,0 +1,121 @@
+package org.corfudb.benchmarks;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import org.corfudb.infrastructure.ServerContext;
+import org.corfudb.infrastructure.log.StreamLogFiles;
+import org.corfudb.protocols.wireprotocol.DataType;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.protocols.wireprotocol.Token;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends to and reads from a {@link StreamLogFiles} in a temporary directory. Appends are
+ * not synced, so that the numbers reflect the log unit rather than the disk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class StreamLogFilesBenchmark {
+
+    /**
+     * Number of entries written before the read benchmarks start.
+     */
+    private static final int NUM_READ_ENTRIES = 100_000;
+
+    @Param({"512", "4096"})
+    private int payloadSize;
+
+    @Param({"false", "true"})
+    private boolean mmapReads;
+
+    private byte[] payload;
+
+    private EventLoopGroup eventLoopGroup;
+
+    private Path logDir;
+
+    private ServerContext serverContext;
+
+    private StreamLogFiles streamLog;
+
+    private long nextAddress;
+
+    /**
+     * Every iteration starts from an empty log, so that appends don't fill the disk.
+     */
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        payload = Payloads.compressible(payloadSize);
+        eventLoopGroup = new DefaultEventLoopGroup(1);
+        logDir = Files.createTempDirectory("corfu-benchmark");
+        serverContext = new ServerContext(ImmutableMap.<String, Object>builder()
+                .put("--log-path", logDir.toString())
+                .put("--memory", false)
+                .put("--single", true)
+                .put("--log-size-quota-percentage", "100.0")
+                .put("--implementation", "local")
+                .put("client", eventLoopGroup)
+                .put("worker", eventLoopGroup)
+                .put("--address", "localhost")
+                .put("<port>", "9000")
+                .build());
+        streamLog = new StreamLogFiles(serverContext, false, mmapReads);
+
+        for (nextAddress = 0; nextAddress < NUM_READ_ENTRIES; nextAddress++) {
+            streamLog.append(nextAddress, newEntry(nextAddress));
+        }
+        streamLog.sync(true);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        streamLog.close();
+        // The event loops are provided to the server context, which leaves them running.
+        eventLoopGroup.shutdownGracefully();
+        MoreFiles.deleteRecursively(logDir, RecursiveDeleteOption.ALLOW_INSECURE);
+    }
+
+    private LogData newEntry(long address) {
+        LogData entry = new LogData(DataType.DATA, Unpooled.wrappedBuffer(payload));
+        entry.useToken(new Token(0L, address));
+        return entry;
+    }
+
+    @Benchmark
+    public long append() {
+        long address = nextAddress++;
+        streamLog.append(address, newEntry(address));
+        return address;
+    }
+
+    @Benchmark
+    public LogData read() {
+        return streamLog.read(ThreadLocalRandom.current().nextLong(NUM_READ_ENTRIES));
+    }
+}
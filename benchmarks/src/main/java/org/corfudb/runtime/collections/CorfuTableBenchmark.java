@@ -0,0 +1,110 @@
+package org.corfudb.runtime.collections;
+
+import com.google.protobuf.Message;
+import org.corfudb.runtime.ExampleSchemas.ExampleValue;
+import org.corfudb.runtime.ExampleSchemas.ManagedMetadata;
+import org.corfudb.runtime.ExampleSchemas.NonPrimitiveNestedValue;
+import org.corfudb.runtime.ExampleSchemas.NonPrimitiveValue;
+import org.corfudb.runtime.ExampleSchemas.Uuid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates and lookups of a {@link CorfuTable} with the secondary indexes of a protobuf
+ * schema, maintained by {@link ProtobufIndexer} (which is why this benchmark lives in
+ * the collections package). The table is used directly, without the object layer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CorfuTableBenchmark {
+
+    private static final String INDEX_NAME = "anotherKey";
+
+    private static final String NESTED_INDEX_NAME = "key_1_level_1";
+
+    @Param({"100000"})
+    private int numKeys;
+
+    /**
+     * Number of records sharing the same secondary key.
+     */
+    @Param({"1", "100"})
+    private int indexFanOut;
+
+    private CorfuTable<Message, CorfuRecord<Message, Message>> table;
+
+    private Uuid[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        table = new CorfuTable<>(new ProtobufIndexer(ExampleValue.getDefaultInstance()));
+        keys = new Uuid[numKeys];
+        for (int i = 0; i < numKeys; i++) {
+            keys[i] = Uuid.newBuilder().setMsb(i).setLsb(i).build();
+            table.put(keys[i], newRecord(i, 0));
+        }
+    }
+
+    private CorfuRecord<Message, Message> newRecord(int key, long revision) {
+        ExampleValue value = ExampleValue.newBuilder()
+                .setPayload("payload-" + key)
+                .setAnotherKey(key / indexFanOut)
+                .setUuid(Uuid.newBuilder().setMsb(key).setLsb(revision).build())
+                .setEntryIndex(revision)
+                .setNonPrimitiveFieldLevel0(NonPrimitiveValue.newBuilder()
+                        .setKey1Level1(key / indexFanOut)
+                        .setKey2Level1(NonPrimitiveNestedValue.newBuilder()
+                                .setKey1Level2("nested-" + key)
+                                .setLevelNumber(2)))
+                .build();
+        ManagedMetadata metadata = ManagedMetadata.newBuilder().setRevision(revision).build();
+        return new CorfuRecord<>(value, metadata);
+    }
+
+    private int randomKey() {
+        return ThreadLocalRandom.current().nextInt(numKeys);
+    }
+
+    /**
+     * Overwrites a record, which moves it to a new entry of the {@code uuid} index.
+     */
+    @Benchmark
+    public CorfuRecord<Message, Message> put() {
+        int key = randomKey();
+        return table.put(keys[key], newRecord(key, System.nanoTime()));
+    }
+
+    @Benchmark
+    public CorfuRecord<Message, Message> get() {
+        return table.get(keys[randomKey()]);
+    }
+
+    @Benchmark
+    public Collection<Map.Entry<Message, CorfuRecord<Message, Message>>> getByIndex() {
+        return table.getByIndex(() -> INDEX_NAME, (long) (randomKey() / indexFanOut));
+    }
+
+    @Benchmark
+    public Collection<Map.Entry<Message, CorfuRecord<Message, Message>>> getByNestedIndex() {
+        return table.getByIndex(() -> NESTED_INDEX_NAME, (long) (randomKey() / indexFanOut));
+    }
+}
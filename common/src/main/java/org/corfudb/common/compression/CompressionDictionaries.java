@@ -0,0 +1,72 @@
+package org.corfudb.common.compression;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.LongFunction;
+
+/**
+ *
+ * A process-wide registry of the dictionaries used to compress payloads, indexed by dictionary id.
+ * Dictionaries that are not registered yet are resolved through the registered loaders (e.g.,
+ * the runtimes that persist them), since decoding sites don't always have access to a runtime.
+ *
+ */
+public final class CompressionDictionaries {
+
+    private static final Map<Long, ZSTDDictionaryCompression> dictionaries = new ConcurrentHashMap<>();
+
+    private static final Set<LongFunction<Optional<byte[]>>> loaders = new CopyOnWriteArraySet<>();
+
+    private CompressionDictionaries() {
+        // prevent instantiation of this class
+    }
+
+    /**
+     * Register a dictionary.
+     *
+     * @param dictionary dictionary content
+     * @return the codec for the dictionary
+     */
+    public static ZSTDDictionaryCompression register(byte[] dictionary) {
+        ZSTDDictionaryCompression codec = new ZSTDDictionaryCompression(dictionary);
+        ZSTDDictionaryCompression previous = dictionaries.putIfAbsent(codec.getDictionaryId(), codec);
+        return previous == null ? codec : previous;
+    }
+
+    /**
+     * Get the codec of a dictionary, loading it if it's not registered yet.
+     *
+     * @param dictionaryId dictionary id
+     * @return the codec for the dictionary
+     * @throws IllegalStateException if no loader knows the dictionary
+     */
+    public static Codec get(long dictionaryId) {
+        ZSTDDictionaryCompression codec = dictionaries.get(dictionaryId);
+        if (codec != null) {
+            return codec;
+        }
+
+        for (LongFunction<Optional<byte[]>> loader : loaders) {
+            Optional<byte[]> dictionary = loader.apply(dictionaryId);
+            if (dictionary.isPresent()) {
+                codec = register(dictionary.get());
+                if (codec.getDictionaryId() == dictionaryId) {
+                    return codec;
+                }
+            }
+        }
+
+        throw new IllegalStateException("Unknown compression dictionary " + Long.toHexString(dictionaryId));
+    }
+
+    public static void addLoader(LongFunction<Optional<byte[]>> loader) {
+        loaders.add(loader);
+    }
+
+    public static void removeLoader(LongFunction<Optional<byte[]>> loader) {
+        loaders.remove(loader);
+    }
+}
@@ -0,0 +1,129 @@
+package org.corfudb.common.compression;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.google.common.hash.Hashing;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ *
+ * An implementation of a ZSTD codec that compresses with a pre-trained dictionary.
+ * Small and similar payloads, which ZSTD can't compress well on their own, get
+ * much better ratios when the common content is provided by the dictionary.
+ * The buffer format is the same as {@link ZSTDCompression}.
+ *
+ */
+public class ZSTDDictionaryCompression implements Codec {
+
+    private static final int DEFAULT_COMPRESSION_LEVEL = 3;
+
+    /**
+     * The id of the dictionary, derived from its content so that the same
+     * dictionary has the same id across runtimes and clusters.
+     */
+    @Getter
+    private final long dictionaryId;
+
+    @Getter
+    private final byte[] dictionary;
+
+    private final ZstdDictCompress compressDictionary;
+
+    private final ZstdDictDecompress decompressDictionary;
+
+    public ZSTDDictionaryCompression(byte[] dictionary) {
+        Objects.requireNonNull(dictionary);
+        checkArgument(dictionary.length > 0);
+        this.dictionary = dictionary;
+        this.dictionaryId = getDictionaryId(dictionary);
+        this.compressDictionary = new ZstdDictCompress(dictionary, DEFAULT_COMPRESSION_LEVEL);
+        this.decompressDictionary = new ZstdDictDecompress(dictionary);
+    }
+
+    /**
+     * Compute the id of a dictionary.
+     *
+     * @param dictionary dictionary content
+     * @return dictionary id
+     */
+    public static long getDictionaryId(byte[] dictionary) {
+        return Hashing.murmur3_128().hashBytes(dictionary).asLong();
+    }
+
+    /**
+     * Train a dictionary from sample payloads.
+     *
+     * @param samples        uncompressed sample payloads
+     * @param dictionarySize maximum size of the dictionary, in bytes
+     * @return the trained dictionary
+     */
+    public static byte[] train(List<byte[]> samples, int dictionarySize) {
+        checkArgument(!samples.isEmpty());
+        int samplesSize = samples.stream().mapToInt(sample -> sample.length).sum();
+        ZstdDictTrainer trainer = new ZstdDictTrainer(samplesSize, dictionarySize);
+        samples.forEach(trainer::addSample);
+        return trainer.trainSamples();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     */
+    @Override
+    public ByteBuffer compress(ByteBuffer uncompressed) {
+        Objects.requireNonNull(uncompressed);
+        checkArgument(uncompressed.hasRemaining());
+
+        final int decompressedLength = uncompressed.remaining();
+        final int maxCompressedLength = (int) Zstd.compressBound(decompressedLength);
+
+        byte[] compressed = new byte[maxCompressedLength + Integer.BYTES];
+        ByteBuffer wrappedBuf = ByteBuffer.wrap(compressed);
+        wrappedBuf.putInt(decompressedLength);
+
+        long compressedLen = Zstd.compressFastDict(compressed, Integer.BYTES,
+                uncompressed.array(), uncompressed.position(), uncompressed.remaining(),
+                compressDictionary);
+
+        if (Zstd.isError(compressedLen)) {
+            throw new IllegalStateException("Compression failed with error code " + compressedLen);
+        }
+
+        wrappedBuf.position((int) compressedLen + Integer.BYTES);
+        wrappedBuf.flip();
+        return wrappedBuf;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     */
+    @Override
+    public ByteBuffer decompress(ByteBuffer compressed) {
+        Objects.requireNonNull(compressed);
+        checkArgument(compressed.remaining() > Integer.BYTES);
+
+        int decompressedSize = compressed.getInt();
+        byte[] restored = new byte[decompressedSize];
+        ByteBuffer wrappedBuf = ByteBuffer.wrap(restored);
+
+        long restoredBytes = Zstd.decompressFastDict(restored, 0,
+                compressed.array(), Integer.BYTES, compressed.remaining(), decompressDictionary);
+
+        if (Zstd.isError(restoredBytes)) {
+            throw new IllegalStateException("Decompression failed with error code " + restoredBytes);
+        }
+
+        wrappedBuf.position((int) restoredBytes);
+        wrappedBuf.flip();
+        return wrappedBuf;
+    }
+}
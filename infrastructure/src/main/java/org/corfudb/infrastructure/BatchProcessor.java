@@ -1,6 +1,7 @@
 package org.corfudb.infrastructure;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.TextFormat;
 import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +12,7 @@ import org.corfudb.protocols.CorfuProtocolLogData;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.protocols.wireprotocol.StreamsAddressResponse;
 import org.corfudb.protocols.wireprotocol.TailsResponse;
+import org.corfudb.runtime.exceptions.LogUnitException;
 import org.corfudb.runtime.exceptions.QuotaExceededException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
@@ -19,6 +21,7 @@ import org.corfudb.runtime.proto.service.CorfuMessage.RequestPayloadMsg;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
@@ -29,7 +32,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import static org.corfudb.protocols.CorfuProtocolLogData.getLogData;
+import static org.corfudb.protocols.CorfuProtocolLogData.getForwardableLogData;
 import static org.corfudb.runtime.proto.service.CorfuMessage.PriorityLevel;
 
 /**
@@ -45,6 +48,39 @@ public class BatchProcessor implements AutoCloseable {
     private final BlockingQueue<BatchWriterOperation> operationsQueue;
     private final ExecutorService processorService;
 
+    /**
+     * In group commit mode, batches are appended to the stream log by the processor thread,
+     * while the previous batch is synced and its operations are completed by the sync thread.
+     */
+    private final boolean groupCommit;
+    private final ExecutorService syncService;
+
+    /**
+     * Upper bound of the group commit batch size.
+     */
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Group commit target batch size, adapted to the depth of the operations queue. Note that
+     * a batch keeps growing (up to MAX_BATCH_SIZE) while the previous batch is being synced,
+     * therefore the effective batch size also follows the fsync latency.
+     */
+    private int groupCommitBatchSize;
+
+    /**
+     * The sync of the last batch handed to the sync thread.
+     */
+    private CompletableFuture<Void> inflightSync = CompletableFuture.completedFuture(null);
+
+    /**
+     * The first failure to sync the stream log. Once a sync fails the durability of the log
+     * is unknown, so the processor stops acknowledging operations: every operation that
+     * wasn't synced before the failure, and every following operation, is failed. Seals are
+     * still served so that the node can be reconfigured, and a reset clears the failure once
+     * the emptied log has been synced.
+     */
+    private volatile Throwable syncFailure = null;
+
     /**
      * The sealEpoch is the epoch up to which all operations have been sealed. Any
      * BatchWriterOperation arriving after the sealEpoch with an epoch less than the sealEpoch
@@ -61,17 +97,36 @@ public class BatchProcessor implements AutoCloseable {
      * @param sync      If true, the batch writer will sync writes to secondary storage
      */
     public BatchProcessor(StreamLog streamLog, long sealEpoch, boolean sync) {
+        this(streamLog, sealEpoch, sync, false);
+    }
+
+    /**
+     * Returns a new BatchProcessor for a stream log.
+     *
+     * @param streamLog   stream log for writes (can be in memory or file)
+     * @param sealEpoch   All operations stamped with epoch less than the epochWaterMark are discarded.
+     * @param sync        If true, the batch writer will sync writes to secondary storage
+     * @param groupCommit If true, batches are synced on a separate thread while the next batch is appended
+     */
+    public BatchProcessor(StreamLog streamLog, long sealEpoch, boolean sync, boolean groupCommit) {
         this.sealEpoch = sealEpoch;
         this.sync = sync;
         this.streamLog = streamLog;
+        this.groupCommit = groupCommit;
 
         BATCH_SIZE = 50;
+        groupCommitBatchSize = BATCH_SIZE;
         operationsQueue = new LinkedBlockingQueue<>();
         processorService = Executors
                 .newSingleThreadExecutor(new ThreadFactoryBuilder()
                         .setDaemon(false)
                         .setNameFormat("LogUnit-BatchProcessor-%d")
                         .build());
+        syncService = groupCommit ? Executors
+                .newSingleThreadExecutor(new ThreadFactoryBuilder()
+                        .setDaemon(false)
+                        .setNameFormat("LogUnit-BatchSync-%d")
+                        .build()) : null;
 
         processorService.submit(this::process);
     }
@@ -114,20 +169,8 @@ public class BatchProcessor implements AutoCloseable {
                 } else {
                     currentOp = operationsQueue.poll();
 
-                    if (currentOp == null || res.size() == BATCH_SIZE || currentOp == BatchWriterOperation.SHUTDOWN) {
-                        streamLog.sync(sync);
-                        if (log.isTraceEnabled()) {
-                            log.trace("batchWriteProcessor: completed {} operations", res.size());
-                        }
-                        // At this point we need to complete the requests
-                        // that completed successfully (i.e. haven't failed)
-                        for (BatchWriterOperation op : res) {
-                            if (!op.getFutureResult().isCompletedExceptionally()
-                                    && !op.getFutureResult().isCancelled()) {
-                                op.getFutureResult().complete(op.getResultValue());
-                            }
-                        }
-
+                    if (isBatchComplete(currentOp, res.size())) {
+                        completeBatch(res);
                         res.clear();
                     }
                 }
@@ -136,8 +179,15 @@ public class BatchProcessor implements AutoCloseable {
                     lastOp = null;
                 } else if (currentOp == BatchWriterOperation.SHUTDOWN) {
                     log.warn("batchWriteProcessor: shutting down the write processor");
-                    streamLog.sync(true);
+                    inflightSync.join();
+                    if (syncFailure == null) {
+                        streamLog.sync(true);
+                    }
                     break;
+                } else if (syncFailure != null && currentOp.getType() != Type.SEAL
+                        && currentOp.getType() != Type.RESET) {
+                    currentOp.getFutureResult().completeExceptionally(getSyncFailedException());
+                    lastOp = currentOp;
                 } else if (streamLog.quotaExceeded() &&
                         (currentOp.getRequest().getHeader().getPriority() != PriorityLevel.HIGH)) {
                     currentOp.getFutureResult().completeExceptionally(
@@ -168,18 +218,36 @@ public class BatchProcessor implements AutoCloseable {
                                 streamLog.prefixTrim(addr);
                                 break;
                             case WRITE:
-                                LogData logData = getLogData(payload.getWriteLogRequest().getLogData());
+                                LogData logData = getForwardableLogData(payload.getWriteLogRequest().getLogData());
                                 MicroMeterUtils.time(() -> streamLog.append(logData.getGlobalAddress(), logData),
                                         "logunit.write.timer", "type", "single");
                                 break;
                             case RANGE_WRITE:
                                 List<LogData> range = payload.getRangeWriteLogRequest().getLogDataList()
-                                        .stream().map(CorfuProtocolLogData::getLogData).collect(Collectors.toList());
+                                        .stream().map(CorfuProtocolLogData::getForwardableLogData).collect(Collectors.toList());
                                 MicroMeterUtils.time(() -> streamLog.append(range),
                                         "logunit.write.timer", "type", "range");
                                 break;
+                            case RAW_RANGE_WRITE:
+                                ByteString records = payload.getRawRangeWriteLogRequest().getRecords();
+                                MicroMeterUtils.time(() -> streamLog.appendRaw(records),
+                                        "logunit.write.timer", "type", "raw_range");
+                                break;
                             case RESET:
+                                if (groupCommit) {
+                                    // Batches that are still being synced have to complete before the reset
+                                    completeBatch(res);
+                                    res.clear();
+                                    inflightSync.join();
+                                }
                                 streamLog.reset();
+                                if (syncFailure != null) {
+                                    // The log is empty now, it can be acknowledged again once synced
+                                    streamLog.sync(true);
+                                    log.info("batchWriteProcessor: log reset after a sync failure, " +
+                                            "acknowledging operations again");
+                                    syncFailure = null;
+                                }
                                 break;
                             case TAILS_QUERY:
                                 final TailsResponse tails;
@@ -224,6 +292,125 @@ public class BatchProcessor implements AutoCloseable {
         }
     }
 
+    /**
+     * Checks whether the batch of operations applied so far should be synced and completed.
+     *
+     * @param nextOp     the next operation in the queue, or null if the queue is empty
+     * @param batchedOps number of operations applied in the current batch
+     * @return true if the current batch has to be completed before applying nextOp
+     */
+    private boolean isBatchComplete(BatchWriterOperation nextOp, int batchedOps) {
+        if (nextOp == null || nextOp == BatchWriterOperation.SHUTDOWN) {
+            return true;
+        }
+
+        if (!groupCommit) {
+            return batchedOps == BATCH_SIZE;
+        }
+
+        // While the previous batch is being synced, keep growing the current batch
+        return batchedOps >= MAX_BATCH_SIZE || (batchedOps >= groupCommitBatchSize && inflightSync.isDone());
+    }
+
+    /**
+     * Sync the operations of a batch to secondary storage and complete them. In group commit
+     * mode the batch is handed over to the sync thread, and the operations are completed after
+     * the sync completes, in the same order the batches were appended.
+     *
+     * @param batch the operations of the batch
+     */
+    private void completeBatch(List<BatchWriterOperation<?>> batch) {
+        if (!groupCommit) {
+            syncAndCompleteOperations(() -> streamLog.sync(sync), batch);
+            return;
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        adaptBatchSize(operationsQueue.size());
+        StreamLog.PendingSync pendingSync = streamLog.detachSync(sync);
+        List<BatchWriterOperation<?>> ops = new ArrayList<>(batch);
+        inflightSync = inflightSync.thenRunAsync(() -> syncAndCompleteOperations(pendingSync, ops),
+                syncService);
+    }
+
+    /**
+     * Sync the operations of a batch and complete them. If the sync fails, or a previous
+     * sync has failed, the operations are failed and the processor is sealed.
+     *
+     * @param pendingSync the sync of the batch
+     * @param batch       the operations of the batch
+     */
+    private void syncAndCompleteOperations(StreamLog.PendingSync pendingSync,
+                                           List<BatchWriterOperation<?>> batch) {
+        if (syncFailure != null) {
+            failOperations(batch, getSyncFailedException());
+            return;
+        }
+
+        try {
+            pendingSync.sync();
+        } catch (Exception e) {
+            log.error("batchWriteProcessor: failed to sync batch of {} operations, " +
+                    "not acknowledging any further operation", batch.size(), e);
+            syncFailure = e;
+            failOperations(batch, e);
+            return;
+        }
+        completeOperations(batch);
+    }
+
+    /**
+     * Fail the operations of a batch that can't be acknowledged because of a sync failure.
+     * A seal doesn't write to the stream log, so it is acknowledged regardless.
+     *
+     * @param batch the operations of the batch
+     * @param cause the sync failure
+     */
+    private void failOperations(List<BatchWriterOperation<?>> batch, Throwable cause) {
+        for (BatchWriterOperation<?> op : batch) {
+            if (op.getType() == Type.SEAL) {
+                completeOperations(Collections.singletonList(op));
+            } else {
+                op.getFutureResult().completeExceptionally(cause);
+            }
+        }
+    }
+
+    private LogUnitException getSyncFailedException() {
+        return new LogUnitException("Stream log sync failed, durability of the log is unknown", syncFailure);
+    }
+
+    /**
+     * Double the group commit batch size when operations queue up faster than they
+     * are committed, and halve it when the queue drains.
+     *
+     * @param queueDepth number of operations waiting in the queue
+     */
+    private void adaptBatchSize(int queueDepth) {
+        if (queueDepth > groupCommitBatchSize) {
+            groupCommitBatchSize = Math.min(groupCommitBatchSize * 2, MAX_BATCH_SIZE);
+        } else if (queueDepth < groupCommitBatchSize / 4) {
+            groupCommitBatchSize = Math.max(groupCommitBatchSize / 2, BATCH_SIZE);
+        }
+    }
+
+    private void completeOperations(List<BatchWriterOperation<?>> batch) {
+        if (log.isTraceEnabled()) {
+            log.trace("batchWriteProcessor: completed {} operations", batch.size());
+        }
+        // At this point we need to complete the requests
+        // that completed successfully (i.e. haven't failed)
+        for (BatchWriterOperation op : batch) {
+            if (!op.getFutureResult().isCompletedExceptionally()
+                    && !op.getFutureResult().isCancelled()) {
+                op.getFutureResult().complete(op.getResultValue());
+            }
+        }
+    }
+
     @Override
     public void close() {
         operationsQueue.add(BatchWriterOperation.SHUTDOWN);
@@ -231,6 +418,10 @@ public class BatchProcessor implements AutoCloseable {
         try {
             processorService.awaitTermination(ServerContext.SHUTDOWN_TIMER.toMillis(),
                     TimeUnit.MILLISECONDS);
+            if (syncService != null) {
+                // The processor thread waits for the in-flight syncs before terminating
+                syncService.shutdown();
+            }
         } catch (InterruptedException e) {
             throw new UnrecoverableCorfuInterruptedError("BatchProcessor close interrupted.", e);
         }
@@ -16,6 +16,7 @@ public class BatchWriterOperation<T> {
         SHUTDOWN,
         WRITE,
         RANGE_WRITE,
+        RAW_RANGE_WRITE,
         PREFIX_TRIM,
         SEAL,
         RESET,
@@ -53,13 +53,16 @@ public class CorfuServer {
                     + "[--plugin=<plugin-config-file-path>]"
                     + "[--base-server-threads=<base_server_threads>] "
                     + "[--log-size-quota-percentage=<max_log_size_percentage>]"
+                    + "[--mmap-reads] [--group-commit] [--serialized-log-entries] "
+                    + "[--sequencer-resolver-threads=<sequencer_resolver_threads>] "
                     + "[--logunit-threads=<logunit_threads>] [--management-server-threads=<management_server_threads>]"
                     + "[-e [-u <keystore> -f <keystore_password_file>] [-r <truststore> -w <truststore_password_file>] "
                     + "[-b] [-g -o <username_file> -j <password_file>] "
                     + "[-k <seqcache>] [-T <threads>] [-B <size>] [-i <channel-implementation>] "
                     + "[-H <seconds>] [-I <cluster-id>] [-x <ciphers>] [-z <tls-protocols>]] "
                     + "[--metrics]"
-                    + "[--snapshot-batch=<batch-size>] [--lock-lease=<lease-duration>]"
+                    + "[--snapshot-batch=<batch-size>] [--snapshot-sync-parallelism=<parallelism>] "
+                    + "[--lock-lease=<lease-duration>]"
                     + "[-P <prefix>] [-R <retention>] <port>\n"
                     + "\n"
                     + "Options:\n"
@@ -106,6 +109,10 @@ public class CorfuServer {
                     + "                                                                          "
                     + " -k <seqcache>, --sequencer-cache-size=<seqcache>                         "
                     + "               The size of the sequencer's cache. [default: 250000].\n    "
+                    + " --sequencer-resolver-threads=<sequencer_resolver_threads>                "
+                    + "              Number of threads preparing the conflict keys of transactions\n"
+                    + "              before the sequencer resolves them, defaults to the number of\n"
+                    + "              available processors.\n"
                     + " -B <size> --batch-size=<size>                                            "
                     + "              The read/write batch size used for data transfer operations [default: 100].\n"
                     + " -R <retention>, --metadata-retention=<retention>                         "
@@ -123,6 +130,15 @@ public class CorfuServer {
                     + "              Disable checksum computation and verification.\n"
                     + " -N, --no-sync                                                            "
                     + "              Disable syncing writes to secondary storage.\n"
+                    + " --mmap-reads                                                             "
+                    + "              Read sealed log segments through a memory mapping.\n"
+                    + " --group-commit                                                           "
+                    + "              Sync log unit writes on a separate thread, while the next\n"
+                    + "              batch of writes is appended.\n"
+                    + " --serialized-log-entries                                                 "
+                    + "              Persist log entries in their serialized form (log format\n"
+                    + "              version 3), which older log units can't read. Only enable it\n"
+                    + "              once all the log units of the cluster support it.\n"
                     + " -A, --no-auto-commit                                                     "
                     + "              Disable auto log commit.\n"
                     + " -e, --enable-tls                                                         "
@@ -171,6 +187,8 @@ public class CorfuServer {
                     + "              Enable metrics provider.\n                                  "
                     + " --snapshot-batch=<batch-size>                                            "
                     + "              Snapshot (Full) Sync batch size (number of entries)\n       "
+                    + " --snapshot-sync-parallelism=<parallelism>                                "
+                    + "              The number of streams read concurrently in snapshot sync.\n"
                     + " --max-replication-data-message-size=<msg-size>                                       "
                     + "              The max size of replication data message in bytes.\n   "
                     + " --lock-lease=<lease-duration>                                            "
@@ -32,6 +32,17 @@ public interface IServerRouter {
 
     void sendResponse(ResponseMsg response, ChannelHandlerContext ctx);
 
+    /**
+     * Send several responses on the same channel, flushing the channel once.
+     * Routers that can't defer flushes send each response separately.
+     *
+     * @param responses The responses to send, in order.
+     * @param ctx The context of the channel handler.
+     */
+    default void sendResponses(List<ResponseMsg> responses, ChannelHandlerContext ctx) {
+        responses.forEach(response -> sendResponse(response, ctx));
+    }
+
     /**
      * Get the current epoch.
      */
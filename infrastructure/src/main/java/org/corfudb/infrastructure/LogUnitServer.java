@@ -1,6 +1,8 @@
 package org.corfudb.infrastructure;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.TextFormat;
 import io.netty.channel.ChannelHandlerContext;
 import lombok.Builder;
@@ -28,21 +30,24 @@ import org.corfudb.runtime.proto.service.CorfuMessage.PriorityLevel;
 import org.corfudb.runtime.proto.service.CorfuMessage.RequestMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage.RequestPayloadMsg.PayloadCase;
 import org.corfudb.runtime.view.stream.StreamAddressSpace;
+import org.corfudb.util.CFUtils;
 import org.corfudb.util.Utils;
 
 import javax.annotation.Nonnull;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
-import static org.corfudb.protocols.CorfuProtocolLogData.getLogData;
+import static org.corfudb.protocols.CorfuProtocolLogData.getForwardableLogData;
 import static org.corfudb.protocols.CorfuProtocolServerErrors.getDataCorruptionErrorMsg;
 import static org.corfudb.protocols.CorfuProtocolServerErrors.getOverwriteErrorMsg;
 import static org.corfudb.protocols.CorfuProtocolServerErrors.getTrimmedErrorMsg;
@@ -56,6 +61,8 @@ import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getInspectAddre
 import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getKnownAddressResponseMsg;
 import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getLogAddressSpaceResponseMsg;
 import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getRangeWriteLogResponseMsg;
+import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getRawRangeWriteLogResponseMsg;
+import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getRawReadLogResponseMsg;
 import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getReadLogResponseMsg;
 import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getResetLogUnitResponseMsg;
 import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getTailResponseMsg;
@@ -87,6 +94,11 @@ import static org.corfudb.protocols.service.CorfuProtocolMessage.getResponseMsg;
 @Slf4j
 public class LogUnitServer extends AbstractServer {
 
+    /**
+     * Number of addresses of a read request that are read together.
+     */
+    private static final int READ_BATCH_SIZE = 32;
+
     /**
      * The options map.
      */
@@ -284,10 +296,12 @@ public class LogUnitServer extends AbstractServer {
      */
     @RequestHandler(type = PayloadCase.WRITE_LOG_REQUEST)
     private void handleWrite(RequestMsg req, ChannelHandlerContext ctx, IServerRouter router) {
-        LogData logData = getLogData(req.getPayload().getWriteLogRequest().getLogData());
+        LogData logData = getForwardableLogData(req.getPayload().getWriteLogRequest().getLogData());
 
-        log.debug("handleWrite: type: {}, address: {}, streams: {}",
-                logData.getType(), logData.getToken(), logData.getBackpointerMap());
+        if (log.isDebugEnabled()) {
+            log.debug("handleWrite: type: {}, address: {}, streams: {}",
+                    logData.getType(), logData.getToken(), logData.getBackpointerMap());
+        }
 
         // Its not clear that making all holes high priority is the right thing to do, but since
         // some reads will block until a hole is filled this is required (i.e. bypass quota checks)
@@ -315,10 +329,12 @@ public class LogUnitServer extends AbstractServer {
     @RequestHandler(type = PayloadCase.RANGE_WRITE_LOG_REQUEST)
     private void handleRangeWrite(RequestMsg req, ChannelHandlerContext ctx, IServerRouter router) {
         List<LogData> range = req.getPayload().getRangeWriteLogRequest().getLogDataList()
-                .stream().map(CorfuProtocolLogData::getLogData).collect(Collectors.toList());
+                .stream().map(CorfuProtocolLogData::getForwardableLogData).collect(Collectors.toList());
 
-        log.debug("handleRangeWrite: Writing {} entries [{}-{}]", range.size(),
-                range.get(0).getGlobalAddress(), range.get(range.size() - 1).getGlobalAddress());
+        if (log.isDebugEnabled()) {
+            log.debug("handleRangeWrite: Writing {} entries [{}-{}]", range.size(),
+                    range.get(0).getGlobalAddress(), range.get(range.size() - 1).getGlobalAddress());
+        }
 
         batchWriter.addTask(BatchWriterOperation.Type.RANGE_WRITE, req)
                 .thenRun(() -> router.sendResponse(getResponseMsg(getHeaderMsg(req.getHeader()),
@@ -329,6 +345,24 @@ public class LogUnitServer extends AbstractServer {
                 });
     }
 
+    /**
+     * Services incoming raw range write calls, i.e. range writes of records in the format they
+     * are persisted in, as served by a raw read on another log unit (used by state transfer).
+     */
+    @RequestHandler(type = PayloadCase.RAW_RANGE_WRITE_LOG_REQUEST)
+    private void handleRawRangeWrite(RequestMsg req, ChannelHandlerContext ctx, IServerRouter router) {
+        log.debug("handleRawRangeWrite: Writing {} bytes of records",
+                req.getPayload().getRawRangeWriteLogRequest().getRecords().size());
+
+        batchWriter.addTask(BatchWriterOperation.Type.RAW_RANGE_WRITE, req)
+                .thenRun(() -> router.sendResponse(getResponseMsg(getHeaderMsg(req.getHeader()),
+                        getRawRangeWriteLogResponseMsg()), ctx))
+                .exceptionally(ex -> {
+                    handleException(ex, ctx, req, router);
+                    return null;
+                });
+    }
+
     /**
      * Perform a prefix trim (trim log).
      * Here the token is not used to perform the trim as the epoch at which the checkpoint was completed
@@ -354,33 +388,103 @@ public class LogUnitServer extends AbstractServer {
                 });
     }
 
+    /**
+     * Services read requests. The requested addresses are split in batches: the first batch is
+     * read on the handler thread, while the others are fanned out across the executor. The cache
+     * misses of a batch are retrieved from the stream log at once, which reads the records that
+     * are adjacent on disk together.
+     */
     @RequestHandler(type = PayloadCase.READ_LOG_REQUEST)
     private void handleRead(RequestMsg req, ChannelHandlerContext ctx, IServerRouter router) {
         final boolean cacheable = req.getPayload().getReadLogRequest().getCacheResults();
         final List<Long> addressList = req.getPayload().getReadLogRequest().getAddressList();
-        final ReadResponse readResponse = new ReadResponse();
 
         if (log.isTraceEnabled()) {
             log.trace("handleRead: {}, cacheable: {}", addressList, cacheable);
         }
 
-        for (long address : addressList) {
+        List<List<Long>> batches = Lists.partition(addressList, READ_BATCH_SIZE);
+        List<CompletableFuture<Map<Long, ILogData>>> reads = new ArrayList<>(batches.size());
+        for (int i = 1; i < batches.size(); i++) {
+            List<Long> batch = batches.get(i);
+            reads.add(CompletableFuture.supplyAsync(() -> dataCache.getAll(batch, cacheable), executor));
+        }
+        if (!batches.isEmpty()) {
+            CompletableFuture<Map<Long, ILogData>> firstRead = new CompletableFuture<>();
             try {
-                ILogData logData = dataCache.get(address, cacheable);
+                firstRead.complete(dataCache.getAll(batches.get(0), cacheable));
+            } catch (RuntimeException re) {
+                firstRead.completeExceptionally(re);
+            }
+            reads.add(firstRead);
+        }
+
+        CFUtils.sequence(reads).thenAccept(results -> {
+            final ReadResponse readResponse = new ReadResponse();
+            Map<Long, ILogData> entries = new HashMap<>();
+            results.forEach(entries::putAll);
+            for (long address : addressList) {
+                ILogData logData = entries.get(address);
                 if (logData == null) {
                     readResponse.put(address, LogData.getEmpty(address));
                 } else {
                     readResponse.put(address, (LogData) logData);
                 }
+            }
+
+            router.sendResponse(getResponseMsg(getHeaderMsg(req.getHeader()),
+                    getReadLogResponseMsg(readResponse.getAddresses())), ctx);
+        }).exceptionally(ex -> {
+            if (ex.getCause() instanceof DataCorruptionException) {
+                log.error("handleRead: Data corruption exception while reading addresses {}", addressList, ex);
+                router.sendResponse(getResponseMsg(getHeaderMsg(req.getHeader()),
+                        getDataCorruptionErrorMsg(getCorruptedAddress(addressList, cacheable))), ctx);
+            } else {
+                handleException(ex, ctx, req, router);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Reads the addresses one by one, to find out which one failed a batched read
+     * because of data corruption.
+     *
+     * @return the first corrupted address, or the first address if none is corrupted anymore
+     */
+    private long getCorruptedAddress(List<Long> addressList, boolean cacheable) {
+        for (long address : addressList) {
+            try {
+                dataCache.get(address, cacheable);
             } catch (DataCorruptionException dce) {
-                log.error("handleRead: Data corruption exception while reading addresses {}", addressList, dce);
-                router.sendResponse(getResponseMsg(getHeaderMsg(req.getHeader()), getDataCorruptionErrorMsg(address)), ctx);
-                return;
+                return address;
             }
         }
+        return addressList.get(0);
+    }
 
-        router.sendResponse(getResponseMsg(getHeaderMsg(req.getHeader()),
-                getReadLogResponseMsg(readResponse.getAddresses())), ctx);
+    /**
+     * Services raw read requests, which serve the persisted records of the requested addresses
+     * without deserializing them, bypassing the cache (used by state transfer).
+     */
+    @RequestHandler(type = PayloadCase.RAW_READ_LOG_REQUEST)
+    private void handleRawRead(RequestMsg req, ChannelHandlerContext ctx, IServerRouter router) {
+        final List<Long> addressList = req.getPayload().getRawReadLogRequest().getAddressList();
+
+        if (log.isTraceEnabled()) {
+            log.trace("handleRawRead: {}", addressList);
+        }
+
+        try {
+            ByteString records = streamLog.readRaw(addressList);
+            router.sendResponse(getResponseMsg(getHeaderMsg(req.getHeader()),
+                    getRawReadLogResponseMsg(records)), ctx);
+        } catch (TrimmedException te) {
+            router.sendResponse(getResponseMsg(getHeaderMsg(req.getHeader()), getTrimmedErrorMsg()), ctx);
+        } catch (Exception e) {
+            log.warn("handleRawRead: failed to read addresses {}", addressList, e);
+            router.sendResponse(getResponseMsg(getHeaderMsg(req.getHeader()), getUnknownErrorMsg(e)), ctx);
+        }
     }
 
     @RequestHandler(type = PayloadCase.INSPECT_ADDRESSES_REQUEST)
@@ -564,10 +668,15 @@ public class LogUnitServer extends AbstractServer {
     @Getter
     public static class LogUnitServerConfig {
         private final double cacheSizeHeapRatio;
+        // Approximate bound, in bytes, on the cached entries, weighed by their serialized size
         private final long maxCacheSize;
         private final boolean memoryMode;
         private final boolean noVerify;
         private final boolean noSync;
+        private final boolean mmapReads;
+        private final boolean groupCommit;
+        // Persist entries in their serialized form, in segments of the latest log format version
+        private final boolean serializedEntries;
 
         /**
          * Parse legacy configuration options
@@ -584,6 +693,9 @@ public class LogUnitServer extends AbstractServer {
                     .memoryMode(Boolean.parseBoolean(opts.get("--memory").toString()))
                     .noVerify((Boolean) opts.get("--no-verify"))
                     .noSync((Boolean) opts.get("--no-sync"))
+                    .mmapReads(Boolean.TRUE.equals(opts.get("--mmap-reads")))
+                    .groupCommit(Boolean.TRUE.equals(opts.get("--group-commit")))
+                    .serializedEntries(Boolean.TRUE.equals(opts.get("--serialized-log-entries")))
                     .build();
         }
     }
@@ -600,7 +712,8 @@ public class LogUnitServer extends AbstractServer {
 
         StreamLog buildStreamLog(@Nonnull LogUnitServerConfig config,
                                  @Nonnull ServerContext serverContext) {
-            return new StreamLogFiles(serverContext, config.isNoVerify());
+            return new StreamLogFiles(serverContext, config.isNoVerify(), config.isMmapReads(),
+                    config.isNoSync(), config.isSerializedEntries());
         }
 
         LogUnitServerCache buildLogUnitServerCache(@Nonnull LogUnitServerConfig config,
@@ -611,7 +724,8 @@ public class LogUnitServer extends AbstractServer {
         BatchProcessor buildBatchProcessor(@Nonnull LogUnitServerConfig config,
                                            @Nonnull StreamLog streamLog,
                                            @Nonnull ServerContext serverContext) {
-            return new BatchProcessor(streamLog, serverContext.getServerEpoch(), !config.isNoSync());
+            return new BatchProcessor(streamLog, serverContext.getServerEpoch(), !config.isNoSync(),
+                    config.isGroupCommit());
         }
 
         StreamLogCompaction buildStreamLogCompaction(@Nonnull StreamLog streamLog) {
@@ -1,9 +1,12 @@
 package org.corfudb.infrastructure;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Tags;
@@ -11,15 +14,17 @@ import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.common.metrics.micrometer.MeterRegistryProvider;
 import org.corfudb.common.metrics.micrometer.MicroMeterUtils;
-import org.corfudb.common.util.Memory;
 import org.corfudb.infrastructure.LogUnitServer.LogUnitServerConfig;
 import org.corfudb.infrastructure.log.StreamLog;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.LogData;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static java.lang.Math.toIntExact;
 
@@ -56,7 +61,17 @@ public class LogUnitServerCache {
                 .recordStats()
                 .executor(Runnable::run)
                 .removalListener(this::handleEviction)
-                .build(this::handleRetrieval);
+                .build(new CacheLoader<Long, ILogData>() {
+                    @Override
+                    public ILogData load(Long address) {
+                        return handleRetrieval(address);
+                    }
+
+                    @Override
+                    public Map<Long, ILogData> loadAll(Iterable<? extends Long> addresses) {
+                        return handleBulkRetrieval(ImmutableList.copyOf(addresses));
+                    }
+                });
 
         MeterRegistryProvider.getInstance().ifPresent(registry ->
                 CaffeineCacheMetrics.monitor(registry, dataCache, "logunit.read_cache"));
@@ -74,13 +89,22 @@ public class LogUnitServerCache {
     }
 
     private int getLogDataTotalSize(ILogData logData) {
-        if (logData.getStreams().size() > MAX_STREAM_THRESHOLD) {
+        // Entries read back in their serialized form aren't deserialized to count their streams,
+        // they were counted when they were written.
+        boolean deserialized = !(logData instanceof LogData) || ((LogData) logData).isMetadataDeserialized();
+        if (deserialized && logData.getStreams().size() > MAX_STREAM_THRESHOLD) {
             log.warn("Number of streams in this data is higher that threshold {}." +
                 "This may impact the server performance", MAX_STREAM_THRESHOLD);
         }
 
-        long result = Math.addExact(logData.getSizeEstimate(), (Memory.sizeOf.deepSizeOf(logData.getMetadataMap())));
-        return toIntExact(Math.addExact(result, KEY_SIZE));
+        // An entry kept in its serialized form weighs the size of that form. Otherwise the serialized
+        // size estimate is computed once per entry, rather than walking the object graph. The log unit
+        // doesn't deserialize payloads, so it is close to the heap used by the entry, but the maximum
+        // cache size remains an approximate bound.
+        ByteString serializedEntry = logData instanceof LogData ? ((LogData) logData).getSerializedEntry() : null;
+        long size = (serializedEntry != null ? serializedEntry.size() : logData.getSerializedSizeEstimate())
+                + KEY_SIZE;
+        return toIntExact(size);
     }
 
     /**
@@ -99,6 +123,19 @@ public class LogUnitServerCache {
         return entry;
     }
 
+    /**
+     * Retrieves the LogUnitEntries of several addresses from disk at once.
+     *
+     * @param addresses the addresses to retrieve the entries from
+     * @return the log unit entries of the addresses that are written
+     */
+    private Map<Long, ILogData> handleBulkRetrieval(List<Long> addresses) {
+        Map<Long, LogData> entries = MicroMeterUtils.time(() -> streamLog.readAll(addresses),
+                "logunit.read_all.timer");
+        log.trace("handleBulkRetrieval: Retrieved {} of {} addresses", entries.size(), addresses.size());
+        return new HashMap<>(entries);
+    }
+
     private void handleEviction(long address, ILogData entry, RemovalCause cause) {
         if (log.isTraceEnabled()) {
             log.trace("handleEviction: Eviction[{}]: {}", address, cause);
@@ -124,6 +161,31 @@ public class LogUnitServerCache {
         return dataCache.get(address);
     }
 
+    /**
+     * Returns the log entries of several addresses from the cache, and retrieves the ones
+     * missing from the cache from the underlying storage at once.
+     * <p>
+     * If the log entries are not cacheable, the retrieved entries will not be cached.
+     *
+     * @param addresses the addresses of the log entries to retrieve
+     * @param cacheable if the log entries should be cached when retrieved from underlying storage
+     * @return the log entries of the addresses that are written
+     */
+    public Map<Long, ILogData> getAll(List<Long> addresses, boolean cacheable) {
+        if (!cacheable) {
+            Map<Long, ILogData> entries = new HashMap<>(dataCache.getAllPresent(addresses));
+            List<Long> misses = addresses.stream()
+                    .filter(address -> !entries.containsKey(address))
+                    .collect(Collectors.toList());
+            if (!misses.isEmpty()) {
+                entries.putAll(handleBulkRetrieval(misses));
+            }
+            return entries;
+        }
+
+        return dataCache.getAll(addresses);
+    }
+
     /**
      * Returns the log entry form the cache or retrieves it from the underlying storage.
      *
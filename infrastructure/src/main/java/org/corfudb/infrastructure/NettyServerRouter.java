@@ -107,6 +107,18 @@ public class NettyServerRouter extends ChannelInboundHandlerAdapter implements I
         }
     }
 
+    @Override
+    public void sendResponses(List<ResponseMsg> responses, ChannelHandlerContext ctx) {
+        for (ResponseMsg response : responses) {
+            ctx.write(response, ctx.voidPromise());
+
+            if (log.isTraceEnabled()) {
+                log.trace("Sent response: {}", TextFormat.shortDebugString(response));
+            }
+        }
+        ctx.flush();
+    }
+
     @Override
     public Optional<Layout> getCurrentLayout() {
         return Optional.ofNullable(serverContext.getCurrentLayout());
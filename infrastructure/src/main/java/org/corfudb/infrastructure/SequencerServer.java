@@ -1,6 +1,7 @@
 package org.corfudb.infrastructure;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableMap;
 import com.google.protobuf.TextFormat;
 import io.micrometer.core.instrument.Meter;
@@ -13,7 +14,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.corfudb.common.metrics.micrometer.MeterRegistryProvider;
 import org.corfudb.common.metrics.micrometer.MicroMeterUtils;
 import org.corfudb.infrastructure.SequencerServerCache.ConflictTxStream;
-import org.corfudb.protocols.CorfuProtocolCommon;
 import org.corfudb.protocols.service.CorfuProtocolMessage.ClusterIdCheck;
 import org.corfudb.protocols.service.CorfuProtocolMessage.EpochCheck;
 import org.corfudb.protocols.wireprotocol.SequencerMetrics;
@@ -38,14 +38,22 @@ import org.corfudb.runtime.view.stream.StreamAddressSpace;
 import org.corfudb.util.Utils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -53,6 +61,7 @@ import static org.corfudb.protocols.CorfuProtocolCommon.getStreamAddressRange;
 import static org.corfudb.protocols.CorfuProtocolCommon.getStreamAddressSpace;
 import static org.corfudb.protocols.CorfuProtocolCommon.getStreamsAddressResponseMsg;
 import static org.corfudb.protocols.CorfuProtocolCommon.getUUID;
+import static org.corfudb.protocols.CorfuProtocolServerErrors.getUnknownErrorMsg;
 import static org.corfudb.protocols.CorfuProtocolTxResolution.getTxResolutionInfo;
 import static org.corfudb.protocols.service.CorfuProtocolMessage.getHeaderMsg;
 import static org.corfudb.protocols.service.CorfuProtocolMessage.getResponseMsg;
@@ -97,6 +106,11 @@ import static org.corfudb.protocols.service.CorfuProtocolSequencer.getTokenRespo
  * commits, the sequencer updates the tails of all the streams and the cache
  * of conflict parameters.
  *
+ * <p>The resolution of a transaction is split in two stages: the conflict-set and
+ * write-set are decoded and their conflict keys are hashed in parallel by a pool
+ * of resolver threads, then the conflict keys are checked and the tokens are
+ * allocated, in order, by the single sequencer thread.
+ *
  * <p>Created by mwei on 12/8/15.
  */
 @Slf4j
@@ -121,7 +135,7 @@ public class SequencerServer extends AbstractServer {
      * - {@link SequencerServer::streamTailToGlobalTailMap}:
      * per streams map to last issued global-log position. used for backpointers.
      */
-    private Map<UUID, Long> streamTailToGlobalTailMap;
+    private StreamTailMap streamTailToGlobalTailMap;
 
     private final SequencerServerInitializer sequencerFactoryHelper;
 
@@ -149,6 +163,31 @@ public class SequencerServer extends AbstractServer {
 
     private final ExecutorService executor;
 
+    /**
+     * Prepares the conflict keys of transactions before they are resolved by the sequencer thread.
+     */
+    private final ExecutorService resolverExecutor;
+
+    /**
+     * The maximum number of requests served in one pass of the sequencer thread.
+     */
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Requests waiting to be served by the sequencer thread, in arrival order.
+     */
+    private final Queue<PendingRequest> pendingRequests = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Whether a pass over the pending requests has been submitted to the sequencer thread.
+     */
+    private final AtomicBoolean requestsScheduled = new AtomicBoolean();
+
+    /**
+     * The addresses allocated to each stream by the current batch of token requests.
+     */
+    private final Map<UUID, AddressRanges> pendingStreamAddresses = new HashMap<>();
+
     /**
      * - {@link SequencerServer::globalLogTail}:
      * global log first available position (initially, 0).
@@ -189,6 +228,8 @@ public class SequencerServer extends AbstractServer {
 
         // Sequencer server is single threaded by current design
         executor = serverContext.getExecutorService(1, "sequencer-");
+        resolverExecutor = serverContext.getExecutorService(config.getResolverThreads(),
+                "sequencer-resolver-");
 
         globalLogTail = sequencerFactoryHelper.getGlobalLogTail();
         cache = sequencerFactoryHelper.getSequencerServerCache(
@@ -201,12 +242,27 @@ public class SequencerServer extends AbstractServer {
 
     @Override
     protected void processRequest(RequestMsg req, ChannelHandlerContext ctx, IServerRouter r) {
-        executor.submit(() -> getHandlerMethods().handle(req, ctx, r));
+        if (req.getPayload().getPayloadCase() == PayloadCase.TOKEN_REQUEST) {
+            // The token request handler only queues the request, run it on the calling thread
+            // so that the conflict keys of a transaction are prepared as early as possible.
+            getHandlerMethods().handle(req, ctx, r);
+            return;
+        }
+        enqueueRequest(new PendingRequest(req, null, ctx, r));
+    }
+
+    /**
+     * Returns the response to a request that failed with an unhandled exception.
+     */
+    private static ResponseMsg getUnknownErrorResponse(RequestMsg req, Throwable cause) {
+        HeaderMsg responseHeader = getHeaderMsg(req.getHeader(), ClusterIdCheck.CHECK, EpochCheck.IGNORE);
+        return getResponseMsg(responseHeader, getUnknownErrorMsg(cause));
     }
 
     @Override
     public void shutdown() {
         super.shutdown();
+        resolverExecutor.shutdown();
         executor.shutdown();
     }
 
@@ -246,14 +302,15 @@ public class SequencerServer extends AbstractServer {
      * If the request submits a timestamp (a global offset) that is less than one of the
      * global offsets of a streams specified in the request, then abort; otherwise commit.
      *
-     * @param txInfo info provided by corfuRuntime for conflict resolution:
+     * @param txConflictKeys info provided by corfuRuntime for conflict resolution:
      *               - timestamp : the snapshot (global) offset that this TX reads
      *               - conflictSet: conflict set of the txn.
      *               if any conflict-param (or stream, if empty) in this set has a later
      *               timestamp than the snapshot, abort
      * @return an instance of transaction resolution response
      */
-    private TxResolutionResponse txnCanCommit(TxResolutionInfo txInfo) {
+    private TxResolutionResponse txnCanCommit(TxConflictKeys txConflictKeys) {
+        final TxResolutionInfo txInfo = txConflictKeys.txInfo;
         if (log.isTraceEnabled()) {
             log.trace("Commit-req[{}]", txInfo);
         }
@@ -276,16 +333,17 @@ public class SequencerServer extends AbstractServer {
             return new TxResolutionResponse(TokenType.TX_ABORT_SEQ_TRIM);
         }
         MicroMeterUtils.measure(txInfo.getConflictSet().size(), "sequencer.tx-resolution.num_streams");
-        for (Map.Entry<UUID, Set<byte[]>> conflictStream : txInfo.getConflictSet().entrySet()) {
+        for (Map.Entry<UUID, List<ConflictTxStream>> conflictStream :
+                txConflictKeys.conflictKeys.entrySet()) {
 
             // if conflict-parameters are present, check for conflict based on conflict-parameter
             // updates
-            Set<byte[]> conflictParamSet = conflictStream.getValue();
+            List<ConflictTxStream> conflictKeys = conflictStream.getValue();
             //check for conflict based on streams updates
-            if (conflictParamSet == null || conflictParamSet.isEmpty()) {
+            if (conflictKeys.isEmpty()) {
                 UUID streamId = conflictStream.getKey();
-                Long sequence = streamTailToGlobalTailMap.get(streamId);
-                if (sequence != null && sequence > txSnapshotTimestamp.getSequence()) {
+                long sequence = streamTailToGlobalTailMap.get(streamId);
+                if (sequence != Address.NON_EXIST && sequence > txSnapshotTimestamp.getSequence()) {
                     log.debug("ABORT[{}] conflict-stream[{}](ts={})",
                             txInfo, Utils.toReadableId(streamId), sequence);
                     return new TxResolutionResponse(TokenType.TX_ABORT_CONFLICT);
@@ -294,10 +352,10 @@ public class SequencerServer extends AbstractServer {
             }
 
             // for each key pair, check for conflict; if not present, check against the wildcard
-            for (byte[] conflictParam : conflictParamSet) {
+            for (ConflictTxStream conflictKey : conflictKeys) {
 
-                Long keyAddress = cache.get(new ConflictTxStream(conflictStream.getKey(),
-                        conflictParam, Address.NON_ADDRESS));
+                final byte[] conflictParam = conflictKey.getConflictParam();
+                final long keyAddress = cache.get(conflictKey);
 
                 if (log.isTraceEnabled()){
                     log.trace("Commit-ck[{}] conflict-key[{}](ts={})",
@@ -349,15 +407,11 @@ public class SequencerServer extends AbstractServer {
      * log and/or streams without changing/allocating anything.
      *
      * @param req corfu message containing token query
-     * @param ctx netty ChannelHandlerContext
-     * @param r   server router
+     * @return the token response
      */
-    private void handleTokenQuery(RequestMsg req, ChannelHandlerContext ctx, IServerRouter r) {
+    private ResponseMsg handleTokenQuery(RequestMsg req) {
         final TokenRequestMsg tokenRequest = req.getPayload().getTokenRequest();
-        final List<UUID> streams = tokenRequest.getStreamsList()
-                .stream()
-                .map(CorfuProtocolCommon::getUUID)
-                .collect(Collectors.toList());
+        final List<UuidMsg> streams = tokenRequest.getStreamsList();
 
         Map<UUID, Long> streamTails;
         Token token;
@@ -371,9 +425,9 @@ public class SequencerServer extends AbstractServer {
             // and the tail queries are stored in streamTails
             token = new Token(sequencerEpoch, globalLogTail - 1);
             streamTails = new HashMap<>(streams.size());
-            for (UUID stream : streams) {
-                streamTails.put(stream,
-                        streamTailToGlobalTailMap.getOrDefault(stream, Address.NON_EXIST));
+            for (UuidMsg stream : streams) {
+                streamTails.put(getUUID(stream),
+                        streamTailToGlobalTailMap.get(stream.getMsb(), stream.getLsb()));
             }
         }
 
@@ -389,7 +443,7 @@ public class SequencerServer extends AbstractServer {
                         streamTails)
         );
 
-        r.sendResponse(response, ctx);
+        return response;
     }
 
     @RequestHandler(type = PayloadCase.SEQUENCER_TRIM_REQUEST)
@@ -497,12 +551,12 @@ public class SequencerServer extends AbstractServer {
             );
 
             // Clear the existing map as it could have been populated by an earlier reset.
-            streamTailToGlobalTailMap = new HashMap<>();
+            streamTailToGlobalTailMap = new StreamTailMap(addressSpaceMap.size());
 
             // Set tail for every stream
             for (Map.Entry<UUID, StreamAddressSpace> streamAddressSpace :
                     addressSpaceMap.entrySet()) {
-                Long streamTail = streamAddressSpace.getValue().getTail();
+                long streamTail = streamAddressSpace.getValue().getTail();
                 if (log.isTraceEnabled()) {
                     log.trace("On Sequencer reset, tail for stream {} set to {}",
                             streamAddressSpace.getKey(), streamTail);
@@ -565,12 +619,122 @@ public class SequencerServer extends AbstractServer {
     }
 
     /**
-     * Service an incoming token request.
+     * Service an incoming token request. The request is queued behind the requests received
+     * before it, the conflict keys of a transaction are prepared on the resolver pool meanwhile.
      */
     @RequestHandler(type = PayloadCase.TOKEN_REQUEST)
     public void tokenRequest(@Nonnull RequestMsg req,
                              @Nonnull ChannelHandlerContext ctx,
                              @Nonnull IServerRouter r) {
+        final TokenRequestMsg tokenRequest = req.getPayload().getTokenRequest();
+        CompletableFuture<TxConflictKeys> txConflictKeys = null;
+        if (tokenRequest.getRequestType() == TokenRequestMsg.TokenRequestType.TK_TX) {
+            txConflictKeys = CompletableFuture.supplyAsync(() -> TxConflictKeys.of(tokenRequest),
+                    resolverExecutor);
+        }
+        enqueueRequest(new PendingRequest(req, txConflictKeys, ctx, r));
+    }
+
+    /**
+     * Queues a request to be served by the sequencer thread after the requests received before it.
+     */
+    private void enqueueRequest(PendingRequest request) {
+        pendingRequests.add(request);
+        if (requestsScheduled.compareAndSet(false, true)) {
+            executor.submit(this::drainRequests);
+        }
+    }
+
+    /**
+     * Serves the queued requests (up to {@link #MAX_BATCH_SIZE}) in arrival order. Consecutive
+     * token requests are served as one batch, any other request is served once the token
+     * requests received before it have been answered.
+     */
+    private void drainRequests() {
+        // Requests queued from now on either make it in this pass or schedule the next one.
+        requestsScheduled.set(false);
+
+        List<PendingRequest> batch = new ArrayList<>();
+        try {
+            PendingRequest request;
+            int served = 0;
+            while (served++ < MAX_BATCH_SIZE && (request = pendingRequests.poll()) != null) {
+                if (request.isTokenRequest()) {
+                    batch.add(request);
+                    continue;
+                }
+
+                if (!batch.isEmpty()) {
+                    handleTokenRequests(batch);
+                    batch = new ArrayList<>();
+                }
+                getHandlerMethods().handle(request.req, request.ctx, request.router);
+            }
+
+            if (!batch.isEmpty()) {
+                handleTokenRequests(batch);
+            }
+        } finally {
+            if (!pendingRequests.isEmpty() && requestsScheduled.compareAndSet(false, true)) {
+                executor.submit(this::drainRequests);
+            }
+        }
+    }
+
+    /**
+     * Serves a batch of token requests in order. The addresses allocated to each stream are
+     * added to the stream address maps once for the whole batch, and the responses to requests
+     * received on the same channel are flushed together.
+     *
+     * @param batch token requests, in the order they are served
+     */
+    private void handleTokenRequests(List<PendingRequest> batch) {
+        MicroMeterUtils.measure(batch.size(), "sequencer.token.batch-size");
+        Map<ChannelHandlerContext, List<ResponseMsg>> responses = new LinkedHashMap<>();
+        Map<ChannelHandlerContext, IServerRouter> routers = new HashMap<>();
+
+        try {
+            for (PendingRequest request : batch) {
+                try {
+                    ResponseMsg response = handleTokenRequest(request);
+                    responses.computeIfAbsent(request.ctx, ctx -> new ArrayList<>()).add(response);
+                } catch (Exception e) {
+                    log.error("handleTokenRequests: Unhandled exception processing {}",
+                            TextFormat.shortDebugString(request.req.getHeader()), e);
+                    responses.computeIfAbsent(request.ctx, ctx -> new ArrayList<>())
+                            .add(getUnknownErrorResponse(request.req, e));
+                }
+                routers.putIfAbsent(request.ctx, request.router);
+            }
+        } finally {
+            // The allocated addresses must be visible before the tokens are handed out.
+            try {
+                flushPendingStreamAddresses();
+            } catch (Exception e) {
+                log.error("handleTokenRequests: Unhandled exception updating the stream address maps " +
+                        "of a batch of {} token requests", batch.size(), e);
+                // None of the tokens of the batch can be handed out, fail every request instead.
+                responses.clear();
+                for (PendingRequest request : batch) {
+                    responses.computeIfAbsent(request.ctx, ctx -> new ArrayList<>())
+                            .add(getUnknownErrorResponse(request.req, e));
+                    routers.putIfAbsent(request.ctx, request.router);
+                }
+            }
+        }
+
+        responses.forEach((ctx, channelResponses) -> {
+            IServerRouter r = routers.get(ctx);
+            if (channelResponses.size() == 1) {
+                r.sendResponse(channelResponses.get(0), ctx);
+            } else {
+                r.sendResponses(channelResponses, ctx);
+            }
+        });
+    }
+
+    private ResponseMsg handleTokenRequest(PendingRequest request) {
+        final RequestMsg req = request.req;
         if (log.isTraceEnabled()) {
             log.trace("tokenRequest: Token request msg: {}", TextFormat.shortDebugString(req));
         }
@@ -579,20 +743,16 @@ public class SequencerServer extends AbstractServer {
         // dispatch request handler according to request type while collecting the timer metrics
         switch (tokenRequest.getRequestType()) {
             case TK_QUERY:
-                handleTokenQuery(req, ctx, r);
-                break;
+                return handleTokenQuery(req);
 
             case TK_RAW:
-                handleRawToken(req, ctx, r);
-                break;
+                return handleRawToken(req);
 
             case TK_TX:
-                handleTxToken(req, ctx, r);
-                break;
+                return handleTxToken(req, request.getTxConflictKeys());
 
             default:
-                handleAllocation(req, ctx, r);
-                break;
+                return handleAllocation(req, Collections.emptyList());
         }
     }
 
@@ -601,10 +761,9 @@ public class SequencerServer extends AbstractServer {
      * it simply extends the global log tail and returns the global-log token
      *
      * @param req corfu message containing raw token
-     * @param ctx netty ChannelHandlerContext
-     * @param r   server router
+     * @return the token response
      */
-    private void handleRawToken(RequestMsg req, ChannelHandlerContext ctx, IServerRouter r) {
+    private ResponseMsg handleRawToken(RequestMsg req) {
         final TokenRequestMsg tokenRequest = req.getPayload().getTokenRequest();
 
         // The global tail points to an open slot, not the last written slot,
@@ -614,9 +773,8 @@ public class SequencerServer extends AbstractServer {
 
         // Note: we reuse the request header as the ignore_cluster_id and
         // ignore_epoch fields are the same in both cases.
-        ResponseMsg response = getResponseMsg(getHeaderMsg(req.getHeader()),
+        return getResponseMsg(getHeaderMsg(req.getHeader()),
                 getTokenResponseMsg(token, Collections.emptyMap()));
-        r.sendResponse(response, ctx);
     }
 
     /**
@@ -628,18 +786,15 @@ public class SequencerServer extends AbstractServer {
      * - if the transaction may commit,
      * then a normal allocation of log position(s) is pursued.
      *
-     * @param req corfu message containing transaction token
-     * @param ctx netty ChannelHandlerContext
-     * @param r   server router
+     * @param req            corfu message containing transaction token
+     * @param txConflictKeys the decoded and hashed conflict keys of the transaction
+     * @return the token response
      */
-    private void handleTxToken(RequestMsg req, ChannelHandlerContext ctx, IServerRouter r) {
-        final TokenRequestMsg tokenRequest = req.getPayload().getTokenRequest();
-
+    private ResponseMsg handleTxToken(RequestMsg req, TxConflictKeys txConflictKeys) {
         // in the TK_TX request type, the sequencer is utilized for transaction conflict-resolution.
         // Token allocation is conditioned on commit.
         // First, we check if the transaction can commit.
-        Supplier<TxResolutionResponse> txResponseSupplier =
-                () -> txnCanCommit(getTxResolutionInfo(tokenRequest.getTxnResolution()));
+        Supplier<TxResolutionResponse> txResponseSupplier = () -> txnCanCommit(txConflictKeys);
         TxResolutionResponse txResolutionResponse =
                 MicroMeterUtils.time(txResponseSupplier, "sequencer.tx-resolution.timer");
 
@@ -649,20 +804,17 @@ public class SequencerServer extends AbstractServer {
 
             // Note: we reuse the request header as the ignore_cluster_id and
             // ignore_epoch fields are the same in both cases.
-            ResponseMsg response = getResponseMsg(getHeaderMsg(req.getHeader()), getTokenResponseMsg(
+            return getResponseMsg(getHeaderMsg(req.getHeader()), getTokenResponseMsg(
                     txResolutionResponse.getTokenType(),
                     txResolutionResponse.getConflictingKey(),
                     txResolutionResponse.getConflictingStream(),
                     newToken, Collections.emptyMap(), Collections.emptyMap()));
-
-            r.sendResponse(response, ctx);
-            return;
         }
 
         // if we get here, this means the transaction can commit.
         // handleAllocation() does the actual allocation of log position(s)
         // and returns the response
-        handleAllocation(req, ctx, r);
+        return handleAllocation(req, txConflictKeys.writeConflictKeys);
     }
 
     /**
@@ -670,11 +822,11 @@ public class SequencerServer extends AbstractServer {
      * it also maintains stream-tails, returns a map of stream-tails for backpointers,
      * and maintains a conflict-parameters map.
      *
-     * @param req corfu message containing allocation
-     * @param ctx netty ChannelHandlerContext
-     * @param r   server router
+     * @param req               corfu message containing allocation
+     * @param writeConflictKeys the conflict keys updated by the allocation
+     * @return the token response
      */
-    private void handleAllocation(RequestMsg req, ChannelHandlerContext ctx, IServerRouter r) {
+    private ResponseMsg handleAllocation(RequestMsg req, List<ConflictTxStream> writeConflictKeys) {
         final TokenRequestMsg tokenRequest = req.getPayload().getTokenRequest();
 
         // extend the tail of the global log by the requested # of tokens
@@ -690,39 +842,18 @@ public class SequencerServer extends AbstractServer {
             UUID uuid = getUUID(id);
 
             // step 1. and 2. (comment above)
-            streamTailToGlobalTailMap.compute(uuid, (k, v) -> {
-                if (v == null) {
-                    backPointerMap.put(k, Address.NON_EXIST);
-                } else {
-                    backPointerMap.put(k, v);
-                }
-                return newTail - 1;
-            });
+            backPointerMap.put(uuid, streamTailToGlobalTailMap.put(id.getMsb(), id.getLsb(), newTail - 1));
 
             // step 3. add allocated addresses to each stream's address map
-            // (to keep track of all updates to this stream)
-            streamsAddressMap.compute(uuid, (streamId, addressMap) -> {
-                if (addressMap == null) {
-                    addressMap = new StreamAddressSpace();
-                }
-
-                for (long i = globalLogTail; i < newTail; i++) {
-                    addressMap.addAddress(i);
-                }
-                return addressMap;
-            });
+            // (to keep track of all updates to this stream), once for the whole batch
+            pendingStreamAddresses.computeIfAbsent(uuid, streamId -> new AddressRanges())
+                    .add(globalLogTail, newTail);
         }
 
-        // update the cache of conflict parameters
-        if (tokenRequest.hasTxnResolution()) {
-            tokenRequest.getTxnResolution().getWriteConflictParamsSetList()
-                    .forEach((item) -> {
-                        // insert an entry with the new timestamp using the
-                        // hash code based on the param and the stream id.
-                        item.getValueList().forEach(conflictParam ->
-                                cache.put(new ConflictTxStream(getUUID(item.getKey()),
-                                        conflictParam.toByteArray(), newTail - 1)));
-                    });
+        // update the cache of conflict parameters, inserting an entry with the
+        // new timestamp using the hash code based on the param and the stream id.
+        for (ConflictTxStream conflictKey : writeConflictKeys) {
+            cache.put(conflictKey, newTail - 1);
         }
         if (log.isTraceEnabled()) {
             log.trace("handleAllocation: token={} backpointers={}",
@@ -734,9 +865,30 @@ public class SequencerServer extends AbstractServer {
 
         // Note: we reuse the request header as the ignore_cluster_id and
         // ignore_epoch fields are the same in both cases.
-        ResponseMsg response = getResponseMsg(
+        return getResponseMsg(
                 getHeaderMsg(req.getHeader()), getTokenResponseMsg(newToken, backPointerMap.build()));
-        r.sendResponse(response, ctx);
+    }
+
+    /**
+     * Adds the addresses allocated by a batch of token requests to the stream address maps.
+     */
+    private void flushPendingStreamAddresses() {
+        try {
+            pendingStreamAddresses.forEach((uuid, ranges) ->
+                    streamsAddressMap.compute(uuid, (streamId, addressMap) -> {
+                        if (addressMap == null) {
+                            addressMap = new StreamAddressSpace();
+                        }
+
+                        for (int range = 0; range < ranges.size(); range++) {
+                            addressMap.addRange(ranges.getStart(range), ranges.getEnd(range));
+                        }
+                        return addressMap;
+                    }));
+        } finally {
+            // The addresses of a failed batch must not be added along with the next batch.
+            pendingStreamAddresses.clear();
+        }
     }
 
     /**
@@ -820,20 +972,146 @@ public class SequencerServer extends AbstractServer {
     @Getter
     public static class Config {
         private static final int DEFAULT_CACHE_SIZE = 250_000;
+        private static final int DEFAULT_RESOLVER_THREADS = Runtime.getRuntime().availableProcessors();
 
         @Default
         private final int cacheSize = DEFAULT_CACHE_SIZE;
 
+        @Default
+        private final int resolverThreads = DEFAULT_RESOLVER_THREADS;
+
         public static Config parse(Map<String, Object> opts) {
             int cacheSize = opts.containsKey("--sequencer-cache-size") ?
                     Integer.parseInt((String) opts.get("--sequencer-cache-size")) :
                     DEFAULT_CACHE_SIZE;
+            int resolverThreads = opts.get("--sequencer-resolver-threads") != null ?
+                    Integer.parseInt((String) opts.get("--sequencer-resolver-threads")) :
+                    DEFAULT_RESOLVER_THREADS;
             return Config.builder()
                     .cacheSize(cacheSize)
+                    .resolverThreads(resolverThreads)
                     .build();
         }
     }
 
+    /**
+     * A request waiting to be served by the sequencer thread.
+     */
+    private static class PendingRequest {
+        private final RequestMsg req;
+
+        /**
+         * The conflict keys of a transaction token request, prepared on the resolver pool.
+         */
+        @Nullable
+        private final CompletableFuture<TxConflictKeys> txConflictKeys;
+
+        private final ChannelHandlerContext ctx;
+
+        private final IServerRouter router;
+
+        PendingRequest(RequestMsg req, @Nullable CompletableFuture<TxConflictKeys> txConflictKeys,
+                       ChannelHandlerContext ctx, IServerRouter router) {
+            this.req = req;
+            this.txConflictKeys = txConflictKeys;
+            this.ctx = ctx;
+            this.router = router;
+        }
+
+        boolean isTokenRequest() {
+            return req.getPayload().getPayloadCase() == PayloadCase.TOKEN_REQUEST;
+        }
+
+        /**
+         * Waits for the conflict keys of the transaction to be prepared.
+         */
+        TxConflictKeys getTxConflictKeys() {
+            if (txConflictKeys == null) {
+                return TxConflictKeys.of(req.getPayload().getTokenRequest());
+            }
+            try {
+                return txConflictKeys.join();
+            } catch (CompletionException e) {
+                Throwables.throwIfUnchecked(e.getCause());
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Ranges of addresses, adjacent ranges are coalesced as they are added.
+     */
+    private static class AddressRanges {
+        private long[] bounds = new long[2];
+        private int size;
+
+        void add(long start, long end) {
+            if (size > 0 && bounds[2 * size - 1] == start) {
+                bounds[2 * size - 1] = end;
+                return;
+            }
+            if (2 * size == bounds.length) {
+                bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+            }
+            bounds[2 * size] = start;
+            bounds[2 * size + 1] = end;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long getStart(int range) {
+            return bounds[2 * range];
+        }
+
+        long getEnd(int range) {
+            return bounds[2 * range + 1];
+        }
+    }
+
+    /**
+     * The conflict keys of a transaction, decoded from its token request and hashed
+     * before the transaction is resolved by the sequencer thread.
+     */
+    private static class TxConflictKeys {
+
+        private final TxResolutionInfo txInfo;
+
+        /**
+         * Conflict keys of each stream in the conflict set, a stream
+         * without conflict keys conflicts with any update to the stream.
+         */
+        private final Map<UUID, List<ConflictTxStream>> conflictKeys;
+
+        private final List<ConflictTxStream> writeConflictKeys;
+
+        private TxConflictKeys(TxResolutionInfo txInfo) {
+            this.txInfo = txInfo;
+            this.conflictKeys = new LinkedHashMap<>(txInfo.getConflictSet().size());
+            this.writeConflictKeys = new ArrayList<>();
+
+            txInfo.getConflictSet().forEach((streamId, conflictParams) -> {
+                List<ConflictTxStream> keys = new ArrayList<>(
+                        conflictParams == null ? 0 : conflictParams.size());
+                if (conflictParams != null) {
+                    conflictParams.forEach(conflictParam -> keys.add(
+                            new ConflictTxStream(streamId, conflictParam, Address.NON_ADDRESS)));
+                }
+                conflictKeys.put(streamId, keys);
+            });
+
+            txInfo.getWriteConflictParams().forEach((streamId, conflictParams) ->
+                    conflictParams.forEach(conflictParam -> writeConflictKeys.add(
+                            new ConflictTxStream(streamId, conflictParam, Address.NON_ADDRESS))));
+        }
+
+        static TxConflictKeys of(TokenRequestMsg tokenRequest) {
+            return new TxConflictKeys(getTxResolutionInfo(tokenRequest.getTxnResolution()));
+        }
+    }
+
 
     /**
      * Used by the unit tests to inject a custom value for the required parameters through the
@@ -850,8 +1128,8 @@ public class SequencerServer extends AbstractServer {
             return new HashMap<>();
         }
 
-        Map<UUID, Long> getStreamTailToGlobalTailMap() {
-            return new HashMap<>();
+        StreamTailMap getStreamTailToGlobalTailMap() {
+            return new StreamTailMap();
         }
 
         SequencerServerCache getSequencerServerCache(int cacheSize, long maxConflictNewSequencer) {
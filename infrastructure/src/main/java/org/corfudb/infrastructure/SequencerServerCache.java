@@ -1,21 +1,16 @@
 package org.corfudb.infrastructure;
 
-import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.common.metrics.micrometer.MeterRegistryProvider;
 import org.corfudb.common.metrics.micrometer.MicroMeterUtils;
-import org.corfudb.common.util.Memory;
 import org.corfudb.runtime.view.Address;
 
 import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Optional;
-import java.util.PriorityQueue;
 import java.util.UUID;
 
 /**
@@ -32,23 +27,53 @@ import java.util.UUID;
  * as it may evict ck1, but not ck2. Notice that we also can't evict ck3 before the keys for v1,
  * that's because it will create holes in the resolution window and can lead to incorrect resolutions.
  * <p>
- * We use priority queue as a sliding window on the versions, where a version can map to multiple keys,
- * so we also need to maintain the beginning of the window which is the maxConflictWildcard variable.
+ * Conflict keys are not stored as objects. A conflict key is reduced to a 128-bit hash of its
+ * stream id and conflict parameter, and the hashes are kept in an open-addressing table of
+ * primitive arrays (linear probing, backward shift deletion), so lookups don't allocate.
+ * A hash collision can only make a key observe the version of another key, which may cause
+ * a spurious abort but never a missed conflict.
  * <p>
- * SequencerServerCache achieves consistency by using single threaded cache. It's done by following code:
- * `.executor(Runnable::run)`
+ * The resolution window is a ring buffer of (hash, version) entries sorted by version. Since the
+ * sequencer allocates versions in increasing order, inserts append to the tail of the ring and
+ * evictions pop from its head, both in O(1). When a key is updated, its previous ring entry
+ * becomes stale and is skipped at eviction, or dropped when the ring is compacted. The beginning
+ * of the window is maintained by the maxConflictWildcard variable.
+ * <p>
+ * SequencerServerCache is used by a single thread (the sequencer) and is not thread safe.
  */
 @NotThreadSafe
 @Slf4j
 public class SequencerServerCache {
+
+    /**
+     * Marks an empty slot of the conflict keys table, it is never a valid version.
+     */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private static final long HASH_SEED_1 = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME_1 = 0x100000001b3L;
+    private static final long HASH_SEED_2 = 0x9e3779b97f4a7c15L;
+    private static final long HASH_PRIME_2 = 0xc2b2ae3d27d4eb4fL;
+
     /**
      * TX conflict-resolution information:
-     * a cache of recent conflict keys and their latest global-log position.
+     * a table of recent conflict keys (hashes) and their latest global-log position.
      */
+    private final long[] keys1;
+    private final long[] keys2;
+    private final long[] versions;
+    private final int tableMask;
+    private int numKeys;
+
+    /**
+     * The resolution window, a ring buffer of conflict keys sorted by version.
+     */
+    private long[] windowKeys1;
+    private long[] windowKeys2;
+    private long[] windowVersions;
+    private int windowHead;
+    private int windowCount;
 
-    // As the sequencer cache is used by a single thread, it is safe to use hashmap.
-    private final HashMap<ConflictTxStream, Long> conflictKeys;
-    private final PriorityQueue<ConflictTxStream> cacheEntries; //sorted according to address
     @Getter
     private final int cacheSize; // the max number of entries in SequencerServerCache
 
@@ -69,94 +94,116 @@ public class SequencerServerCache {
     private long maxConflictNewSequencer;
 
     /**
-     * It is used to calculate the size of ServerCache. Each entry relates two pointers
-     * used by HashMap, one pointer in PriorityQueue.
+     * It is used to calculate the size of ServerCache. Each entry uses a 128-bit hash and a version
+     * in the conflict keys table and in the window, both of which are at most half full.
      */
-    private static final int ENTRY_OVERHEAD = 24;
-
-    //As calculating object size is expensive, used the value calculated by deepSize
-    private final int CONFLICTTXSTREAM_OBJ_SIZE = 80; //by calculated by deepSize
+    private static final int ENTRY_SIZE = 4 * (2 * Long.BYTES + Long.BYTES);
 
     @Getter
     private final String conflictKeysCounterName = "sequencer.conflict-keys.size";
     @Getter
     private final String windowSizeName = "sequencer.cache.window";
+
     /**
      * The cache limited by size.
-     * For a synchronous cache we are using a same-thread executor (Runnable::run)
-     * https://github.com/ben-manes/caffeine/issues/90
      *
      * @param cacheSize cache size
      */
-
     public SequencerServerCache(int cacheSize, long maxConflictNewSequencer) {
         this.cacheSize = cacheSize;
-
-        cacheEntries = new PriorityQueue(cacheSize, Comparator.comparingLong
-                (conflict -> ((ConflictTxStream) conflict).txVersion));
         maxConflictWildcard = maxConflictNewSequencer;
         this.maxConflictNewSequencer = maxConflictNewSequencer;
-        conflictKeys = MeterRegistryProvider
-                .getInstance()
-                .map(registry ->
-                        registry.gauge(conflictKeysCounterName, Collections.emptyList(),
-                                new HashMap<ConflictTxStream, Long>(), HashMap::size))
-                .orElse(new HashMap<>());
+
+        // Keep the table at most half full (the cache temporarily holds one more
+        // key than its size before evicting), so that probe sequences stay short.
+        final int tableSize = powerOfTwoCapacity(2 * (Math.max(cacheSize, 1) + 1));
+        keys1 = new long[tableSize];
+        keys2 = new long[tableSize];
+        versions = new long[tableSize];
+        Arrays.fill(versions, EMPTY);
+        tableMask = tableSize - 1;
+
+        windowKeys1 = new long[tableSize];
+        windowKeys2 = new long[tableSize];
+        windowVersions = new long[tableSize];
+
+        MeterRegistryProvider.getInstance().map(registry ->
+                registry.gauge(conflictKeysCounterName, Collections.emptyList(),
+                        this, SequencerServerCache::size));
         MeterRegistryProvider.getInstance().map(registry ->
-                Gauge.builder(windowSizeName,
-                        conflictKeys, HashMap::size).register(registry));
+                Gauge.builder(windowSizeName, this, cache -> cache.windowCount).register(registry));
+    }
 
+    private static int powerOfTwoCapacity(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
     }
 
     /**
      * Returns the value associated with the {@code key} in this cache,
-     * or {@code null} if there is no cached value for the {@code key}.
+     * or {@code Address.NON_ADDRESS} if there is no cached value for the {@code key}.
      *
      * @param conflictKey conflict stream
-     * @return global address
+     * @return global address, {@code Address.NON_ADDRESS} if the conflict key is not cached
      */
-    public Long get(ConflictTxStream conflictKey) {
-        return conflictKeys.getOrDefault(conflictKey, Address.NON_ADDRESS);
+    public long get(ConflictTxStream conflictKey) {
+        int slot = find(conflictKey.hash1, conflictKey.hash2);
+        return slot < 0 ? Address.NON_ADDRESS : versions[slot];
     }
 
     /**
-     * The first address in the priority queue.
+     * Returns the value associated with a conflict key in this cache,
+     * or {@code Address.NON_ADDRESS} if there is no cached value for it.
+     *
+     * @param streamId      conflict stream id
+     * @param conflictParam conflict parameter
+     * @return global address, {@code Address.NON_ADDRESS} if the conflict key is not cached
+     */
+    public long get(UUID streamId, byte[] conflictParam) {
+        int slot = find(hash1(streamId, conflictParam), hash2(streamId, conflictParam));
+        return slot < 0 ? Address.NON_ADDRESS : versions[slot];
+    }
+
+    /**
+     * The first address in the resolution window.
      */
     public long firstAddress() {
-        if (cacheEntries.isEmpty()) {
+        if (windowCount == 0) {
             return Address.NOT_FOUND;
         }
-        return cacheEntries.peek().txVersion;
+        return windowVersions[windowHead];
     }
 
-  /**
-   * Invalidate the records with the minAddress. It could be one or multiple records
-   *
-   * @return the number of entries has been invalidated and removed from the cache.
-   */
-  private int invalidateSmallestTxVersion() {
-    ConflictTxStream firstEntry = cacheEntries.peek();
-    if (cacheEntries.size() == 0) {
-      return 0;
-    }
+    /**
+     * Invalidate the records with the minAddress. It could be one or multiple records
+     *
+     * @return the number of entries has been invalidated and removed from the cache.
+     */
+    private int invalidateSmallestTxVersion() {
+        if (windowCount == 0) {
+            return 0;
+        }
 
-    int numEntries = 0;
+        final long smallestTxVersion = firstAddress();
+        int numEntries = 0;
 
-    while (firstAddress() == firstEntry.txVersion) {
-      if (log.isTraceEnabled()) {
-        log.trace(
-            "invalidateSmallestTxVersion: items evicted {} min address {}",
-            numEntries,
-            firstAddress());
-      }
-      ConflictTxStream entry = cacheEntries.poll();
-      conflictKeys.remove(entry);
-      numEntries++;
-    }
+        while (windowCount > 0 && windowVersions[windowHead] == smallestTxVersion) {
+            int slot = find(windowKeys1[windowHead], windowKeys2[windowHead]);
+            if (slot >= 0 && versions[slot] == smallestTxVersion) {
+                removeSlot(slot);
+                numEntries++;
+            }
+            pollWindow();
+        }
 
-    maxConflictWildcard = Math.max(maxConflictWildcard, firstEntry.txVersion);
-    return numEntries;
-  }
+        if (log.isTraceEnabled()) {
+            log.trace("invalidateSmallestTxVersion: items evicted {} min address {}",
+                    numEntries, smallestTxVersion);
+        }
+
+        maxConflictWildcard = Math.max(maxConflictWildcard, smallestTxVersion);
+        pollStaleEntries();
+        return numEntries;
+    }
 
     /**
      * Invalidate all records up to a trim mark (not included).
@@ -182,19 +229,17 @@ public class SequencerServerCache {
      * @return cache size
      */
     public int size() {
-        return conflictKeys.size();
+        return numKeys;
     }
 
     /**
-     * The memory space used by the entries and also the space used by
-     * priority queue and hashmap to store the pointers
+     * The memory space used by the entries, including the free slots reserved
+     * for them in the conflict keys table and in the window.
+     *
      * @return the memory space used in bytes:
      */
     public long byteSize() {
-        log.debug("the cache has {} entries,  the object size used {}, calculated by beepSize {}",
-                size(), CONFLICTTXSTREAM_OBJ_SIZE,
-                cacheEntries.isEmpty() ? 0 : Memory.sizeOf.deepSizeOf(cacheEntries.peek()));
-        return size() * (ENTRY_OVERHEAD + CONFLICTTXSTREAM_OBJ_SIZE);
+        return (long) size() * ENTRY_SIZE;
     }
 
     /*
@@ -203,26 +248,226 @@ public class SequencerServerCache {
      * @param conflictStream conflict stream
      */
     public boolean put(ConflictTxStream conflictStream) {
+        return put(conflictStream, conflictStream.txVersion);
+    }
 
-        Long val = conflictKeys.getOrDefault(conflictStream, Address.NON_ADDRESS);
-        if (val > conflictStream.txVersion) {
-            log.error("For key {} the new entry address {} is smaller than the entry " +
-                            "address {} in cache. There is a sequencer regression.",
-                    conflictStream, conflictStream.txVersion, conflictKeys.get(conflictStream));
-            return false;
-        }
+    /**
+     * Put a value in the cache, for a conflict key hashed ahead of time.
+     *
+     * @param conflictStream conflict stream
+     * @param txVersion      the global address of the transaction updating the conflict key
+     * @return false if the cache already has a greater version for the conflict key
+     */
+    public boolean put(ConflictTxStream conflictStream, long txVersion) {
+        return put(conflictStream.hash1, conflictStream.hash2, txVersion);
+    }
 
-        cacheEntries.add(conflictStream);
-        conflictKeys.put(conflictStream, conflictStream.txVersion);
+    /**
+     * Put a value in the cache
+     *
+     * @param streamId      conflict stream id
+     * @param conflictParam conflict parameter
+     * @param txVersion     the global address of the transaction updating the conflict key
+     * @return false if the cache already has a greater version for the conflict key
+     */
+    public boolean put(UUID streamId, byte[] conflictParam, long txVersion) {
+        return put(hash1(streamId, conflictParam), hash2(streamId, conflictParam), txVersion);
+    }
 
-        while (conflictKeys.size() > cacheSize) {
+    private boolean put(long key1, long key2, long txVersion) {
+        int slot = find(key1, key2);
+        if (slot >= 0) {
+            if (versions[slot] > txVersion) {
+                log.error("For key {} the new entry address {} is smaller than the entry " +
+                                "address {} in cache. There is a sequencer regression.",
+                        Long.toHexString(key1), txVersion, versions[slot]);
+                return false;
+            }
+
+            if (versions[slot] == txVersion) {
+                return true;
+            }
+
+            // The previous window entry of this key becomes stale.
+            versions[slot] = txVersion;
+            offerWindow(key1, key2, txVersion);
+            pollStaleEntries();
+        } else {
+            slot = -slot - 1;
+            keys1[slot] = key1;
+            keys2[slot] = key2;
+            versions[slot] = txVersion;
+            numKeys++;
+            offerWindow(key1, key2, txVersion);
+        }
+
+        while (numKeys > cacheSize) {
             invalidateSmallestTxVersion();
         }
         return true;
     }
 
+    /**
+     * Finds the table slot of a conflict key.
+     *
+     * @return the slot of the key, or (-(insertion slot) - 1) if the key is not in the table
+     */
+    private int find(long key1, long key2) {
+        int slot = homeSlot(key1);
+        while (versions[slot] != EMPTY) {
+            if (keys1[slot] == key1 && keys2[slot] == key2) {
+                return slot;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        return -slot - 1;
+    }
+
+    private int homeSlot(long key1) {
+        return (int) (key1 ^ (key1 >>> Integer.SIZE)) & tableMask;
+    }
+
+    /**
+     * Removes a key from the table, shifting back the following keys of its probe
+     * sequence so that lookups never need tombstones.
+     */
+    private void removeSlot(int slot) {
+        int hole = slot;
+        int next = (slot + 1) & tableMask;
+        while (versions[next] != EMPTY) {
+            int home = homeSlot(keys1[next]);
+            if (((next - home) & tableMask) >= ((next - hole) & tableMask)) {
+                keys1[hole] = keys1[next];
+                keys2[hole] = keys2[next];
+                versions[hole] = versions[next];
+                hole = next;
+            }
+            next = (next + 1) & tableMask;
+        }
+        versions[hole] = EMPTY;
+        numKeys--;
+    }
+
+    private int windowIndex(int position) {
+        return (windowHead + position) & (windowVersions.length - 1);
+    }
+
+    private boolean isLive(int index) {
+        int slot = find(windowKeys1[index], windowKeys2[index]);
+        return slot >= 0 && versions[slot] == windowVersions[index];
+    }
+
+    /**
+     * Adds a conflict key to the window, keeping the window sorted by version.
+     * Versions are normally increasing, in which case the key is appended to the tail.
+     */
+    private void offerWindow(long key1, long key2, long txVersion) {
+        if (windowCount == windowVersions.length) {
+            compactWindow();
+        }
+
+        int position = windowCount;
+        while (position > 0 && windowVersions[windowIndex(position - 1)] > txVersion) {
+            int from = windowIndex(position - 1);
+            int to = windowIndex(position);
+            windowKeys1[to] = windowKeys1[from];
+            windowKeys2[to] = windowKeys2[from];
+            windowVersions[to] = windowVersions[from];
+            position--;
+        }
+
+        int index = windowIndex(position);
+        windowKeys1[index] = key1;
+        windowKeys2[index] = key2;
+        windowVersions[index] = txVersion;
+        windowCount++;
+    }
+
+    private void pollWindow() {
+        windowHead = windowIndex(1);
+        windowCount--;
+    }
+
+    /**
+     * Drops the stale entries at the head of the window, so that the
+     * first address of the window is always the version of a cached key.
+     */
+    private void pollStaleEntries() {
+        while (windowCount > 0 && !isLive(windowHead)) {
+            pollWindow();
+        }
+    }
+
+    /**
+     * Drops all the stale entries of a full window. As the window has twice as many
+     * slots as the cache has keys, this frees at least half of the window, unless keys were
+     * re-inserted with the same version after being evicted, in which case the window grows.
+     */
+    private void compactWindow() {
+        int live = 0;
+        for (int position = 0; position < windowCount; position++) {
+            int from = windowIndex(position);
+            if (isLive(from)) {
+                int to = windowIndex(live);
+                windowKeys1[to] = windowKeys1[from];
+                windowKeys2[to] = windowKeys2[from];
+                windowVersions[to] = windowVersions[from];
+                live++;
+            }
+        }
+        windowCount = live;
+
+        if (windowCount == windowVersions.length) {
+            final int capacity = windowVersions.length * 2;
+            long[] newKeys1 = new long[capacity];
+            long[] newKeys2 = new long[capacity];
+            long[] newVersions = new long[capacity];
+            for (int position = 0; position < windowCount; position++) {
+                int index = windowIndex(position);
+                newKeys1[position] = windowKeys1[index];
+                newKeys2[position] = windowKeys2[index];
+                newVersions[position] = windowVersions[index];
+            }
+            windowKeys1 = newKeys1;
+            windowKeys2 = newKeys2;
+            windowVersions = newVersions;
+            windowHead = 0;
+        }
+    }
+
+    /**
+     * Hashes a conflict key with a FNV-1a variant, mixing the stream id in the
+     * seed and finalizing with the murmur3 64-bit mix function.
+     */
+    private static long hash(UUID streamId, byte[] conflictParam, long seed, long prime) {
+        long h = seed ^ mix(streamId.getMostSignificantBits() ^ mix(streamId.getLeastSignificantBits() + seed));
+        for (byte b : conflictParam) {
+            h = (h ^ (b & 0xff)) * prime;
+        }
+        return mix(h ^ conflictParam.length);
+    }
+
+    private static long hash1(UUID streamId, byte[] conflictParam) {
+        return hash(streamId, conflictParam, HASH_SEED_1, HASH_PRIME_1);
+    }
+
+    private static long hash2(UUID streamId, byte[] conflictParam) {
+        return hash(streamId, conflictParam, HASH_SEED_2, HASH_PRIME_2);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9a53a2ae67bL;
+        h ^= h >>> 33;
+        return h;
+    }
+
     /**
      * Contains the conflict hash code for a stream ID and conflict param.
+     * The hash code is computed on construction, so that conflict keys
+     * can be hashed before they are resolved on the sequencer thread.
      */
     @EqualsAndHashCode
     public static class ConflictTxStream {
@@ -235,10 +480,18 @@ public class SequencerServerCache {
         @EqualsAndHashCode.Exclude
         public final long txVersion;
 
+        @EqualsAndHashCode.Exclude
+        private final long hash1;
+
+        @EqualsAndHashCode.Exclude
+        private final long hash2;
+
         public ConflictTxStream(UUID streamId, byte[] conflictParam, long address) {
             this.streamId = streamId;
             this.conflictParam = conflictParam;
             txVersion = address;
+            hash1 = SequencerServerCache.hash1(streamId, conflictParam);
+            hash2 = SequencerServerCache.hash2(streamId, conflictParam);
         }
 
         @Override
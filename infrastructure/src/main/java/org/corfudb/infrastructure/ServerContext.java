@@ -1,6 +1,7 @@
 package org.corfudb.infrastructure;
 
 import static org.corfudb.infrastructure.logreplication.LogReplicationConfig.DEFAULT_MAX_NUM_MSG_PER_BATCH;
+import static org.corfudb.infrastructure.logreplication.LogReplicationConfig.DEFAULT_SNAPSHOT_SYNC_PARALLELISM;
 import static org.corfudb.infrastructure.logreplication.LogReplicationConfig.MAX_DATA_MSG_SIZE_SUPPORTED;
 
 import com.google.common.collect.Sets;
@@ -234,6 +235,15 @@ public class ServerContext implements AutoCloseable {
         return val == null ? DEFAULT_MAX_NUM_MSG_PER_BATCH : Integer.parseInt(val);
     }
 
+    /**
+     * Get the number of streams read concurrently during snapshot sync.
+     * @return
+     */
+    public int getLogReplicationSnapshotSyncParallelism() {
+        String val = getServerConfig(String.class, "--snapshot-sync-parallelism");
+        return val == null ? DEFAULT_SNAPSHOT_SYNC_PARALLELISM : Integer.parseInt(val);
+    }
+
     public int getLockLeaseDuration() {
         Integer lockLeaseDuration;
         try {
@@ -0,0 +1,203 @@
+package org.corfudb.infrastructure;
+
+import org.corfudb.runtime.view.Address;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Maps stream ids to the global address of their last update (the stream tail).
+ * <p>
+ * The sequencer looks up and updates the tail of every stream of every token request, and tracks
+ * as many tails as there are streams. Stream ids and tails are therefore not stored as objects,
+ * a stream id is kept as its two longs in an open-addressing table of primitive arrays (linear
+ * probing), so that lookups and updates don't allocate. Tails are never removed, the table
+ * doubles when it gets half full.
+ * <p>
+ * StreamTailMap is used by a single thread (the sequencer) and is not thread safe.
+ */
+@NotThreadSafe
+public class StreamTailMap {
+
+    /**
+     * Marks an empty slot of the table, it is never a valid tail.
+     */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] msbs;
+    private long[] lsbs;
+    private long[] tails;
+    private int tableMask;
+    private int size;
+
+    public StreamTailMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of streams the map can hold without resizing
+     */
+    public StreamTailMap(int expectedSize) {
+        allocate(powerOfTwoCapacity(2 * Math.max(expectedSize, 1)));
+    }
+
+    private static int powerOfTwoCapacity(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+    }
+
+    private void allocate(int tableSize) {
+        msbs = new long[tableSize];
+        lsbs = new long[tableSize];
+        tails = new long[tableSize];
+        Arrays.fill(tails, EMPTY);
+        tableMask = tableSize - 1;
+    }
+
+    /**
+     * Returns the tail of a stream, or {@code Address.NON_EXIST} if the stream has no tail.
+     *
+     * @param streamId stream id
+     * @return global address of the last update to the stream
+     */
+    public long get(UUID streamId) {
+        return get(streamId.getMostSignificantBits(), streamId.getLeastSignificantBits());
+    }
+
+    /**
+     * Returns the tail of a stream, or {@code Address.NON_EXIST} if the stream has no tail.
+     *
+     * @param msb most significant bits of the stream id
+     * @param lsb least significant bits of the stream id
+     * @return global address of the last update to the stream
+     */
+    public long get(long msb, long lsb) {
+        int slot = find(msb, lsb);
+        return slot < 0 ? Address.NON_EXIST : tails[slot];
+    }
+
+    public boolean containsKey(UUID streamId) {
+        return find(streamId.getMostSignificantBits(), streamId.getLeastSignificantBits()) >= 0;
+    }
+
+    /**
+     * Sets the tail of a stream.
+     *
+     * @param streamId stream id
+     * @param tail     global address of the last update to the stream
+     * @return the previous tail of the stream, or {@code Address.NON_EXIST} if it had none
+     */
+    public long put(UUID streamId, long tail) {
+        return put(streamId.getMostSignificantBits(), streamId.getLeastSignificantBits(), tail);
+    }
+
+    /**
+     * Sets the tail of a stream.
+     *
+     * @param msb  most significant bits of the stream id
+     * @param lsb  least significant bits of the stream id
+     * @param tail global address of the last update to the stream
+     * @return the previous tail of the stream, or {@code Address.NON_EXIST} if it had none
+     */
+    public long put(long msb, long lsb, long tail) {
+        if (tail == EMPTY) {
+            throw new IllegalArgumentException("Invalid stream tail " + tail);
+        }
+
+        int slot = find(msb, lsb);
+        if (slot >= 0) {
+            long previous = tails[slot];
+            tails[slot] = tail;
+            return previous;
+        }
+
+        slot = -slot - 1;
+        msbs[slot] = msb;
+        lsbs[slot] = lsb;
+        tails[slot] = tail;
+        if (++size > tails.length / 2) {
+            resize(2 * tails.length);
+        }
+        return Address.NON_EXIST;
+    }
+
+    /**
+     * The number of streams with a tail.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Performs the given action for each stream and its tail, in no particular order.
+     *
+     * @param action action to perform on each stream id and tail
+     */
+    public void forEach(ObjLongConsumer<UUID> action) {
+        for (int slot = 0; slot < tails.length; slot++) {
+            if (tails[slot] != EMPTY) {
+                action.accept(new UUID(msbs[slot], lsbs[slot]), tails[slot]);
+            }
+        }
+    }
+
+    /**
+     * Finds the table slot of a stream.
+     *
+     * @return the slot of the stream, or (-(insertion slot) - 1) if the stream is not in the table
+     */
+    private int find(long msb, long lsb) {
+        int slot = homeSlot(msb, lsb);
+        while (tails[slot] != EMPTY) {
+            if (msbs[slot] == msb && lsbs[slot] == lsb) {
+                return slot;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+        return -slot - 1;
+    }
+
+    /**
+     * Stream ids are not necessarily random (e.g., name based ids only differ in a few
+     * bits), so both halves are mixed before being reduced to a slot.
+     */
+    private int homeSlot(long msb, long lsb) {
+        long hash = (msb ^ Long.rotateLeft(lsb, Integer.SIZE)) * 0x9e3779b97f4a7c15L;
+        return (int) (hash ^ (hash >>> Integer.SIZE)) & tableMask;
+    }
+
+    private void resize(int tableSize) {
+        final long[] oldMsbs = msbs;
+        final long[] oldLsbs = lsbs;
+        final long[] oldTails = tails;
+        allocate(tableSize);
+
+        for (int oldSlot = 0; oldSlot < oldTails.length; oldSlot++) {
+            if (oldTails[oldSlot] != EMPTY) {
+                int slot = -find(oldMsbs[oldSlot], oldLsbs[oldSlot]) - 1;
+                msbs[slot] = oldMsbs[oldSlot];
+                lsbs[slot] = oldLsbs[oldSlot];
+                tails[slot] = oldTails[oldSlot];
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((streamId, tail) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(streamId).append('=').append(tail);
+        });
+        return builder.append('}').toString();
+    }
+}
@@ -1,5 +1,6 @@
 package org.corfudb.infrastructure.log;
 
+import com.google.protobuf.ByteString;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -8,6 +9,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -72,6 +74,25 @@ public class InMemoryStreamLog implements StreamLog {
         logMetadata.update(entry, false);
     }
 
+    @Override
+    public synchronized void appendRaw(ByteString records) {
+        List<LogData> entries = StreamLogFiles.getRawRecordEntries(records).stream()
+                .filter(entry -> !isTrimmed(entry.getGlobalAddress()))
+                .collect(Collectors.toList());
+
+        for (LogData entry : entries) {
+            if (logCache.containsKey(entry.getGlobalAddress())) {
+                log.error("Overlapping address detected: {}", entry.getGlobalAddress());
+                throw new OverwriteException(OverwriteCause.SAME_DATA);
+            }
+        }
+
+        for (LogData entry : entries) {
+            logCache.put(entry.getGlobalAddress(), entry);
+        }
+        logMetadata.update(entries);
+    }
+
     private boolean isTrimmed(long address) {
         return address < startingAddress || trimmed.contains(address);
     }
@@ -165,6 +186,23 @@ public class InMemoryStreamLog implements StreamLog {
         return logCache.get(address);
     }
 
+    @Override
+    public ByteString readRaw(List<Long> addresses) {
+        ByteString records = ByteString.EMPTY;
+        for (long address : addresses) {
+            if (isTrimmed(address)) {
+                throw new TrimmedException();
+            }
+
+            LogData entry = logCache.get(address);
+            if (entry == null) {
+                throw new IllegalArgumentException("Address " + address + " doesn't exist");
+            }
+            records = records.concat(StreamLogFiles.getRawRecord(entry));
+        }
+        return records;
+    }
+
     @Override
     public boolean contains(long address) throws TrimmedException {
         if (isTrimmed((address))) {
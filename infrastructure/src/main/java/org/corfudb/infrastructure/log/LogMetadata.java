@@ -3,6 +3,7 @@ package org.corfudb.infrastructure.log;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.corfudb.infrastructure.log.LogFormat.IndexEntry;
 import org.corfudb.protocols.logprotocol.CheckpointEntry;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.runtime.view.stream.StreamAddressSpace;
@@ -54,6 +55,19 @@ public class LogMetadata {
         }
     }
 
+    /**
+     * Update the log metadata from the segment index entries of a range write. Like
+     * {@link #update(List)}, this is only used by state transfer, so checkpoint entries
+     * are inspected as on initialization.
+     *
+     * @param entries segment index entries of the written records
+     */
+    public void updateFromIndex(List<IndexEntry> entries) {
+        for (IndexEntry entry : entries) {
+            update(entry, true);
+        }
+    }
+
     public void update(LogData entry, boolean initialize) {
         long entryAddress = entry.getGlobalAddress();
         // Update log tail
@@ -69,7 +83,32 @@ public class LogMetadata {
         // If those streams are not updated with this info, then clients would observe those
         // streams as empty, which is not correct.
         if (entry.hasCheckpointMetadata()) {
-            updateFromCheckpoint(entry, initialize);
+            updateFromCheckpoint(entry.getCheckpointedStreamId(), entry.getCheckpointedStreamStartLogAddress(),
+                    entry.getCheckpointType(), initialize);
+        }
+    }
+
+    /**
+     * Update the log metadata from a persisted segment index entry, this is equivalent
+     * to updating it with the log entry that the index entry describes.
+     *
+     * @param entry      segment index entry
+     * @param initialize true, if called on log unit initialization
+     */
+    public void update(IndexEntry entry, boolean initialize) {
+        long entryAddress = entry.getAddress();
+        updateGlobalTail(entryAddress);
+        for (int i = 0; i < entry.getStreamsMostSignificantCount(); i++) {
+            updateStreamSpace(new UUID(entry.getStreamsMostSignificant(i),
+                    entry.getStreamsLeastSignificant(i)), entryAddress);
+        }
+
+        if (entry.hasCheckpointEntryType()) {
+            UUID streamId = new UUID(entry.getCheckpointedStreamIdMostSignificant(),
+                    entry.getCheckpointedStreamIdLeastSignificant());
+            updateFromCheckpoint(streamId, entry.getCheckpointedStreamStartLogAddress(),
+                    CheckpointEntry.CheckpointEntryType.typeMap.get((byte) entry.getCheckpointEntryType().ordinal()),
+                    initialize);
         }
     }
 
@@ -104,13 +143,15 @@ public class LogMetadata {
      * 1. Stream tail for those stream's that have all updates within a checkpoint.
      * 2. Stream trim mark, i.e., last observed address for a stream subsumed by a checkpoint.
      *
-     * @param entry log entry
+     * @param streamId checkpointed stream identifier
+     * @param lastUpdateToStream tail of the stream at the time of taking the checkpoint
+     * @param checkpointType type of the checkpoint entry
      * @param initialize true, if called on log unit initialization (full scan)
      *                   false, otherwise.
      */
-    private void updateFromCheckpoint(LogData entry, boolean initialize) {
-        UUID streamId = entry.getCheckpointedStreamId();
-        long lastUpdateToStream = entry.getCheckpointedStreamStartLogAddress();
+    private void updateFromCheckpoint(UUID streamId, long lastUpdateToStream,
+                                      CheckpointEntry.CheckpointEntryType checkpointType,
+                                      boolean initialize) {
 
         if (Address.isAddress(lastUpdateToStream)) {
             // 1. Update stream tail
@@ -129,7 +170,7 @@ public class LogMetadata {
             // If we hit a checkpoint END record we can use this info to compute the stream trim mark,
             // i.e., last observed update to the stream that has already been checkpointed, hence
             // can be safely trimmed from the log.
-            if (initialize && entry.getCheckpointType() == CheckpointEntry.CheckpointEntryType.END) {
+            if (initialize && checkpointType == CheckpointEntry.CheckpointEntryType.END) {
                 streamsAddressSpaceMap.compute(streamId, (id, addressSpace) -> {
                     if (addressSpace == null) {
                         // If this entry still does not exist, means no updates have been observed for
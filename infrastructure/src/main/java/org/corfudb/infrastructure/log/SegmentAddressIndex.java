@@ -0,0 +1,162 @@
+package org.corfudb.infrastructure.log;
+
+import javax.annotation.Nullable;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+/**
+ * A compact index of the records written to a segment. Since a segment holds a dense range of
+ * addresses, the metadata (offset, length and checksum) of each record is kept in parallel
+ * primitive arrays indexed by (address - segment start address), instead of a map of boxed
+ * addresses to {@link AddressMetaData} objects.
+ *
+ * <p>Records are published lock free: the length and checksum of a record are stored before its
+ * offset is (lazily) set, so a reader that observes the offset also observes the rest of the
+ * record metadata. An address is considered present when its offset has been published.
+ */
+class SegmentAddressIndex {
+
+    private static final long NOT_PRESENT = -1L;
+
+    private final long startAddress;
+
+    private final AtomicLongArray offsets;
+
+    private final int[] lengths;
+
+    private final int[] checksums;
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Creates an empty index for a segment.
+     *
+     * @param segment  segment number
+     * @param capacity number of addresses in the segment
+     */
+    SegmentAddressIndex(long segment, int capacity) {
+        this.startAddress = segment * capacity;
+        this.offsets = new AtomicLongArray(capacity);
+        this.lengths = new int[capacity];
+        this.checksums = new int[capacity];
+
+        for (int i = 0; i < capacity; i++) {
+            offsets.lazySet(i, NOT_PRESENT);
+        }
+    }
+
+    private int indexOf(long address) {
+        long index = address - startAddress;
+        if (index < 0 || index >= offsets.length()) {
+            return -1;
+        }
+        return (int) index;
+    }
+
+    /**
+     * Checks if a record for an address has been published.
+     *
+     * @param address global address
+     * @return true if the address is indexed
+     */
+    boolean contains(long address) {
+        int index = indexOf(address);
+        return index >= 0 && offsets.get(index) != NOT_PRESENT;
+    }
+
+    /**
+     * Returns the metadata of the record written at an address.
+     *
+     * @param address global address
+     * @return the record metadata or null if the address is not indexed
+     */
+    @Nullable
+    AddressMetaData get(long address) {
+        int index = indexOf(address);
+        if (index < 0) {
+            return null;
+        }
+
+        long offset = offsets.get(index);
+        if (offset == NOT_PRESENT) {
+            return null;
+        }
+
+        return new AddressMetaData(checksums[index], lengths[index], offset);
+    }
+
+    /**
+     * Publishes the metadata of the record written at an address, only by a single
+     * writer at a time. An address that is already indexed is overwritten (last writer
+     * wins), e.g. a segment can hold a duplicate record from a write retried before a
+     * crash. Overwrites are only expected while scanning a segment, before it is read.
+     *
+     * @param address  global address
+     * @param metaData the record metadata
+     */
+    void put(long address, AddressMetaData metaData) {
+        int index = indexOf(address);
+        if (index < 0) {
+            throw new IllegalArgumentException("Address " + address + " is out of segment range, starting at "
+                    + startAddress);
+        }
+
+        boolean present = offsets.get(index) != NOT_PRESENT;
+
+        lengths[index] = metaData.length;
+        checksums[index] = metaData.checksum;
+        offsets.lazySet(index, metaData.offset);
+        if (!present) {
+            size.incrementAndGet();
+        }
+    }
+
+    /**
+     * Publishes the metadata of several records.
+     *
+     * @param records a map of global addresses to record metadata
+     */
+    void putAll(Map<Long, AddressMetaData> records) {
+        records.forEach(this::put);
+    }
+
+    /**
+     * Returns the subset of the given addresses that are already indexed.
+     *
+     * @param addresses global addresses
+     * @return indexed addresses
+     */
+    Set<Long> intersection(Set<Long> addresses) {
+        Set<Long> result = new HashSet<>();
+        for (Long address : addresses) {
+            if (contains(address)) {
+                result.add(address);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies an action on every indexed address, in ascending order.
+     *
+     * @param action action to apply
+     */
+    void forEachAddress(LongConsumer action) {
+        for (int index = 0; index < offsets.length(); index++) {
+            if (offsets.get(index) != NOT_PRESENT) {
+                action.accept(startAddress + index);
+            }
+        }
+    }
+
+    /**
+     * @return number of indexed addresses
+     */
+    int size() {
+        return size.get();
+    }
+}
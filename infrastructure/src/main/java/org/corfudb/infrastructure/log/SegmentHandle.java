@@ -4,13 +4,20 @@ import lombok.Data;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
+import org.corfudb.infrastructure.log.LogFormat.IndexEntry;
+import org.corfudb.infrastructure.log.LogFormat.SegmentIndex;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -34,11 +41,87 @@ class SegmentHandle {
     @NonNull
     String fileName;
 
-    private final Map<Long, AddressMetaData> knownAddresses = new ConcurrentHashMap<>();
+    private final SegmentAddressIndex knownAddresses;
     private final Set<Long> trimmedAddresses = Collections.newSetFromMap(new ConcurrentHashMap<>());
     private final Set<Long> pendingTrims = Collections.newSetFromMap(new ConcurrentHashMap<>());
     private volatile int refCount = 0;
 
+    /**
+     * Index entries of the records in this segment, accumulated (by the single writer) until the
+     * segment is sealed and its index is persisted. Segments loaded from a persisted index don't
+     * accumulate any entries.
+     */
+    private final List<IndexEntry> pendingIndexEntries = new ArrayList<>();
+
+    /**
+     * Whether index entries are still accumulated, unset once the segment is sealed and
+     * its index has been persisted or can't be.
+     */
+    private boolean indexable = true;
+
+    /**
+     * Whether the records of this segment are verified when they are read, set when the
+     * address space of the segment is loaded from a persisted index instead of a scan.
+     */
+    private volatile boolean verifyOnRead = false;
+
+    /**
+     * Log format version of the segment file, as read from its header. Segment files
+     * created by an older log unit keep being written in their version.
+     */
+    private volatile int version = StreamLogFiles.VERSION;
+
+    /**
+     * Persisted index the address space of this segment was loaded from, only kept
+     * until it is consumed when the log metadata is initialized.
+     */
+    @Nullable
+    private SegmentIndex loadedIndex = null;
+
+    /**
+     * Read-only mapping of the segment file, only created once the segment is
+     * sealed (i.e. all of its addresses have been written) and can't change anymore.
+     */
+    private volatile MappedByteBuffer mappedBuffer = null;
+
+    SegmentHandle(long segment, @NonNull FileChannel writeChannel,
+                  @NonNull FileChannel readChannel, @NonNull String fileName) {
+        this.segment = segment;
+        this.writeChannel = writeChannel;
+        this.readChannel = readChannel;
+        this.fileName = fileName;
+        this.knownAddresses = new SegmentAddressIndex(segment, StreamLogFiles.RECORDS_PER_LOG_FILE);
+    }
+
+    /**
+     * Add the index entry of a record written to this segment.
+     *
+     * @param entry an index entry
+     */
+    void addIndexEntry(IndexEntry entry) {
+        if (indexable) {
+            pendingIndexEntries.add(entry);
+        }
+    }
+
+    /**
+     * Release the pending index entries and stop accumulating them.
+     */
+    void discardIndexEntries() {
+        indexable = false;
+        pendingIndexEntries.clear();
+    }
+
+    /**
+     * Consume the persisted index this segment was loaded from.
+     *
+     * @return the loaded index, or empty if the segment was scanned or the index was consumed
+     */
+    Optional<SegmentIndex> takeLoadedIndex() {
+        Optional<SegmentIndex> index = Optional.ofNullable(loadedIndex);
+        loadedIndex = null;
+        return index;
+    }
 
     public synchronized void retain() {
         refCount++;
@@ -51,7 +134,63 @@ class SegmentHandle {
         refCount--;
     }
 
+    /**
+     * A segment is sealed when every address in its range has been written,
+     * after which the segment file is immutable.
+     *
+     * @return true if no more writes can be appended to this segment
+     */
+    public boolean isSealed() {
+        return knownAddresses.size() >= StreamLogFiles.RECORDS_PER_LOG_FILE;
+    }
+
+    /**
+     * Returns a read-only view of the [offset, offset + length) region of this
+     * segment's memory mapped file. The mapping is created lazily on first access
+     * and should only be requested for sealed segments.
+     *
+     * @param offset file offset of the region
+     * @param length length of the region
+     * @return a buffer positioned over the requested region, or null if the
+     * segment file is too large to be mapped as a single buffer
+     * @throws IOException if the segment file can't be mapped
+     */
+    @Nullable
+    public ByteBuffer getMappedRegion(long offset, int length) throws IOException {
+        MappedByteBuffer mapped = mappedBuffer;
+        if (mapped == null) {
+            mapped = map();
+        }
+
+        if (mapped == null) {
+            return null;
+        }
+
+        ByteBuffer region = mapped.duplicate();
+        region.position((int) offset);
+        region.limit((int) offset + length);
+        return region.slice();
+    }
+
+    private synchronized MappedByteBuffer map() throws IOException {
+        if (mappedBuffer == null) {
+            if (!isSealed()) {
+                throw new IllegalStateException("Can't map unsealed segment " + segment);
+            }
+
+            if (readChannel.size() > Integer.MAX_VALUE) {
+                log.debug("map: segment {} is too large to be mapped", segment);
+                return null;
+            }
+            mappedBuffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+        }
+        return mappedBuffer;
+    }
+
     public void close() {
+        // The mapping is released once the buffer is garbage collected
+        mappedBuffer = null;
+
         Set<FileChannel> channels = new HashSet<>(
                 Arrays.asList(writeChannel, readChannel)
         );
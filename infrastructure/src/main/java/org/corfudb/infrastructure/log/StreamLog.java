@@ -1,7 +1,10 @@
 package org.corfudb.infrastructure.log;
 
+import com.google.protobuf.ByteString;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -35,6 +38,16 @@ public interface StreamLog {
      */
     void append(List<LogData> entries);
 
+    /**
+     * Append records of ascending addresses as returned by {@link #readRaw(List)}. The records
+     * are validated against their checksums and written as is. Records of trimmed addresses are
+     * ignored, while records of addresses that were already written fail the whole append with
+     * an OverwriteException.
+     *
+     * @param records persisted records
+     */
+    void appendRaw(ByteString records);
+
     /**
      * Given an address, read the corresponding stream entry.
      * @param address  address to read from the log
@@ -42,6 +55,35 @@ public interface StreamLog {
      */
     LogData read(long address);
 
+    /**
+     * Given a list of addresses, read the corresponding stream entries. Implementations
+     * may read the entries of adjacent addresses at once, rather than one by one.
+     *
+     * @param addresses addresses to read from the log
+     * @return the stream entries of the addresses that exist
+     */
+    default Map<Long, LogData> readAll(List<Long> addresses) {
+        Map<Long, LogData> entries = new HashMap<>();
+        for (long address : addresses) {
+            LogData entry = read(address);
+            if (entry != null) {
+                entries.put(address, entry);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Read the records of the given addresses in the format they are persisted in, without
+     * deserializing them, so that they can be appended to another stream log as is through
+     * {@link #appendRaw(ByteString)}.
+     *
+     * @param addresses addresses to read, in ascending order
+     * @return the persisted records of the addresses
+     * @throws TrimmedException if any of the addresses is trimmed
+     */
+    ByteString readRaw(List<Long> addresses);
+
     /**
      * Inspect if the stream log contains the entry at given address.
      *
@@ -114,6 +156,18 @@ public interface StreamLog {
      */
     void sync(boolean force) throws IOException;
 
+    /**
+     * Detach the writes appended since the last sync, so that they can be synced to
+     * secondary storage on a different thread, while new writes are being appended.
+     * This method has to be called by the thread that appends to the log.
+     *
+     * @param force force data to secondary storage if true
+     * @return a pending sync that syncs exactly the detached writes
+     */
+    default PendingSync detachSync(boolean force) {
+        return () -> sync(force);
+    }
+
     /**
      * Close the stream log.
      */
@@ -168,4 +222,12 @@ public interface StreamLog {
     default long quotaLimitInBytes() {
         return Long.MAX_VALUE;
     }
+
+    /**
+     * Writes detached from the stream log that still need to be synced to secondary storage.
+     */
+    @FunctionalInterface
+    interface PendingSync {
+        void sync() throws IOException;
+    }
 }
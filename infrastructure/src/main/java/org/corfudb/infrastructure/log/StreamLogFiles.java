@@ -2,13 +2,14 @@ package org.corfudb.infrastructure.log;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Sets;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.AtomicDouble;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.AbstractMessage;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnsafeByteOperations;
 import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Tag;
@@ -25,9 +26,12 @@ import org.corfudb.infrastructure.ResourceQuota;
 import org.corfudb.infrastructure.ServerContext;
 import org.corfudb.infrastructure.log.LogFormat.CheckpointEntryType;
 import org.corfudb.infrastructure.log.LogFormat.DataType;
+import org.corfudb.infrastructure.log.LogFormat.IndexEntry;
 import org.corfudb.infrastructure.log.LogFormat.LogEntry;
 import org.corfudb.infrastructure.log.LogFormat.LogHeader;
 import org.corfudb.infrastructure.log.LogFormat.Metadata;
+import org.corfudb.infrastructure.log.LogFormat.SegmentIndex;
+import org.corfudb.protocols.CorfuProtocolLogData;
 import org.corfudb.protocols.logprotocol.CheckpointEntry;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.LogData;
@@ -39,6 +43,7 @@ import org.corfudb.runtime.exceptions.OverwriteCause;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
+import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
 
 import javax.annotation.Nullable;
 import java.io.File;
@@ -46,6 +51,7 @@ import java.io.FileFilter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileStore;
@@ -55,10 +61,14 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -69,6 +79,9 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -95,13 +108,49 @@ public class StreamLogFiles implements StreamLog {
             .build()
             .getSerializedSize();
 
-    public static final int VERSION = 2;
+    /**
+     * Latest log format version. From version 3, entries are persisted in their serialized
+     * form (LogEntry.serialized_entry) rather than with their payload alone (LogEntry.data).
+     * Log units of the previous version can't read such segment files, so they are only
+     * created once serialized entries are enabled.
+     */
+    public static final int VERSION = 3;
+
+    /**
+     * Previous log format version, in which segment files are created unless serialized
+     * entries are enabled. Entries are written to those segments with their payload alone,
+     * so that they remain readable by log units of that version.
+     */
+    public static final int PAYLOAD_ONLY_VERSION = 2;
     public static final int RECORDS_PER_LOG_FILE = 10000;
+    public static final String SEGMENT_INDEX_EXTENSION = ".idx";
+    private static final String SEGMENT_INDEX_TMP_EXTENSION = SEGMENT_INDEX_EXTENSION + ".tmp";
+
+    // Upper bound on the size of the coalesced reads of adjacent records.
+    private static final int MAX_READ_REGION_SIZE = 4 * 1024 * 1024;
+
     private final Path logDir;
     private final boolean verify;
 
+    // If set, records of sealed segments are parsed directly from a
+    // read-only memory mapping of the segment file.
+    private final boolean mmapReads;
+
+    // If set, the log is not synced to disk and neither are the segment indexes.
+    private final boolean noSync;
+
+    // Log format version of the segment files created by this log.
+    private final int segmentVersion;
+
     private final StreamLogDataStore dataStore;
 
+    // Persists the indexes of sealed segments, off the append path.
+    private final ExecutorService indexWriter = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("LogUnit-IndexWriter-%d")
+                    .build());
+
     private ConcurrentMap<String, SegmentHandle> writeChannels;
     private final Set<FileChannel> channelsToSync;
     private final Optional<AtomicDouble> logUnitSizeBytes;
@@ -141,10 +190,56 @@ public class StreamLogFiles implements StreamLog {
      * @param noVerify      Disable checksum if true
      */
     public StreamLogFiles(ServerContext serverContext, boolean noVerify) {
+        this(serverContext, noVerify, false);
+    }
+
+    /**
+     * Returns a file-based stream log object.
+     *
+     * @param serverContext Context object that provides server state such as epoch,
+     *                      segment and start address
+     * @param noVerify      Disable checksum if true
+     * @param mmapReads     Read sealed segments through a memory mapping if true
+     */
+    public StreamLogFiles(ServerContext serverContext, boolean noVerify, boolean mmapReads) {
+        this(serverContext, noVerify, mmapReads, false);
+    }
+
+    /**
+     * Returns a file-based stream log object.
+     *
+     * @param serverContext Context object that provides server state such as epoch,
+     *                      segment and start address
+     * @param noVerify      Disable checksum if true
+     * @param mmapReads     Read sealed segments through a memory mapping if true
+     * @param noSync        Don't sync the segment indexes to disk if true
+     */
+    public StreamLogFiles(ServerContext serverContext, boolean noVerify, boolean mmapReads,
+                          boolean noSync) {
+        this(serverContext, noVerify, mmapReads, noSync, false);
+    }
+
+    /**
+     * Returns a file-based stream log object.
+     *
+     * @param serverContext     Context object that provides server state such as epoch,
+     *                          segment and start address
+     * @param noVerify          Disable checksum if true
+     * @param mmapReads         Read sealed segments through a memory mapping if true
+     * @param noSync            Don't sync the segment indexes to disk if true
+     * @param serializedEntries Create segments of the latest version, which persist entries in
+     *                          their serialized form, if true. Only to be set once all the log
+     *                          units of the cluster can read that version.
+     */
+    public StreamLogFiles(ServerContext serverContext, boolean noVerify, boolean mmapReads,
+                          boolean noSync, boolean serializedEntries) {
         logDir = Paths.get(serverContext.getServerConfig().get("--log-path").toString(), "log");
         writeChannels = new ConcurrentHashMap<>();
         channelsToSync = new HashSet<>();
         this.verify = !noVerify;
+        this.mmapReads = mmapReads;
+        this.noSync = noSync;
+        this.segmentVersion = serializedEntries ? VERSION : PAYLOAD_ONLY_VERSION;
         this.dataStore = new StreamLogDataStore(serverContext.getDataStore());
 
         String logSizeLimitPercentageParam = (String) serverContext.getServerConfig().get("--log-size-quota-percentage");
@@ -183,6 +278,7 @@ public class StreamLogFiles implements StreamLog {
                         .publishPercentiles(0.50, 0.99)
                         .publishPercentileHistogram(true)
                         .register(registry));
+        deleteOrphanedIndexFiles();
         long initialLogSize = estimateSize(logDir);
         log.info("StreamLogFiles: {} size is {} bytes, limit {}", logDir, initialLogSize, logSizeLimit);
         logSizeQuota = new ResourceQuota("LogSizeQuota", logSizeLimit);
@@ -206,6 +302,21 @@ public class StreamLogFiles implements StreamLog {
         return dataStore.getStartingAddress() / RECORDS_PER_LOG_FILE;
     }
 
+    /**
+     * Delete the temporary index files left behind by a crash while persisting an index.
+     */
+    private void deleteOrphanedIndexFiles() {
+        File[] files = logDir.toFile().listFiles(file -> file.getName().endsWith(SEGMENT_INDEX_TMP_EXTENSION));
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            log.info("deleteOrphanedIndexFiles: deleting {}", file.getName());
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
     /**
      * Create stream log directory if not exists
      *
@@ -258,18 +369,33 @@ public class StreamLogFiles implements StreamLog {
         // Note: if a checkpoint END record is not found (i.e., incomplete) this data is not considered
         // for stream trim mark computation.
         for (long currentSegment = tailSegment; currentSegment >= startingSegment; currentSegment--) {
-            SegmentHandle segment = getSegmentHandleForAddress(currentSegment * RECORDS_PER_LOG_FILE + 1);
+            SegmentHandle segment = getSegmentHandleForAddress(currentSegment * RECORDS_PER_LOG_FILE + 1, true);
             try {
-                for (Long address : segment.getKnownAddresses().keySet()) {
+                // Sealed segments with a valid persisted index don't need to be read
+                Optional<SegmentIndex> segmentIndex = segment.takeLoadedIndex();
+                if (segmentIndex.isPresent()) {
+                    for (IndexEntry entry : segmentIndex.get().getEntriesList()) {
+                        // skip trimmed entries
+                        if (entry.getAddress() < dataStore.getStartingAddress()) {
+                            continue;
+                        }
+                        logUnitSizeEntries.ifPresent(AtomicLong::incrementAndGet);
+                        logUnitSizeBytes.ifPresent(counter -> counter.addAndGet(entry.getSizeEstimate()));
+                        logMetadata.update(entry, true);
+                    }
+                    continue;
+                }
+
+                segment.getKnownAddresses().forEachAddress(address -> {
                     // skip trimmed entries
                     if (address < dataStore.getStartingAddress()) {
-                        continue;
+                        return;
                     }
                     LogData logEntry = read(address);
                     logUnitSizeEntries.ifPresent(AtomicLong::incrementAndGet);
                     logUnitSizeBytes.ifPresent(counter -> counter.addAndGet(logEntry.getSizeEstimate()));
                     logMetadata.update(logEntry, true);
-                }
+                });
             } finally {
                 segment.close();
             }
@@ -427,9 +553,9 @@ public class StreamLogFiles implements StreamLog {
                 continue;
             }
 
-            if (header.getVersion() != VERSION) {
-                String msg = String.format("Log version %s for %s should match the LogUnit log version %s",
-                        header.getVersion(), file.getAbsoluteFile(), VERSION);
+            if (header.getVersion() != VERSION && header.getVersion() != PAYLOAD_ONLY_VERSION) {
+                String msg = String.format("Log version %s for %s should match the LogUnit log version %s or %s",
+                        header.getVersion(), file.getAbsoluteFile(), VERSION, PAYLOAD_ONLY_VERSION);
                 throw new IllegalStateException(msg);
             }
 
@@ -443,16 +569,33 @@ public class StreamLogFiles implements StreamLog {
 
     @Override
     public void sync(boolean force) throws IOException {
-        if (force) {
-            for (FileChannel ch : channelsToSync) {
+        detachSync(force).sync();
+    }
+
+    @Override
+    public PendingSync detachSync(boolean force) {
+        if (!force) {
+            channelsToSync.clear();
+            return () -> {};
+        }
+
+        Set<FileChannel> channels = new HashSet<>(channelsToSync);
+        channelsToSync.clear();
+
+        return () -> {
+            for (FileChannel ch : channels) {
                 Optional<Timer.Sample> sample =
                         MicroMeterUtils.startTimer();
-                ch.force(true);
+                try {
+                    ch.force(true);
+                } catch (ClosedChannelException e) {
+                    // Segments are forced before their channels are closed
+                    log.debug("sync: channel already closed {}", ch);
+                }
                 MicroMeterUtils.time(sample, "logunit.fsync.timer");
             }
-        }
-        log.trace("Sync'd {} channels", channelsToSync.size());
-        channelsToSync.clear();
+            log.trace("Sync'd {} channels", channels.size());
+        };
     }
 
     @Override
@@ -497,7 +640,11 @@ public class StreamLogFiles implements StreamLog {
         log.info("trimPrefix: completed, end segment {}", endSegment);
     }
 
-    private LogData getLogData(LogEntry entry) {
+    private static LogData getLogData(LogEntry entry) {
+        if (entry.hasSerializedEntry()) {
+            return LogData.fromSerializedEntry(entry.getSerializedEntry());
+        }
+
         ByteBuffer entryData = ByteBuffer.wrap(entry.getData().toByteArray());
 
         int ldCodecType = entry.hasCodecType() ? entry.getCodecType() : Codec.Type.NONE.getId();
@@ -509,6 +656,10 @@ public class StreamLogFiles implements StreamLog {
         logData.setBackpointerMap(getUUIDLongMap(entry.getBackpointersMap()));
         logData.setGlobalAddress(entry.getGlobalAddress());
 
+        if (entry.hasCodecDictionaryId()) {
+            logData.setPayloadCodecDictionaryId(entry.getCodecDictionaryId());
+        }
+
         if (entry.hasThreadId()) {
             logData.setThreadId(entry.getThreadId());
         }
@@ -715,16 +866,35 @@ public class StreamLogFiles implements StreamLog {
     /**
      * Reads an address space from a log file into a SegmentHandle.
      *
-     * @param segment Object containing state for the segment to be read
+     * @param segment   Object containing state for the segment to be read
+     * @param keepIndex Keep the persisted index of the segment on the handle if it is loaded
      */
-    private void readAddressSpace(SegmentHandle segment) throws IOException {
+    private void readAddressSpace(SegmentHandle segment, boolean keepIndex) throws IOException {
         FileChannel fileChannel = segment.getWriteChannel();
         fileChannel.position(0);
 
         LogHeader header = parseHeader(fileChannel, segment.getFileName());
         if (header == null) {
             log.warn("Couldn't find log header for {}, creating new header.", segment.getFileName());
-            writeHeader(fileChannel, VERSION, verify);
+            writeHeader(fileChannel, segmentVersion, verify);
+            segment.setVersion(segmentVersion);
+            return;
+        }
+        segment.setVersion(header.getVersion());
+
+        Optional<SegmentIndex> segmentIndex = readSegmentIndex(segment);
+        if (segmentIndex.isPresent()) {
+            for (IndexEntry entry : segmentIndex.get().getEntriesList()) {
+                segment.getKnownAddresses().put(entry.getAddress(),
+                        new AddressMetaData(entry.getChecksum(), entry.getLength(), entry.getOffset()));
+            }
+            // The segment is sealed, but keep the channel position consistent with a full scan
+            fileChannel.position(fileChannel.size());
+            // The records weren't verified by a scan, verify them when they are read
+            segment.setVerifyOnRead(verify);
+            if (keepIndex) {
+                segment.setLoadedIndex(segmentIndex.get());
+            }
             return;
         }
 
@@ -754,7 +924,209 @@ public class StreamLogFiles implements StreamLog {
                     channelOffset + METADATA_SIZE
             );
 
+            if (segment.getKnownAddresses().contains(entry.getGlobalAddress())) {
+                log.warn("readAddressSpace: duplicate record for address {} in file {}, keeping the last one",
+                        entry.getGlobalAddress(), segment.getFileName());
+            }
+
             segment.getKnownAddresses().put(entry.getGlobalAddress(), addressMetadata);
+            segment.addIndexEntry(getIndexEntry(entry, addressMetadata));
+        }
+
+        // Segment is sealed but its index is missing or invalid, rebuild it
+        writeSegmentIndex(segment);
+    }
+
+    private Path getSegmentIndexPath(long segment) {
+        return logDir.resolve(segment + SEGMENT_INDEX_EXTENSION);
+    }
+
+    private static int getPayloadSize(LogEntry entry) {
+        return entry.hasSerializedEntry() ? entry.getSerializedEntry().size() : entry.getData().size();
+    }
+
+    private static IndexEntry getIndexEntry(LogEntry entry, AddressMetaData metaData) {
+        if (entry.hasSerializedEntry()) {
+            // The other fields of the entry are only held by its serialized form
+            return getIndexEntry(entry.getGlobalAddress(), getLogData(entry), getPayloadSize(entry), metaData);
+        }
+
+        IndexEntry.Builder builder = IndexEntry.newBuilder()
+                .setAddress(entry.getGlobalAddress())
+                .setOffset(metaData.offset)
+                .setLength(metaData.length)
+                .setChecksum(metaData.checksum)
+                .setSizeEstimate(getPayloadSize(entry));
+
+        for (String stream : entry.getBackpointersMap().keySet()) {
+            UUID streamId = UUID.fromString(stream);
+            builder.addStreamsMostSignificant(streamId.getMostSignificantBits());
+            builder.addStreamsLeastSignificant(streamId.getLeastSignificantBits());
+        }
+
+        if (entry.hasCheckpointEntryType()) {
+            builder.setCheckpointEntryType(entry.getCheckpointEntryType())
+                    .setCheckpointedStreamIdMostSignificant(entry.getCheckpointedStreamIdMostSignificant())
+                    .setCheckpointedStreamIdLeastSignificant(entry.getCheckpointedStreamIdLeastSignificant())
+                    .setCheckpointedStreamStartLogAddress(entry.getCheckpointedStreamStartLogAddress());
+        }
+
+        return builder.build();
+    }
+
+    private static IndexEntry getIndexEntry(long address, LogData entry, int sizeEstimate,
+                                            AddressMetaData metaData) {
+        IndexEntry.Builder builder = IndexEntry.newBuilder()
+                .setAddress(address)
+                .setOffset(metaData.offset)
+                .setLength(metaData.length)
+                .setChecksum(metaData.checksum)
+                .setSizeEstimate(sizeEstimate);
+
+        for (UUID streamId : entry.getStreams()) {
+            builder.addStreamsMostSignificant(streamId.getMostSignificantBits());
+            builder.addStreamsLeastSignificant(streamId.getLeastSignificantBits());
+        }
+
+        if (entry.hasCheckpointMetadata()) {
+            builder.setCheckpointEntryType(CheckpointEntryType.forNumber(entry.getCheckpointType().ordinal()))
+                    .setCheckpointedStreamIdMostSignificant(entry.getCheckpointedStreamId().getMostSignificantBits())
+                    .setCheckpointedStreamIdLeastSignificant(entry.getCheckpointedStreamId().getLeastSignificantBits())
+                    .setCheckpointedStreamStartLogAddress(entry.getCheckpointedStreamStartLogAddress());
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Persist the index of a sealed segment alongside its segment file, so that
+     * the next time the segment is opened its address space can be loaded from the
+     * index rather than by scanning the whole segment. The index is persisted by the
+     * index writer, off the append path. Failing to persist the index is not fatal,
+     * as segments without an index are scanned. Once the segment is sealed its
+     * pending index entries are released either way.
+     *
+     * @param segment a segment handle
+     */
+    private void writeSegmentIndex(SegmentHandle segment) {
+        if (!segment.isSealed() || !segment.isIndexable()) {
+            return;
+        }
+
+        try {
+            List<IndexEntry> entries = segment.getPendingIndexEntries();
+            if (entries.size() != RECORDS_PER_LOG_FILE) {
+                log.debug("writeSegmentIndex: missing index entries for segment {}", segment.getSegment());
+                return;
+            }
+
+            SegmentIndex index = SegmentIndex.newBuilder()
+                    .setVersion(segment.getVersion())
+                    .setSegment(segment.getSegment())
+                    .setSegmentSize(segment.getWriteChannel().size())
+                    .addAllEntries(entries)
+                    .build();
+            indexWriter.execute(() -> persistSegmentIndex(segment, index));
+        } catch (IOException e) {
+            log.warn("writeSegmentIndex: couldn't index segment {}", segment.getSegment(), e);
+        } finally {
+            segment.discardIndexEntries();
+        }
+    }
+
+    /**
+     * Write the index of a sealed segment to a temporary file and atomically move it
+     * in place. The index isn't charged to the log size quota, since it is derived
+     * from the segment and can be rebuilt at any time.
+     *
+     * @param segment a sealed segment handle
+     * @param index   the index of the segment
+     */
+    private void persistSegmentIndex(SegmentHandle segment, SegmentIndex index) {
+        Path indexPath = getSegmentIndexPath(segment.getSegment());
+        Path tmpIndexPath = Paths.get(logDir.toString(), segment.getSegment() + SEGMENT_INDEX_TMP_EXTENSION);
+
+        // Segments are closed before their files are deleted on trims and resets
+        Lock lock = resetLock.readLock();
+        lock.lock();
+        try {
+            if (!segment.getWriteChannel().isOpen()) {
+                log.debug("persistSegmentIndex: segment {} is closed", segment.getSegment());
+                return;
+            }
+
+            // The records have to be durable before the index that points to them
+            if (!noSync) {
+                segment.getWriteChannel().force(true);
+            }
+
+            try (FileChannel channel = FileChannel.open(tmpIndexPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buf = getByteBufferWithMetaData(index);
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+                if (!noSync) {
+                    channel.force(true);
+                }
+            }
+
+            Files.move(tmpIndexPath, indexPath, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            if (!noSync) {
+                syncDirectory(logDir.toString());
+            }
+            log.debug("persistSegmentIndex: persisted index for segment {}", segment.getSegment());
+        } catch (IOException e) {
+            log.warn("persistSegmentIndex: couldn't persist index for segment {}", segment.getSegment(), e);
+            FileUtils.deleteQuietly(tmpIndexPath.toFile());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read the persisted index of a segment.
+     *
+     * @param segment a segment handle
+     * @return the segment index, or empty if the index doesn't exist, is corrupted
+     * or doesn't match the segment file.
+     */
+    private Optional<SegmentIndex> readSegmentIndex(SegmentHandle segment) {
+        Path indexPath = getSegmentIndexPath(segment.getSegment());
+        if (!indexPath.toFile().exists()) {
+            return Optional.empty();
+        }
+
+        try {
+            byte[] bytes = Files.readAllBytes(indexPath);
+            if (bytes.length < METADATA_SIZE) {
+                log.warn("readSegmentIndex: partially written index {}", indexPath);
+                return Optional.empty();
+            }
+
+            Metadata metadata = Metadata.parseFrom(ByteBuffer.wrap(bytes, 0, METADATA_SIZE));
+            byte[] payload = Arrays.copyOfRange(bytes, METADATA_SIZE, bytes.length);
+            if (metadata.getLengthChecksum() != Checksum.getChecksum(metadata.getLength())
+                    || metadata.getLength() != payload.length
+                    || metadata.getPayloadChecksum() != Checksum.getChecksum(payload)) {
+                log.warn("readSegmentIndex: checksum mismatch in index {}", indexPath);
+                return Optional.empty();
+            }
+
+            SegmentIndex index = SegmentIndex.parseFrom(payload);
+            if (index.getVersion() != segment.getVersion()
+                    || index.getSegment() != segment.getSegment()
+                    || index.getSegmentSize() != segment.getWriteChannel().size()
+                    || index.getEntriesCount() != RECORDS_PER_LOG_FILE) {
+                log.warn("readSegmentIndex: index {} doesn't match segment {}", indexPath, segment.getFileName());
+                return Optional.empty();
+            }
+
+            return Optional.of(index);
+        } catch (IOException e) {
+            log.warn("readSegmentIndex: couldn't read index {}", indexPath, e);
+            return Optional.empty();
         }
     }
 
@@ -775,9 +1147,7 @@ public class StreamLogFiles implements StreamLog {
         }
 
         try {
-            ByteBuffer entryBuf = ByteBuffer.allocate(metaData.length);
-            fileChannel.read(entryBuf, metaData.offset);
-            LogData logData = getLogData(LogEntry.parseFrom(entryBuf.array()));
+            LogData logData = getLogData(parseRecord(segment, metaData));
             readDistributionSummary.ifPresent(summary -> summary.record(metaData.length));
             return logData;
         } catch (InvalidProtocolBufferException e) {
@@ -788,6 +1158,50 @@ public class StreamLogFiles implements StreamLog {
         }
     }
 
+    /**
+     * Parse the record described by metaData. Sealed segments are parsed straight from
+     * the memory mapped segment file (when enabled), while the active segments are read
+     * through a positional read on the segment's read channel.
+     *
+     * @param segment  The file handle to use.
+     * @param metaData The location of the record in the segment file.
+     * @return the parsed log entry
+     */
+    private LogEntry parseRecord(SegmentHandle segment, AddressMetaData metaData) throws IOException {
+        if (mmapReads && segment.isSealed()) {
+            ByteBuffer region = segment.getMappedRegion(metaData.offset, metaData.length);
+            if (region != null) {
+                verifyRecord(segment, metaData, region);
+                return LogEntry.parseFrom(region);
+            }
+        }
+
+        ByteBuffer entryBuf = ByteBuffer.allocate(metaData.length);
+        segment.getReadChannel().read(entryBuf, metaData.offset);
+        entryBuf.flip();
+        verifyRecord(segment, metaData, entryBuf);
+        return LogEntry.parseFrom(entryBuf.array());
+    }
+
+    /**
+     * Verify the checksum of a record of a segment that wasn't verified by a scan,
+     * i.e. whose address space was loaded from its persisted index.
+     *
+     * @param segment  The file handle the record was read from.
+     * @param metaData The location and checksum of the record.
+     * @param entryBuf The record, between the buffer's position and limit.
+     */
+    private void verifyRecord(SegmentHandle segment, AddressMetaData metaData, ByteBuffer entryBuf)
+            throws IOException {
+        if (segment.isVerifyOnRead() && metaData.checksum != Checksum.getChecksum(entryBuf)) {
+            String errorMessage = getDataCorruptionErrorMessage(
+                    "Checksum mismatch detected while trying to read file",
+                    segment.getReadChannel(), segment.getFileName()
+            );
+            throw new DataCorruptionException(errorMessage);
+        }
+    }
+
     @Nullable
     private FileChannel getChannel(String filePath, boolean readOnly) throws IOException {
         if (readOnly) {
@@ -830,6 +1244,18 @@ public class StreamLogFiles implements StreamLog {
      */
     @VisibleForTesting
     SegmentHandle getSegmentHandleForAddress(long address) {
+        return getSegmentHandleForAddress(address, false);
+    }
+
+    /**
+     * Return a SegmentHandle for a corresponding log address.
+     *
+     * @param address   The address to open.
+     * @param keepIndex Keep the persisted index of the segment on the handle, if the
+     *                  segment is opened and its address space is loaded from it.
+     * @return The FileChannel for that address.
+     */
+    private SegmentHandle getSegmentHandleForAddress(long address, boolean keepIndex) {
         long segment = address / RECORDS_PER_LOG_FILE;
 
         String filePath = logDir + File.separator;
@@ -849,7 +1275,7 @@ public class StreamLogFiles implements StreamLog {
                 // The first time we open a file we should read to the end, to load the
                 // map of entries we already have.
                 // Once the segment address space is loaded, it should be ready to accept writes.
-                readAddressSpace(sh);
+                readAddressSpace(sh, keepIndex);
                 return sh;
             } catch (IOException e) {
                 log.error("Error opening file {}", a, e);
@@ -868,7 +1294,7 @@ public class StreamLogFiles implements StreamLog {
         return handle;
     }
 
-    private Map<String, Long> getStrLongMap(Map<UUID, Long> uuidLongMap) {
+    private static Map<String, Long> getStrLongMap(Map<UUID, Long> uuidLongMap) {
         Map<String, Long> stringLongMap = new HashMap<>();
 
         for (Map.Entry<UUID, Long> entry : uuidLongMap.entrySet()) {
@@ -879,7 +1305,7 @@ public class StreamLogFiles implements StreamLog {
     }
 
     @SuppressWarnings("checkstyle:abbreviationaswordinname")  // Due to deprecation
-    private Map<UUID, Long> getUUIDLongMap(Map<String, Long> stringLongMap) {
+    private static Map<UUID, Long> getUUIDLongMap(Map<String, Long> stringLongMap) {
         Map<UUID, Long> uuidLongMap = new HashMap<>();
 
         for (Map.Entry<String, Long> entry : stringLongMap.entrySet()) {
@@ -890,7 +1316,7 @@ public class StreamLogFiles implements StreamLog {
     }
 
     @SuppressWarnings("checkstyle:abbreviationaswordinname") // Due to deprecation
-    private Set<String> getStrUUID(Set<UUID> uuids) {
+    private static Set<String> getStrUUID(Set<UUID> uuids) {
         Set<String> strUUIds = new HashSet<>();
 
         for (UUID uuid : uuids) {
@@ -901,9 +1327,19 @@ public class StreamLogFiles implements StreamLog {
     }
 
 
-    private LogEntry getLogEntry(long address, LogData entry) {
-        ByteBuffer data = ByteBuffer.wrap(entry.getData() == null ? new byte[0] : entry.getData());
+    private static LogEntry getLogEntry(long address, LogData entry, int version) {
+        // The entry is persisted in its wire format, so that reads can serve it without
+        // serializing it again, unless it doesn't carry the address it is written at or
+        // the segment is of the previous format version. The serialized entry holds all
+        // the other fields, so only the address is written alongside it.
+        if (version >= VERSION && entry.getGlobalAddress() == address) {
+            return LogEntry.newBuilder()
+                    .setGlobalAddress(address)
+                    .setSerializedEntry(CorfuProtocolLogData.getLogDataMsg(entry).getEntry())
+                    .build();
+        }
 
+        ByteBuffer data = ByteBuffer.wrap(entry.getData() == null ? new byte[0] : entry.getData());
         LogEntry.Builder logEntryBuilder = LogEntry.newBuilder()
                 .setDataType(DataType.forNumber(entry.getType().ordinal()))
                 .setCodecType(entry.getPayloadCodecType().getId())
@@ -912,6 +1348,10 @@ public class StreamLogFiles implements StreamLog {
                 .addAllStreams(getStrUUID(entry.getStreams()))
                 .putAllBackpointers(getStrLongMap(entry.getBackpointerMap()));
 
+        if (entry.getPayloadCodecDictionaryId() != null) {
+            logEntryBuilder.setCodecDictionaryId(entry.getPayloadCodecDictionaryId());
+        }
+
         if (entry.getClientId() != null && entry.getThreadId() != null) {
             logEntryBuilder.setClientIdMostSignificant(
                     entry.getClientId().getMostSignificantBits());
@@ -955,10 +1395,12 @@ public class StreamLogFiles implements StreamLog {
         int totalBytes = 0;
 
         List<Metadata> metadataList = new ArrayList<>();
+        List<LogEntry> logEntries = new ArrayList<>();
 
         for (LogData curr : entries) {
-            LogEntry logEntry = getLogEntry(curr.getGlobalAddress(), curr);
+            LogEntry logEntry = getLogEntry(curr.getGlobalAddress(), curr, segment.getVersion());
             Metadata metadata = getMetadata(logEntry);
+            logEntries.add(logEntry);
             metadataList.add(metadata);
             ByteBuffer record = getByteBuffer(metadata, logEntry);
             totalBytes += record.limit();
@@ -981,6 +1423,11 @@ public class StreamLogFiles implements StreamLog {
         allRecordsBuf.flip();
         writeByteBuffer(segment.getWriteChannel(), allRecordsBuf);
         channelsToSync.add(segment.getWriteChannel());
+        for (int ind = 0; ind < entries.size(); ind++) {
+            long address = entries.get(ind).getGlobalAddress();
+            segment.addIndexEntry(getIndexEntry(address, entries.get(ind),
+                    getPayloadSize(logEntries.get(ind)), recordsMap.get(address)));
+        }
         // Sync the global and stream tail(s)
         // TODO(Maithem): on ioexceptions the StreamLogFiles needs to be reinitialized
         syncTailSegment(entries.get(entries.size() - 1).getGlobalAddress());
@@ -992,6 +1439,266 @@ public class StreamLogFiles implements StreamLog {
         return recordsMap;
     }
 
+    /**
+     * Write a list of raw records, as read from another log unit, to a log file. The records
+     * are written as is and their index entries are derived from the parsed log entries.
+     *
+     * @param segment segment handle to the logfile
+     * @param records list of raw records to write.
+     * @return A map of AddressMetaData for the written records
+     * @throws IOException IO exception
+     */
+    private Map<Long, AddressMetaData> writeRawRecords(SegmentHandle segment,
+                                                       List<RawRecord> records) throws IOException {
+        Map<Long, AddressMetaData> recordsMap = new HashMap<>();
+        List<IndexEntry> indexEntries = new ArrayList<>();
+
+        int totalBytes = records.stream().mapToInt(record -> record.bytes.size()).sum();
+        ByteBuffer allRecordsBuf = ByteBuffer.allocate(totalBytes);
+        long size = allRecordsBuf.remaining();
+
+        for (RawRecord record : records) {
+            long channelOffset = segment.getWriteChannel().position()
+                    + allRecordsBuf.position() + METADATA_SIZE;
+            record.bytes.copyTo(allRecordsBuf);
+            AddressMetaData addressMetaData = new AddressMetaData(record.metadata.getPayloadChecksum(),
+                    record.metadata.getLength(), channelOffset);
+            recordsMap.put(record.entry.getGlobalAddress(), addressMetaData);
+            indexEntries.add(getIndexEntry(record.entry, addressMetaData));
+        }
+
+        allRecordsBuf.flip();
+        writeByteBuffer(segment.getWriteChannel(), allRecordsBuf);
+        channelsToSync.add(segment.getWriteChannel());
+        indexEntries.forEach(segment::addIndexEntry);
+
+        syncTailSegment(records.get(records.size() - 1).entry.getGlobalAddress());
+        // An index entry holds everything the log metadata needs from the log entry
+        // it describes, so the log entries don't have to be converted to LogData.
+        logMetadata.updateFromIndex(indexEntries);
+
+        logUnitSizeBytes.ifPresent(counter -> counter.addAndGet(size));
+        writeDistributionSummary.ifPresent(summary -> summary.record(size));
+        logUnitSizeEntries.ifPresent(counter -> counter.addAndGet(records.size()));
+        return recordsMap;
+    }
+
+    /**
+     * Parse and validate raw records, as read from another log unit.
+     *
+     * @param records concatenated raw records
+     * @return the parsed records
+     * @throws DataCorruptionException if a record is partial or doesn't match its checksums
+     */
+    private static List<RawRecord> parseRawRecords(ByteString records) {
+        List<RawRecord> parsed = new ArrayList<>();
+        int offset = 0;
+
+        try {
+            while (offset < records.size()) {
+                if (records.size() - offset < METADATA_SIZE) {
+                    throw new DataCorruptionException("Raw records: partial metadata at offset " + offset);
+                }
+
+                Metadata metadata = Metadata.parseFrom(records.substring(offset, offset + METADATA_SIZE));
+                if (metadata.getLengthChecksum() != Checksum.getChecksum(metadata.getLength())) {
+                    throw new DataCorruptionException("Raw records: invalid length checksum at offset " + offset);
+                }
+
+                long recordEnd = (long) offset + METADATA_SIZE + metadata.getLength();
+                if (metadata.getLength() < 0 || recordEnd > records.size()) {
+                    throw new DataCorruptionException("Raw records: partial record at offset " + offset);
+                }
+
+                byte[] payload = records.substring(offset + METADATA_SIZE, (int) recordEnd).toByteArray();
+                if (metadata.getPayloadChecksum() != Checksum.getChecksum(payload)) {
+                    throw new DataCorruptionException("Raw records: invalid payload checksum at offset " + offset);
+                }
+
+                parsed.add(new RawRecord(records.substring(offset, (int) recordEnd),
+                        metadata, LogEntry.parseFrom(payload)));
+                offset = (int) recordEnd;
+            }
+        } catch (InvalidProtocolBufferException e) {
+            throw new DataCorruptionException("Raw records: can't parse record at offset " + offset, e);
+        }
+
+        return parsed;
+    }
+
+    /**
+     * Get the raw record of an entry, i.e. the record that would be persisted for it in a
+     * segment file, for stream logs which don't persist their entries.
+     *
+     * @param entry an entry holding its global address
+     * @return the raw record of the entry
+     */
+    static ByteString getRawRecord(LogData entry) {
+        // The records are written in the previous version, which any log unit can append
+        return getRawRecord(getLogEntry(entry.getGlobalAddress(), entry, PAYLOAD_ONLY_VERSION)).bytes;
+    }
+
+    private static RawRecord getRawRecord(LogEntry logEntry) {
+        Metadata metadata = getMetadata(logEntry);
+        return new RawRecord(UnsafeByteOperations.unsafeWrap(getByteBuffer(metadata, logEntry)),
+                metadata, logEntry);
+    }
+
+    /**
+     * Parse and validate raw records into the entries they hold, for stream logs
+     * which don't persist their entries.
+     *
+     * @param records concatenated raw records
+     * @return the entries of the records
+     * @throws DataCorruptionException if a record is partial or doesn't match its checksums
+     */
+    static List<LogData> getRawRecordEntries(ByteString records) {
+        return parseRawRecords(records).stream()
+                .map(record -> getLogData(record.entry))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Read the raw records of addresses within a segment. Records that are adjacent
+     * in the segment file are read at once.
+     *
+     * @param segment   segment handle to the logfile
+     * @param addresses addresses of the segment, in ascending order
+     * @return the raw records
+     * @throws IOException IO exception
+     */
+    private ByteString readRawRecords(SegmentHandle segment, List<Long> addresses) throws IOException {
+        ByteString records = ByteString.EMPTY;
+        long regionStart = 0;
+        long regionEnd = 0;
+
+        for (long address : addresses) {
+            if (isTrimmed(address) || segment.getPendingTrims().contains(address)) {
+                throw new TrimmedException();
+            }
+
+            AddressMetaData metaData = segment.getKnownAddresses().get(address);
+            if (metaData == null) {
+                throw new IllegalArgumentException("Address " + address + " doesn't exist");
+            }
+
+            long recordStart = metaData.offset - METADATA_SIZE;
+            if (recordStart != regionEnd) {
+                records = records.concat(readRegion(segment, regionStart, regionEnd));
+                regionStart = recordStart;
+            }
+            regionEnd = metaData.offset + metaData.length;
+        }
+
+        return records.concat(readRegion(segment, regionStart, regionEnd));
+    }
+
+    private ByteString readRegion(SegmentHandle segment, long start, long end) throws IOException {
+        int length = Math.toIntExact(end - start);
+        if (length == 0) {
+            return ByteString.EMPTY;
+        }
+
+        readDistributionSummary.ifPresent(summary -> summary.record(length));
+        ByteBuffer region = readBuffer(segment, start, length);
+        return region.hasArray() ? UnsafeByteOperations.unsafeWrap(region.array())
+                : ByteString.copyFrom(region);
+    }
+
+    /**
+     * Read a region of the segment file with a single positional read, or from the memory
+     * mapped segment file if enabled.
+     *
+     * @return a buffer whose position is the start of the region, and whose limit is its end
+     */
+    private ByteBuffer readBuffer(SegmentHandle segment, long start, int length) throws IOException {
+        if (mmapReads && segment.isSealed()) {
+            ByteBuffer region = segment.getMappedRegion(start, length);
+            if (region != null) {
+                return region;
+            }
+        }
+
+        ByteBuffer region = ByteBuffer.allocate(length);
+        while (region.hasRemaining()) {
+            if (segment.getReadChannel().read(region, start + region.position()) < 0) {
+                throw new DataCorruptionException("Segment " + segment.getFileName()
+                        + " is shorter than its records");
+            }
+        }
+        region.flip();
+        return region;
+    }
+
+    /**
+     * Read the entries of addresses within a segment. Records that are adjacent in the
+     * segment file are read at once, up to {@link #MAX_READ_REGION_SIZE} bytes at a time.
+     *
+     * @param segment   segment handle to the logfile
+     * @param addresses addresses of the segment
+     * @param entries   map to put the entries of the written addresses in
+     * @throws IOException IO exception
+     */
+    private void readRecords(SegmentHandle segment, List<Long> addresses, Map<Long, LogData> entries)
+            throws IOException {
+        List<Map.Entry<Long, AddressMetaData>> records = new ArrayList<>(addresses.size());
+        for (long address : addresses) {
+            if (segment.getPendingTrims().contains(address)) {
+                entries.put(address, LogData.getTrimmed(address));
+                continue;
+            }
+            AddressMetaData metaData = segment.getKnownAddresses().get(address);
+            if (metaData != null) {
+                records.add(new AbstractMap.SimpleImmutableEntry<>(address, metaData));
+            }
+        }
+        records.sort(Comparator.comparingLong(record -> record.getValue().offset));
+
+        int regionStart = 0;
+        for (int i = 1; i <= records.size(); i++) {
+            if (i < records.size()) {
+                AddressMetaData previous = records.get(i - 1).getValue();
+                AddressMetaData current = records.get(i).getValue();
+                long regionLength = current.offset + current.length
+                        - records.get(regionStart).getValue().offset;
+                if (current.offset - METADATA_SIZE == previous.offset + previous.length
+                        && regionLength <= MAX_READ_REGION_SIZE) {
+                    continue;
+                }
+            }
+            parseRegion(segment, records.subList(regionStart, i), entries);
+            regionStart = i;
+        }
+    }
+
+    /**
+     * Read the adjacent records at once, and parse each of them from the region read.
+     */
+    private void parseRegion(SegmentHandle segment, List<Map.Entry<Long, AddressMetaData>> records,
+                             Map<Long, LogData> entries) throws IOException {
+        long start = records.get(0).getValue().offset;
+        AddressMetaData last = records.get(records.size() - 1).getValue();
+        ByteBuffer region = readBuffer(segment, start, Math.toIntExact(last.offset + last.length - start));
+
+        for (Map.Entry<Long, AddressMetaData> record : records) {
+            AddressMetaData metaData = record.getValue();
+            ByteBuffer entryBuf = region.duplicate();
+            int position = region.position() + Math.toIntExact(metaData.offset - start);
+            entryBuf.limit(position + metaData.length);
+            entryBuf.position(position);
+            verifyRecord(segment, metaData, entryBuf);
+            try {
+                entries.put(record.getKey(), getLogData(LogEntry.parseFrom(entryBuf)));
+            } catch (InvalidProtocolBufferException e) {
+                String errorMessage = getDataCorruptionErrorMessage("Invalid entry",
+                        segment.getReadChannel(), segment.getFileName()
+                );
+                throw new DataCorruptionException(errorMessage, e);
+            }
+            readDistributionSummary.ifPresent(summary -> summary.record(metaData.length));
+        }
+    }
+
     /**
      * Attempts to write a buffer to a file channel, if write fails with an
      * IOException then the channel pointer is moved back to its original position
@@ -1021,7 +1728,7 @@ public class StreamLogFiles implements StreamLog {
     private AddressMetaData writeRecord(SegmentHandle segment, long address,
                                         LogData entry) throws IOException {
 
-        LogEntry logEntry = getLogEntry(address, entry);
+        LogEntry logEntry = getLogEntry(address, entry, segment.getVersion());
         Metadata metadata = getMetadata(logEntry);
 
         ByteBuffer record = getByteBuffer(metadata, logEntry);
@@ -1031,13 +1738,16 @@ public class StreamLogFiles implements StreamLog {
         channelOffset = segment.getWriteChannel().position() + METADATA_SIZE;
         writeByteBuffer(segment.getWriteChannel(), record);
         channelsToSync.add(segment.getWriteChannel());
+        AddressMetaData addressMetaData = new AddressMetaData(metadata.getPayloadChecksum(),
+                metadata.getLength(), channelOffset);
+        segment.addIndexEntry(getIndexEntry(address, entry, getPayloadSize(logEntry), addressMetaData));
         syncTailSegment(address);
         logMetadata.update(entry, false);
 
         logUnitSizeBytes.ifPresent(counter -> counter.addAndGet(size));
         writeDistributionSummary.ifPresent(summary -> summary.record(size));
         logUnitSizeEntries.ifPresent(counter -> counter.incrementAndGet());
-        return new AddressMetaData(metadata.getPayloadChecksum(), metadata.getLength(), channelOffset);
+        return addressMetaData;
     }
 
     private long getSegment(LogData entry) {
@@ -1121,7 +1831,7 @@ public class StreamLogFiles implements StreamLog {
         try {
             Set<Long> result = new HashSet<>();
             for (long address = rangeStart; address <= rangeEnd; address++) {
-                if (getSegmentHandleForAddress(address).getKnownAddresses().containsKey(address)) {
+                if (getSegmentHandleForAddress(address).getKnownAddresses().contains(address)) {
                     result.add(address);
                 }
             }
@@ -1157,10 +1867,8 @@ public class StreamLogFiles implements StreamLog {
                 .map(ILogData::getGlobalAddress).collect(Collectors.toSet());
 
         // See if the provided range overlaps with any of the previously written entries.
-        Set<Long> segOneOverlap = Sets.intersection(pendingWrites,
-                firstSh.getKnownAddresses().keySet());
-        Set<Long> segTwoOverlap = Sets.intersection(pendingWrites,
-                lastSh.getKnownAddresses().keySet());
+        Set<Long> segOneOverlap = firstSh.getKnownAddresses().intersection(pendingWrites);
+        Set<Long> segTwoOverlap = lastSh.getKnownAddresses().intersection(pendingWrites);
         if (!segOneOverlap.isEmpty() || !segTwoOverlap.isEmpty()) {
             log.error("Overlapping addresses detected: {}, {}", segOneOverlap, segTwoOverlap);
             throw new OverwriteException(OverwriteCause.SAME_DATA);
@@ -1171,10 +1879,10 @@ public class StreamLogFiles implements StreamLog {
 
         for (LogData curr : entries) {
             if (getSegment(curr) == firstSh.getSegment() &&
-                    !firstSh.getKnownAddresses().containsKey(curr.getGlobalAddress())) {
+                    !firstSh.getKnownAddresses().contains(curr.getGlobalAddress())) {
                 segOneEntries.add(curr);
             } else if (getSegment(curr) == lastSh.getSegment() &&
-                    !lastSh.getKnownAddresses().containsKey(curr.getGlobalAddress())) {
+                    !lastSh.getKnownAddresses().contains(curr.getGlobalAddress())) {
                 segTwoEntries.add(curr);
             }
         }
@@ -1183,11 +1891,13 @@ public class StreamLogFiles implements StreamLog {
             if (!segOneEntries.isEmpty()) {
                 Map<Long, AddressMetaData> firstSegAddresses = writeRecords(firstSh, segOneEntries);
                 firstSh.getKnownAddresses().putAll(firstSegAddresses);
+                writeSegmentIndex(firstSh);
             }
 
             if (!segTwoEntries.isEmpty()) {
                 Map<Long, AddressMetaData> lastSegAddresses = writeRecords(lastSh, segTwoEntries);
                 lastSh.getKnownAddresses().putAll(lastSegAddresses);
+                writeSegmentIndex(lastSh);
             }
         } catch (IOException e) {
             log.error("Disk_write[{}-{}]: Exception", first.getGlobalAddress(),
@@ -1199,6 +1909,71 @@ public class StreamLogFiles implements StreamLog {
         }
     }
 
+    @Override
+    public void appendRaw(ByteString records) {
+        List<RawRecord> entries = parseRawRecords(records).stream()
+                .filter(record -> !isTrimmed(record.entry.getGlobalAddress()))
+                .collect(Collectors.toList());
+
+        if (entries.isEmpty()) {
+            log.info("No raw records to write.");
+            return;
+        }
+
+        long firstAddress = entries.get(0).entry.getGlobalAddress();
+        long lastAddress = entries.get(entries.size() - 1).entry.getGlobalAddress();
+        for (int x = 1; x < entries.size(); x++) {
+            if (entries.get(x).entry.getGlobalAddress() <= entries.get(x - 1).entry.getGlobalAddress()) {
+                throw new IllegalArgumentException("Raw records not in ascending order");
+            }
+        }
+
+        if (lastAddress / RECORDS_PER_LOG_FILE - firstAddress / RECORDS_PER_LOG_FILE > 1) {
+            // Range overlaps more than two segments
+            throw new IllegalArgumentException("Write range too large: " + entries.size());
+        }
+
+        SegmentHandle firstSh = getSegmentHandleForAddress(firstAddress);
+        SegmentHandle lastSh = getSegmentHandleForAddress(lastAddress);
+
+        try {
+            List<RawRecord> segOneEntries = new ArrayList<>();
+            List<RawRecord> segTwoEntries = new ArrayList<>();
+
+            for (RawRecord curr : entries) {
+                long address = curr.entry.getGlobalAddress();
+                SegmentHandle segment = address / RECORDS_PER_LOG_FILE == firstSh.getSegment() ? firstSh : lastSh;
+                if (segment.getKnownAddresses().contains(address)) {
+                    log.error("Overlapping address detected: {}", address);
+                    throw new OverwriteException(OverwriteCause.SAME_DATA);
+                }
+                RawRecord record = curr;
+                if (record.entry.hasSerializedEntry() && segment.getVersion() < VERSION) {
+                    // Convert the record to the version of the segment, which log units
+                    // of that version must remain able to read.
+                    record = getRawRecord(getLogEntry(address, getLogData(record.entry), segment.getVersion()));
+                }
+                (segment == firstSh ? segOneEntries : segTwoEntries).add(record);
+            }
+
+            if (!segOneEntries.isEmpty()) {
+                firstSh.getKnownAddresses().putAll(writeRawRecords(firstSh, segOneEntries));
+                writeSegmentIndex(firstSh);
+            }
+
+            if (!segTwoEntries.isEmpty()) {
+                lastSh.getKnownAddresses().putAll(writeRawRecords(lastSh, segTwoEntries));
+                writeSegmentIndex(lastSh);
+            }
+        } catch (IOException e) {
+            log.error("Disk_write[{}-{}]: Exception", firstAddress, lastAddress, e);
+            throw new RuntimeException(e);
+        } finally {
+            firstSh.release();
+            lastSh.release();
+        }
+    }
+
     @Override
     public void append(long address, LogData entry) {
         if (isTrimmed(address)) {
@@ -1210,7 +1985,7 @@ public class StreamLogFiles implements StreamLog {
         try {
             // make sure the entry doesn't currently exist...
             // (probably need a faster way to do this - high watermark?)
-            if (segment.getKnownAddresses().containsKey(address)
+            if (segment.getKnownAddresses().contains(address)
                     || segment.getTrimmedAddresses().contains(address)) {
                 OverwriteCause overwriteCause = getOverwriteCauseForAddress(address, entry);
                 log.trace("Disk_write[{}]: overwritten exception, cause: {}", address, overwriteCause);
@@ -1218,6 +1993,7 @@ public class StreamLogFiles implements StreamLog {
             } else {
                 AddressMetaData addressMetaData = writeRecord(segment, address, entry);
                 segment.getKnownAddresses().put(address, addressMetaData);
+                writeSegmentIndex(segment);
             }
             log.trace("Disk_write[{}]: Written to disk.", address);
         } catch (IOException e) {
@@ -1254,6 +2030,76 @@ public class StreamLogFiles implements StreamLog {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The addresses are grouped by segment, and the records that are adjacent in a segment
+     * file are read with a single positional read.
+     */
+    @Override
+    public Map<Long, LogData> readAll(List<Long> addresses) {
+        Lock lock = resetLock.readLock();
+        lock.lock();
+
+        try {
+            Map<Long, LogData> entries = new HashMap<>();
+            Map<Long, List<Long>> segmentAddresses = new HashMap<>();
+            for (long address : addresses) {
+                if (isTrimmed(address)) {
+                    entries.put(address, LogData.getTrimmed(address));
+                } else {
+                    segmentAddresses.computeIfAbsent(address / RECORDS_PER_LOG_FILE, id -> new ArrayList<>())
+                            .add(address);
+                }
+            }
+
+            for (List<Long> segmentBatch : segmentAddresses.values()) {
+                SegmentHandle segment = getSegmentHandleForAddress(segmentBatch.get(0));
+                try {
+                    readRecords(segment, segmentBatch, entries);
+                } finally {
+                    segment.release();
+                }
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ByteString readRaw(List<Long> addresses) {
+        Lock lock = resetLock.readLock();
+        lock.lock();
+
+        try {
+            ByteString records = ByteString.EMPTY;
+            int start = 0;
+            while (start < addresses.size()) {
+                long segmentId = addresses.get(start) / RECORDS_PER_LOG_FILE;
+                int end = start + 1;
+                while (end < addresses.size() && addresses.get(end) / RECORDS_PER_LOG_FILE == segmentId) {
+                    end++;
+                }
+
+                SegmentHandle segment = getSegmentHandleForAddress(addresses.get(start));
+                try {
+                    records = records.concat(readRawRecords(segment, addresses.subList(start, end)));
+                } finally {
+                    segment.release();
+                }
+                start = end;
+            }
+            return records;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     public boolean contains(long address) throws TrimmedException {
         // auto commit client is expected to get TrimmedException and
@@ -1271,7 +2117,7 @@ public class StreamLogFiles implements StreamLog {
 
         try {
             SegmentHandle segment = getSegmentHandleForAddress(address);
-            return segment.getKnownAddresses().containsKey(address);
+            return segment.getKnownAddresses().contains(address);
         } finally {
             lock.unlock();
         }
@@ -1279,6 +2125,14 @@ public class StreamLogFiles implements StreamLog {
 
     @Override
     public void close() {
+        // Let the pending segment indexes be persisted before closing the segments
+        indexWriter.shutdown();
+        try {
+            indexWriter.awaitTermination(ServerContext.SHUTDOWN_TIMER.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            throw new UnrecoverableCorfuInterruptedError("StreamLogFiles close interrupted.", e);
+        }
+
         for (SegmentHandle fh : writeChannels.values()) {
             fh.close();
         }
@@ -1336,7 +2190,8 @@ public class StreamLogFiles implements StreamLog {
         }
 
         for (File file : files) {
-            long delta = file.length();
+            // Index files aren't charged to the log size quota
+            long delta = isIndexFile(file) ? 0 : file.length();
 
             if (!file.delete()) {
                 log.error("deleteFilesMatchingFilter: Couldn't delete file {}", file.getName());
@@ -1406,6 +2261,21 @@ public class StreamLogFiles implements StreamLog {
         return writeChannels.values();
     }
 
+    /**
+     * A record as persisted in a segment file, i.e. its metadata followed by its log entry.
+     */
+    private static class RawRecord {
+        private final ByteString bytes;
+        private final Metadata metadata;
+        private final LogEntry entry;
+
+        RawRecord(ByteString bytes, Metadata metadata, LogEntry entry) {
+            this.bytes = bytes;
+            this.metadata = metadata;
+            this.entry = entry;
+        }
+    }
+
     public static class Checksum {
 
         private Checksum() {
@@ -1427,14 +2297,31 @@ public class StreamLogFiles implements StreamLog {
             return hasher.hash().asInt();
         }
 
+        /**
+         * Returns checksum used for log.
+         *
+         * @param buffer data over which to compute the checksum, between the
+         *               buffer's position and limit (the buffer isn't consumed)
+         * @return checksum of the buffer's remaining bytes
+         */
+        public static int getChecksum(ByteBuffer buffer) {
+            return Hashing.crc32c().newHasher().putBytes(buffer.duplicate()).hash().asInt();
+        }
+
         public static int getChecksum(int num) {
             Hasher hasher = Hashing.crc32c().newHasher();
             return hasher.putInt(num).hash().asInt();
         }
     }
 
+    private static boolean isIndexFile(File file) {
+        return file.getName().endsWith(SEGMENT_INDEX_EXTENSION)
+                || file.getName().endsWith(SEGMENT_INDEX_TMP_EXTENSION);
+    }
+
     /**
-     * Estimate the size (in bytes) of a directory.
+     * Estimate the size (in bytes) of a directory, excluding the segment
+     * index files which aren't charged to the log size quota.
      * From https://stackoverflow.com/a/19869323
      */
     @VisibleForTesting
@@ -1445,7 +2332,9 @@ public class StreamLogFiles implements StreamLog {
                 @Override
                 public FileVisitResult visitFile(Path file,
                                                  BasicFileAttributes attrs) {
-                    size.addAndGet(attrs.size());
+                    if (!isIndexFile(file.toFile())) {
+                        size.addAndGet(attrs.size());
+                    }
                     return FileVisitResult.CONTINUE;
                 }
 
@@ -1,6 +1,7 @@
 package org.corfudb.infrastructure.log.statetransfer.batchprocessor.committedbatchprocessor;
 
 import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -27,10 +28,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
 
 import static lombok.Builder.Default;
 import static org.corfudb.infrastructure.log.statetransfer.batch.TransferBatchResponse.TransferStatus.FAILED;
+import static org.corfudb.infrastructure.log.statetransfer.batch.TransferBatchResponse.TransferStatus.SUCCEEDED;
 
 /**
  * A transferBatchRequest processor that transfers committed addresses one transferBatchRequest
@@ -55,6 +60,19 @@ public class CommittedBatchProcessor implements StateTransferBatchProcessor {
     @Default
     private final Duration writeSleepDuration = Duration.ofMillis(300);
 
+    /**
+     * Whether to first try to transfer the records in the format they are persisted in,
+     * see {@link #tryRawTransfer}.
+     */
+    @Default
+    private final boolean rawTransferEnabled = true;
+
+    /**
+     * The nodes that didn't answer a raw read, e.g. because their log unit predates raw
+     * records and drops the request. The batches read from these nodes skip the raw transfer.
+     */
+    private final Set<String> rawTransferUnsupportedNodes = ConcurrentHashMap.newKeySet();
+
     /**
      * Current node.
      */
@@ -120,6 +138,11 @@ public class CommittedBatchProcessor implements StateTransferBatchProcessor {
                 LogUnitClient logUnitClientToCurrentNode =
                         runtimeLayout.getLogUnitClient(currentNode);
                 try {
+                    Optional<TransferBatchResponse> rawTransferResponse = tryRawTransfer(addresses,
+                            destinationNode, logUnitClientToTargetNode, logUnitClientToCurrentNode);
+                    if (rawTransferResponse.isPresent()) {
+                        return rawTransferResponse.get();
+                    }
                     ReadBatch readBatch = readRecords(addresses,
                             Optional.of(destinationNode), logUnitClientToTargetNode);
                     return writeRecords(readBatch, logUnitClientToCurrentNode,
@@ -150,6 +173,56 @@ public class CommittedBatchProcessor implements StateTransferBatchProcessor {
                 );
     }
 
+    /**
+     * Try to transfer the addresses as raw records, i.e. in the format they are persisted in on
+     * the destination node. The records are validated and appended by the current node as is,
+     * which saves deserializing and re-serializing every record on both log units. Committed
+     * addresses are immutable, so their records can be copied from any node.
+     *
+     * @param addresses       A batch of addresses.
+     * @param destinationNode A node to read the records from.
+     * @param targetClient    A log unit client to the destination node.
+     * @param currentClient   A log unit client to the current node.
+     * @return A transfer batch response if the raw transfer succeeded, empty if the batch has to
+     * be transferred through the regular path, e.g. if some addresses are trimmed on the
+     * destination node or if its log unit doesn't serve raw records. A destination node that
+     * times out on a raw read is not asked for raw records again.
+     */
+    private Optional<TransferBatchResponse> tryRawTransfer(List<Long> addresses,
+                                                           String destinationNode,
+                                                           LogUnitClient targetClient,
+                                                           LogUnitClient currentClient) {
+        if (!rawTransferEnabled || addresses.isEmpty()
+                || rawTransferUnsupportedNodes.contains(destinationNode)) {
+            return Optional.empty();
+        }
+
+        try {
+            ByteString records = CFUtils.getUninterruptibly(targetClient.readRaw(addresses),
+                    TimeoutException.class);
+            CFUtils.getUninterruptibly(currentClient.writeRaw(records));
+            return Optional.of(TransferBatchResponse
+                    .builder()
+                    .transferBatchRequest(new TransferBatchRequest(addresses,
+                            Optional.of(ImmutableList.of(destinationNode))))
+                    .status(SUCCEEDED)
+                    .build());
+        } catch (WrongEpochException e) {
+            log.warn("tryRawTransfer: encountered a wrong epoch exception: {}.", e);
+            throw e;
+        } catch (TimeoutException e) {
+            // A log unit that doesn't know raw reads drops them, don't wait on it for every batch.
+            log.warn("tryRawTransfer: raw read from {} timed out, transferring the next batches " +
+                    "from it through the regular path.", destinationNode);
+            rawTransferUnsupportedNodes.add(destinationNode);
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            log.warn("tryRawTransfer: raw transfer from {} failed, falling back to a regular transfer: {}.",
+                    destinationNode, e.toString());
+            return Optional.empty();
+        }
+    }
+
     /**
      * Read records directly from the randomly scheduled destination node (don't hole fill).
      *
@@ -29,6 +29,9 @@ public class LogReplicationConfig {
      */
     public static final int DATA_FRACTION_PER_MSG = 90;
 
+    // Log Replication default number of streams read (or applied from shadow streams) concurrently in snapshot sync.
+    public static final int DEFAULT_SNAPSHOT_SYNC_PARALLELISM = 4;
+
     /*
      * Unique identifiers for all streams to be replicated across sites.
      */
@@ -50,6 +53,11 @@ public class LogReplicationConfig {
      */
     private int maxDataSizePerMsg;
 
+    /**
+     * The number of streams read ahead concurrently during snapshot sync.
+     */
+    private int snapshotSyncParallelism = DEFAULT_SNAPSHOT_SYNC_PARALLELISM;
+
     /**
      * Constructor
      *
@@ -424,7 +424,10 @@ public class CorfuReplicationDiscoveryService implements Runnable, CorfuReplicat
                 input(new DiscoveryServiceEvent(DiscoveryServiceEvent.DiscoveryServiceEventType.UPGRADE));
             }
 
-            return new LogReplicationConfig(streamsToReplicate, serverContext.getLogReplicationMaxNumMsgPerBatch(), serverContext.getLogReplicationMaxDataMessageSize());
+            LogReplicationConfig config = new LogReplicationConfig(streamsToReplicate,
+                    serverContext.getLogReplicationMaxNumMsgPerBatch(), serverContext.getLogReplicationMaxDataMessageSize());
+            config.setSnapshotSyncParallelism(serverContext.getLogReplicationSnapshotSyncParallelism());
+            return config;
         } catch (Throwable t) {
             log.error("Exception when fetching the Replication Config", t);
             throw t;
@@ -201,6 +201,7 @@ public class LogReplicationSourceManager {
         }
 
         log.info("Shutdown Log Replication.");
+        logReplicationFSM.getSnapshotReader().close();
         ackReader.shutdown();
         this.runtime.shutdown();
     }
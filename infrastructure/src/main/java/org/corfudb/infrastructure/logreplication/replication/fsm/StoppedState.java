@@ -26,6 +26,7 @@ public class StoppedState implements LogReplicationState {
     public void onEntry(LogReplicationState from) {
         fsm.getAckReader().getOngoing().set(false);
         fsm.getAckReader().markSyncStatus(LogReplicationMetadata.SyncStatus.ERROR);
+        fsm.getSnapshotReader().close();
         log.info("Unrecoverable error or explicit shutdown. " +
                 "Log Replication is terminated from state {}. To resume, restart the JVM.", from.getType());
     }
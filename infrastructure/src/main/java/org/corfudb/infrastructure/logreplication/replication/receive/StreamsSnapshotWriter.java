@@ -1,9 +1,11 @@
 package org.corfudb.infrastructure.logreplication.replication.receive;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.infrastructure.logreplication.LogReplicationConfig;
 import org.corfudb.infrastructure.logreplication.replication.receive.LogReplicationMetadataManager.LogReplicationMetadataType;
+import org.corfudb.infrastructure.logreplication.utils.PrefetchingIterator;
 import org.corfudb.protocols.logprotocol.OpaqueEntry;
 import org.corfudb.protocols.logprotocol.SMREntry;
 import org.corfudb.runtime.CorfuRuntime;
@@ -19,13 +21,18 @@ import org.corfudb.util.serializer.Serializers;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.lang.reflect.Array;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Stream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.corfudb.protocols.CorfuProtocolCommon.getUUID;
 import static org.corfudb.protocols.service.CorfuProtocolLogReplication.extractOpaqueEntries;
@@ -44,6 +51,9 @@ public class StreamsSnapshotWriter implements SnapshotWriter {
 
     private static final String SHADOW_STREAM_SUFFIX = "_SHADOW";
 
+    // The number of entries buffered per shadow stream read ahead.
+    private static final int SHADOW_STREAM_PREFETCH_SIZE = 1;
+
     // Mapping from regular stream Id to stream Name
     private final HashMap<UUID, String> streamViewMap;
     private final CorfuRuntime rt;
@@ -58,6 +68,9 @@ public class StreamsSnapshotWriter implements SnapshotWriter {
     // Mapping from regular stream Id to shadow stream Id
     private final HashMap<UUID, UUID> regularToShadowStreamId;
 
+    // The max number of shadow streams read concurrently when applying them.
+    private final int parallelism;
+
     @Getter
     private Phase phase;
 
@@ -68,6 +81,7 @@ public class StreamsSnapshotWriter implements SnapshotWriter {
         this.regularToShadowStreamId = new HashMap<>();
         this.phase = Phase.TRANSFER_PHASE;
         this.snapshotSyncStartMarker = Optional.empty();
+        this.parallelism = Math.max(1, config.getSnapshotSyncParallelism());
 
         initializeShadowStreams(config);
     }
@@ -303,13 +317,16 @@ public class StreamsSnapshotWriter implements SnapshotWriter {
     }
 
     /**
-     * Read from the shadow table and write to the original stream
+     * Start reading a shadow stream ahead of its application.
      *
      * @param streamId regular stream id
      * @param snapshot base snapshot timestamp
+     * @param minShadowStreamTimestamp first valid position of the shadow streams in the current snapshot cycle
+     * @param executor executor the shadow stream is read on
+     * @return iterator over the entries of the shadow stream
      */
-    private void applyShadowStream(UUID streamId, long snapshot) {
-        log.debug("Apply shadow stream for stream {}, snapshot={}", streamId, snapshot);
+    private PrefetchingIterator<OpaqueEntry> readShadowStream(UUID streamId, long snapshot,
+                                                              long minShadowStreamTimestamp, Executor executor) {
         UUID shadowStreamId = regularToShadowStreamId.get(streamId);
 
         // In order to avoid data loss as part of a plugin failing to successfully
@@ -324,29 +341,67 @@ public class StreamsSnapshotWriter implements SnapshotWriter {
                 .cacheEntries(false)
                 .build();
 
-        // This variable reflects the minimum timestamp for all shadow streams in the current snapshot cycle.
-        // We seek up to this address, assuming that no trim should occur beyond this snapshot start
-        long currentMinShadowStreamTimestamp = logReplicationMetadataManager.getMinSnapshotSyncShadowStreamTs();
-        OpaqueStream shadowOpaqueStream = new OpaqueStream(rt.getStreamsView().get(shadowStreamId, options));
-        shadowOpaqueStream.seek(currentMinShadowStreamTimestamp);
-        Stream shadowStream = shadowOpaqueStream.streamUpTo(snapshot);
+        return new PrefetchingIterator<>(() -> {
+            OpaqueStream shadowOpaqueStream = new OpaqueStream(rt.getStreamsView().get(shadowStreamId, options));
+            shadowOpaqueStream.seek(minShadowStreamTimestamp);
+            return shadowOpaqueStream.streamUpTo(snapshot).iterator();
+        }, SHADOW_STREAM_PREFETCH_SIZE, executor);
+    }
+
+    /**
+     * Read from the shadow table and write to the original stream
+     *
+     * @param streamId regular stream id
+     * @param shadowStream entries of the shadow stream
+     */
+    private void applyShadowStream(UUID streamId, Iterator<OpaqueEntry> shadowStream) {
+        log.debug("Apply shadow stream for stream {}", streamId);
+        UUID shadowStreamId = regularToShadowStreamId.get(streamId);
 
-        Iterator<OpaqueEntry> iterator = shadowStream.iterator();
-        while (iterator.hasNext()) {
-            OpaqueEntry opaqueEntry = iterator.next();
+        while (shadowStream.hasNext()) {
+            OpaqueEntry opaqueEntry = shadowStream.next();
             processOpaqueEntry(opaqueEntry.getEntries().get(shadowStreamId), streamId);
         }
     }
 
     /**
      * Read from shadowStream and append/apply to the actual stream
+     *
+     * Up to snapshotSyncParallelism shadow streams are read concurrently, however they are applied
+     * one at a time as every apply transaction also updates the replication metadata.
      */
     public void applyShadowStreams() {
         long snapshot = rt.getAddressSpaceView().getLogTail();
         clearTables();
-        log.debug("Apply Shadow Streams, total={}", streamViewMap.size());
-        for (UUID uuid : streamViewMap.keySet()) {
-            applyShadowStream(uuid, snapshot);
+        log.debug("Apply Shadow Streams, total={}, snapshot={}", streamViewMap.size(), snapshot);
+
+        // This variable reflects the minimum timestamp for all shadow streams in the current snapshot cycle.
+        // We seek up to this address, assuming that no trim should occur beyond this snapshot start
+        long currentMinShadowStreamTimestamp = logReplicationMetadataManager.getMinSnapshotSyncShadowStreamTs();
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("snapshot-writer-%d")
+                .build());
+        Iterator<UUID> streamsToApply = streamViewMap.keySet().iterator();
+        Deque<Map.Entry<UUID, PrefetchingIterator<OpaqueEntry>>> prefetchedStreams = new ArrayDeque<>();
+
+        try {
+            while (streamsToApply.hasNext() || !prefetchedStreams.isEmpty()) {
+                while (prefetchedStreams.size() < parallelism && streamsToApply.hasNext()) {
+                    UUID streamId = streamsToApply.next();
+                    prefetchedStreams.add(new AbstractMap.SimpleImmutableEntry<>(streamId,
+                            readShadowStream(streamId, snapshot, currentMinShadowStreamTimestamp, executor)));
+                }
+
+                Map.Entry<UUID, PrefetchingIterator<OpaqueEntry>> stream = prefetchedStreams.poll();
+                try (PrefetchingIterator<OpaqueEntry> shadowStream = stream.getValue()) {
+                    applyShadowStream(stream.getKey(), shadowStream);
+                }
+            }
+        } finally {
+            prefetchedStreams.forEach(stream -> stream.getValue().close());
+            executor.shutdownNow();
         }
     }
 
@@ -29,4 +29,10 @@ public interface SnapshotReader {
     void reset(long snapshotTimestamp);
 
     void setTopologyConfigId(long topologyConfigId);
+
+    /**
+     * Release the resources of the reader, once no more snapshot syncs are read.
+     */
+    default void close() {
+    }
 }
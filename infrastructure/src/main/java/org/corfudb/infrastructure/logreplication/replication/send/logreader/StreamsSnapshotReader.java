@@ -1,7 +1,9 @@
 package org.corfudb.infrastructure.logreplication.replication.send.logreader;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.TextFormat;
 import io.micrometer.core.instrument.DistributionSummary;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +12,7 @@ import org.corfudb.common.util.Memory;
 import org.corfudb.common.util.ObservableValue;
 import org.corfudb.infrastructure.logreplication.LogReplicationConfig;
 import org.corfudb.infrastructure.logreplication.replication.send.IllegalSnapshotEntrySizeException;
+import org.corfudb.infrastructure.logreplication.utils.PrefetchingIterator;
 import org.corfudb.protocols.logprotocol.OpaqueEntry;
 import org.corfudb.protocols.logprotocol.SMREntry;
 import org.corfudb.runtime.CorfuRuntime;
@@ -22,7 +25,9 @@ import org.corfudb.runtime.view.StreamOptions;
 import org.corfudb.runtime.view.stream.OpaqueStream;
 
 import javax.annotation.concurrent.NotThreadSafe;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -31,6 +36,9 @@ import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static com.google.protobuf.UnsafeByteOperations.unsafeWrap;
@@ -46,6 +54,11 @@ import static org.corfudb.protocols.service.CorfuProtocolLogReplication.getLrEnt
  *
  *  This implementation provides reads at the stream level (no coalesced state).
  *  It generates TxMessages which will be transmitted by the DataSender (provided by the application).
+ *
+ *  Streams are sent one after the other, but up to snapshotSyncParallelism streams are read ahead
+ *  concurrently, each of them buffering a bounded number of batches of SMR entries.
+ *
+ *  Reads are meant to be issued by one thread at a time, but the reader can be closed from any thread.
  */
 public class StreamsSnapshotReader implements SnapshotReader {
 
@@ -60,9 +73,23 @@ public class StreamsSnapshotReader implements SnapshotReader {
     private CorfuRuntime rt;
     private long preMsgTs;
     private long currentMsgTs;
-    private OpaqueStreamIterator currentStreamInfo;
     private long sequence;
-    private OpaqueEntry lastEntry = null;
+
+    /**
+     * The number of batches of SMR entries buffered per stream read ahead.
+     */
+    private static final int PREFETCH_BATCHES_PER_STREAM = 1;
+
+    /**
+     * The max number of streams read ahead, including the stream being sent.
+     */
+    private final int parallelism;
+
+    // The streams being read ahead, in the order they are sent.
+    private final Deque<StreamPrefetch> prefetchedStreams = new ArrayDeque<>();
+
+    // Replaced on every reset, so the reads of a previous snapshot sync don't hold its threads.
+    private ThreadPoolExecutor prefetchExecutor;
 
     @Getter
     private ObservableValue<Integer> observeBiggerMsg = new ObservableValue(0);
@@ -79,6 +106,18 @@ public class StreamsSnapshotReader implements SnapshotReader {
         this.maxDataSizePerMsg = config.getMaxDataSizePerMsg();
         this.streams = config.getStreamsToReplicate();
         this.messageSizeDistributionSummary = configureMessageSizeDistributionSummary();
+        this.parallelism = Math.max(1, config.getSnapshotSyncParallelism());
+        this.prefetchExecutor = newPrefetchExecutor();
+    }
+
+    private ThreadPoolExecutor newPrefetchExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("snapshot-reader-%d")
+                .build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
     /**
@@ -101,12 +140,13 @@ public class StreamsSnapshotReader implements SnapshotReader {
      * @return
      */
     private LogReplicationEntryMsg generateMessage(
-            OpaqueStreamIterator stream,
-            SMREntryList entryList,
+            StreamPrefetch stream,
+            StreamBatch batch,
             UUID snapshotRequestId) {
-        currentMsgTs = stream.maxVersion;
+        SMREntryList entryList = batch.getEntryList();
+        currentMsgTs = batch.getMaxVersion();
         OpaqueEntry opaqueEntry = generateOpaqueEntry(currentMsgTs, stream.uuid, entryList);
-        if (!stream.iterator.hasNext()) {
+        if (batch.isLast()) {
             //mark the end of the current stream.
             currentMsgTs = snapshotTimestamp;
         }
@@ -134,6 +174,7 @@ public class StreamsSnapshotReader implements SnapshotReader {
 
     /**
      * Read log data from the current stream until the sum of all SMR entries's sizeInBytes reaches the maxDataSizePerMsg.
+     * This is invoked by the prefetching threads.
      * @param stream
      * @return
      */
@@ -143,8 +184,8 @@ public class StreamsSnapshotReader implements SnapshotReader {
 
         try {
             while (currentMsgSize < maxDataSizePerMsg) {
-                if (lastEntry != null) {
-                    List<SMREntry> smrEntries = lastEntry.getEntries().get(stream.uuid);
+                if (stream.lastEntry != null) {
+                    List<SMREntry> smrEntries = stream.lastEntry.getEntries().get(stream.uuid);
                     if (smrEntries != null) {
                         int currentEntrySize = ReaderUtility.calculateSize(smrEntries);
 
@@ -153,7 +194,7 @@ public class StreamsSnapshotReader implements SnapshotReader {
                                     currentEntrySize, MAX_DATA_MSG_SIZE_SUPPORTED);
                             throw new IllegalSnapshotEntrySizeException(" The snapshot entry is bigger than the system supported");
                         } else if (currentEntrySize > maxDataSizePerMsg) {
-                            observeBiggerMsg.setValue(observeBiggerMsg.getValue()+1);
+                            incrementBiggerMsg();
                             log.warn("The current entry size {} is bigger than the configured maxDataSizePerMsg {}",
                                     currentEntrySize, maxDataSizePerMsg);
                         }
@@ -165,16 +206,16 @@ public class StreamsSnapshotReader implements SnapshotReader {
 
                         smrList.addAll(smrEntries);
                         currentMsgSize += currentEntrySize;
-                        stream.maxVersion = Math.max(stream.maxVersion, lastEntry.getVersion());
+                        stream.maxVersion = Math.max(stream.maxVersion, stream.lastEntry.getVersion());
                     }
-                    lastEntry = null;
+                    stream.lastEntry = null;
                 }
 
                 if (stream.iterator.hasNext()) {
-                    lastEntry = (OpaqueEntry) stream.iterator.next();
+                    stream.lastEntry = (OpaqueEntry) stream.iterator.next();
                 }
 
-                if (lastEntry == null) {
+                if (stream.lastEntry == null) {
                     break;
                 }
             }
@@ -184,19 +225,26 @@ public class StreamsSnapshotReader implements SnapshotReader {
         }
 
         log.trace("CurrentMsgSize {} lastEntrySize {}  maxDataSizePerMsg {}",
-                currentMsgSize, lastEntry == null ? 0 : ReaderUtility.calculateSize(lastEntry.getEntries().get(stream.uuid)), maxDataSizePerMsg);
+                currentMsgSize, stream.lastEntry == null ? 0 : ReaderUtility.calculateSize(stream.lastEntry.getEntries().get(stream.uuid)), maxDataSizePerMsg);
         return new SMREntryList(currentMsgSize, smrList);
     }
 
+    private void incrementBiggerMsg() {
+        synchronized (observeBiggerMsg) {
+            observeBiggerMsg.setValue(observeBiggerMsg.getValue() + 1);
+        }
+    }
+
     /**
-     * Poll the current stream and get a batch of SMR entries and
+     * Take a batch of SMR entries read ahead from the current stream and
      * generate one message
      * @param stream bookkeeping of the current stream information.
+     * @param batch the next batch of the stream.
      * @return
      */
-    private LogReplicationEntryMsg read(OpaqueStreamIterator stream, UUID syncRequestId) {
-        SMREntryList entryList = next(stream);
-        LogReplicationEntryMsg txMsg = generateMessage(stream, entryList, syncRequestId);
+    private LogReplicationEntryMsg read(StreamPrefetch stream, StreamBatch batch, UUID syncRequestId) {
+        SMREntryList entryList = batch.getEntryList();
+        LogReplicationEntryMsg txMsg = generateMessage(stream, batch, syncRequestId);
         log.info("Successfully generate a snapshot message for stream {} with snapshotTimestamp={}, numEntries={}, " +
                         "entriesBytes={}, streamId={}", stream.name, snapshotTimestamp,
                 entryList.getSmrEntries().size(), entryList.getSizeInBytes(), stream.uuid);
@@ -206,72 +254,93 @@ public class StreamsSnapshotReader implements SnapshotReader {
     }
 
     /**
-     * If currentStreamInfo is null that is the case for the first call of read, it will init currentStreamInfo.
-     * If the currentStreamInfo ends, poll the next stream.
-     * Otherwise, continue to process the current stream and generate one message only.
+     * Take the next batch of the current stream (the first stream read ahead which has entries)
+     * and generate one message. Once the current stream ends, the next stream starts being read ahead.
      * @return
      */
     @Override
-    public SnapshotReadMessage read(UUID syncRequestId) {
+    public synchronized SnapshotReadMessage read(UUID syncRequestId) {
+        if (prefetchExecutor.isShutdown()) {
+            throw new IllegalStateException("The snapshot reader has been closed");
+        }
+
         List<LogReplicationEntryMsg> messages = new ArrayList<>();
 
-        boolean endSnapshotSync = false;
-        LogReplicationEntryMsg msg;
-
-        // If the currentStreamInfo still has entry to process, it will reuse the currentStreamInfo
-        // and process the remaining entries.
-        if (currentStreamInfo == null) {
-            while (!streamsToSend.isEmpty()) {
-                // Setup a new stream
-                String streamToReplicate = streamsToSend.poll();
-                currentStreamInfo = new OpaqueStreamIterator(streamToReplicate, rt, snapshotTimestamp);
-                log.info("Start Snapshot Sync replication for stream name={}, id={}", streamToReplicate,
-                        CorfuRuntime.getStreamID(streamToReplicate));
-
-                // If the new stream has entries to be processed, go to the next step
-                if (currentStreamInfo.iterator.hasNext()) {
-                    break;
-                } else {
-                    // Skip process this stream as it has no entries to process, will poll the next one.
-                    log.info("Snapshot reader will skip reading stream {} as there are no entries to send",
-                            currentStreamInfo.uuid);
-                }
-            }
-        }
+        prefetchStreams();
+
+        while (!prefetchedStreams.isEmpty()) {
+            StreamPrefetch currentStream = prefetchedStreams.peek();
 
-        if (currentStreamHasNext()) {
-            msg = read(currentStreamInfo, syncRequestId);
-            if (msg != null) {
-                messages.add(msg);
+            if (!currentStream.batches.hasNext()) {
+                // Skip process this stream as it has no entries to process, will poll the next one.
+                log.info("Snapshot reader will skip reading stream {} as there are no entries to send",
+                        currentStream.uuid);
+                removeCurrentStream();
+                continue;
             }
-        }
 
-        if (!currentStreamHasNext()) {
-            log.debug("Snapshot log reader finished reading stream id={}, name={}", currentStreamInfo.uuid, currentStreamInfo.name);
-            currentStreamInfo = null;
+            StreamBatch batch = currentStream.batches.next();
+            messages.add(read(currentStream, batch, syncRequestId));
 
-            if (streamsToSend.isEmpty()) {
-                log.info("Snapshot log reader finished reading ALL streams, total={}", streams.size());
-                endSnapshotSync = true;
+            if (batch.isLast()) {
+                log.debug("Snapshot log reader finished reading stream id={}, name={}", currentStream.uuid,
+                        currentStream.name);
+                removeCurrentStream();
             }
+            break;
+        }
+
+        boolean endSnapshotSync = prefetchedStreams.isEmpty() && streamsToSend.isEmpty();
+        if (endSnapshotSync) {
+            log.info("Snapshot log reader finished reading ALL streams, total={}", streams.size());
         }
 
         return new SnapshotReadMessage(messages, endSnapshotSync);
     }
 
-    private boolean currentStreamHasNext() {
-        return currentStreamInfo.iterator.hasNext() || lastEntry != null;
+    /**
+     * Start reading ahead the next streams to send, up to the parallelism.
+     */
+    private void prefetchStreams() {
+        while (prefetchedStreams.size() < parallelism && !streamsToSend.isEmpty()) {
+            String streamToReplicate = streamsToSend.poll();
+            final long snapshot = snapshotTimestamp;
+            log.info("Start Snapshot Sync replication for stream name={}, id={}", streamToReplicate,
+                    CorfuRuntime.getStreamID(streamToReplicate));
+            prefetchedStreams.add(new StreamPrefetch(streamToReplicate, new PrefetchingIterator<>(
+                    () -> new StreamBatchIterator(new OpaqueStreamIterator(streamToReplicate, rt, snapshot)),
+                    PREFETCH_BATCHES_PER_STREAM, prefetchExecutor)));
+        }
+    }
+
+    private void removeCurrentStream() {
+        prefetchedStreams.poll().batches.close();
+        prefetchStreams();
     }
 
     @Override
-    public void reset(long ts) {
+    public synchronized void reset(long ts) {
+        stopPrefetching();
+        prefetchExecutor = newPrefetchExecutor();
         streamsToSend = new PriorityQueue<>(streams);
         preMsgTs = Address.NON_ADDRESS;
         currentMsgTs = Address.NON_ADDRESS;
         snapshotTimestamp = ts;
-        currentStreamInfo = null;
         sequence = 0;
-        lastEntry = null;
+    }
+
+    @Override
+    public synchronized void close() {
+        stopPrefetching();
+    }
+
+    /**
+     * Stop reading ahead the streams of the current snapshot sync, and interrupt the reads in progress.
+     */
+    private void stopPrefetching() {
+        prefetchedStreams.forEach(stream -> stream.batches.close());
+        prefetchedStreams.clear();
+        prefetchExecutor.shutdownNow();
     }
 
     /**
@@ -282,6 +351,7 @@ public class StreamsSnapshotReader implements SnapshotReader {
         private UUID uuid;
         private Iterator iterator;
         private long maxVersion; // the max address of the log entries processed for this stream.
+        private OpaqueEntry lastEntry = null; // the entry read but not added to a message yet.
 
         OpaqueStreamIterator(String name, CorfuRuntime rt, long snapshot) {
             this.name = name;
@@ -294,6 +364,59 @@ public class StreamsSnapshotReader implements SnapshotReader {
             iterator = stream.iterator();
             maxVersion = 0;
          }
+
+        boolean hasNext() {
+            return iterator.hasNext() || lastEntry != null;
+        }
+    }
+
+    /**
+     * A stream being read ahead.
+     */
+    private static class StreamPrefetch {
+        private final String name;
+        private final UUID uuid;
+        private final PrefetchingIterator<StreamBatch> batches;
+
+        StreamPrefetch(String name, PrefetchingIterator<StreamBatch> batches) {
+            this.name = name;
+            this.uuid = CorfuRuntime.getStreamID(name);
+            this.batches = batches;
+        }
+    }
+
+    /**
+     * Iterates over the batches of SMR entries of a stream, each of them to be sent in one message.
+     */
+    private class StreamBatchIterator implements Iterator<StreamBatch> {
+        private final OpaqueStreamIterator stream;
+
+        StreamBatchIterator(OpaqueStreamIterator stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return stream.hasNext();
+        }
+
+        @Override
+        public StreamBatch next() {
+            SMREntryList entryList = StreamsSnapshotReader.this.next(stream);
+            return new StreamBatch(entryList, stream.maxVersion, !stream.hasNext());
+        }
+    }
+
+    /**
+     * A batch of SMR entries of a stream, along with the max address of the stream processed so far.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class StreamBatch {
+        private final SMREntryList entryList;
+        private final long maxVersion;
+        // Whether this is the last batch of the stream.
+        private final boolean last;
     }
 
     @Override
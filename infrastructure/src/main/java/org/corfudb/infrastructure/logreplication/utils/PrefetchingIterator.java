@@ -0,0 +1,142 @@
+package org.corfudb.infrastructure.logreplication.utils;
+
+import lombok.AllArgsConstructor;
+import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * An iterator which consumes its source ahead of time on an executor, buffering up to
+ * a bounded number of elements, so that reading (e.g., a stream from the log) overlaps
+ * with the processing of the elements already read. Elements are returned in the source
+ * order, and an exception thrown by the source is rethrown to the consumer once all the
+ * elements read before it have been consumed.
+ *
+ * <p>The source is created and consumed on the executor, the iterator itself is meant to be
+ * used by a single consumer thread.
+ */
+public class PrefetchingIterator<T> implements Iterator<T>, AutoCloseable {
+
+    // Marks the end of the source.
+    private static final Object END = new Object();
+
+    // How often a producer blocked on a full buffer, or a consumer blocked on an empty
+    // buffer, checks whether the iterator has been closed.
+    private static final long CLOSE_CHECK_INTERVAL_MS = 100;
+
+    private final BlockingQueue<Object> buffer;
+
+    private volatile boolean closed = false;
+
+    // The element taken from the buffer but not returned yet.
+    private Object nextElement = null;
+
+    /**
+     * @param source   creates the iterator to consume ahead of time
+     * @param capacity max number of elements read but not consumed yet
+     * @param executor executor which consumes the source
+     */
+    public PrefetchingIterator(Supplier<Iterator<T>> source, int capacity, Executor executor) {
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        try {
+            executor.execute(() -> prefetch(source));
+        } catch (RejectedExecutionException ree) {
+            buffer.add(new Failure(ree));
+        }
+    }
+
+    private void prefetch(Supplier<Iterator<T>> source) {
+        Object last;
+        try {
+            Iterator<T> iterator = source.get();
+            while (!closed && iterator.hasNext()) {
+                if (!offer(iterator.next())) {
+                    return;
+                }
+            }
+            last = END;
+        } catch (Throwable throwable) {
+            last = new Failure(throwable);
+        }
+        offer(last);
+    }
+
+    private boolean offer(Object element) {
+        try {
+            while (!closed) {
+                if (buffer.offer(element, CLOSE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Blocks until the next element has been read from the source.
+     *
+     * @throws IllegalStateException if the iterator has been closed
+     */
+    @Override
+    public boolean hasNext() {
+        while (nextElement == null) {
+            if (closed) {
+                throw new IllegalStateException("The prefetching iterator has been closed");
+            }
+            try {
+                nextElement = buffer.poll(CLOSE_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new UnrecoverableCorfuInterruptedError("Interrupted while prefetching", ie);
+            }
+        }
+
+        if (nextElement instanceof Failure) {
+            Throwable cause = ((Failure) nextElement).cause;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+
+        return nextElement != END;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T element = (T) nextElement;
+        nextElement = null;
+        return element;
+    }
+
+    /**
+     * Stop reading from the source and drop the elements read so far.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        buffer.clear();
+    }
+
+    @AllArgsConstructor
+    private static class Failure {
+        private final Throwable cause;
+    }
+}
@@ -626,8 +626,9 @@ public class LogUnitServerTest {
                 getReadLogRequestMsg(addresses, cacheable)
         );
 
-        addresses.forEach(address -> when(mCache.get(address, cacheable))
-                .thenReturn(address < 8L ? getDefaultLogData(address) : null));
+        when(mCache.getAll(addresses, cacheable)).thenReturn(addresses.stream()
+                .filter(address -> address < 8L)
+                .collect(Collectors.toMap(address -> address, address -> getDefaultLogData(address))));
 
         ArgumentCaptor<ResponseMsg> responseCaptor = ArgumentCaptor.forClass(ResponseMsg.class);
         logUnitServer.handleMessage(request, mChannelHandlerContext, mServerRouter);
@@ -672,6 +673,7 @@ public class LogUnitServerTest {
                 getReadLogRequestMsg(addresses, cacheable)
         );
 
+        when(mCache.getAll(addresses, cacheable)).thenThrow(new DataCorruptionException());
         addresses.forEach(address -> {
             if (address != 7L) {
                 when(mCache.get(address, cacheable)).thenReturn(getDefaultLogData(address));
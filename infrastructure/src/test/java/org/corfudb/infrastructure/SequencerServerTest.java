@@ -12,6 +12,7 @@ import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.protocols.wireprotocol.TokenType;
 import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
 import org.corfudb.runtime.proto.RpcCommon.UuidToStreamAddressSpacePairMsg;
+import org.corfudb.runtime.proto.TxResolution.TxResolutionInfoMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage;
 import org.corfudb.runtime.proto.service.CorfuMessage.HeaderMsg;
 import org.corfudb.runtime.proto.service.CorfuMessage.PriorityLevel;
@@ -36,8 +37,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.corfudb.protocols.CorfuProtocolCommon.DEFAULT_UUID;
@@ -65,6 +72,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -134,6 +142,29 @@ public class SequencerServerTest {
                 requestHeader.getClusterId().equals(responseHeader.getClusterId());
     }
 
+    /**
+     * A helper method that creates a transaction token request whose conflict
+     * set lists the same stream twice, and therefore can't be resolved.
+     *
+     * @param snapshotTimestamp the snapshot timestamp of the transaction
+     * @return the malformed request
+     */
+    private RequestMsg getMalformedTxTokenRequest(Token snapshotTimestamp) {
+        Map<UUID, Set<byte[]>> conflictMap = Collections.singletonMap(UUID.randomUUID(),
+                Collections.singleton(new byte[]{1}));
+        RequestMsg validRequest = getRequestMsg(
+                getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getTokenRequestMsg(1, Collections.emptyList(),
+                        new TxResolutionInfo(UUID.randomUUID(), snapshotTimestamp,
+                                conflictMap, Collections.emptyMap()))
+        );
+        RequestMsg.Builder requestBuilder = validRequest.toBuilder();
+        TxResolutionInfoMsg.Builder txResolution = requestBuilder.getPayloadBuilder()
+                .getTokenRequestBuilder().getTxnResolutionBuilder();
+        txResolution.addConflictSet(txResolution.getConflictSet(0));
+        return requestBuilder.build();
+    }
+
     /**
      * Initialize the DirectExecutorService before running individual tests.
      */
@@ -636,7 +667,7 @@ public class SequencerServerTest {
                 getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
                 getTokenRequestMsg(0, streams)
         );
-        Map<UUID, Long> streamTailToGlobalTailMap = new HashMap<>();
+        StreamTailMap streamTailToGlobalTailMap = new StreamTailMap();
         streamTailToGlobalTailMap.put(streamA, streamAddressSpaceA.getTail());
         streamTailToGlobalTailMap.put(streamB, streamAddressSpaceB.getTail());
 
@@ -801,6 +832,93 @@ public class SequencerServerTest {
         assertEquals(numTokens + globalTail, sequencerServer.getGlobalLogTail());
     }
 
+    /**
+     * Tests the {@link TokenRequestMsg} handler method with
+     * {@link TokenRequestMsg.TokenRequestType} = TK_TX. (Token_Transaction)
+     *
+     * In this test case we test that a transaction whose conflict keys can't be
+     * prepared (the conflict set lists the same stream twice) is answered with an
+     * unknown error, rather than left without a response.
+     */
+    @Test
+    public void testHandleTxTokenRequestMalformed() {
+        long sequencerEpoch = 1;
+        RequestMsg request = getMalformedTxTokenRequest(new Token(sequencerEpoch, 0L));
+
+        when(mockServerContext.getServerEpoch()).thenReturn(sequencerEpoch);
+        sequencerServer = new SequencerServer(mockServerContext, spySequencerFactoryHelper);
+        sequencerServer.setSequencerEpoch(sequencerEpoch);
+        sequencerServer.handleMessage(request, mockChannelHandlerContext, mockServerRouter);
+
+        ArgumentCaptor<ResponseMsg> responseCaptor = ArgumentCaptor.forClass(ResponseMsg.class);
+        verify(mockServerRouter)
+                .sendResponse(responseCaptor.capture(), any(ChannelHandlerContext.class));
+        ResponseMsg response = responseCaptor.getValue();
+
+        assertTrue(compareBaseHeaderFields(request.getHeader(), response.getHeader()));
+        assertTrue(response.getPayload().hasServerError());
+        assertTrue(response.getPayload().getServerError().hasUnknownError());
+    }
+
+    /**
+     * Tests that a token request that fails while it is served in a batch of token
+     * requests is answered with an unknown error, along with the rest of the batch.
+     */
+    @Test
+    public void testHandleTokenRequestFailure() {
+        long sequencerEpoch = 1;
+        RequestMsg request = getMalformedTxTokenRequest(new Token(sequencerEpoch, 0L));
+
+        when(mockServerContext.getServerEpoch()).thenReturn(sequencerEpoch);
+        sequencerServer = new SequencerServer(mockServerContext, spySequencerFactoryHelper);
+        sequencerServer.setSequencerEpoch(sequencerEpoch);
+        sequencerServer.tokenRequest(request, mockChannelHandlerContext, mockServerRouter);
+
+        ArgumentCaptor<ResponseMsg> responseCaptor = ArgumentCaptor.forClass(ResponseMsg.class);
+        verify(mockServerRouter)
+                .sendResponse(responseCaptor.capture(), any(ChannelHandlerContext.class));
+        ResponseMsg response = responseCaptor.getValue();
+
+        assertTrue(compareBaseHeaderFields(request.getHeader(), response.getHeader()));
+        assertTrue(response.getPayload().hasServerError());
+        assertTrue(response.getPayload().getServerError().hasUnknownError());
+    }
+
+    /**
+     * Tests that the token requests of a batch whose allocated addresses can't be added
+     * to the stream address maps are all answered with an unknown error.
+     */
+    @Test
+    public void testStreamAddressesUpdateFailure() {
+        long sequencerEpoch = 1;
+        Map<UUID, StreamAddressSpace> failingAddressMap = new HashMap<UUID, StreamAddressSpace>() {
+            @Override
+            public StreamAddressSpace compute(UUID key, BiFunction<? super UUID, ? super StreamAddressSpace,
+                    ? extends StreamAddressSpace> remappingFunction) {
+                throw new IllegalArgumentException("can't add the addresses");
+            }
+        };
+        doReturn(failingAddressMap).when(spySequencerFactoryHelper).getStreamAddressSpaceMap();
+        when(mockServerContext.getServerEpoch()).thenReturn(sequencerEpoch);
+        sequencerServer = new SequencerServer(mockServerContext, spySequencerFactoryHelper);
+        sequencerServer.setSequencerEpoch(sequencerEpoch);
+
+        RequestMsg request = getRequestMsg(
+                getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getTokenRequestMsg(1, Collections.singletonList(UUID.randomUUID()))
+        );
+        sequencerServer.handleMessage(request, mockChannelHandlerContext, mockServerRouter);
+
+        ArgumentCaptor<ResponseMsg> responseCaptor = ArgumentCaptor.forClass(ResponseMsg.class);
+        verify(mockServerRouter)
+                .sendResponse(responseCaptor.capture(), any(ChannelHandlerContext.class));
+        ResponseMsg response = responseCaptor.getValue();
+
+        assertTrue(compareBaseHeaderFields(request.getHeader(), response.getHeader()));
+        assertTrue(response.getPayload().hasServerError());
+        assertTrue(response.getPayload().getServerError().hasUnknownError());
+    }
+
     /**
      * Tests the {@link TokenRequestMsg} handler method with
      * {@link TokenRequestMsg.TokenRequestType} = TK_TX. (Token_Transaction)
@@ -932,4 +1050,183 @@ public class SequencerServerTest {
         // Assert that server's globalLogTail is NOT advanced.
         assertEquals(globalTail, sequencerServer.getGlobalLogTail());
     }
+
+    /**
+     * Tests the {@link TokenRequestMsg} handler method with
+     * {@link TokenRequestMsg.TokenRequestType} = TK_TX. (Token_Transaction)
+     *
+     * In this test case we test that the write conflict keys of a committed transaction
+     * abort a later transaction, with an older snapshot, that reads the same conflict key.
+     *
+     * Essentially tests that the conflict keys prepared by the resolver threads are
+     * checked and updated by {@link SequencerServer}'s handleTxToken and handleAllocation methods.
+     */
+    @Test
+    public void testHandleTxTokenRequestConflictKey() {
+        long globalTail = 1;
+        when(spySequencerFactoryHelper.getGlobalLogTail()).thenReturn(globalTail);
+
+        long sequencerEpoch = 1;
+        UUID streamId = UUID.randomUUID();
+        byte[] conflictKey = "key".getBytes();
+        Token snapshotTimestamp = new Token(sequencerEpoch, globalTail);
+
+        // The first transaction writes the conflict key
+        RequestMsg writeRequest = getRequestMsg(
+                getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getTokenRequestMsg(1, Collections.singletonList(streamId),
+                        new TxResolutionInfo(UUID.randomUUID(), snapshotTimestamp,
+                                Collections.emptyMap(),
+                                Collections.singletonMap(streamId, Collections.singleton(conflictKey))))
+        );
+
+        // The second transaction reads the same conflict key from a snapshot that
+        // precedes the address allocated to the first transaction
+        Token olderSnapshotTimestamp = new Token(sequencerEpoch, globalTail - 1);
+        RequestMsg readRequest = getRequestMsg(
+                getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getTokenRequestMsg(1, Collections.singletonList(streamId),
+                        new TxResolutionInfo(UUID.randomUUID(), olderSnapshotTimestamp,
+                                Collections.singletonMap(streamId, Collections.singleton(conflictKey)),
+                                Collections.emptyMap()))
+        );
+
+        when(mockServerContext.getServerEpoch()).thenReturn(sequencerEpoch);
+        sequencerServer = new SequencerServer(mockServerContext, spySequencerFactoryHelper);
+        sequencerServer.setSequencerEpoch(sequencerEpoch);
+        sequencerServer.handleMessage(writeRequest, mockChannelHandlerContext, mockServerRouter);
+        sequencerServer.handleMessage(readRequest, mockChannelHandlerContext, mockServerRouter);
+
+        ArgumentCaptor<ResponseMsg> responseCaptor = ArgumentCaptor.forClass(ResponseMsg.class);
+        verify(mockServerRouter, times(2))
+                .sendResponse(responseCaptor.capture(), any(ChannelHandlerContext.class));
+        List<ResponseMsg> responses = responseCaptor.getAllValues();
+
+        TokenResponse writeResponse = getTokenResponse(responses.get(0).getPayload().getTokenResponse());
+        assertEquals(TokenType.NORMAL, writeResponse.getRespType());
+        assertEquals(globalTail, writeResponse.getToken().getSequence());
+
+        TokenResponse readResponse = getTokenResponse(responses.get(1).getPayload().getTokenResponse());
+        assertEquals(TokenType.TX_ABORT_CONFLICT, readResponse.getRespType());
+        assertArrayEquals(conflictKey, readResponse.getConflictKey());
+        assertEquals(streamId, readResponse.getConflictStream());
+        assertEquals(globalTail, readResponse.getToken().getSequence());
+
+        // Assert that server's globalLogTail is advanced by the first transaction only
+        assertEquals(globalTail + 1, sequencerServer.getGlobalLogTail());
+    }
+
+    /**
+     * Tests that the token requests queued while the sequencer thread is busy are served
+     * in one batch, in order, and that their responses are flushed together.
+     *
+     * Essentially tests {@link SequencerServer}'s token request batching.
+     */
+    @Test
+    public void testTokenRequestBatch() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        when(mockServerContext.getExecutorService(anyInt(), anyString())).thenReturn(executor);
+
+        long globalTail = 1;
+        when(spySequencerFactoryHelper.getGlobalLogTail()).thenReturn(globalTail);
+        when(mockServerContext.getServerEpoch()).thenReturn(1L);
+        sequencerServer = new SequencerServer(mockServerContext, spySequencerFactoryHelper);
+        sequencerServer.setSequencerEpoch(1L);
+
+        // Keep the sequencer thread busy while the requests are queued
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.submit(() -> {
+            latch.await();
+            return null;
+        });
+
+        final int numRequests = 3;
+        UUID streamA = UUID.nameUUIDFromBytes("streamA".getBytes());
+        for (int i = 0; i < numRequests; i++) {
+            RequestMsg request = getRequestMsg(
+                    getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                    getTokenRequestMsg(1, Collections.singletonList(streamA))
+            );
+            sequencerServer.handleMessage(request, mockChannelHandlerContext, mockServerRouter);
+        }
+
+        latch.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ResponseMsg>> responsesCaptor = ArgumentCaptor.forClass((Class) List.class);
+        verify(mockServerRouter).sendResponses(responsesCaptor.capture(), any(ChannelHandlerContext.class));
+        verify(mockServerRouter, never()).sendResponse(any(ResponseMsg.class), any(ChannelHandlerContext.class));
+
+        List<ResponseMsg> responses = responsesCaptor.getValue();
+        assertEquals(numRequests, responses.size());
+        long expectedBackpointer = Address.NON_EXIST;
+        for (int i = 0; i < numRequests; i++) {
+            TokenResponse tokenResponse = getTokenResponse(responses.get(i).getPayload().getTokenResponse());
+            assertEquals(globalTail + i, tokenResponse.getToken().getSequence());
+            assertEquals(expectedBackpointer, (long) tokenResponse.getBackpointerMap().get(streamA));
+            expectedBackpointer = globalTail + i;
+        }
+
+        assertEquals(globalTail + numRequests, sequencerServer.getGlobalLogTail());
+    }
+
+    /**
+     * Tests that a request received after a transaction token request whose conflict keys
+     * are still being prepared is not served before it.
+     *
+     * Essentially tests that {@link SequencerServer} serves its requests in arrival order.
+     */
+    @Test
+    public void testRequestsServedInArrivalOrder() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ExecutorService resolverExecutor = Executors.newSingleThreadExecutor();
+        when(mockServerContext.getExecutorService(anyInt(), anyString())).thenReturn(executor);
+        when(mockServerContext.getExecutorService(anyInt(), eq("sequencer-resolver-")))
+                .thenReturn(resolverExecutor);
+
+        long globalTail = 1;
+        when(spySequencerFactoryHelper.getGlobalLogTail()).thenReturn(globalTail);
+        when(mockServerContext.getServerEpoch()).thenReturn(1L);
+        sequencerServer = new SequencerServer(mockServerContext, spySequencerFactoryHelper);
+        sequencerServer.setSequencerEpoch(1L);
+
+        // Keep the resolver pool busy so that the conflict keys are prepared last
+        CountDownLatch latch = new CountDownLatch(1);
+        resolverExecutor.submit(() -> {
+            latch.await();
+            return null;
+        });
+
+        RequestMsg txRequest = getRequestMsg(
+                getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getTokenRequestMsg(1, Collections.emptyList(),
+                        new TxResolutionInfo(UUID.randomUUID(), new Token(1L, globalTail)))
+        );
+        RequestMsg trimRequest = getRequestMsg(
+                getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getSequencerTrimRequestMsg(globalTail)
+        );
+        sequencerServer.handleMessage(txRequest, mockChannelHandlerContext, mockServerRouter);
+        sequencerServer.handleMessage(trimRequest, mockChannelHandlerContext, mockServerRouter);
+
+        latch.countDown();
+        resolverExecutor.shutdown();
+        assertTrue(resolverExecutor.awaitTermination(1, TimeUnit.MINUTES));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        ArgumentCaptor<ResponseMsg> responseCaptor = ArgumentCaptor.forClass(ResponseMsg.class);
+        verify(mockServerRouter, times(2))
+                .sendResponse(responseCaptor.capture(), any(ChannelHandlerContext.class));
+        List<ResponseMsg> responses = responseCaptor.getAllValues();
+
+        assertTrue(compareBaseHeaderFields(txRequest.getHeader(), responses.get(0).getHeader()));
+        TokenResponse tokenResponse = getTokenResponse(responses.get(0).getPayload().getTokenResponse());
+        assertEquals(TokenType.NORMAL, tokenResponse.getRespType());
+        assertEquals(globalTail, tokenResponse.getToken().getSequence());
+        assertTrue(compareBaseHeaderFields(trimRequest.getHeader(), responses.get(1).getHeader()));
+        assertTrue(responses.get(1).getPayload().hasSequencerTrimResponse());
+    }
 }
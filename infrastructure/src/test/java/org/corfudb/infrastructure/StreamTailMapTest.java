@@ -0,0 +1,65 @@
+package org.corfudb.infrastructure;
+
+import org.corfudb.runtime.view.Address;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StreamTailMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        StreamTailMap tails = new StreamTailMap();
+        UUID streamA = UUID.randomUUID();
+        UUID streamB = new UUID(0L, 0L);
+
+        assertThat(tails.get(streamA)).isEqualTo(Address.NON_EXIST);
+        assertThat(tails.containsKey(streamB)).isFalse();
+
+        assertThat(tails.put(streamA, 10L)).isEqualTo(Address.NON_EXIST);
+        assertThat(tails.put(streamB, 0L)).isEqualTo(Address.NON_EXIST);
+        assertThat(tails.put(streamA, 20L)).isEqualTo(10L);
+
+        assertThat(tails.get(streamA)).isEqualTo(20L);
+        assertThat(tails.get(streamB.getMostSignificantBits(), streamB.getLeastSignificantBits()))
+                .isEqualTo(0L);
+        assertThat(tails.containsKey(streamB)).isTrue();
+        assertThat(tails.size()).isEqualTo(2);
+
+        assertThatThrownBy(() -> tails.put(streamA, Long.MIN_VALUE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Checks that the map behaves as a regular map while it is resized, with
+     * stream ids which only differ in a few bits.
+     */
+    @Test
+    public void testResize() {
+        final int numStreams = 10_000;
+        final Random random = new Random(0);
+        StreamTailMap tails = new StreamTailMap(1);
+        Map<UUID, Long> expected = new HashMap<>();
+
+        for (int i = 0; i < 5 * numStreams; i++) {
+            UUID streamId = new UUID(random.nextInt(numStreams), 1L);
+            long tail = random.nextInt(Integer.MAX_VALUE);
+            Long previous = expected.put(streamId, tail);
+            assertThat(tails.put(streamId, tail))
+                    .isEqualTo(previous == null ? Address.NON_EXIST : previous);
+        }
+
+        assertThat(tails.size()).isEqualTo(expected.size());
+        expected.forEach((streamId, tail) -> assertThat(tails.get(streamId)).isEqualTo(tail));
+
+        Map<UUID, Long> iterated = new HashMap<>();
+        tails.forEach(iterated::put);
+        assertThat(iterated).isEqualTo(expected);
+    }
+}
@@ -13,6 +13,7 @@ import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.protocols.wireprotocol.StreamsAddressResponse;
 import org.corfudb.protocols.wireprotocol.TailsResponse;
 import org.corfudb.protocols.wireprotocol.Token;
+import org.corfudb.runtime.exceptions.LogUnitException;
 import org.corfudb.runtime.exceptions.QuotaExceededException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
 import org.corfudb.runtime.proto.service.LogUnit;
@@ -23,13 +24,16 @@ import org.junit.Test;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.corfudb.protocols.CorfuProtocolCommon.DEFAULT_UUID;
 import static org.corfudb.protocols.CorfuProtocolCommon.getUuidMsg;
 import static org.corfudb.protocols.service.CorfuProtocolBase.getSealRequestMsg;
@@ -45,7 +49,9 @@ import static org.corfudb.runtime.proto.service.CorfuMessage.HeaderMsg;
 import static org.corfudb.runtime.proto.service.CorfuMessage.PriorityLevel;
 import static org.corfudb.runtime.proto.service.CorfuMessage.RequestMsg;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -284,4 +290,137 @@ public class BatchProcessorTest {
             throw e.getCause();
         }
     }
+
+    /**
+     * Test that in group commit mode the writes of a batch are completed only after
+     * the batch has been synced, and that a failed sync fails the batch's writes.
+     */
+    @Test
+    public void testGroupCommitWrite() throws Exception {
+        batchProcessor.close();
+        batchProcessor = new BatchProcessor(mockStreamLog, DEFAULT_SEAL_EPOCH, true, true);
+
+        AtomicInteger syncs = new AtomicInteger();
+        when(mockStreamLog.detachSync(true)).thenReturn(syncs::incrementAndGet);
+
+        final int numWrites = 10;
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (int x = 0; x < numWrites; x++) {
+            LogData logData = getDefaultLogData(x);
+            RequestMsg request = getRequestMsg(getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                    getWriteLogRequestMsg(logData));
+            futures.add(batchProcessor.addTask(BatchWriterOperation.Type.WRITE, request));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        for (int x = 0; x < numWrites; x++) {
+            verify(mockStreamLog).append(x, getDefaultLogData(x));
+        }
+        assertThat(syncs.get()).isPositive();
+
+        when(mockStreamLog.detachSync(true)).thenReturn(() -> {
+            throw new IOException("sync failed");
+        });
+        RequestMsg request = getRequestMsg(getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getWriteLogRequestMsg(getDefaultLogData(numWrites)));
+        assertThatThrownBy(() -> batchProcessor.addTask(BatchWriterOperation.Type.WRITE, request).join())
+                .hasCauseInstanceOf(IOException.class);
+
+        // Once a sync has failed, no further operation is acknowledged
+        when(mockStreamLog.detachSync(true)).thenReturn(syncs::incrementAndGet);
+        RequestMsg nextRequest = getRequestMsg(getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getWriteLogRequestMsg(getDefaultLogData(numWrites + 1)));
+        assertThatThrownBy(() -> batchProcessor.addTask(BatchWriterOperation.Type.WRITE, nextRequest).join())
+                .hasCauseInstanceOf(LogUnitException.class);
+        verify(mockStreamLog, never()).append(numWrites + 1, getDefaultLogData(numWrites + 1));
+    }
+
+    /**
+     * Test that a failed sync fails the batch's writes, and seals the processor.
+     */
+    @Test
+    public void testSyncFailure() throws Exception {
+        doThrow(new IOException("sync failed")).when(mockStreamLog).sync(true);
+
+        RequestMsg request = getRequestMsg(getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getWriteLogRequestMsg(getDefaultLogData(0L)));
+        assertThatThrownBy(() -> batchProcessor.addTask(BatchWriterOperation.Type.WRITE, request).join())
+                .hasCauseInstanceOf(IOException.class);
+
+        RequestMsg nextRequest = getRequestMsg(getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getWriteLogRequestMsg(getDefaultLogData(1L)));
+        assertThatThrownBy(() -> batchProcessor.addTask(BatchWriterOperation.Type.WRITE, nextRequest).join())
+                .hasCauseInstanceOf(LogUnitException.class);
+        verify(mockStreamLog, never()).append(1L, getDefaultLogData(1L));
+    }
+
+    /**
+     * Test that after a failed sync a seal is still acknowledged, and that a reset
+     * of the log lets the processor acknowledge operations again.
+     */
+    @Test
+    public void testSyncFailureRecovery() throws Exception {
+        doThrow(new IOException("sync failed")).doNothing().when(mockStreamLog).sync(true);
+
+        RequestMsg request = getRequestMsg(getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getWriteLogRequestMsg(getDefaultLogData(0L)));
+        assertThatThrownBy(() -> batchProcessor.addTask(BatchWriterOperation.Type.WRITE, request).join())
+                .hasCauseInstanceOf(IOException.class);
+
+        checkSyncFailureRecovery();
+    }
+
+    /**
+     * Test that in group commit mode a reset of the log lets the processor acknowledge
+     * operations again after a failed sync.
+     */
+    @Test
+    public void testGroupCommitSyncFailureRecovery() throws Exception {
+        batchProcessor.close();
+        batchProcessor = new BatchProcessor(mockStreamLog, DEFAULT_SEAL_EPOCH, true, true);
+
+        when(mockStreamLog.detachSync(true)).thenReturn(() -> {
+            throw new IOException("sync failed");
+        });
+        RequestMsg request = getRequestMsg(getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getWriteLogRequestMsg(getDefaultLogData(0L)));
+        assertThatThrownBy(() -> batchProcessor.addTask(BatchWriterOperation.Type.WRITE, request).join())
+                .hasCauseInstanceOf(IOException.class);
+
+        AtomicInteger syncs = new AtomicInteger();
+        when(mockStreamLog.detachSync(true)).thenReturn(syncs::incrementAndGet);
+        checkSyncFailureRecovery();
+        assertThat(syncs.get()).isPositive();
+    }
+
+    private void checkSyncFailureRecovery() {
+        RequestMsg write = getRequestMsg(getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.CHECK),
+                getWriteLogRequestMsg(getDefaultLogData(1L)));
+        assertThatThrownBy(() -> batchProcessor.addTask(BatchWriterOperation.Type.WRITE, write).join())
+                .hasCauseInstanceOf(LogUnitException.class);
+
+        // The node can still be sealed, but operations are not acknowledged until the log is reset
+        RequestMsg seal = getRequestMsg(getBasicHeader(ClusterIdCheck.CHECK, EpochCheck.IGNORE),
+                getSealRequestMsg(LARGER_SEAL_EPOCH));
+        batchProcessor.addTask(BatchWriterOperation.Type.SEAL, seal).join();
+        RequestMsg query = getRequestMsg(getLargerEpochHeader(),
+                getTailRequestMsg(LogUnit.TailRequestMsg.Type.LOG_TAIL));
+        assertThatThrownBy(() -> batchProcessor.addTask(BatchWriterOperation.Type.TAILS_QUERY, query).join())
+                .hasCauseInstanceOf(LogUnitException.class);
+
+        RequestMsg reset = getRequestMsg(getResetHeaderLargerEpoch(), getResetLogUnitRequestMsg(100L));
+        batchProcessor.addTask(BatchWriterOperation.Type.RESET, reset).join();
+        verify(mockStreamLog).reset();
+
+        RequestMsg nextWrite = getRequestMsg(getLargerEpochHeader(),
+                getWriteLogRequestMsg(getDefaultLogData(2L)));
+        batchProcessor.addTask(BatchWriterOperation.Type.WRITE, nextWrite).join();
+        verify(mockStreamLog).append(2L, getDefaultLogData(2L));
+        verify(mockStreamLog, never()).append(1L, getDefaultLogData(1L));
+    }
+
+    private HeaderMsg getLargerEpochHeader() {
+        return getHeaderMsg(requestCounter.incrementAndGet(), PriorityLevel.NORMAL, LARGER_SEAL_EPOCH,
+                getUuidMsg(DEFAULT_UUID), getUuidMsg(DEFAULT_UUID), ClusterIdCheck.CHECK, EpochCheck.CHECK);
+    }
 }
@@ -0,0 +1,75 @@
+package org.corfudb.infrastructure.log;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SegmentAddressIndexTest {
+
+    private static final int CAPACITY = 100;
+    private static final long SEGMENT = 3;
+    private static final long START = SEGMENT * CAPACITY;
+
+    @Test
+    public void testPutAndGet() {
+        SegmentAddressIndex index = new SegmentAddressIndex(SEGMENT, CAPACITY);
+        final int checksum = 42;
+        final int length = 128;
+        final long offset = 4096;
+
+        assertThat(index.contains(START)).isFalse();
+        assertThat(index.get(START)).isNull();
+
+        index.put(START, new AddressMetaData(checksum, length, offset));
+        assertThat(index.contains(START)).isTrue();
+        assertThat(index.size()).isEqualTo(1);
+
+        AddressMetaData metaData = index.get(START);
+        assertThat(metaData.checksum).isEqualTo(checksum);
+        assertThat(metaData.length).isEqualTo(length);
+        assertThat(metaData.offset).isEqualTo(offset);
+
+        // Addresses outside of the segment are never indexed
+        assertThat(index.contains(START - 1)).isFalse();
+        assertThat(index.contains(START + CAPACITY)).isFalse();
+        assertThatThrownBy(() -> index.put(START + CAPACITY, new AddressMetaData(0, 0, 0)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testOverwriteKeepsLastRecord() {
+        SegmentAddressIndex index = new SegmentAddressIndex(SEGMENT, CAPACITY);
+        final int length = 128;
+        final long firstOffset = 4096;
+        final long secondOffset = 8192;
+
+        index.put(START, new AddressMetaData(1, length, firstOffset));
+        index.put(START, new AddressMetaData(2, length, secondOffset));
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.get(START).checksum).isEqualTo(2);
+        assertThat(index.get(START).offset).isEqualTo(secondOffset);
+    }
+
+    @Test
+    public void testIterationAndIntersection() {
+        SegmentAddressIndex index = new SegmentAddressIndex(SEGMENT, CAPACITY);
+        final long step = 10;
+        for (long address = START; address < START + CAPACITY; address += step) {
+            index.put(address, new AddressMetaData(0, 1, address));
+        }
+
+        List<Long> addresses = new ArrayList<>();
+        index.forEachAddress(addresses::add);
+        assertThat(addresses).hasSize(CAPACITY / (int) step).isSorted();
+        assertThat(index.size()).isEqualTo(addresses.size());
+
+        assertThat(index.intersection(ImmutableSet.of(START, START + 1, START + step)))
+                .containsExactlyInAnyOrder(START, START + step);
+    }
+}
@@ -1,6 +1,7 @@
 package org.corfudb.infrastructure.log.statetransfer.batchprocessor.committedbatchprocessor;
 
 import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
 import org.corfudb.infrastructure.log.statetransfer.DataTest;
 import org.corfudb.infrastructure.log.statetransfer.batch.ReadBatch;
 import org.corfudb.infrastructure.log.statetransfer.batch.TransferBatchRequest;
@@ -13,6 +14,7 @@ import org.corfudb.protocols.wireprotocol.ReadResponse;
 import org.corfudb.runtime.clients.LogUnitClient;
 import org.corfudb.runtime.exceptions.NetworkException;
 import org.corfudb.runtime.exceptions.RetryExhaustedException;
+import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
 import org.corfudb.runtime.view.RuntimeLayout;
 import org.corfudb.util.NodeLocator;
@@ -36,7 +38,10 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class CommittedBatchProcessorTest extends DataTest {
@@ -274,5 +279,111 @@ class CommittedBatchProcessorTest extends DataTest {
         assertThat(response).isEqualTo(expected);
     }
 
+    @Test
+    public void testRawTransferSkipsRegularTransfer() {
+        LogUnitClient targetClient = mock(LogUnitClient.class);
+        LogUnitClient currentClient = mock(LogUnitClient.class);
+        RuntimeLayout runtimeLayout = mock(RuntimeLayout.class);
+        doReturn(targetClient).when(runtimeLayout).getLogUnitClient("test1");
+        doReturn(currentClient).when(runtimeLayout).getLogUnitClient("test");
+        List<Long> addresses = Arrays.asList(0L, 1L, 2L);
+        ByteString records = ByteString.copyFromUtf8("records");
+        doReturn(CompletableFuture.completedFuture(records)).when(targetClient).readRaw(addresses);
+        doReturn(CompletableFuture.completedFuture(true)).when(currentClient).writeRaw(records);
+
+        CommittedBatchProcessor spy = spy(CommittedBatchProcessor.builder()
+                .currentNode("test").runtimeLayout(runtimeLayout).build());
+        TransferBatchRequest req = TransferBatchRequest.builder().addresses(addresses)
+                .destinationNodes(Optional.of(ImmutableList.of("test1"))).build();
+        TransferBatchResponse response = spy.transfer(req).join();
 
-}
\ No newline at end of file
+        assertThat(response.getStatus()).isEqualTo(SUCCEEDED);
+        assertThat(response.getTransferBatchRequest()).isEqualTo(req);
+        verify(currentClient).writeRaw(records);
+        verify(spy, never()).readRecords(Matchers.anyObject(), Matchers.anyObject(), Matchers.anyObject());
+    }
+
+    @Test
+    public void testRawTransferFailureFallsBackToRegularTransfer() {
+        LogUnitClient targetClient = mock(LogUnitClient.class);
+        LogUnitClient currentClient = mock(LogUnitClient.class);
+        RuntimeLayout runtimeLayout = mock(RuntimeLayout.class);
+        doReturn(targetClient).when(runtimeLayout).getLogUnitClient("test1");
+        doReturn(currentClient).when(runtimeLayout).getLogUnitClient("test");
+        List<Long> addresses = Arrays.asList(0L, 1L, 2L);
+        CompletableFuture<ByteString> trimmed = new CompletableFuture<>();
+        trimmed.completeExceptionally(new TrimmedException());
+        doReturn(trimmed).when(targetClient).readRaw(addresses);
+
+        CommittedBatchProcessor testProcessor = CommittedBatchProcessor.builder()
+                .currentNode("test").runtimeLayout(runtimeLayout).build();
+        CommittedBatchProcessor spy = spy(testProcessor);
+        ReadBatch batch = ReadBatch.builder().build();
+        doReturn(batch).when(spy).readRecords(addresses, Optional.of("test1"), targetClient);
+        TransferBatchResponse expected = TransferBatchResponse.builder().build();
+        doReturn(expected).when(spy).writeRecords(batch,
+                currentClient, testProcessor.getMaxWriteRetries(), testProcessor.getWriteSleepDuration());
+
+        TransferBatchRequest req = TransferBatchRequest.builder().addresses(addresses)
+                .destinationNodes(Optional.of(ImmutableList.of("test1"))).build();
+        assertThat(spy.transfer(req).join()).isEqualTo(expected);
+        verify(currentClient, never()).writeRaw(Matchers.anyObject());
+    }
+
+    @Test
+    public void testRawTransferWrongEpochExceptionFailsTransfer() {
+        LogUnitClient targetClient = mock(LogUnitClient.class);
+        LogUnitClient currentClient = mock(LogUnitClient.class);
+        RuntimeLayout runtimeLayout = mock(RuntimeLayout.class);
+        doReturn(targetClient).when(runtimeLayout).getLogUnitClient("test1");
+        doReturn(currentClient).when(runtimeLayout).getLogUnitClient("test");
+        List<Long> addresses = Arrays.asList(0L, 1L, 2L);
+        ByteString records = ByteString.copyFromUtf8("records");
+        doReturn(CompletableFuture.completedFuture(records)).when(targetClient).readRaw(addresses);
+        CompletableFuture<Boolean> wrongEpoch = new CompletableFuture<>();
+        wrongEpoch.completeExceptionally(new WrongEpochException(0L));
+        doReturn(wrongEpoch).when(currentClient).writeRaw(records);
+
+        CommittedBatchProcessor spy = spy(CommittedBatchProcessor.builder()
+                .currentNode("test").runtimeLayout(runtimeLayout).build());
+        TransferBatchRequest req = TransferBatchRequest.builder().addresses(addresses)
+                .destinationNodes(Optional.of(ImmutableList.of("test1"))).build();
+        TransferBatchResponse response = spy.transfer(req).join();
+
+        assertThat(response.getStatus()).isEqualTo(FAILED);
+        assertThat(response.getCauseOfFailure().get()).hasRootCauseInstanceOf(WrongEpochException.class);
+        verify(spy, never()).readRecords(Matchers.anyObject(), Matchers.anyObject(), Matchers.anyObject());
+    }
+
+    @Test
+    public void testRawTransferTimeoutSkipsRawTransferForNode() {
+        LogUnitClient targetClient = mock(LogUnitClient.class);
+        LogUnitClient currentClient = mock(LogUnitClient.class);
+        RuntimeLayout runtimeLayout = mock(RuntimeLayout.class);
+        doReturn(targetClient).when(runtimeLayout).getLogUnitClient("test1");
+        doReturn(currentClient).when(runtimeLayout).getLogUnitClient("test");
+        List<Long> addresses = Arrays.asList(0L, 1L, 2L);
+        CompletableFuture<ByteString> timedOut = new CompletableFuture<>();
+        timedOut.completeExceptionally(new TimeoutException());
+        doReturn(timedOut).when(targetClient).readRaw(addresses);
+
+        CommittedBatchProcessor testProcessor = CommittedBatchProcessor.builder()
+                .currentNode("test").runtimeLayout(runtimeLayout).build();
+        CommittedBatchProcessor spy = spy(testProcessor);
+        ReadBatch batch = ReadBatch.builder().build();
+        doReturn(batch).when(spy).readRecords(addresses, Optional.of("test1"), targetClient);
+        TransferBatchResponse expected = TransferBatchResponse.builder().build();
+        doReturn(expected).when(spy).writeRecords(batch,
+                currentClient, testProcessor.getMaxWriteRetries(), testProcessor.getWriteSleepDuration());
+
+        TransferBatchRequest req = TransferBatchRequest.builder().addresses(addresses)
+                .destinationNodes(Optional.of(ImmutableList.of("test1"))).build();
+        assertThat(spy.transfer(req).join()).isEqualTo(expected);
+        assertThat(spy.transfer(req).join()).isEqualTo(expected);
+
+        // The node timed out once, the next batch is transferred through the regular path only.
+        verify(targetClient, times(1)).readRaw(addresses);
+        verify(spy, times(2)).readRecords(addresses, Optional.of("test1"), targetClient);
+        verify(currentClient, never()).writeRaw(Matchers.anyObject());
+    }
+}
@@ -0,0 +1,172 @@
+package org.corfudb.infrastructure.logreplication.utils;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PrefetchingIteratorTest {
+
+    private static final int NUM_ELEMENTS = 100;
+    private static final int CAPACITY = 2;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    private static List<Integer> getElements() {
+        return IntStream.range(0, NUM_ELEMENTS).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testElementsInSourceOrder() {
+        List<Integer> consumed = new ArrayList<>();
+        try (PrefetchingIterator<Integer> iterator =
+                     new PrefetchingIterator<>(() -> getElements().iterator(), CAPACITY, executor)) {
+            iterator.forEachRemaining(consumed::add);
+            assertThat(iterator.hasNext()).isFalse();
+            assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+        }
+
+        assertThat(consumed).isEqualTo(getElements());
+    }
+
+    @Test
+    public void testEmptySource() {
+        try (PrefetchingIterator<Integer> iterator =
+                     new PrefetchingIterator<>(() -> new ArrayList<Integer>().iterator(), CAPACITY, executor)) {
+            assertThat(iterator.hasNext()).isFalse();
+        }
+    }
+
+    /**
+     * Checks that a failure of the source is only rethrown once the elements
+     * read before it have been consumed, and then on every call.
+     */
+    @Test
+    public void testSourceFailure() {
+        Iterator<Integer> source = new Iterator<Integer>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                if (next == CAPACITY) {
+                    throw new IllegalArgumentException("source failure");
+                }
+                return next++;
+            }
+        };
+
+        try (PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(() -> source, CAPACITY, executor)) {
+            for (int i = 0; i < CAPACITY; i++) {
+                assertThat(iterator.next()).isEqualTo(i);
+            }
+            assertThatThrownBy(iterator::hasNext).isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("source failure");
+            assertThatThrownBy(iterator::next).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    public void testSourceCreationFailure() {
+        try (PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(() -> {
+            throw new IllegalStateException("cannot open source");
+        }, CAPACITY, executor)) {
+            assertThatThrownBy(iterator::hasNext).isInstanceOf(IllegalStateException.class)
+                    .hasMessage("cannot open source");
+        }
+    }
+
+    @Test
+    public void testRejectedByExecutor() {
+        executor.shutdown();
+        try (PrefetchingIterator<Integer> iterator =
+                     new PrefetchingIterator<>(() -> getElements().iterator(), CAPACITY, executor)) {
+            assertThatThrownBy(iterator::hasNext).isInstanceOf(RejectedExecutionException.class);
+        }
+    }
+
+    /**
+     * Checks that the source is read ahead up to the capacity, and that closing the
+     * iterator stops the producer blocked on the full buffer.
+     */
+    @Test
+    public void testCloseStopsProducer() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        Iterator<Integer> source = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                return produced.getAndIncrement();
+            }
+        };
+
+        PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(() -> source, CAPACITY, executor);
+        assertThat(iterator.next()).isEqualTo(0);
+
+        // The buffer fills up, one more element is produced and blocked on the offer.
+        while (produced.get() < CAPACITY + 2) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        TimeUnit.MILLISECONDS.sleep(NUM_ELEMENTS);
+        assertThat(produced.get()).isEqualTo(CAPACITY + 2);
+
+        iterator.close();
+        // The executor can only terminate once the producer exited.
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(produced.get()).isEqualTo(CAPACITY + 2);
+
+        assertThatThrownBy(iterator::hasNext).isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Checks that closing the iterator unblocks a consumer waiting on a source
+     * which doesn't produce any element.
+     */
+    @Test
+    public void testCloseUnblocksConsumer() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            return getElements().iterator();
+        }, CAPACITY, executor);
+
+        CompletableFuture<Boolean> hasNext = CompletableFuture.supplyAsync(iterator::hasNext, executor);
+        iterator.close();
+        assertThatThrownBy(() -> hasNext.get(1, TimeUnit.MINUTES))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        release.countDown();
+    }
+}
@@ -25,6 +25,10 @@ public final class CorfuProtocolLogData {
      * @return         an equivalent Protobuf LogData message
      */
     public static LogDataMsg getLogDataMsg(LogData logData) {
+        if (logData.getSerializedEntry() != null) {
+            return LogDataMsg.newBuilder().setEntry(logData.getSerializedEntry()).build();
+        }
+
         ByteBuf buf = Unpooled.buffer();
         logData.doSerialize(buf);
 
@@ -43,6 +47,18 @@ public final class CorfuProtocolLogData {
         return new LogData(Unpooled.wrappedBuffer(msg.getEntry().asReadOnlyByteBuffer()));
     }
 
+    /**
+     * Returns a LogData object from its Protobuf representation, which keeps the
+     * serialized entry so that it can be persisted and served without being serialized
+     * again. The returned LogData must not be modified.
+     *
+     * @param msg  the desired Protobuf LogData message
+     * @return     a equivalent LogData object
+     */
+    public static LogData getForwardableLogData(LogDataMsg msg) {
+        return LogData.fromSerializedEntry(msg.getEntry());
+    }
+
     /**
      * The result of a single READ from the specified address.
      *
@@ -95,8 +95,8 @@ public class OpaqueEntry implements Serializable {
             ByteBuf compressedBuf = CorfuProtocolCommon.fromBuffer(payload, ByteBuf.class);
             byte[] compressedArrayBuf= new byte[compressedBuf.readableBytes()];
             compressedBuf.readBytes(compressedArrayBuf);
-            payloadBuf = Unpooled.wrappedBuffer(logData.getPayloadCodecType()
-                    .getInstance().decompress(ByteBuffer.wrap(compressedArrayBuf)));
+            payloadBuf = Unpooled.wrappedBuffer(logData.getPayloadCodec()
+                    .decompress(ByteBuffer.wrap(compressedArrayBuf)));
         }
 
         if (payloadBuf.readByte() != corfuPayloadMagic) {
@@ -1,5 +1,6 @@
 package org.corfudb.protocols.service;
 
+import com.google.protobuf.ByteString;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +33,10 @@ import org.corfudb.runtime.proto.service.LogUnit.LogAddressSpaceRequestMsg;
 import org.corfudb.runtime.proto.service.LogUnit.LogAddressSpaceResponseMsg;
 import org.corfudb.runtime.proto.service.LogUnit.RangeWriteLogRequestMsg;
 import org.corfudb.runtime.proto.service.LogUnit.RangeWriteLogResponseMsg;
+import org.corfudb.runtime.proto.service.LogUnit.RawRangeWriteLogRequestMsg;
+import org.corfudb.runtime.proto.service.LogUnit.RawRangeWriteLogResponseMsg;
+import org.corfudb.runtime.proto.service.LogUnit.RawReadLogRequestMsg;
+import org.corfudb.runtime.proto.service.LogUnit.RawReadLogResponseMsg;
 import org.corfudb.runtime.proto.service.LogUnit.ReadLogRequestMsg;
 import org.corfudb.runtime.proto.service.LogUnit.ReadLogResponseMsg;
 import org.corfudb.runtime.proto.service.LogUnit.ResetLogUnitRequestMsg;
@@ -504,4 +509,57 @@ public final class CorfuProtocolLogUnit {
                 .setResetLogUnitResponse(ResetLogUnitResponseMsg.getDefaultInstance())
                 .build();
     }
+
+    /**
+     * Returns a RAW_READ_LOG request that can be sent by the client.
+     *
+     * @param addresses  the list of global addresses to read
+     * @return           a RequestPayloadMsg containing the RAW_READ_LOG request
+     */
+    public static RequestPayloadMsg getRawReadLogRequestMsg(List<Long> addresses) {
+        return RequestPayloadMsg.newBuilder()
+                .setRawReadLogRequest(RawReadLogRequestMsg.newBuilder()
+                        .addAllAddress(addresses)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Returns a RAW_READ_LOG response that can be sent by the server.
+     *
+     * @param records  the persisted records of the requested addresses
+     * @return         a ResponsePayloadMsg containing the RAW_READ_LOG response
+     */
+    public static ResponsePayloadMsg getRawReadLogResponseMsg(ByteString records) {
+        return ResponsePayloadMsg.newBuilder()
+                .setRawReadLogResponse(RawReadLogResponseMsg.newBuilder()
+                        .setRecords(records)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Returns a RAW_RANGE_WRITE_LOG request that can be sent by the client.
+     *
+     * @param records  the persisted records to write, as returned by a RAW_READ_LOG request
+     * @return         a RequestPayloadMsg containing the RAW_RANGE_WRITE_LOG request
+     */
+    public static RequestPayloadMsg getRawRangeWriteLogRequestMsg(ByteString records) {
+        return RequestPayloadMsg.newBuilder()
+                .setRawRangeWriteLogRequest(RawRangeWriteLogRequestMsg.newBuilder()
+                        .setRecords(records)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Returns a RAW_RANGE_WRITE_LOG response that can be sent by the server.
+     *
+     * @return  a ResponsePayloadMsg containing the RAW_RANGE_WRITE_LOG response
+     */
+    public static ResponsePayloadMsg getRawRangeWriteLogResponseMsg() {
+        return ResponsePayloadMsg.newBuilder()
+                .setRawRangeWriteLogResponse(RawRangeWriteLogResponseMsg.getDefaultInstance())
+                .build();
+    }
 }
@@ -121,6 +121,16 @@ public interface ILogData extends IMetadata, Comparable<ILogData> {
      */
     int getSizeEstimate();
 
+    /**
+     * Get an estimate of the serialized size of this entry (payload and metadata), that is
+     * cheap enough to be computed on the read and write paths.
+     *
+     * @return An estimate on the serialized size of this object, in bytes.
+     */
+    default int getSerializedSizeEstimate() {
+        return getSizeEstimate();
+    }
+
     /**
      * Assign a given token to this log data.
      *
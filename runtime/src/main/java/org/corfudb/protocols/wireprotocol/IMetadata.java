@@ -19,6 +19,7 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import lombok.Getter;
 import org.corfudb.common.compression.Codec;
+import org.corfudb.common.compression.CompressionDictionaries;
 import org.corfudb.protocols.logprotocol.CheckpointEntry;
 import org.corfudb.runtime.view.Address;
 import org.corfudb.runtime.view.Layout;
@@ -30,6 +31,16 @@ public interface IMetadata {
 
     EnumMap<IMetadata.LogUnitMetadataType, Object> getMetadataMap();
 
+    /**
+     * Set a metadata entry, which all the metadata setters go through.
+     *
+     * @param type  the metadata type
+     * @param value the metadata value
+     */
+    default void setMetadata(LogUnitMetadataType type, Object value) {
+        getMetadataMap().put(type, value);
+    }
+
     /**
      * Get the streams that belong to this append.
      *
@@ -58,19 +69,19 @@ public interface IMetadata {
     }
 
     default void setBackpointerMap(Map<UUID, Long> backpointerMap) {
-        getMetadataMap().put(LogUnitMetadataType.BACKPOINTER_MAP, backpointerMap);
+        setMetadata(LogUnitMetadataType.BACKPOINTER_MAP, backpointerMap);
     }
 
     default void setGlobalAddress(Long address) {
-        getMetadataMap().put(LogUnitMetadataType.GLOBAL_ADDRESS, address);
+        setMetadata(LogUnitMetadataType.GLOBAL_ADDRESS, address);
     }
 
     default void setEpoch(Long epoch) {
-        getMetadataMap().put(LogUnitMetadataType.EPOCH, epoch);
+        setMetadata(LogUnitMetadataType.EPOCH, epoch);
     }
 
     default void setClientId(UUID clientId) {
-        getMetadataMap().put(LogUnitMetadataType.CLIENT_ID, clientId);
+        setMetadata(LogUnitMetadataType.CLIENT_ID, clientId);
     }
 
     @SuppressWarnings("unchecked")
@@ -80,7 +91,7 @@ public interface IMetadata {
     }
 
     default void setThreadId(Long threadId) {
-        getMetadataMap().put(LogUnitMetadataType.THREAD_ID, threadId);
+        setMetadata(LogUnitMetadataType.THREAD_ID, threadId);
     }
 
     @SuppressWarnings("unchecked")
@@ -134,7 +145,7 @@ public interface IMetadata {
     }
 
     default void setCheckpointType(CheckpointEntry.CheckpointEntryType type) {
-        getMetadataMap().put(CHECKPOINT_TYPE, type);
+        setMetadata(CHECKPOINT_TYPE, type);
     }
 
     @Nullable
@@ -146,7 +157,7 @@ public interface IMetadata {
 
     @SuppressWarnings({"checkstyle:abbreviationaswordinname", "checkstyle:membername"})
     default void setCheckpointId(UUID id) {
-        getMetadataMap().put(CHECKPOINT_ID, id);
+        setMetadata(CHECKPOINT_ID, id);
     }
 
     default UUID getCheckpointedStreamId() {
@@ -155,7 +166,7 @@ public interface IMetadata {
     }
 
     default void setCheckpointedStreamId(UUID Id) {
-        getMetadataMap().put(CHECKPOINTED_STREAM_ID, Id);
+        setMetadata(CHECKPOINTED_STREAM_ID, Id);
     }
 
     /**
@@ -168,7 +179,7 @@ public interface IMetadata {
     }
 
     default void setCheckpointedStreamStartLogAddress(Long startLogAddress) {
-        getMetadataMap().put(CHECKPOINTED_STREAM_START_LOG_ADDRESS, startLogAddress);
+        setMetadata(CHECKPOINTED_STREAM_START_LOG_ADDRESS, startLogAddress);
     }
 
     /**
@@ -177,7 +188,7 @@ public interface IMetadata {
      * @param type codec type (NONE, LZ4, ZSTD...)
      */
     default void setPayloadCodecType(Codec.Type type) {
-        getMetadataMap().put(LogUnitMetadataType.PAYLOAD_CODEC, type);
+        setMetadata(LogUnitMetadataType.PAYLOAD_CODEC, type);
     }
 
     /**
@@ -198,6 +209,37 @@ public interface IMetadata {
         return getPayloadCodecType() != Codec.Type.NONE;
     }
 
+    /**
+     * Set the id of the dictionary the payload is compressed with, only meaningful for ZSTD.
+     *
+     * @param dictionaryId dictionary id
+     */
+    default void setPayloadCodecDictionaryId(long dictionaryId) {
+        setMetadata(LogUnitMetadataType.PAYLOAD_CODEC_DICTIONARY, dictionaryId);
+    }
+
+    /**
+     * Get the id of the dictionary the payload is compressed with.
+     *
+     * @return dictionary id, or null if the payload is not compressed with a dictionary
+     */
+    default Long getPayloadCodecDictionaryId() {
+        return (Long) getMetadataMap().get(LogUnitMetadataType.PAYLOAD_CODEC_DICTIONARY);
+    }
+
+    /**
+     * Get the codec to encode/decode the payload, taking into account its dictionary.
+     *
+     * @return payload codec
+     */
+    default Codec getPayloadCodec() {
+        Long dictionaryId = getPayloadCodecDictionaryId();
+        if (dictionaryId != null && getPayloadCodecType() == Codec.Type.ZSTD) {
+            return CompressionDictionaries.get(dictionaryId);
+        }
+        return getPayloadCodecType().getInstance();
+    }
+
     enum LogUnitMetadataType implements ITypedEnum {
         BACKPOINTER_MAP(3, new TypeToken<Map<UUID, Long>>() {}),
         GLOBAL_ADDRESS(4, TypeToken.of(Long.class)),
@@ -208,7 +250,8 @@ public interface IMetadata {
         CLIENT_ID(10, TypeToken.of(UUID.class)),
         THREAD_ID(11, TypeToken.of(Long.class)),
         EPOCH(12, TypeToken.of(Long.class)),
-        PAYLOAD_CODEC(13, TypeToken.of(Codec.Type.class));
+        PAYLOAD_CODEC(13, TypeToken.of(Codec.Type.class)),
+        PAYLOAD_CODEC_DICTIONARY(14, TypeToken.of(Long.class));
         final int type;
         @Getter
         final TypeToken<?> componentType;
@@ -1,10 +1,12 @@
 package org.corfudb.protocols.wireprotocol;
 
 import com.google.common.base.Preconditions;
+import com.google.protobuf.ByteString;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.common.compression.Codec;
 import org.corfudb.common.metrics.micrometer.MicroMeterUtils;
@@ -18,7 +20,9 @@ import org.corfudb.util.serializer.Serializers;
 
 import java.nio.ByteBuffer;
 import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -32,16 +36,39 @@ public class LogData implements IMetadata, ILogData {
     @Getter
     final DataType type;
 
-    @Getter
     byte[] data;
 
     private SerializedCache serializedCache = null;
 
     private int lastKnownSize = NOT_KNOWN;
 
+    // Serialized size (payload and metadata), computed when this object is serialized or deserialized
+    private int serializedSizeEstimate = NOT_KNOWN;
+
+    // Estimated serialized size of a metadata entry's type and value, and of a single backpointer
+    private static final int METADATA_ENTRY_SIZE_ESTIMATE = Byte.BYTES + 2 * Long.BYTES;
+    private static final int BACKPOINTER_SIZE_ESTIMATE = 3 * Long.BYTES;
+
     private final transient AtomicReference<Object> payload = new AtomicReference<>();
 
-    private final EnumMap<LogUnitMetadataType, Object> metadataMap;
+    // If set, receives a copy of the uncompressed payload when it is compressed (used to train dictionaries)
+    @Setter
+    private transient Consumer<byte[]> payloadSampler = null;
+
+    private EnumMap<LogUnitMetadataType, Object> metadataMap;
+
+    // The serialized form this log data was deserialized from, if it is kept to be
+    // forwarded as is rather than serialized again. It is dropped once the log data is modified.
+    @Getter
+    private transient volatile ByteString serializedEntry = null;
+
+    // Whether the payload is still only held by the serialized entry.
+    // It is deserialized the first time it is accessed.
+    private transient volatile boolean deferred = false;
+
+    // Whether the metadata is still only held by the serialized entry. It is deserialized,
+    // without copying the payload, the first time it is accessed.
+    private transient volatile boolean metadataDeferred = false;
 
     @RequiredArgsConstructor
     private static class SerializedCache {
@@ -77,6 +104,7 @@ public class LogData implements IMetadata, ILogData {
      * Return the payload.
      */
     public Object getPayload(CorfuRuntime runtime) {
+        deserializeDeferred();
         Object value = payload.get();
 
         // This is only needed for unit test framework to work. Since unit
@@ -98,12 +126,17 @@ public class LogData implements IMetadata, ILogData {
                     } else {
                         ByteBuf serializedBuf = Unpooled.wrappedBuffer(data);
                         if (hasPayloadCodec()) {
+                            if (runtime != null && getPayloadCodecDictionaryId() != null) {
+                                // Make sure the dictionaries persisted through this runtime can be resolved,
+                                // even if it doesn't compress its own writes with them.
+                                runtime.getCompressionDictionaryManager();
+                            }
                             // If the payload has a codec we need to decode it before deserialization.
                             ByteBuf compressedBuf = CorfuProtocolCommon.fromBuffer(data, ByteBuf.class);
                             byte[] compressedArrayBuf = new byte[compressedBuf.readableBytes()];
                             compressedBuf.readBytes(compressedArrayBuf);
-                            Supplier<ByteBuf> bufSupplier = () -> Unpooled.wrappedBuffer(getPayloadCodecType()
-                                    .getInstance().decompress(ByteBuffer.wrap(compressedArrayBuf)));
+                            Supplier<ByteBuf> bufSupplier = () -> Unpooled.wrappedBuffer(getPayloadCodec()
+                                    .decompress(ByteBuffer.wrap(compressedArrayBuf)));
                             serializedBuf = MicroMeterUtils.time(bufSupplier,
                                     "logdata.decompress");
                         }
@@ -179,6 +212,7 @@ public class LogData implements IMetadata, ILogData {
 
     @Override
     public int getSizeEstimate() {
+        deserializeDeferred();
         byte[] tempData = data;
         if (tempData != null) {
             return tempData.length;
@@ -191,15 +225,127 @@ public class LogData implements IMetadata, ILogData {
         return 1;
     }
 
+    /**
+     * Returns the serialized size of this log data if it has been serialized or deserialized,
+     * otherwise the size is estimated from the payload size and the metadata entries. Once the
+     * payload size is known the estimate is kept, until this log data is serialized.
+     */
+    @Override
+    public int getSerializedSizeEstimate() {
+        int size = serializedSizeEstimate;
+        if (size != NOT_KNOWN) {
+            return size;
+        }
+
+        boolean payloadSizeKnown = data != null || lastKnownSize != NOT_KNOWN;
+        size = getSizeEstimate();
+        for (Object value : metadataMap.values()) {
+            size += METADATA_ENTRY_SIZE_ESTIMATE;
+            if (value instanceof Map) {
+                size += ((Map<?, ?>) value).size() * BACKPOINTER_SIZE_ESTIMATE;
+            }
+        }
+
+        if (payloadSizeKnown) {
+            serializedSizeEstimate = size;
+        }
+        return size;
+    }
+
     @Override
     public EnumMap<IMetadata.LogUnitMetadataType, Object> getMetadataMap() {
+        deserializeDeferredMetadata();
         return metadataMap;
     }
 
+    /**
+     * Set a metadata entry. The serialized entry this log data was created from no longer
+     * matches it, so it is dropped.
+     */
+    @Override
+    public void setMetadata(LogUnitMetadataType type, Object value) {
+        if (serializedEntry != null) {
+            synchronized (this) {
+                deserializeDeferred();
+                serializedEntry = null;
+            }
+        }
+        metadataMap.put(type, value);
+    }
+
+    /**
+     * Return the serialized payload, if it hasn't been deserialized.
+     */
+    public byte[] getData() {
+        deserializeDeferred();
+        return data;
+    }
+
+    /**
+     * Whether the payload and the metadata of this log data are deserialized. A log data
+     * created from its serialized entry defers their deserialization until they are accessed.
+     */
+    public boolean isDeserialized() {
+        return !deferred && !metadataDeferred;
+    }
+
+    /**
+     * Whether the metadata of this log data is deserialized, see {@link #isDeserialized()}.
+     */
+    public boolean isMetadataDeserialized() {
+        return !metadataDeferred;
+    }
+
+    /**
+     * Deserialize the metadata of a log data created from its serialized entry,
+     * if it is the first time it is accessed. The payload is skipped.
+     */
+    private void deserializeDeferredMetadata() {
+        if (!metadataDeferred) {
+            return;
+        }
+
+        synchronized (this) {
+            if (metadataDeferred) {
+                ByteBuf buf = Unpooled.wrappedBuffer(serializedEntry.asReadOnlyByteBuffer());
+                // The type was deserialized along with the log data.
+                CorfuProtocolCommon.fromBuffer(buf, DataType.class);
+                if (type == DataType.DATA) {
+                    buf.skipBytes(buf.readInt());
+                }
+                metadataMap = CorfuProtocolCommon.enumMapFromBuffer(buf, IMetadata.LogUnitMetadataType.class);
+                metadataDeferred = false;
+            }
+        }
+    }
+
+    /**
+     * Deserialize the payload and the metadata of a log data created from its
+     * serialized entry, if it is the first time they are accessed.
+     */
+    private void deserializeDeferred() {
+        if (!deferred) {
+            return;
+        }
+
+        synchronized (this) {
+            deserializeDeferredMetadata();
+            if (deferred) {
+                if (type == DataType.DATA) {
+                    ByteBuf buf = Unpooled.wrappedBuffer(serializedEntry.asReadOnlyByteBuffer());
+                    CorfuProtocolCommon.fromBuffer(buf, DataType.class);
+                    data = CorfuProtocolCommon.fromBuffer(buf, byte[].class);
+                }
+                deferred = false;
+            }
+        }
+    }
+
     /**
      * Return the payload.
      */
     public LogData(ByteBuf buf) {
+        int startIndex = buf.readerIndex();
         type = CorfuProtocolCommon.fromBuffer(buf, DataType.class);
         if (type == DataType.DATA) {
             data = CorfuProtocolCommon.fromBuffer(buf, byte[].class);
@@ -208,6 +354,26 @@ public class LogData implements IMetadata, ILogData {
         }
 
         metadataMap = CorfuProtocolCommon.enumMapFromBuffer(buf, IMetadata.LogUnitMetadataType.class);
+        serializedSizeEstimate = buf.readerIndex() - startIndex;
+    }
+
+    /**
+     * Create a log data from its serialized form, which is kept so that it can be forwarded
+     * without being serialized again. Only the type is deserialized right away, the payload
+     * and the metadata are deserialized once they are accessed, so a log data which is only
+     * forwarded is never deserialized. Modifying the returned log data drops its serialized form.
+     *
+     * @param serializedEntry the serialized log data
+     * @return the log data
+     */
+    public static LogData fromSerializedEntry(ByteString serializedEntry) {
+        LogData logData = new LogData(CorfuProtocolCommon.fromBuffer(
+                Unpooled.wrappedBuffer(serializedEntry.asReadOnlyByteBuffer()), DataType.class));
+        logData.serializedEntry = serializedEntry;
+        logData.serializedSizeEstimate = serializedEntry.size();
+        logData.deferred = true;
+        logData.metadataDeferred = true;
+        return logData;
     }
 
     /**
@@ -302,14 +468,17 @@ public class LogData implements IMetadata, ILogData {
     }
 
     private int doSerializeInternal(ByteBuf buf) {
+        int startIndex = buf.writerIndex();
         doSerializePayloadInternal(buf);
         int metadataOffset = buf.writerIndex();
         doSerializeMetadataInternal(buf);
+        serializedSizeEstimate = buf.writerIndex() - startIndex;
 
         return metadataOffset;
     }
 
     private void doSerializePayloadInternal(ByteBuf buf) {
+        deserializeDeferred();
         CorfuProtocolCommon.serialize(buf, type.asByte());
         if (type == DataType.DATA) {
             if (data == null) {
@@ -336,12 +505,19 @@ public class LogData implements IMetadata, ILogData {
     }
 
     private void doSerializeMetadataInternal(ByteBuf buf) {
+        deserializeDeferredMetadata();
         CorfuProtocolCommon.serialize(buf, metadataMap);
     }
 
     private void doCompressInternal(ByteBuf bufData, ByteBuf buf) {
         ByteBuffer wrappedByteBuf = ByteBuffer.wrap(bufData.array(), 0, bufData.readableBytes());
-        Supplier<ByteBuffer> compressSupplier = () -> getPayloadCodecType().getInstance().compress(wrappedByteBuf);
+        if (payloadSampler != null) {
+            byte[] sample = new byte[wrappedByteBuf.remaining()];
+            wrappedByteBuf.duplicate().get(sample);
+            payloadSampler.accept(sample);
+            payloadSampler = null;
+        }
+        Supplier<ByteBuffer> compressSupplier = () -> getPayloadCodec().compress(wrappedByteBuf);
         ByteBuffer compressedBuf = MicroMeterUtils.time(compressSupplier, "logdata.compress");
         CorfuProtocolCommon.serialize(buf, Unpooled.wrappedBuffer(compressedBuf));
     }
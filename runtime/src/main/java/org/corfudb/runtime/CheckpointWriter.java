@@ -21,7 +21,6 @@ import org.corfudb.runtime.view.StreamsView;
 import org.corfudb.util.serializer.ISerializer;
 import org.corfudb.util.serializer.Serializers;
 
-import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -261,7 +260,7 @@ public class CheckpointWriter<T extends StreamingMap> {
         int totalEntryCount = 0;
         int numBytesPerCheckpointEntry = 0;
 
-        ByteBuf inputBuffer = Unpooled.buffer();
+        ByteBuf sizingBuffer = Unpooled.buffer();
         MultiSMREntry smrEntries = new MultiSMREntry();
 
         Iterator<Map.Entry> iterator = entryStream.iterator();
@@ -272,36 +271,34 @@ public class CheckpointWriter<T extends StreamingMap> {
                             valueMutator.apply(entry.getValue())},
                     serializer);
 
-            /* Need to check the size of the compressed buffer. inputByteBuffer and
-               inputBuffer are the same buffer.
+            /* The uncompressed size of the serialized entries is an upper bound of the size of
+               the batch once compressed (up to the codec's framing, which the threshold accounts
+               for), so batches are cut without compressing each entry to measure it.
              */
-            smrPutEntry.serialize(inputBuffer);
-            ByteBuffer compressedBuffer =
-                    rt.getParameters()
-                            .getCodecType()
-                            .getInstance().compress(ByteBuffer.wrap(inputBuffer.array(),
-                            inputBuffer.readerIndex(), inputBuffer.writerIndex()));
+            smrPutEntry.serialize(sizingBuffer);
+            int entrySize = sizingBuffer.writerIndex();
+            sizingBuffer.clear();
 
-            numBytesPerCheckpointEntry += compressedBuffer.limit();
+            numBytesPerCheckpointEntry += entrySize;
 
             /* CheckpointEntry has some metadata and make the total size larger than the actual size
              * of SMR entries. Its a safeguard against the smr entries amounting to the actual
              * boundary limit.
              */
-            if (numBytesPerCheckpointEntry > maxWriteSizeLimit) {
+            if (numBytesPerCheckpointEntry > maxWriteSizeLimit && !smrEntries.getUpdates().isEmpty()) {
                 convertAndAppendCheckpointEntry(smrEntries, kvCopy);
                 log.trace("Batched size of checkpoint log entry consists {} smr entries",
                         smrEntries.getUpdates().size());
                 /* reset the num of bytes and the new batch size entries below
                 also, reset the smr entry to add the newly read SMR:each from the stream. */
-                numBytesPerCheckpointEntry = compressedBuffer.limit();
+                numBytesPerCheckpointEntry = entrySize;
                 smrEntries = new MultiSMREntry();
             }
             smrEntries.addTo(smrPutEntry);
             // maintain current batch size only for test purposes.
             totalEntryCount++;
-            inputBuffer.clear();
         }
+        sizingBuffer.release();
 
         // the entries which are left behind for a final flush.
         if (!smrEntries.getUpdates().isEmpty()) {
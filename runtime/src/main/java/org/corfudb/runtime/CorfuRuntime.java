@@ -26,6 +26,7 @@ import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
 import org.corfudb.runtime.proto.service.CorfuMessage.PriorityLevel;
 import org.corfudb.runtime.view.AddressSpaceView;
+import org.corfudb.runtime.view.CompressionDictionaryManager;
 import org.corfudb.runtime.view.Layout;
 import org.corfudb.runtime.view.LayoutManagementView;
 import org.corfudb.runtime.view.LayoutView;
@@ -125,16 +126,17 @@ public class CorfuRuntime {
         long maxCacheEntries;
 
         /*
-         * The max in-memory size of the cache in bytes
+         * The max size of the cache in bytes, as estimated by the serialized size of the
+         * cached entries. This bound is approximate: the cache holds deserialized entries,
+         * whose heap footprint is larger than their serialized size, and much larger when
+         * their payload was compressed. Only one of maxCacheEntries and maxCacheWeight can be set.
          */
         long maxCacheWeight;
 
         /*
-         * This is a hint to size the AddressSpaceView cache, a higher concurrency
-         * level allows for less lock contention at the cost of more memory overhead.
-         * The default value of zero will result in using the cache's internal default
-         * concurrency level (i.e. 4).
+         * No longer used, the AddressSpaceView cache doesn't need a concurrency level hint.
          */
+        @Deprecated
         int cacheConcurrencyLevel = 0;
 
         /*
@@ -164,12 +166,23 @@ public class CorfuRuntime {
          */
         int trimRetry = 2;
 
+        /*
+         * The maximum number of versions of an object kept for lock-free reads, if the object
+         * supports snapshots ({@link org.corfudb.runtime.object.ICorfuSnapshotable}).
+         */
+        int maxObjectVersions = 256;
+
         /*
          * The total number of retries the checkpointer will attempt on sequencer failover to
          * prevent epoch regressions. This is independent of the number of streams to be checkpointed.
          */
         int checkpointRetries = 5;
 
+        /*
+         * The maximum number of tables the checkpointer will checkpoint concurrently.
+         */
+        int checkpointWriterThreads = 4;
+
         /*
          * Stream Batch Size: number of addresses to fetch in advance when stream address discovery mechanism
          * relies on address maps instead of follow backpointers, i.e., followBackpointersEnabled = false;
@@ -230,6 +243,29 @@ public class CorfuRuntime {
          */
         private Codec.Type codecType = Codec.Type.ZSTD;
 
+        /*
+         * Whether to train a shared compression dictionary from sampled write payloads
+         * and use it to compress subsequent writes (only applies to the ZSTD codec).
+         */
+        private boolean compressionDictionaryEnabled = false;
+
+        /*
+         * The maximum size in bytes of a trained compression dictionary.
+         */
+        private int compressionDictionarySize = 16 * 1024;
+
+        /*
+         * The number of write payloads sampled to train a compression dictionary.
+         */
+        private int compressionDictionarySampleCount = 1000;
+
+        /*
+         * Whether CorfuStore records are written in the compact format, which identifies the
+         * types of their messages by ids rather than typeUrls. Clients of previous versions
+         * can't read this format, so it should only be enabled once all clients read it.
+         */
+        private boolean compactProtobufRecordsEnabled = false;
+
         /*
          * Enable runtime metrics.
          */
@@ -246,7 +282,7 @@ public class CorfuRuntime {
         private long streamingPollingBlockingTimeMs = 5;
 
         /*
-         * Period of time in ms to sleep before next cycle, when poller gets no new data changes.
+         * Period of time in ms between checks of the tails of the streams whose pollers got no new data changes.
          */
         private int streamingPollingIdleWaitTimeMs = 5;
 
@@ -276,6 +312,12 @@ public class CorfuRuntime {
         private int streamingNotificationBatchSize = 50;
         // TODO: make it a function of the streaming Queue Size
 
+        /*
+         * Total number of threads running the continuations of asynchronous client requests,
+         * such as the next step of a replicated write.
+         */
+        private int asyncClientThreadPoolSize = 4;
+
         public static class CorfuRuntimeParametersBuilder extends RuntimeParametersBuilder {
             private int maxWriteSize = Integer.MAX_VALUE;
             private int bulkReadSize = 10;
@@ -291,7 +333,9 @@ public class CorfuRuntime {
             private boolean holeFillingDisabled = false;
             private int writeRetry = 5;
             private int trimRetry = 2;
+            private int maxObjectVersions = 256;
             private int checkpointRetries = 5;
+            private int checkpointWriterThreads = 4;
             private int streamBatchSize = 10;
             private int checkpointReadBatchSize = 5;
             private Duration runtimeGCPeriod = Duration.ofMinutes(20);
@@ -301,6 +345,10 @@ public class CorfuRuntime {
             private int invalidateRetry = 5;
             private PriorityLevel priorityLevel = PriorityLevel.NORMAL;
             private Codec.Type codecType = Codec.Type.ZSTD;
+            private boolean compressionDictionaryEnabled = false;
+            private int compressionDictionarySize = 16 * 1024;
+            private int compressionDictionarySampleCount = 1000;
+            private boolean compactProtobufRecordsEnabled = false;
             private boolean metricsEnabled = true;
             private int highestSequenceNumberBatchSize = 4;
             private long streamingPollingBlockingTimeMs = 5;
@@ -310,6 +358,7 @@ public class CorfuRuntime {
             private int streamingNotificationThreadPoolSize = 4;
             private long streamingNotificationBlockingTimeMs = 5;
             private int streamingNotificationBatchSize = 50;
+            private int asyncClientThreadPoolSize = 4;
 
             public CorfuRuntimeParametersBuilder tlsEnabled(boolean tlsEnabled) {
                 super.tlsEnabled(tlsEnabled);
@@ -476,7 +525,14 @@ public class CorfuRuntime {
                 return this;
             }
 
+            /**
+             * @deprecated The address space view cache doesn't take a concurrency level, this
+             * setting is ignored.
+             */
+            @Deprecated
             public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder cacheConcurrencyLevel(int cacheConcurrencyLevel) {
+                log.warn("cacheConcurrencyLevel: Deprecated, the cache concurrency level {} is ignored",
+                        cacheConcurrencyLevel);
                 this.cacheConcurrencyLevel = cacheConcurrencyLevel;
                 return this;
             }
@@ -501,11 +557,22 @@ public class CorfuRuntime {
                 return this;
             }
 
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder maxObjectVersions(int maxObjectVersions) {
+                this.maxObjectVersions = maxObjectVersions;
+                return this;
+            }
+
             public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder checkpointRetries(int checkpointRetries) {
                 this.checkpointRetries = checkpointRetries;
                 return this;
             }
 
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder checkpointWriterThreads(
+                    int checkpointWriterThreads) {
+                this.checkpointWriterThreads = checkpointWriterThreads;
+                return this;
+            }
+
             public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder streamBatchSize(int streamBatchSize) {
                 this.streamBatchSize = streamBatchSize;
                 return this;
@@ -551,6 +618,30 @@ public class CorfuRuntime {
                 return this;
             }
 
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder compressionDictionaryEnabled(
+                    boolean compressionDictionaryEnabled) {
+                this.compressionDictionaryEnabled = compressionDictionaryEnabled;
+                return this;
+            }
+
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder compressionDictionarySize(
+                    int compressionDictionarySize) {
+                this.compressionDictionarySize = compressionDictionarySize;
+                return this;
+            }
+
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder compressionDictionarySampleCount(
+                    int compressionDictionarySampleCount) {
+                this.compressionDictionarySampleCount = compressionDictionarySampleCount;
+                return this;
+            }
+
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder compactProtobufRecordsEnabled(
+                    boolean compactProtobufRecordsEnabled) {
+                this.compactProtobufRecordsEnabled = compactProtobufRecordsEnabled;
+                return this;
+            }
+
             public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder metricsEnabled(boolean enabled) {
                 this.metricsEnabled = enabled;
                 return this;
@@ -596,7 +687,17 @@ public class CorfuRuntime {
                 return this;
             }
 
+            public CorfuRuntimeParameters.CorfuRuntimeParametersBuilder asyncClientThreadPoolSize(int asyncClientThreadPoolSize) {
+                this.asyncClientThreadPoolSize = asyncClientThreadPoolSize;
+                return this;
+            }
+
             public CorfuRuntimeParameters build() {
+                if (maxCacheEntries != 0 && maxCacheWeight != 0) {
+                    throw new IllegalArgumentException("The cache can either be bounded by its number "
+                            + "of entries or by its weight, set only one of maxCacheEntries and maxCacheWeight");
+                }
+
                 CorfuRuntimeParameters corfuRuntimeParameters = new CorfuRuntimeParameters();
                 corfuRuntimeParameters.setTlsEnabled(tlsEnabled);
                 corfuRuntimeParameters.setKeyStore(keyStore);
@@ -636,7 +737,9 @@ public class CorfuRuntime {
                 corfuRuntimeParameters.setHoleFillingDisabled(holeFillingDisabled);
                 corfuRuntimeParameters.setWriteRetry(writeRetry);
                 corfuRuntimeParameters.setTrimRetry(trimRetry);
+                corfuRuntimeParameters.setMaxObjectVersions(maxObjectVersions);
                 corfuRuntimeParameters.setCheckpointRetries(checkpointRetries);
+                corfuRuntimeParameters.setCheckpointWriterThreads(checkpointWriterThreads);
                 corfuRuntimeParameters.setStreamBatchSize(streamBatchSize);
                 corfuRuntimeParameters.setCheckpointReadBatchSize(checkpointReadBatchSize);
                 corfuRuntimeParameters.setRuntimeGCPeriod(runtimeGCPeriod);
@@ -646,6 +749,10 @@ public class CorfuRuntime {
                 corfuRuntimeParameters.setInvalidateRetry(invalidateRetry);
                 corfuRuntimeParameters.setPriorityLevel(priorityLevel);
                 corfuRuntimeParameters.setCodecType(codecType);
+                corfuRuntimeParameters.setCompressionDictionaryEnabled(compressionDictionaryEnabled);
+                corfuRuntimeParameters.setCompressionDictionarySize(compressionDictionarySize);
+                corfuRuntimeParameters.setCompressionDictionarySampleCount(compressionDictionarySampleCount);
+                corfuRuntimeParameters.setCompactProtobufRecordsEnabled(compactProtobufRecordsEnabled);
                 corfuRuntimeParameters.setMetricsEnabled(metricsEnabled);
                 corfuRuntimeParameters.setStreamingPollingBlockingTimeMs(streamingPollingBlockingTimeMs);
                 corfuRuntimeParameters.setStreamingPollingIdleWaitTimeMs(streamingPollingIdleWaitTimeMs);
@@ -654,6 +761,7 @@ public class CorfuRuntime {
                 corfuRuntimeParameters.setStreamingNotificationThreadPoolSize(streamingNotificationThreadPoolSize);
                 corfuRuntimeParameters.setStreamingNotificationBlockingTimeMs(streamingNotificationBlockingTimeMs);
                 corfuRuntimeParameters.setStreamingNotificationBatchSize(streamingNotificationBatchSize);
+                corfuRuntimeParameters.setAsyncClientThreadPoolSize(asyncClientThreadPoolSize);
 
                 return corfuRuntimeParameters;
             }
@@ -714,6 +822,12 @@ public class CorfuRuntime {
      */
     private final AtomicReference<TableRegistry> tableRegistry = new AtomicReference<>(null);
 
+    /**
+     * Trains, persists and resolves the compression dictionaries of write payloads.
+     */
+    private final AtomicReference<CompressionDictionaryManager> compressionDictionaryManager =
+            new AtomicReference<>(null);
+
     /**
      * List of initial set of layout servers, i.e., servers specified in
      * connection string on bootstrap.
@@ -764,6 +878,13 @@ public class CorfuRuntime {
             .setNameFormat("CorfuRuntime-%d")
             .build());
 
+    /**
+     * Runs the continuations of asynchronous client requests, such as writing to the next
+     * replica of a chain or validating a failed write, which must not run on the netty event loop.
+     */
+    @Getter
+    private final ExecutorService asyncClientExecutor;
+
     /**
      * Latest layout seen by the runtime.
      */
@@ -812,6 +933,23 @@ public class CorfuRuntime {
         return tableRegistryObj;
     }
 
+    /**
+     * lazy instantiation of the compressionDictionaryManager
+     */
+    public CompressionDictionaryManager getCompressionDictionaryManager() {
+        CompressionDictionaryManager manager = this.compressionDictionaryManager.get();
+        if (manager == null) {
+            synchronized (this) {
+                manager = this.compressionDictionaryManager.get();
+                if (manager == null) {
+                    manager = new CompressionDictionaryManager(this);
+                    this.compressionDictionaryManager.set(manager);
+                }
+            }
+        }
+        return manager;
+    }
+
     /**
      * When set, overrides the default getRouterFunction. Used by the testing
      * framework to ensure the default routers used are for testing.
@@ -880,6 +1018,12 @@ public class CorfuRuntime {
         nettyEventLoop = parameters.nettyEventLoop == null ? getNewEventLoopGroup()
                 : parameters.nettyEventLoop;
 
+        asyncClientExecutor = Executors.newFixedThreadPool(parameters.getAsyncClientThreadPoolSize(),
+                new ThreadFactoryBuilder()
+                        .setDaemon(true)
+                        .setNameFormat("CorfuRuntime-async-client-%d")
+                        .build());
+
         // Initializing the node router pool.
         nodeRouterPool = new NodeRouterPool(getRouterFunction);
 
@@ -949,8 +1093,13 @@ public class CorfuRuntime {
         if (tableRegistryObj != null) {
             tableRegistryObj.shutdown();
         }
+        CompressionDictionaryManager dictionaryManager = compressionDictionaryManager.get();
+        if (dictionaryManager != null) {
+            dictionaryManager.shutdown();
+        }
         garbageCollector.stop();
         runtimeExecutor.shutdownNow();
+        asyncClientExecutor.shutdownNow();
         if (layout != null) {
             try {
                 layout.cancel(true);
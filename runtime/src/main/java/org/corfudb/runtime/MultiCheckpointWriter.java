@@ -1,5 +1,6 @@
 package org.corfudb.runtime;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.Token;
@@ -7,15 +8,21 @@ import org.corfudb.runtime.collections.StreamingMap;
 import org.corfudb.runtime.exceptions.WrongEpochException;
 import org.corfudb.runtime.object.CorfuCompileProxy;
 import org.corfudb.runtime.object.ICorfuSMR;
+import org.corfudb.util.CFUtils;
 import org.corfudb.util.serializer.ISerializer;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Checkpoint multiple CorfuTables serially as a prerequisite for a later log trim.
+ * Checkpoint multiple CorfuTables concurrently as a prerequisite for a later log trim.
  */
 @Slf4j
 public class MultiCheckpointWriter<T extends StreamingMap> {
@@ -37,58 +44,44 @@ public class MultiCheckpointWriter<T extends StreamingMap> {
     }
 
     /** Checkpoint multiple CorfuTables. Since this method is Map specific
-     *  then the keys are unique and the order doesn't matter.
+     *  then the keys are unique and the order doesn't matter. Up to
+     *  checkpointWriterThreads maps are checkpointed concurrently.
      *
      * @param rt CorfuRuntime
      * @param author Author's name, stored in checkpoint metadata
      * @return Global log address of the first record of
      */
     public Token appendCheckpoints(CorfuRuntime rt, String author) {
-        int numRetries = rt.getParameters().getCheckpointRetries();
-        int retry = 0;
         log.info("appendCheckpoints: appending checkpoints for {} maps", maps.size());
 
+        // The retries are shared by all the maps, as they are about sequencer failovers.
+        final AtomicInteger retries = new AtomicInteger();
+        // The greatest snapshot of the checkpoints completed so far, which any checkpoint
+        // started afterwards can't precede unless the sequencer regressed.
+        final AtomicReference<Token> maxCompletedSnapshot = new AtomicReference<>(Token.UNINITIALIZED);
         Token minSnapshot = Token.UNINITIALIZED;
 
         final long cpStart = System.currentTimeMillis();
+        final int numThreads = Math.max(1, Math.min(maps.size(), rt.getParameters().getCheckpointWriterThreads()));
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("CheckpointWriter-%d")
+                .build());
         try {
+            List<Future<Token>> checkpoints = new ArrayList<>(maps.size());
             for (ICorfuSMR<T> map : maps) {
-                UUID streamId = map.getCorfuStreamID();
-
-                CheckpointWriter<T> cpw = new CheckpointWriter(rt, streamId, author, (T) map);
-                ISerializer serializer = ((CorfuCompileProxy) map.getCorfuSMRProxy())
-                                .getSerializer();
-                cpw.setSerializer(serializer);
-
-                Token minCPSnapshot = Token.UNINITIALIZED;
-                while (retry < numRetries) {
-                    try {
-                        minCPSnapshot = cpw.appendCheckpoint();
-                        break;
-                    } catch (WrongEpochException wee) {
-                        log.info("Epoch changed to {} during append checkpoint snapshot resolution. Sequencer" +
-                                " failover can lead to potential epoch regression, retry {}/{}", wee.getCorrectEpoch(),
-                                retry, numRetries);
-                        retry++;
-                        if (retry == numRetries) {
-                            String msg = String.format("Epochs changed during checkpoint cycle, " +
-                                    "over more than %s times. Potential sequencer regressions can lead to data loss. " +
-                                    "Aborting.", numRetries);
-                            throw new IllegalStateException(msg);
-                        }
-                    }
-                }
+                checkpoints.add(executor.submit(() -> appendCheckpoint(rt, author, map, retries,
+                        maxCompletedSnapshot)));
+            }
 
-                if (minSnapshot == Token.UNINITIALIZED) {
+            for (Future<Token> checkpoint : checkpoints) {
+                Token minCPSnapshot = CFUtils.getUninterruptibly(checkpoint);
+                if (minSnapshot == Token.UNINITIALIZED || minCPSnapshot.compareTo(minSnapshot) < 0) {
                     minSnapshot = minCPSnapshot;
-                } else if (minCPSnapshot.compareTo(minSnapshot) < 0) {
-                    // Given that the snapshot returned by appendCheckpoint is a global snapshot that shouldn't regress.
-                    String msg = String.format("Potential epoch regression. Subsequent checkpoint returned a greater" +
-                            "snapshot {} than previous {}.", minCPSnapshot, minSnapshot);
-                    throw new IllegalStateException(msg);
                 }
             }
         } finally {
+            executor.shutdownNow();
             // TODO(Maithem): print cp id?
             log.trace("appendCheckpoints: finished, author '{}' at min globalAddress {}",
                     author, minSnapshot);
@@ -101,4 +94,46 @@ public class MultiCheckpointWriter<T extends StreamingMap> {
         return minSnapshot;
     }
 
+    private Token appendCheckpoint(CorfuRuntime rt, String author, ICorfuSMR<T> map, AtomicInteger retries,
+                                   AtomicReference<Token> maxCompletedSnapshot) {
+        final int numRetries = rt.getParameters().getCheckpointRetries();
+        final Token completedSnapshot = maxCompletedSnapshot.get();
+        UUID streamId = map.getCorfuStreamID();
+
+        CheckpointWriter<T> cpw = new CheckpointWriter(rt, streamId, author, (T) map);
+        ISerializer serializer = ((CorfuCompileProxy) map.getCorfuSMRProxy())
+                        .getSerializer();
+        cpw.setSerializer(serializer);
+
+        Token minCPSnapshot = Token.UNINITIALIZED;
+        while (retries.get() < numRetries) {
+            try {
+                minCPSnapshot = cpw.appendCheckpoint();
+                break;
+            } catch (WrongEpochException wee) {
+                int retry = retries.incrementAndGet();
+                log.info("Epoch changed to {} during append checkpoint snapshot resolution. Sequencer" +
+                        " failover can lead to potential epoch regression, retry {}/{}", wee.getCorrectEpoch(),
+                        retry, numRetries);
+                if (retry >= numRetries) {
+                    String msg = String.format("Epochs changed during checkpoint cycle, " +
+                            "over more than %s times. Potential sequencer regressions can lead to data loss. " +
+                            "Aborting.", numRetries);
+                    throw new IllegalStateException(msg);
+                }
+            }
+        }
+
+        if (completedSnapshot != Token.UNINITIALIZED && minCPSnapshot.compareTo(completedSnapshot) < 0) {
+            // Given that the snapshot returned by appendCheckpoint is a global snapshot that shouldn't regress.
+            String msg = String.format("Potential epoch regression. Subsequent checkpoint returned a smaller " +
+                    "snapshot %s than previous %s.", minCPSnapshot, completedSnapshot);
+            throw new IllegalStateException(msg);
+        }
+        final Token snapshot = minCPSnapshot;
+        maxCompletedSnapshot.accumulateAndGet(snapshot, (previous, current) ->
+                previous == Token.UNINITIALIZED || current.compareTo(previous) > 0 ? current : previous);
+        return snapshot;
+    }
+
 }
@@ -1,5 +1,6 @@
 package org.corfudb.runtime.clients;
 
+import com.google.protobuf.ByteString;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import java.util.Collections;
@@ -28,6 +29,8 @@ import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getInspectAddre
 import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getKnownAddressRequestMsg;
 import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getLogAddressSpaceRequestMsg;
 import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getRangeWriteLogRequestMsg;
+import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getRawRangeWriteLogRequestMsg;
+import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getRawReadLogRequestMsg;
 import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getReadLogRequestMsg;
 import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getResetLogUnitRequestMsg;
 import static org.corfudb.protocols.service.CorfuProtocolLogUnit.getTailRequestMsg;
@@ -109,6 +112,22 @@ public class LogUnitClient extends AbstractClient {
         return sendRequestWithFuture(getRangeWriteLogRequestMsg(range), ClusterIdCheck.CHECK, EpochCheck.CHECK);
     }
 
+    /**
+     * Sends a request to write a range of records in the format they are persisted
+     * in the log unit, as returned by {@link #readRaw(List)}. The records are
+     * validated and appended by the log unit without being deserialized.
+     *
+     * @param records the persisted records, in ascending address order.
+     * @return a completable future which returns true on success.
+     */
+    public CompletableFuture<Boolean> writeRaw(ByteString records) {
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("Can't write an empty range");
+        }
+
+        return sendRequestWithFuture(getRawRangeWriteLogRequestMsg(records), ClusterIdCheck.CHECK, EpochCheck.CHECK);
+    }
+
     /**
      * Asynchronously read from the logging unit.
      * Read result is cached at log unit server.
@@ -131,6 +150,18 @@ public class LogUnitClient extends AbstractClient {
         return sendRequestWithFuture(getReadLogRequestMsg(addresses, cacheable), ClusterIdCheck.CHECK, EpochCheck.CHECK);
     }
 
+    /**
+     * Asynchronously read the records of the given addresses in the format they are
+     * persisted in the logging unit, bypassing the log unit cache. All addresses must
+     * be present in the log unit.
+     *
+     * @param addresses the addresses to read from, in ascending order.
+     * @return a completableFuture which returns the persisted records on completion.
+     */
+    public CompletableFuture<ByteString> readRaw(List<Long> addresses) {
+        return sendRequestWithFuture(getRawReadLogRequestMsg(addresses), ClusterIdCheck.CHECK, EpochCheck.CHECK);
+    }
+
     /**
      * Check if addresses are committed on log unit server, which returns a future
      * with uncommitted addresses (holes) on the server.
@@ -237,6 +237,33 @@ public class LogUnitHandler implements IClient, IHandler<LogUnitClient> {
         return true;
     }
 
+    /**
+     * Handle a raw read log response from the server.
+     *
+     * @param msg      The raw read log response message.
+     * @param ctx      The context the message was sent under.
+     * @param router   A reference to the router.
+     * @return The persisted records sent back from server.
+     */
+    @ResponseHandler(type = PayloadCase.RAW_READ_LOG_RESPONSE)
+    private static Object handleRawReadLogResponse(ResponseMsg msg, ChannelHandlerContext ctx, IClientRouter router) {
+        return msg.getPayload().getRawReadLogResponse().getRecords();
+    }
+
+    /**
+     * Handle a raw range write log response from the server.
+     *
+     * @param msg      The raw range write log response message.
+     * @param ctx      The context the message was sent under.
+     * @param router   A reference to the router.
+     * @return Always True, since the raw range write was successful.
+     */
+    @ResponseHandler(type = PayloadCase.RAW_RANGE_WRITE_LOG_RESPONSE)
+    private static Object handleRawRangeWriteLogResponse(ResponseMsg msg, ChannelHandlerContext ctx,
+                                                         IClientRouter router) {
+        return true;
+    }
+
     /**
      * Handle a TRIMMED_ERROR response from the server.
      *
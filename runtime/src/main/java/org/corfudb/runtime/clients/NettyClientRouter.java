@@ -26,9 +26,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
@@ -48,7 +47,6 @@ import org.corfudb.protocols.wireprotocol.NettyCorfuMessageEncoder;
 import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
 import org.corfudb.runtime.exceptions.NetworkException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
-import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuInterruptedError;
 import org.corfudb.runtime.proto.RpcCommon;
 import org.corfudb.runtime.proto.ServerErrors.ServerErrorMsg.ErrorCase;
 import org.corfudb.runtime.proto.service.CorfuMessage;
@@ -427,21 +425,37 @@ public class NettyClientRouter extends SimpleChannelInboundHandler<Object> imple
             ClusterIdCheck ignoreClusterId, EpochCheck ignoreEpoch) {
 
         // Check the connection future. If connected, continue with sending the message.
-        // If timed out, return a exceptionally completed with the timeout.
+        // If not connected yet, send the message once connected, without blocking the calling
+        // thread, which may be completing another request. If the connection times out or fails,
+        // return a future completed exceptionally with the cause.
+        final CompletableFuture<Void> connected = connectionFuture;
+        if (!connected.isDone()) {
+            return CFUtils.within(connected, parameters.getConnectionTimeout())
+                    .thenCompose(ready -> sendConnectedRequest(payload, epoch, clusterId, priority,
+                            ignoreClusterId, ignoreEpoch));
+        }
         try {
-            connectionFuture.get(parameters.getConnectionTimeout().toMillis(), TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            throw new UnrecoverableCorfuInterruptedError(e);
-        } catch (TimeoutException te) {
-            CompletableFuture<T> f = new CompletableFuture<>();
-            f.completeExceptionally(te);
-            return f;
-        } catch (ExecutionException ee) {
+            connected.join();
+        } catch (CompletionException ce) {
             CompletableFuture<T> f = new CompletableFuture<>();
-            f.completeExceptionally(ee.getCause());
+            f.completeExceptionally(ce.getCause());
             return f;
         }
+        return sendConnectedRequest(payload, epoch, clusterId, priority, ignoreClusterId, ignoreEpoch);
+    }
 
+    /**
+     * Send a request message over the connected channel and get a completable future
+     * to be fulfilled by the reply.
+     *
+     * @see NettyClientRouter#sendRequestAndGetCompletable(RequestPayloadMsg, long,
+     * RpcCommon.UuidMsg, CorfuMessage.PriorityLevel, ClusterIdCheck, EpochCheck)
+     */
+    private <T> CompletableFuture<T> sendConnectedRequest(
+            RequestPayloadMsg payload,
+            long epoch, RpcCommon.UuidMsg clusterId,
+            CorfuMessage.PriorityLevel priority,
+            ClusterIdCheck ignoreClusterId, EpochCheck ignoreEpoch) {
         // Get the next request ID
         final long thisRequestId = requestID.getAndIncrement();
         RpcCommon.UuidMsg clientId = CorfuProtocolCommon.getUuidMsg(parameters.getClientId());
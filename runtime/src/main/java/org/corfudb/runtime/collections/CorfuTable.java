@@ -22,13 +22,16 @@ import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.function.BiConsumer;
@@ -75,6 +78,10 @@ public class CorfuTable<K, V> implements ICorfuTable<K, V>, ICorfuSMR<CorfuTable
                 return worker;
             }, null, true);
 
+    // Order of the index values of a sorted secondary index: natural order, with unset (null) values first.
+    private static final Comparator<Object> SORTED_INDEX_ORDER =
+            Comparator.nullsFirst(CorfuTable::compareIndexValues);
+
     // The "main" map which contains the primary key-value mappings.
     private final ContextAwareMap<K, V> mainMap;
     private final Set<Index.Spec<K, V, ?>> indexSpec;
@@ -112,7 +119,8 @@ public class CorfuTable<K, V> implements ICorfuTable<K, V>, ICorfuSMR<CorfuTable
                 this.secondaryIndexes, null);
 
         indices.forEach(index -> {
-            secondaryIndexes.put(index.getName().get(), new HashMap<>());
+            secondaryIndexes.put(index.getName().get(), index.isSorted()
+                    ? new TreeMap<>(SORTED_INDEX_ORDER) : newUnsortedIndex(mainMap));
             secondaryIndexesAliasToPath.put(index.getAlias().get(), index.getName().get());
             indexSpec.add(index);
         });
@@ -158,6 +166,14 @@ public class CorfuTable<K, V> implements ICorfuTable<K, V>, ICorfuSMR<CorfuTable
         this(Index.Registry.empty());
     }
 
+    /**
+     * The unsorted secondary indexes of a table backed by a {@link PersistentStreamingMap}
+     * are persistent as well, so that the whole table can be snapshotted.
+     */
+    private static <K, V> Map<Object, Map<K, V>> newUnsortedIndex(ContextAwareMap<K, V> mainMap) {
+        return mainMap instanceof PersistentStreamingMap ? new PersistentStreamingMap<>() : new HashMap<>();
+    }
+
     /** Helper function to get a map (non-secondary index) Corfu table.
      *
      * @param <K>           Key type
@@ -288,6 +304,122 @@ public class CorfuTable<K, V> implements ICorfuTable<K, V>, ICorfuSMR<CorfuTable
         throw new IllegalArgumentException("Secondary Index " + secondaryIndex + " is not defined.");
     }
 
+    /**
+     * Get all mappings whose index value, in the specified sorted index, falls within the given range.
+     * The entries are returned in index order.
+     *
+     * @param indexName     Name of the the sorted secondary index to query.
+     * @param fromKey       Low endpoint of the range, or null if the range is unbounded below.
+     * @param fromInclusive True if the low endpoint is to be included in the range.
+     * @param toKey         High endpoint of the range, or null if the range is unbounded above.
+     * @param toInclusive   True if the high endpoint is to be included in the range.
+     * @return A list of Map.Entry<K, V> ordered by index value.
+     */
+    @Accessor
+    public @Nonnull
+    <I extends Comparable<? super I>>
+    List<Entry<K, V>> getByIndexRange(@Nonnull Index.Name indexName,
+                                      I fromKey, boolean fromInclusive,
+                                      I toKey, boolean toInclusive) {
+        NavigableMap<Object, Map<K, V>> range = getSortedSecondaryIndex(indexName.get());
+        if (fromKey != null) {
+            range = range.tailMap(fromKey, fromInclusive);
+        }
+        if (toKey != null) {
+            range = range.headMap(toKey, toInclusive);
+        }
+        return collectEntries(range, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get all mappings whose index value, in the specified sorted index, is a string
+     * starting with the given prefix. The entries are returned in index order.
+     *
+     * @param indexName Name of the the sorted secondary index to query.
+     * @param prefix    The prefix of the index values to match.
+     * @return A list of Map.Entry<K, V> ordered by index value.
+     */
+    @Accessor
+    public @Nonnull
+    List<Entry<K, V>> getByIndexPrefix(@Nonnull Index.Name indexName, @Nonnull String prefix) {
+        List<Entry<K, V>> result = new ArrayList<>();
+        for (Entry<Object, Map<K, V>> slot :
+                getSortedSecondaryIndex(indexName.get()).tailMap(prefix, true).entrySet()) {
+            if (!(slot.getKey() instanceof String) || !((String) slot.getKey()).startsWith(prefix)) {
+                break;
+            }
+            result.addAll(slot.getValue().entrySet());
+        }
+        return result;
+    }
+
+    /**
+     * Get the first mappings of the specified sorted index, in ascending or descending index order.
+     *
+     * @param indexName  Name of the the sorted secondary index to query.
+     * @param descending True to start from the highest index value, false to start from the lowest.
+     * @param limit      Maximum number of entries to return.
+     * @return A list of at most limit Map.Entry<K, V> ordered by index value.
+     */
+    @Accessor
+    public @Nonnull
+    List<Entry<K, V>> getByIndexOrdered(@Nonnull Index.Name indexName, boolean descending, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must be non-negative: " + limit);
+        }
+        NavigableMap<Object, Map<K, V>> secondaryMap = getSortedSecondaryIndex(indexName.get());
+        return collectEntries(descending ? secondaryMap.descendingMap() : secondaryMap, limit);
+    }
+
+    /**
+     * Compares the (non null) values of a sorted secondary index. Values of different types,
+     * such as a query key of another type than the index values, never match: they are
+     * ordered by type rather than compared.
+     */
+    @SuppressWarnings("unchecked")
+    private static int compareIndexValues(Object a, Object b) {
+        if (a.getClass() != b.getClass()) {
+            return a.getClass().getName().compareTo(b.getClass().getName());
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    /**
+     * Resolve a sorted secondary index by its name or alias.
+     */
+    @DontInstrument
+    @SuppressWarnings("unchecked")
+    NavigableMap<Object, Map<K, V>> getSortedSecondaryIndex(String secondaryIndex) {
+        Map<Object, Map<K, V>> secondaryMap = secondaryIndexes.get(secondaryIndex);
+        if (secondaryMap == null && secondaryIndexesAliasToPath.containsKey(secondaryIndex)) {
+            secondaryMap = secondaryIndexes.get(secondaryIndexesAliasToPath.get(secondaryIndex));
+        }
+
+        if (secondaryMap == null) {
+            log.error("CorfuTable: secondary index " + secondaryIndex + " does not exist for this table, cannot complete the sorted query.");
+            throw new IllegalArgumentException("Secondary Index " + secondaryIndex + " is not defined.");
+        }
+
+        if (!(secondaryMap instanceof NavigableMap)) {
+            throw new IllegalArgumentException("Secondary Index " + secondaryIndex + " is not sorted.");
+        }
+
+        return (NavigableMap<Object, Map<K, V>>) secondaryMap;
+    }
+
+    private static <K, V> List<Entry<K, V>> collectEntries(Map<Object, Map<K, V>> slots, int limit) {
+        List<Entry<K, V>> result = new ArrayList<>();
+        for (Map<K, V> slot : slots.values()) {
+            for (Entry<K, V> entry : slot.entrySet()) {
+                if (result.size() >= limit) {
+                    return result;
+                }
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
     /** {@inheritDoc} */
     @Override
     @MutatorAccessor(name = "put", undoFunction = "undoPut", undoRecordFunction = "undoPutRecord")
@@ -656,7 +788,17 @@ public class CorfuTable<K, V> implements ICorfuTable<K, V>, ICorfuSMR<CorfuTable
                 for (Object indexKey : index.getMultiValueIndexFunction().apply(key, value)) {
                     Map<K, V> slot = secondaryIndex.get(indexKey);
                     if (slot != null) {
-                        slot.remove(key, value);
+                        if (slot instanceof PersistentHashMap) {
+                            // Persistent slots are shared with the snapshots of the table.
+                            slot = ((PersistentHashMap<K, V>) slot).minus(key, value);
+                            secondaryIndex.put(indexKey, slot);
+                        } else {
+                            slot.remove(key, value);
+                        }
+                        if (slot.isEmpty()) {
+                            // Drop empty slots so that range and ordered scans don't visit them.
+                            secondaryIndex.remove(indexKey);
+                        }
                     }
                 }
             }
@@ -692,8 +834,15 @@ public class CorfuTable<K, V> implements ICorfuTable<K, V>, ICorfuSMR<CorfuTable
                 String indexName = index.getName().get();
                 Map<Object, Map<K, V>> secondaryIndex = secondaryIndexes.get(indexName);
                 for (Object indexKey : index.getMultiValueIndexFunction().apply(key, value)) {
-                    Map<K, V> slot = secondaryIndex.computeIfAbsent(indexKey, k -> new HashMap<>());
-                    slot.put(key, value);
+                    if (secondaryIndex instanceof PersistentStreamingMap) {
+                        // Persistent slots are shared with the snapshots of the table.
+                        PersistentHashMap<K, V> slot = (PersistentHashMap<K, V>) secondaryIndex
+                                .getOrDefault(indexKey, PersistentHashMap.empty());
+                        secondaryIndex.put(indexKey, slot.plus(key, value));
+                    } else {
+                        Map<K, V> slot = secondaryIndex.computeIfAbsent(indexKey, k -> new HashMap<>());
+                        slot.put(key, value);
+                    }
                 }
             }
         } catch (Exception e) {
@@ -730,6 +879,35 @@ public class CorfuTable<K, V> implements ICorfuTable<K, V>, ICorfuSMR<CorfuTable
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only tables backed by a {@link PersistentStreamingMap}, and without sorted
+     * secondary indexes, support snapshots.
+     */
+    @DontInstrument
+    @Override
+    @SuppressWarnings("unchecked")
+    public CorfuTable<K, V> getSnapshot() {
+        if (!(mainMap instanceof PersistentStreamingMap)) {
+            return null;
+        }
+
+        Map<String, Map<Object, Map<K, V>>> indexSnapshots = new HashMap<>();
+        for (Map.Entry<String, Map<Object, Map<K, V>>> index : secondaryIndexes.entrySet()) {
+            if (!(index.getValue() instanceof PersistentStreamingMap)) {
+                return null;
+            }
+            indexSnapshots.put(index.getKey(),
+                    ((PersistentStreamingMap<Object, Map<K, V>>) index.getValue()).snapshot());
+        }
+
+        CorfuTable<K, V> snapshot = new CorfuTable<>(((PersistentStreamingMap<K, V>) mainMap).snapshot(),
+                new HashSet<>(indexSpec), indexSnapshots, null);
+        snapshot.secondaryIndexesAliasToPath.putAll(secondaryIndexesAliasToPath);
+        return snapshot;
+    }
+
     /**
      * {@inheritDoc}
      */
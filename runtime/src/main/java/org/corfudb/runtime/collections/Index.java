@@ -48,22 +48,35 @@ public class Index {
         private final Name name;
         private final Name alias;
         private final MultiValueFunction<K, V, I> indexFunction;
+        private final boolean sorted;
 
         public Spec(Name name, Function<K, V, I> indexFunction) {
             this(name, name, indexFunction);
         }
 
         public Spec(Name name, Name alias, Function<K, V, I> indexFunction) {
-            this.name = name;
-            this.alias = alias;
-            this.indexFunction =
-                    (k, v) -> Collections.singletonList(indexFunction.apply(k, v));
+            this(name, alias, indexFunction, false);
+        }
+
+        public Spec(Name name, Name alias, Function<K, V, I> indexFunction, boolean sorted) {
+            this(name, alias, (MultiValueFunction<K, V, I>)
+                    (k, v) -> Collections.singletonList(indexFunction.apply(k, v)), sorted);
         }
 
         public Spec(Name name, Name alias, MultiValueFunction<K, V, I> indexFunction) {
+            this(name, alias, indexFunction, false);
+        }
+
+        /**
+         * @param sorted if true, the index values are kept in their natural order (nulls first),
+         *               which requires them to be {@link Comparable} and enables range,
+         *               prefix and ordered queries over the index.
+         */
+        public Spec(Name name, Name alias, MultiValueFunction<K, V, I> indexFunction, boolean sorted) {
             this.name = name;
             this.alias = alias;
             this.indexFunction = indexFunction;
+            this.sorted = sorted;
         }
 
         public Spec(Name name, MultiValueFunction<K, V, I> indexFunction) {
@@ -82,6 +95,10 @@ public class Index {
             return indexFunction;
         }
 
+        public boolean isSorted() {
+            return sorted;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -252,6 +252,60 @@ public class ManagedTxnContext implements AutoCloseable {
         return this.txnContext.getByIndex(tableName, indexName, indexKey);
     }
 
+    /**
+     * Query by a range of values of a sorted secondary index.
+     *
+     * @param table         Table object.
+     * @param indexName     Index name. The index must be declared as sorted.
+     * @param fromKey       Low endpoint of the range, or null if unbounded below.
+     * @param fromInclusive True if the low endpoint is included.
+     * @param toKey         High endpoint of the range, or null if unbounded above.
+     * @param toInclusive   True if the high endpoint is included.
+     * @return Result of the query, ordered by index key.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message, I extends Comparable<? super I>>
+    List<CorfuStoreEntry<K, V, M>> getByIndexRange(@Nonnull Table<K, V, M> table,
+                                                   @Nonnull String indexName,
+                                                   I fromKey, boolean fromInclusive,
+                                                   I toKey, boolean toInclusive) {
+        return this.txnContext.getByIndexRange(table, indexName, fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    /**
+     * Query by a prefix of the values of a sorted string secondary index.
+     *
+     * @param table     Table object.
+     * @param indexName Index name. The index must be declared as sorted.
+     * @param prefix    Prefix of the index keys to match.
+     * @return Result of the query, ordered by index key.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message>
+    List<CorfuStoreEntry<K, V, M>> getByIndexPrefix(@Nonnull Table<K, V, M> table,
+                                                    @Nonnull String indexName,
+                                                    @Nonnull String prefix) {
+        return this.txnContext.getByIndexPrefix(table, indexName, prefix);
+    }
+
+    /**
+     * Query the first entries of a sorted secondary index, e.g., the top-N records by some field.
+     *
+     * @param table      Table object.
+     * @param indexName  Index name. The index must be declared as sorted.
+     * @param descending True to return the entries with the highest index keys first.
+     * @param limit      Maximum number of entries to return.
+     * @return Result of the query, ordered by index key.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message>
+    List<CorfuStoreEntry<K, V, M>> getByIndexOrdered(@Nonnull Table<K, V, M> table,
+                                                     @Nonnull String indexName,
+                                                     boolean descending,
+                                                     int limit) {
+        return this.txnContext.getByIndexOrdered(table, indexName, descending, limit);
+    }
+
     /**
      * Gets the count of records in the table at a particular timestamp.
      *
@@ -1,28 +1,41 @@
 package org.corfudb.runtime.collections;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
 import org.corfudb.util.serializer.ISerializer;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
 import org.rocksdb.CompactionOptionsUniversal;
 import org.rocksdb.CompressionType;
+import org.rocksdb.DBOptions;
 import org.rocksdb.Holder;
 import org.rocksdb.Options;
+import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
+import org.rocksdb.WriteBatchWithIndex;
+import org.rocksdb.WriteOptions;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -56,13 +69,18 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
      *               property.
      * Write Buffer: Also known as memtable is defined by the ColumnFamilyOptions
      *               option. The default is 64 MB.
+     * Bloom Filter: Lets puts of new keys skip reading them to update the size of
+     *               the map, at the cost of about 10 bits per key.
      */
     public static Options getPersistedStreamingMapOptions() {
         final int maxSizeAmplificationPercent = 50;
+        final int bloomFilterBitsPerKey = 10;
         final Options options = new Options();
 
         options.setCreateIfMissing(true);
         options.setCompressionType(CompressionType.LZ4_COMPRESSION);
+        options.setTableFormatConfig(new BlockBasedTableConfig()
+                .setFilterPolicy(new BloomFilter(bloomFilterBitsPerKey, false)));
 
         // Set a threshold at which full compaction will be triggered.
         // This is important as it purges tombstoned entries.
@@ -72,12 +90,31 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
         return options;
     }
 
+    /**
+     * Max number of updates buffered in {@link #pendingWrites} before they are written
+     * to the database as a single batch.
+     */
+    private static final int MAX_PENDING_WRITES = 1024;
+
     private final ContextAwareMap<K, V> optimisticMap = new StreamingMapDecorator<>();
     private final AtomicInteger dataSetSize = new AtomicInteger();
     private final CorfuRuntime corfuRuntime;
     private final ISerializer serializer;
     private final RocksDB rocksDb;
 
+    /**
+     * Updates (e.g. applied while replaying the log) that haven't been written to the database
+     * yet. Point reads are served from the batch and the database, while iterators flush the
+     * batch first. Guarded by {@link #pendingWritesLock}.
+     */
+    private final WriteBatchWithIndex pendingWrites = new WriteBatchWithIndex(true);
+    private final ReadWriteLock pendingWritesLock = new ReentrantReadWriteLock();
+    private final ReadOptions readOptions = new ReadOptions();
+    private final DBOptions dbOptions = new DBOptions();
+
+    // The database is destroyed when the map is opened, so there is no point in logging writes.
+    private final WriteOptions writeOptions = new WriteOptions().setDisableWAL(true);
+
     public PersistedStreamingMap(@NonNull Path dataPath,
                                  @NonNull Options options,
                                  @NonNull ISerializer serializer,
@@ -92,6 +129,113 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
         this.corfuRuntime = corfuRuntime;
     }
 
+    /**
+     * Serialize an object into a pooled direct buffer, whose nio buffer can be written to
+     * the database without copying it. The caller has to release the buffer.
+     */
+    private ByteBuf serialize(Object object) {
+        final ByteBuf payload = PooledByteBufAllocator.DEFAULT.directBuffer();
+        try {
+            serializer.serialize(object, payload);
+            return payload;
+        } catch (RuntimeException | Error e) {
+            payload.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Serialize a key into an array, as required by the database to look it up.
+     */
+    private byte[] serializeKey(Object key) {
+        final ByteBuf payload = serialize(key);
+        try {
+            return ByteBufUtil.getBytes(payload);
+        } finally {
+            payload.release();
+        }
+    }
+
+    private V deserialize(byte[] value) {
+        return (V) serializer.deserialize(Unpooled.wrappedBuffer(value), corfuRuntime);
+    }
+
+    private byte[] getValue(byte[] key) throws RocksDBException {
+        Lock lock = pendingWritesLock.readLock();
+        lock.lock();
+        try {
+            return pendingWrites.getFromBatchAndDB(rocksDb, readOptions, key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write the pending updates to the database. Must be called with the write lock held.
+     */
+    private void flushPendingWrites() throws RocksDBException {
+        if (pendingWrites.count() > 0) {
+            rocksDb.write(writeOptions, pendingWrites);
+            pendingWrites.clear();
+        }
+    }
+
+    private void flushPendingWritesIfFull() throws RocksDBException {
+        if (pendingWrites.count() >= MAX_PENDING_WRITES) {
+            flushPendingWrites();
+        }
+    }
+
+    /**
+     * Whether the key may be mapped, as far as the pending updates, the memtables and the
+     * filters of the database can tell without reading it. Must be called with the write
+     * lock held.
+     */
+    private boolean mayBeMapped(byte[] key) throws RocksDBException {
+        return pendingWrites.getFromBatch(dbOptions, key) != null
+                || rocksDb.keyMayExist(key, new Holder<>());
+    }
+
+    /**
+     * Buffer a put of a serialized mapping. Must be called with the write lock held.
+     *
+     * @param key          serialized key
+     * @param value        serialized value
+     * @param loadPrevious whether the caller needs the value previously mapped to the key,
+     *                     otherwise it is only read if the key may be mapped
+     * @return the serialized previous value, if it was read and the key was mapped
+     */
+    private byte[] putPending(ByteBuf key, ByteBuf value, boolean loadPrevious) throws RocksDBException {
+        final byte[] keyBytes = ByteBufUtil.getBytes(key);
+        byte[] previous = null;
+        if (loadPrevious || mayBeMapped(keyBytes)) {
+            previous = pendingWrites.getFromBatchAndDB(rocksDb, readOptions, keyBytes);
+        }
+
+        // Only increment the count if the key is not present, i.e. if this is not an update.
+        if (previous == null) {
+            dataSetSize.incrementAndGet();
+        }
+        pendingWrites.put(key.nioBuffer(), value.nioBuffer());
+        return previous;
+    }
+
+    /**
+     * Create an iterator over the entries of the map, pinned to the current snapshot.
+     */
+    private RocksDbEntryIterator<K, V> newEntryIterator(boolean loadValues) {
+        Lock lock = pendingWritesLock.writeLock();
+        lock.lock();
+        try {
+            flushPendingWrites();
+            return new RocksDbEntryIterator<>(rocksDb, serializer, loadValues);
+        } catch (RocksDBException ex) {
+            throw new UnrecoverableCorfuError(ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -113,16 +257,10 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
      */
     @Override
     public boolean containsKey(@NonNull Object key) {
-        final ByteBuf keyPayload = Unpooled.buffer();
-        serializer.serialize(key, keyPayload);
         try {
-            byte[] value = rocksDb.get(
-                    keyPayload.array(), keyPayload.arrayOffset(), keyPayload.readableBytes());
-            return value != null;
+            return getValue(serializeKey(key)) != null;
         } catch (RocksDBException ex) {
             throw new UnrecoverableCorfuError(ex);
-        } finally {
-            keyPayload.release();
         }
     }
 
@@ -141,53 +279,41 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
      */
     @Override
     public V get(@NonNull Object key) {
-        final ByteBuf keyPayload = Unpooled.buffer();
-        serializer.serialize(key, keyPayload);
-
         try {
-            byte[] value = rocksDb.get(
-                    keyPayload.array(), keyPayload.arrayOffset(), keyPayload.readableBytes());
+            byte[] value = getValue(serializeKey(key));
             if (value == null) {
                 return null;
             }
-            return (V) serializer.deserialize(Unpooled.wrappedBuffer(value), corfuRuntime);
+            return deserialize(value);
         } catch (RocksDBException ex) {
             throw new UnrecoverableCorfuError(ex);
-        } finally {
-            keyPayload.release();
         }
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Use {@link #putAll(Map)} if the previous values are not needed, which spares
+     * reading the keys that can't be mapped.
      */
     @Override
     public V put(@NonNull K key, @NonNull V value) {
-        final ByteBuf keyPayload = Unpooled.buffer();
-        final ByteBuf valuePayload = Unpooled.buffer();
-        serializer.serialize(key, keyPayload);
-        serializer.serialize(value, valuePayload);
-
-        // Only increment the count if the value is not present. In other words,
-        // increment the count if this is an update operation.
-        final boolean keyExists = rocksDb.keyMayExist(keyPayload.array(),
-                keyPayload.arrayOffset(), keyPayload.readableBytes(), new Holder<>());
-        if (!keyExists) {
-            dataSetSize.incrementAndGet();
-        }
+        final ByteBuf keyPayload = serialize(key);
+        final ByteBuf valuePayload = serialize(value);
 
+        Lock lock = pendingWritesLock.writeLock();
+        lock.lock();
         try {
-            rocksDb.put(
-                    keyPayload.array(), keyPayload.arrayOffset(), keyPayload.readableBytes(),
-                    valuePayload.array(), valuePayload.arrayOffset(), valuePayload.readableBytes());
+            byte[] previous = putPending(keyPayload, valuePayload, true);
+            flushPendingWritesIfFull();
+            return previous == null ? null : deserialize(previous);
         } catch (RocksDBException ex) {
             throw new UnrecoverableCorfuError(ex);
         } finally {
+            lock.unlock();
             keyPayload.release();
             valuePayload.release();
         }
-
-        return value;
     }
 
     /**
@@ -195,22 +321,23 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
      */
     @Override
     public V remove(@NonNull Object key) {
-        final ByteBuf keyPayload = Unpooled.buffer();
-        serializer.serialize(key, keyPayload);
+        final byte[] keyPayload = serializeKey(key);
+
+        Lock lock = pendingWritesLock.writeLock();
+        lock.lock();
         try {
-            V value = get(key);
-            if (value != null) {
-                rocksDb.delete(
-                        keyPayload.array(), keyPayload.arrayOffset(), keyPayload.readableBytes());
-                dataSetSize.decrementAndGet();
-                return value;
-            } else {
+            byte[] value = pendingWrites.getFromBatchAndDB(rocksDb, readOptions, keyPayload);
+            if (value == null) {
                 return null;
             }
+            pendingWrites.delete(keyPayload);
+            dataSetSize.decrementAndGet();
+            flushPendingWritesIfFull();
+            return deserialize(value);
         } catch (RocksDBException ex) {
             throw new UnrecoverableCorfuError(ex);
         } finally {
-            keyPayload.release();
+            lock.unlock();
         }
     }
 
@@ -219,7 +346,29 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
      */
     @Override
     public void putAll(@NonNull Map<? extends K, ? extends V> map) {
-        throw new UnsupportedOperationException();
+        // Serialize outside of the lock, the mappings are then applied as a single batch.
+        final List<ByteBuf> payloads = new ArrayList<>(map.size() * 2);
+        try {
+            map.forEach((key, value) -> {
+                payloads.add(serialize(key));
+                payloads.add(serialize(value));
+            });
+
+            Lock lock = pendingWritesLock.writeLock();
+            lock.lock();
+            try {
+                for (int i = 0; i < payloads.size(); i += 2) {
+                    putPending(payloads.get(i), payloads.get(i + 1), false);
+                }
+                flushPendingWritesIfFull();
+            } catch (RocksDBException ex) {
+                throw new UnrecoverableCorfuError(ex);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            payloads.forEach(ByteBuf::release);
+        }
     }
 
     /**
@@ -227,8 +376,26 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
      */
     @Override
     public void clear() {
-        entryStream().map(Entry::getKey).forEach(this::remove);
-        dataSetSize.set(0);
+        Lock lock = pendingWritesLock.writeLock();
+        lock.lock();
+        try {
+            flushPendingWrites();
+            final WrappedRocksIterator iterator = new WrappedRocksIterator(rocksDb.newIterator());
+            try {
+                for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+                    pendingWrites.delete(iterator.key());
+                    flushPendingWritesIfFull();
+                }
+            } finally {
+                iterator.close();
+            }
+            flushPendingWrites();
+            dataSetSize.set(0);
+        } catch (RocksDBException ex) {
+            throw new UnrecoverableCorfuError(ex);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -236,8 +403,7 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
      */
     @Override
     public Set<K> keySet() {
-        try (final RocksDbEntryIterator<K, V> entryIterator =
-                     new RocksDbEntryIterator<>(rocksDb, serializer, false)) {
+        try (RocksDbEntryIterator<K, V> entryIterator = newEntryIterator(false)) {
             Set<K> keySet = new HashSet<>();
             while (entryIterator.hasNext()) {
                 keySet.add(entryIterator.next().getKey());
@@ -279,7 +445,7 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
      */
     @Override
     public Stream<Entry<K, V>> entryStream() {
-        final RocksDbEntryIterator<K, V> entryIterator = new RocksDbEntryIterator<>(rocksDb, serializer);
+        final RocksDbEntryIterator<K, V> entryIterator = newEntryIterator(true);
         Stream<Entry<K, V>> resStream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(entryIterator,
                 Spliterator.ORDERED), false);
         resStream.onClose(entryIterator::close);
@@ -291,6 +457,16 @@ public class PersistedStreamingMap<K, V> implements ContextAwareMap<K, V> {
      */
     @Override
     public void close() {
-        this.rocksDb.close();
+        Lock lock = pendingWritesLock.writeLock();
+        lock.lock();
+        try {
+            this.pendingWrites.close();
+            this.rocksDb.close();
+            this.readOptions.close();
+            this.dbOptions.close();
+            this.writeOptions.close();
+        } finally {
+            lock.unlock();
+        }
     }
 }
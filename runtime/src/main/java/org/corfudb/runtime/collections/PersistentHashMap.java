@@ -0,0 +1,427 @@
+package org.corfudb.runtime.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable hash map, updated by deriving new maps from it ({@link #plus} and {@link #minus}).
+ * <p>
+ * The map is a hash array mapped trie: a derived map only copies the path from the root to the
+ * updated key (at most seven small nodes), and shares everything else with the map it was
+ * derived from. Keeping many versions of a large map is therefore cheap, and since a version
+ * never changes once created, it can be read by any number of threads without synchronization.
+ * <p>
+ * Null keys and values are permitted. The map views are unmodifiable.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+    // Number of hash bits consumed by each level of the trie.
+    private static final int BITS = 5;
+
+    private static final int MASK = (1 << BITS) - 1;
+
+    // Seven levels consume the 32 bits of a hash, one more level holds the hash collisions.
+    private static final int MAX_DEPTH = 8;
+
+    private static final PersistentHashMap<?, ?> EMPTY =
+            new PersistentHashMap<>(new BitmapNode(0, new Object[0]), 0);
+
+    private final BitmapNode root;
+
+    private final int size;
+
+    private PersistentHashMap(BitmapNode root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    private static int hash(Object key) {
+        int hash = Objects.hashCode(key);
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns a map with the mappings of this map, and key mapped to value.
+     *
+     * @param key   key to map
+     * @param value value to map the key to
+     * @return the derived map, or this map if key was already mapped to value
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        boolean[] added = new boolean[1];
+        BitmapNode newRoot = (BitmapNode) root.plus(new Leaf(hash(key), key, value), 0, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map with the mappings of this map, except for key.
+     *
+     * @param key key to unmap
+     * @return the derived map, or this map if key was not mapped
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        Node newRoot = root.minus(hash(key), key, 0);
+        if (newRoot == root) {
+            return this;
+        }
+        return newRoot == null ? empty() : new PersistentHashMap<>((BitmapNode) newRoot, size - 1);
+    }
+
+    /**
+     * Returns a map with the mappings of this map, except for key if it is mapped to value
+     * (the persistent flavour of {@link java.util.Map#remove(Object, Object)}).
+     *
+     * @param key   key to unmap
+     * @param value value the key has to be mapped to
+     * @return the derived map, or this map if key was not mapped to value
+     */
+    public PersistentHashMap<K, V> minus(Object key, Object value) {
+        Leaf leaf = root.find(hash(key), key, 0);
+        if (leaf == null || !Objects.equals(leaf.getValue(), value)) {
+            return this;
+        }
+        return minus(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Leaf leaf = root.find(hash(key), key, 0);
+        return leaf == null ? null : (V) leaf.getValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return root.find(hash(key), key, 0) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * A mapping of the trie, along with the hash of its key.
+     */
+    private static final class Leaf extends SimpleImmutableEntry<Object, Object> {
+        private final int hash;
+
+        Leaf(int hash, Object key, Object value) {
+            super(key, value);
+            this.hash = hash;
+        }
+
+        boolean matches(int hash, Object key) {
+            return this.hash == hash && Objects.equals(getKey(), key);
+        }
+    }
+
+    /**
+     * An inner node of the trie, its slots hold either leaves or nodes.
+     */
+    private abstract static class Node {
+        final Object[] slots;
+
+        Node(Object[] slots) {
+            this.slots = slots;
+        }
+
+        abstract Leaf find(int hash, Object key, int shift);
+
+        /**
+         * @return the updated node, or this node if the leaf was already in the trie
+         */
+        abstract Node plus(Leaf leaf, int shift, boolean[] added);
+
+        /**
+         * @return the updated node, this node if the key is not in the trie,
+         * or null if the node became empty
+         */
+        abstract Node minus(int hash, Object key, int shift);
+    }
+
+    /**
+     * A node whose slots are selected by {@link #BITS} bits of the hash. Only the slots
+     * that are in use are allocated, the bitmap tells which ones these are.
+     */
+    private static final class BitmapNode extends Node {
+        private final int bitmap;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            super(slots);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        Leaf find(int hash, Object key, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[index(bit)];
+            if (slot instanceof Leaf) {
+                return ((Leaf) slot).matches(hash, key) ? (Leaf) slot : null;
+            }
+            return ((Node) slot).find(hash, key, shift + BITS);
+        }
+
+        @Override
+        Node plus(Leaf leaf, int shift, boolean[] added) {
+            int bit = 1 << ((leaf.hash >>> shift) & MASK);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, insert(slots, index, leaf));
+            }
+
+            Object slot = slots[index];
+            if (slot instanceof Leaf) {
+                Leaf current = (Leaf) slot;
+                if (current.matches(leaf.hash, leaf.getKey())) {
+                    return current.getValue() == leaf.getValue()
+                            ? this : new BitmapNode(bitmap, replace(slots, index, leaf));
+                }
+                added[0] = true;
+                return new BitmapNode(bitmap, replace(slots, index,
+                        merge(current, current.hash, leaf, leaf.hash, shift + BITS)));
+            }
+
+            Node child = (Node) slot;
+            Node newChild = child.plus(leaf, shift + BITS, added);
+            return newChild == child ? this : new BitmapNode(bitmap, replace(slots, index, newChild));
+        }
+
+        @Override
+        Node minus(int hash, Object key, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+
+            int index = index(bit);
+            Object slot = slots[index];
+            Object newSlot;
+            if (slot instanceof Leaf) {
+                if (!((Leaf) slot).matches(hash, key)) {
+                    return this;
+                }
+                newSlot = null;
+            } else {
+                Node newChild = ((Node) slot).minus(hash, key, shift + BITS);
+                if (newChild == slot) {
+                    return this;
+                }
+                // A child left with a single leaf is replaced by that leaf.
+                newSlot = newChild != null && newChild.slots.length == 1
+                        && newChild.slots[0] instanceof Leaf ? newChild.slots[0] : newChild;
+            }
+
+            if (newSlot != null) {
+                return new BitmapNode(bitmap, replace(slots, index, newSlot));
+            }
+            return bitmap == bit ? null : new BitmapNode(bitmap ^ bit, remove(slots, index));
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+
+    /**
+     * A node holding the leaves whose keys have the same hash.
+     */
+    private static final class CollisionNode extends Node {
+        private final int hash;
+
+        CollisionNode(int hash, Object[] leaves) {
+            super(leaves);
+            this.hash = hash;
+        }
+
+        @Override
+        Leaf find(int hash, Object key, int shift) {
+            int index = indexOf(hash, key);
+            return index < 0 ? null : (Leaf) slots[index];
+        }
+
+        @Override
+        Node plus(Leaf leaf, int shift, boolean[] added) {
+            if (leaf.hash != hash) {
+                // The leaf only shares a prefix of the hash, the trie is split where they differ.
+                added[0] = true;
+                return merge(this, hash, leaf, leaf.hash, shift);
+            }
+
+            int index = indexOf(leaf.hash, leaf.getKey());
+            if (index < 0) {
+                added[0] = true;
+                return new CollisionNode(hash, insert(slots, slots.length, leaf));
+            }
+            return ((Leaf) slots[index]).getValue() == leaf.getValue()
+                    ? this : new CollisionNode(hash, replace(slots, index, leaf));
+        }
+
+        @Override
+        Node minus(int hash, Object key, int shift) {
+            int index = indexOf(hash, key);
+            if (index < 0) {
+                return this;
+            }
+            return slots.length == 1 ? null : new CollisionNode(hash, remove(slots, index));
+        }
+
+        private int indexOf(int hash, Object key) {
+            if (hash == this.hash) {
+                for (int index = 0; index < slots.length; index++) {
+                    if (((Leaf) slots[index]).matches(hash, key)) {
+                        return index;
+                    }
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Builds the sub-trie holding two slots (leaves or nodes) whose hashes are equal
+     * up to the given shift.
+     */
+    private static Node merge(Object first, int firstHash, Object second, int secondHash, int shift) {
+        if (firstHash == secondHash) {
+            return new CollisionNode(firstHash, new Object[]{first, second});
+        }
+
+        int firstIndex = (firstHash >>> shift) & MASK;
+        int secondIndex = (secondHash >>> shift) & MASK;
+        if (firstIndex == secondIndex) {
+            return new BitmapNode(1 << firstIndex,
+                    new Object[]{merge(first, firstHash, second, secondHash, shift + BITS)});
+        }
+        return new BitmapNode((1 << firstIndex) | (1 << secondIndex), firstIndex < secondIndex
+                ? new Object[]{first, second} : new Object[]{second, first});
+    }
+
+    private static Object[] insert(Object[] slots, int index, Object slot) {
+        Object[] copy = new Object[slots.length + 1];
+        System.arraycopy(slots, 0, copy, 0, index);
+        copy[index] = slot;
+        System.arraycopy(slots, index, copy, index + 1, slots.length - index);
+        return copy;
+    }
+
+    private static Object[] replace(Object[] slots, int index, Object slot) {
+        Object[] copy = Arrays.copyOf(slots, slots.length);
+        copy[index] = slot;
+        return copy;
+    }
+
+    private static Object[] remove(Object[] slots, int index) {
+        Object[] copy = new Object[slots.length - 1];
+        System.arraycopy(slots, 0, copy, 0, index);
+        System.arraycopy(slots, index + 1, copy, index, slots.length - index - 1);
+        return copy;
+    }
+
+    /**
+     * Walks the trie depth first.
+     */
+    private static final class EntryIterator<K, V> implements Iterator<Entry<K, V>> {
+        private final Object[][] path = new Object[MAX_DEPTH][];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth = 0;
+        private Leaf next;
+
+        EntryIterator(Node root) {
+            path[0] = root.slots;
+            next = advance();
+        }
+
+        private Leaf advance() {
+            while (depth >= 0) {
+                Object[] slots = path[depth];
+                if (positions[depth] == slots.length) {
+                    depth--;
+                    continue;
+                }
+                Object slot = slots[positions[depth]++];
+                if (slot instanceof Leaf) {
+                    return (Leaf) slot;
+                }
+                depth++;
+                path[depth] = ((Node) slot).slots;
+                positions[depth] = 0;
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Leaf current = next;
+            next = advance();
+            return (Entry<K, V>) (Entry<?, ?>) current;
+        }
+    }
+}
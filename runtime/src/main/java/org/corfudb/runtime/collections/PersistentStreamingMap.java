@@ -0,0 +1,159 @@
+package org.corfudb.runtime.collections;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * A {@link ContextAwareMap} backed by a {@link PersistentHashMap}. Every update replaces
+ * the persistent map with one derived from it, so that a {@link #snapshot()} of the map
+ * takes constant time and is not affected by the updates that follow.
+ * <p>
+ * Updates are not thread safe, whereas snapshots can be read by any number of threads.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class PersistentStreamingMap<K, V> implements ContextAwareMap<K, V> {
+
+    private PersistentHashMap<K, V> map;
+
+    public PersistentStreamingMap() {
+        this(PersistentHashMap.empty());
+    }
+
+    private PersistentStreamingMap(PersistentHashMap<K, V> map) {
+        this.map = map;
+    }
+
+    /**
+     * Returns a map with the current mappings of this map, which is not
+     * affected by subsequent updates.
+     *
+     * @return a snapshot of this map
+     */
+    public PersistentStreamingMap<K, V> snapshot() {
+        return new PersistentStreamingMap<>(map);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The mappings don't need to be copied, since they can't change.
+     */
+    @Override
+    public Stream<Entry<K, V>> entryStream() {
+        return map.entrySet().stream().parallel();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        return map.containsValue(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V get(Object key) {
+        return map.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V put(K key, V value) {
+        V previous = map.get(key);
+        map = map.plus(key, value);
+        return previous;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public V remove(Object key) {
+        V previous = map.get(key);
+        map = map.minus(key);
+        return previous;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        PersistentHashMap<K, V> updated = map;
+        for (Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            updated = updated.plus(entry.getKey(), entry.getValue());
+        }
+        map = updated;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        map = PersistentHashMap.empty();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The returned set is unmodifiable, and is not affected by subsequent updates.
+     */
+    @Override
+    public Set<K> keySet() {
+        return map.keySet();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The returned collection is unmodifiable, and is not affected by subsequent updates.
+     */
+    @Override
+    public Collection<V> values() {
+        return map.values();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The returned set is unmodifiable, and is not affected by subsequent updates.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return map.entrySet();
+    }
+}
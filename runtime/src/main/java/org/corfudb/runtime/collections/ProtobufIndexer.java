@@ -40,27 +40,112 @@ public class ProtobufIndexer implements Index.Registry<Message, CorfuRecord<Mess
     }
 
     private <T> Index.Spec<Message, CorfuRecord<Message, Message>, ?>
-    getIndex(String indexPath, String indexName, FieldDescriptor fieldDescriptor) {
+    getIndex(String indexPath, String indexName, FieldDescriptor fieldDescriptor, boolean sorted) {
         return new Index.Spec<>(
                 () -> indexPath,
                 () -> indexName,
                 (Index.Function<Message, CorfuRecord<Message, Message>, T>)
-                        (key, val) -> ClassUtils.cast(val.getPayload().getField(fieldDescriptor)));
+                        (key, val) -> ClassUtils.cast(val.getPayload().getField(fieldDescriptor)),
+                sorted);
     }
 
     private <T> Index.Spec<Message, CorfuRecord<Message, Message>, ?>
-    getNestedIndex(String indexPath, String indexName) {
+    getNestedIndex(CompiledIndexPath indexPath, String indexName, boolean sorted) {
         return new Index.Spec<>(
-                () -> indexPath,
+                () -> indexPath.path,
                 () -> indexName,
                 (Index.MultiValueFunction<Message, CorfuRecord<Message, Message>, T>)
-                        (key, val) -> getIndexedValues(indexPath, val.getPayload()));
+                        (key, val) -> getIndexedValues(indexPath, val.getPayload()),
+                sorted);
+    }
+
+    /**
+     * A nested secondary key path resolved once against the table's schema, so that indexed
+     * values are not looked up by field name on every update.
+     */
+    private static final class CompiledIndexPath {
+        private final String path;
+        private final String[] nestedFields;
+        private final Descriptors.Descriptor rootType;
+        private final FieldDescriptor[] fields;
+        private final OneofDescriptor[] oneOfs;
+        // True if there is no repeated field along the path, i.e., at most one value is indexed per record.
+        private final boolean singleValued;
+
+        CompiledIndexPath(String path, FieldDescriptor[] fields) {
+            this.path = path;
+            this.nestedFields = path.split("\\.");
+            this.rootType = fields[0].getContainingType();
+            this.fields = fields;
+            this.oneOfs = new OneofDescriptor[fields.length];
+            boolean repeated = false;
+            for (int i = 0; i < fields.length; i++) {
+                oneOfs[i] = fields[i].getContainingOneof();
+                repeated |= fields[i].isRepeated();
+            }
+            this.singleValued = !repeated;
+        }
     }
 
-    private <T> Iterable<T> getIndexedValues(String indexPath, Message messageToIndex) {
-        // Separate nested fields, as full path is a 'dot' separated String, e.g., 'person.address.street'
-        String[] nestedFields = indexPath.split("\\.");
+    /**
+     * Extract the indexed values following a compiled path. Paths with no repeated fields
+     * are walked directly over the resolved descriptors, the rest take the generic path.
+     */
+    private <T> Iterable<T> getIndexedValues(CompiledIndexPath indexPath, Message messageToIndex) {
+        if (!indexPath.singleValued || messageToIndex.getDescriptorForType() != indexPath.rootType) {
+            return getIndexedValues(indexPath.path, indexPath.nestedFields, messageToIndex);
+        }
 
+        Message subMessage = messageToIndex;
+        final int lastLevel = indexPath.fields.length - 1;
+        for (int i = 0; i <= lastLevel; i++) {
+            FieldDescriptor fieldDescriptor = indexPath.fields[i];
+            boolean valid = isValidField(indexPath.oneOfs[i], subMessage, fieldDescriptor.getName());
+
+            if (fieldDescriptor.getJavaType() != FieldDescriptor.JavaType.MESSAGE) {
+                // Primitive leaf, intermediate levels are validated to be messages on registration
+                return valid ? Collections.<T>singletonList(ClassUtils.cast(subMessage.getField(fieldDescriptor)))
+                        : Collections.<T>emptyList();
+            }
+
+            if (!valid || !subMessage.hasField(fieldDescriptor)) {
+                // Unset last level (or a different 'oneOf' field set) is indexed as NULL,
+                // unset intermediate levels are not indexed at all
+                return i == lastLevel ? Collections.<T>singletonList(null) : Collections.<T>emptyList();
+            }
+            subMessage = (Message) subMessage.getField(fieldDescriptor);
+        }
+
+        return Collections.<T>singletonList(ClassUtils.cast(subMessage));
+    }
+
+    /**
+     * Verify that the values of a field can back a sorted index, i.e., that they are
+     * primitives with a natural order. Unsigned protobuf types are ordered as their
+     * (signed) Java counterparts.
+     */
+    private void validateSortedIndex(String indexPath, FieldDescriptor fieldDescriptor, boolean multiValued) {
+        switch (fieldDescriptor.getJavaType()) {
+            case INT:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+            case BOOLEAN:
+            case STRING:
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Invalid sorted secondary key=%s, " +
+                        "field <%s> of type %s is not orderable.", indexPath, fieldDescriptor.getName(),
+                        fieldDescriptor.getJavaType()));
+        }
+
+        if (fieldDescriptor.isRepeated() && !multiValued) {
+            throw new IllegalArgumentException(String.format("Invalid sorted secondary key=%s, " +
+                    "repeated fields can only be sorted through a nested secondary key.", indexPath));
+        }
+    }
+
+    private <T> Iterable<T> getIndexedValues(String indexPath, String[] nestedFields, Message messageToIndex) {
         // Auxiliary variables used for the case of repeated fields
         List<Message> repeatedMessages = new ArrayList<>(); // Non-Primitive Types
         List<T> repeatedValues = new ArrayList<>();         // Primitive Types
@@ -289,7 +374,11 @@ public class ProtobufIndexer implements Index.Registry<Message, CorfuRecord<Mess
             if (fieldDescriptor.getType() == FieldDescriptor.Type.GROUP) {
                 throw new IllegalArgumentException("group is a deprecated, unsupported type");
             }
-            indices.put(indexName, getIndex(indexName, indexName, fieldDescriptor));
+            final boolean sorted = fieldDescriptor.getOptions().getExtension(CorfuOptions.schema).getSorted();
+            if (sorted) {
+                validateSortedIndex(indexName, fieldDescriptor, false);
+            }
+            indices.put(indexName, getIndex(indexName, indexName, fieldDescriptor, sorted));
         } else if (fieldDescriptor.getOptions().getExtension(CorfuOptions.schema).getNestedSecondaryKeyCount() > 0) {
 
             for (int i=0; i<fieldDescriptor.getOptions().getExtension(CorfuOptions.schema).getNestedSecondaryKeyCount(); i++) {
@@ -309,10 +398,14 @@ public class ProtobufIndexer implements Index.Registry<Message, CorfuRecord<Mess
                     indexName = nestedFields[(nestedFields.length) - 1];
                 }
 
-                validateNestedSecondaryKey(indexPath, fieldDescriptor);
+                FieldDescriptor[] indexedFields = validateNestedSecondaryKey(indexPath, fieldDescriptor);
+                if (secondaryIndex.getSorted()) {
+                    validateSortedIndex(indexPath, indexedFields[indexedFields.length - 1], true);
+                }
 
                 // Place index name and a function on how the indexed value is computed
-                indices.put(indexPath, getNestedIndex(indexPath, indexName));
+                indices.put(indexPath, getNestedIndex(new CompiledIndexPath(indexPath, indexedFields),
+                        indexName, secondaryIndex.getSorted()));
 
                 // For nested secondary indexes, an 'index_name' (alias) is supported (it can be user-defined or
                 // defaults to the last attribute's name if not specified)
@@ -336,8 +429,9 @@ public class ProtobufIndexer implements Index.Registry<Message, CorfuRecord<Mess
     /**
      * Validate nested secondary key string
      *
+     * @return the descriptors of each field in the path, from the root to the indexed field
      */
-    private void validateNestedSecondaryKey(String indexPath, FieldDescriptor fieldDescriptor) {
+    private FieldDescriptor[] validateNestedSecondaryKey(String indexPath, FieldDescriptor fieldDescriptor) {
         if (!indexPath.isEmpty()) {
             // Get all nested fields for a single secondary key (dot-separated), format example: person.fullName.lastName
             String[] nestedFields = indexPath.split("\\.");
@@ -347,16 +441,18 @@ public class ProtobufIndexer implements Index.Registry<Message, CorfuRecord<Mess
                 throw new IllegalArgumentException("Invalid nested secondary key=" + indexPath + ", invalid field :: " + nestedFields[0]);
             }
 
-            FieldDescriptor nestedDescriptor = fieldDescriptor;
+            FieldDescriptor[] nestedDescriptors = new FieldDescriptor[nestedFields.length];
+            nestedDescriptors[0] = fieldDescriptor;
 
             // Skip root (index 0) field which corresponds to the initial fieldDescriptor
             for (int i = 1; i < nestedFields.length; i++) {
-                nestedDescriptor = nestedDescriptor.getMessageType().findFieldByName(nestedFields[i]);
+                nestedDescriptors[i] = nestedDescriptors[i - 1].getMessageType().findFieldByName(nestedFields[i]);
 
-                if (nestedDescriptor == null) {
+                if (nestedDescriptors[i] == null) {
                     throw new IllegalArgumentException("Invalid nested secondary key=" + indexPath + ", invalid field :: " + nestedFields[i]);
                 }
             }
+            return nestedDescriptors;
         } else {
             throw new IllegalArgumentException("Empty nested secondary key path");
         }
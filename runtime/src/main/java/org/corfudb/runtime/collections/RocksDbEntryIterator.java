@@ -4,6 +4,7 @@ import io.netty.buffer.Unpooled;
 import org.corfudb.util.serializer.ISerializer;
 import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDB;
+import org.rocksdb.Snapshot;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.util.AbstractMap;
@@ -42,10 +43,20 @@ public class RocksDbEntryIterator<K, V> implements Iterator<Map.Entry<K, V>>, Au
 
     final private ReadOptions readOptions;
 
+    /**
+     * The database and the snapshot the iterator is pinned to
+     */
+    final private RocksDB rocksDB;
+
+    final private Snapshot snapshot;
+
     public RocksDbEntryIterator(RocksDB rocksDB, ISerializer serializer, boolean loadValues) {
-        // Start iterator at the current snapshot
+        // Pin the iterator to the current snapshot, so that it observes the state of the
+        // database at its creation regardless of concurrent writes, until it's closed.
+        this.rocksDB = rocksDB;
+        this.snapshot = rocksDB.getSnapshot();
         readOptions = new ReadOptions();
-        readOptions.setSnapshot(null);
+        readOptions.setSnapshot(snapshot);
         this.wrappedRocksIterator = new WrappedRocksIterator(rocksDB.newIterator(readOptions));
         this.serializer = serializer;
         wrappedRocksIterator.seekToFirst();
@@ -70,10 +81,9 @@ public class RocksDbEntryIterator<K, V> implements Iterator<Map.Entry<K, V>>, Au
             wrappedRocksIterator.next();
         }
 
-        if (next == null && wrappedRocksIterator.isOpen()) {
+        if (next == null) {
             // close the iterator if it has fully consumed.
-            wrappedRocksIterator.close();
-            readOptions.close();
+            close();
         }
 
         return next != null;
@@ -102,6 +112,9 @@ public class RocksDbEntryIterator<K, V> implements Iterator<Map.Entry<K, V>>, Au
         if (wrappedRocksIterator.isOpen()) {
             wrappedRocksIterator.close();
             readOptions.close();
+            if (rocksDB.isOwningHandle()) {
+                rocksDB.releaseSnapshot(snapshot);
+            }
         }
     }
 }
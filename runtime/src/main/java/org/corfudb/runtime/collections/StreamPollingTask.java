@@ -1,24 +1,33 @@
 package org.corfudb.runtime.collections;
 
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.common.metrics.micrometer.MicroMeterUtils;
 import org.corfudb.protocols.wireprotocol.ILogData;
-import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
+import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.StreamingException;
 import org.corfudb.runtime.exceptions.TrimmedException;
+import org.corfudb.runtime.view.StreamOptions;
 import org.corfudb.runtime.view.stream.IStreamView;
 
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 /**
- * A runnable task for a subscription to poll data change from the
- * transaction stream and put into the subscription's buffer. This
- * task is executed by the thread pool continuously until an error
- * occurs which would stop the subscription.
+ * A runnable task to poll data changes from a transaction stream and fan them out
+ * to the buffers of all the subscriptions on that stream. Each address is read
+ * (and its payload deserialized) once regardless of the number of subscriptions,
+ * while each subscription keeps its own read position. This task is executed by
+ * the thread pool continuously while it has new data, otherwise it parks itself
+ * with the {@link StreamingManager} until the stream tail moves.
  * <p>
  * Created by WenbinZhu on 11/9/20.
  */
@@ -28,55 +37,89 @@ class StreamPollingTask implements Runnable {
     // The streaming manager that is in charge of listener subscriptions.
     private final StreamingManager streamingManager;
 
+    // The id of the corfu transaction stream to poll data changes from.
+    @Getter
+    private final UUID txnStreamId;
+
     // The corfu transaction stream to poll data changes from.
+    @Getter
     private final IStreamView txnStream;
 
-    // The subscription context associated with this task.
-    private final StreamSubscription subscription;
-
     // The Thread pool for executing stream polling tasks.
     private final ScheduledExecutorService pollingExecutor;
 
-    // Last address of the data successfully processed by the buffer.
-    private long lastReadAddress;
+    // The subscriptions fed by this task, along with their read positions.
+    private final Map<StreamSubscription, SubscriptionCursor> cursors = new ConcurrentHashMap<>();
 
     // Total time in milliseconds for polling task to block until buffer space is available.
     private final long pollingBlockingTime;
 
-    // A period of time in ms to sleep before next cycle when poller gets no new data changes.
-    private final int pollingIdleWaitTime;
+    // Whether the last subscription has been removed, in which case the task must not run again.
+    private volatile boolean stopped = false;
 
-    private final Random randomGenerator;
-
-    StreamPollingTask(StreamingManager streamingManager, long lastAddress,
-                      StreamSubscription subscription, ScheduledExecutorService executor, CorfuRuntimeParameters params) {
+    StreamPollingTask(StreamingManager streamingManager, CorfuRuntime runtime, UUID txnStreamId,
+                      ScheduledExecutorService executor) {
         this.streamingManager = streamingManager;
-        this.subscription = subscription;
+        this.txnStreamId = txnStreamId;
         this.pollingExecutor = executor;
-        this.lastReadAddress = lastAddress;
-        this.txnStream = subscription.getTxnStream();
-        this.pollingBlockingTime = params.getStreamingPollingBlockingTimeMs();
-        this.pollingIdleWaitTime = params.getStreamingPollingIdleWaitTimeMs();
-        this.randomGenerator = new Random();
+        this.pollingBlockingTime = runtime.getParameters().getStreamingPollingBlockingTimeMs();
+
+        // Create transaction stream with regard to the stream tag.
+        StreamOptions options = StreamOptions
+                .builder()
+                .cacheEntries(false)
+                .isCheckpointCapable(false)
+                .build();
+        this.txnStream = runtime.getStreamsView().get(txnStreamId, options);
+    }
+
+    /**
+     * Start feeding a subscription, from the address following lastAddress.
+     */
+    void addSubscription(StreamSubscription subscription, long lastAddress) {
+        cursors.put(subscription, new SubscriptionCursor(subscription, lastAddress));
+    }
+
+    void removeSubscription(StreamSubscription subscription) {
+        cursors.remove(subscription);
+    }
+
+    boolean hasSubscriptions() {
+        return !cursors.isEmpty();
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    /**
+     * @return the lowest address processed by all the subscriptions of this task
+     */
+    long getMinReadAddress() {
+        long minReadAddress = Long.MAX_VALUE;
+        for (SubscriptionCursor cursor : cursors.values()) {
+            minReadAddress = Math.min(minReadAddress, cursor.lastReadAddress);
+        }
+        return minReadAddress;
     }
 
     @Override
     public void run() {
         try {
             pollTxnStream();
-        } catch (TrimmedException te) {
-            processException(new StreamingException(te));
         } catch (Throwable throwable) {
-            processException(throwable);
+            // Not attributable to any single subscription, fail them all.
+            new ArrayList<>(cursors.keySet()).forEach(s -> processException(s, throwable));
         }
     }
 
     /**
      * Unsubscribe listener and notify with error.
-     *
-     * @param throwable
      */
-    private void processException(Throwable throwable) {
+    private void processException(StreamSubscription subscription, Throwable throwable) {
+        if (throwable instanceof TrimmedException) {
+            throwable = new StreamingException((TrimmedException) throwable);
+        }
         StreamListener listener = subscription.getListener();
         log.error("Encountered exception {} during txn stream polling, listener: {}, " +
                 "namespace: {}", throwable, listener, subscription.getNamespace());
@@ -85,57 +128,163 @@ class StreamPollingTask implements Runnable {
     }
 
     /**
-     * Poll new data changes from the transaction stream and put into
-     * the subscription's buffer one by one.
+     * Poll new data changes from the transaction stream, starting from the subscription
+     * that is furthest behind among those that can take new data, and put them into the
+     * buffers of the subscriptions that have not processed them yet. Updates that don't
+     * fit in a full buffer are kept in the backlog of their subscription, which stops
+     * holding back the read position of the others until its backlog is drained.
      */
-    private void pollTxnStream() throws Exception {
-        // If listener already unsubscribed, do not process or schedule again.
-        if (subscription.isStopped()) {
+    private void pollTxnStream() {
+        // If all listeners already unsubscribed, do not process or schedule again.
+        if (stopped) {
+            return;
+        }
+
+        List<SubscriptionCursor> readyCursors = new ArrayList<>();
+        List<SubscriptionCursor> backloggedCursors = new ArrayList<>();
+        long minReadAddress = Long.MAX_VALUE;
+        int batchSize = 1;
+        for (SubscriptionCursor cursor : cursors.values()) {
+            if (cursor.subscription.isStopped()) {
+                continue;
+            }
+            if (cursor.backlog.isEmpty()) {
+                readyCursors.add(cursor);
+                minReadAddress = Math.min(minReadAddress, cursor.lastReadAddress);
+                batchSize = Math.max(batchSize, cursor.subscription.getStreamBufferSize());
+            } else {
+                backloggedCursors.add(cursor);
+            }
+        }
+
+        if (readyCursors.isEmpty() && backloggedCursors.isEmpty()) {
+            streamingManager.awaitStreamTail(this);
             return;
         }
 
         // Seek to next address and poll transaction updates.
-        txnStream.seek(lastReadAddress + 1L);
-        String listenerId = subscription.getListenerId();
-        List<ILogData> updates =  MicroMeterUtils
-                .time(() -> txnStream.remainingAtMost(subscription.getStreamBufferSize()),
-                        "stream.poll.duration", "listener", listenerId);
-        // No new updates, take a short break and poll again.
-        if (updates.isEmpty()) {
-            log.trace("pollTxStream :: no updates for {} from {}, listenerId={}", txnStream.getId(),
-                    lastReadAddress + 1L, subscription.getListener().getClass().getSimpleName());
-            pollingExecutor.schedule(this, randomGenerator.nextInt(pollingIdleWaitTime), TimeUnit.MILLISECONDS);
+        List<ILogData> updates = Collections.emptyList();
+        if (!readyCursors.isEmpty()) {
+            try {
+                txnStream.seek(minReadAddress + 1L);
+                final int maxEntries = batchSize;
+                updates = MicroMeterUtils.time(() -> txnStream.remainingAtMost(maxEntries),
+                        "stream.poll.duration", "stream", txnStreamId.toString());
+            } catch (TrimmedException te) {
+                // Only the subscriptions that needed the trimmed space are at fault, the others
+                // will retry from their own (later) position on the next cycle.
+                for (SubscriptionCursor cursor : readyCursors) {
+                    if (cursor.lastReadAddress == minReadAddress) {
+                        processException(cursor.subscription, te);
+                    }
+                }
+                pollingExecutor.submit(this);
+                return;
+            }
+        }
+
+        // No new updates nor backlog, wait for the stream tail to move before polling again.
+        if (updates.isEmpty() && backloggedCursors.isEmpty()) {
+            log.trace("pollTxStream :: no updates for {} from {}", txnStreamId, minReadAddress + 1L);
+            streamingManager.awaitStreamTail(this);
             return;
         }
 
-        // Insert polled updates to the subscription buffer, with a shared
-        // fixed amount of time waiting for buffer being not full.
+        // Insert polled updates to the subscription buffers, with a shared
+        // fixed amount of time waiting for buffers being not full.
         long remainingBlockTime = Duration.ofMillis(pollingBlockingTime).toNanos();
 
         for (ILogData update : updates) {
-            if (subscription.isStopped()) {
-                return;
-            }
+            long updateAddress = update.getGlobalAddress();
+            for (SubscriptionCursor cursor : readyCursors) {
+                // Skip subscriptions that are gone or that already have this update.
+                if (cursor.subscription.isStopped() || updateAddress <= cursor.lastReadAddress) {
+                    continue;
+                }
 
-            // Buffer is full after max waiting time elapses, break and re-schedule.
-            long startTime = System.nanoTime();
-            if (!subscription.enqueueStreamEntry(update, remainingBlockTime)) {
-                log.trace("pollTxStream :: unable to queue updates, no space in queue, listenerId={}", subscription.getListener().getClass().getSimpleName());
-                break;
+                // Once an update didn't fit, the following ones go to the backlog as well.
+                if (!cursor.backlog.isEmpty()) {
+                    cursor.backlog.add(update);
+                    continue;
+                }
+
+                long startTime = System.nanoTime();
+                if (!enqueue(cursor, update, remainingBlockTime)) {
+                    cursor.backlog.add(update);
+                }
+                remainingBlockTime -= System.nanoTime() - startTime;
             }
-            remainingBlockTime -= System.nanoTime() - startTime;
+        }
 
-            // Sanity check to ensure lastReadAddress never regress.
-            long updateAddress = update.getGlobalAddress();
-            if (updateAddress <= lastReadAddress) {
-                throw new IllegalStateException(String.format(
-                        "lastReadAddress regressing from %d to %d", lastReadAddress, updateAddress));
+        // Retry the updates that did not fit in the buffers on previous cycles.
+        for (SubscriptionCursor cursor : backloggedCursors) {
+            while (!cursor.backlog.isEmpty()) {
+                if (cursor.subscription.isStopped()) {
+                    cursor.backlog.clear();
+                    break;
+                }
+
+                long startTime = System.nanoTime();
+                boolean enqueued = enqueue(cursor, cursor.backlog.peek(), remainingBlockTime);
+                remainingBlockTime -= System.nanoTime() - startTime;
+                if (!enqueued) {
+                    break;
+                }
+                cursor.backlog.remove();
             }
-            lastReadAddress = updateAddress;
-            log.trace("pollTxStream :: enqueued update {}, listenerId={}", lastReadAddress, subscription.getListener().getClass().getSimpleName());
         }
 
         // Re-submit itself to the executor so polling will start again.
         pollingExecutor.submit(this);
     }
+
+    /**
+     * Put an update into the buffer of a subscription, waiting at most maxBlockTime
+     * nanoseconds for space to be available.
+     *
+     * @return false if the buffer is still full, true if the update was enqueued
+     * or the subscription failed to process it and was unsubscribed
+     */
+    private boolean enqueue(SubscriptionCursor cursor, ILogData update, long maxBlockTime) {
+        try {
+            if (!cursor.subscription.enqueueStreamEntry(update, Math.max(maxBlockTime, 0L))) {
+                // Buffer is full after max waiting time elapses, retry on the next cycle.
+                log.trace("pollTxStream :: unable to queue updates, no space in queue, listenerId={}",
+                        cursor.subscription.getListenerId());
+                return false;
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            processException(cursor.subscription, ie);
+            return true;
+        } catch (RuntimeException re) {
+            processException(cursor.subscription, re);
+            return true;
+        }
+        cursor.lastReadAddress = update.getGlobalAddress();
+        log.trace("pollTxStream :: enqueued update {}, listenerId={}", cursor.lastReadAddress,
+                cursor.subscription.getListenerId());
+        return true;
+    }
+
+    /**
+     * The read position of a subscription.
+     */
+    private static class SubscriptionCursor {
+        private final StreamSubscription subscription;
+
+        // Last address of the data successfully processed by the subscription's buffer,
+        // only updated by the polling task but also read when checking the stream tail.
+        private volatile long lastReadAddress;
+
+        // Updates read for the subscription that did not fit in its buffer yet, in address order.
+        // Bounded by the read batch size, as no more updates are read for the subscription while
+        // it has a backlog. Only accessed by the polling task.
+        private final Queue<ILogData> backlog = new ArrayDeque<>();
+
+        SubscriptionCursor(StreamSubscription subscription, long lastReadAddress) {
+            this.subscription = subscription;
+            this.lastReadAddress = lastReadAddress;
+        }
+    }
 }
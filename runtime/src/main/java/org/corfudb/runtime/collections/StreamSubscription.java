@@ -7,9 +7,7 @@ import org.corfudb.protocols.logprotocol.MultiObjectSMREntry;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.CorfuStoreMetadata.Timestamp;
-import org.corfudb.runtime.view.StreamOptions;
 import org.corfudb.runtime.view.TableRegistry;
-import org.corfudb.runtime.view.stream.IStreamView;
 
 import javax.annotation.Nullable;
 import java.util.HashMap;
@@ -41,9 +39,9 @@ public class StreamSubscription<K extends Message, V extends Message, M extends
     @Getter
     private final String namespace;
 
-    // The corfu transaction stream to poll data changes from.
+    // The id of the corfu transaction stream to poll data changes from.
     @Getter
-    private final IStreamView txnStream;
+    private final UUID txnStreamId;
 
     // The table id to schema map of the interested tables.
     private final Map<UUID, TableSchema<K, V, M>> tableSchemas;
@@ -73,7 +71,7 @@ public class StreamSubscription<K extends Message, V extends Message, M extends
 
         // Generate table name to table schema mapping.
         TableRegistry registry = runtime.getTableRegistry();
-        UUID txnStreamId = TableRegistry.getStreamIdForStreamTag(namespace, streamTag);
+        this.txnStreamId = TableRegistry.getStreamIdForStreamTag(namespace, streamTag);
         this.tableSchemas = tablesOfInterest
                 .stream()
                 .collect(Collectors.toMap(
@@ -87,14 +85,6 @@ public class StreamSubscription<K extends Message, V extends Message, M extends
                             }
                             return new TableSchema<>(tName, t.getKeyClass(), t.getValueClass(), t.getMetadataClass());
                         }));
-
-        // Create transaction stream with regard to the stream tag.
-        StreamOptions options = StreamOptions
-                .builder()
-                .cacheEntries(false)
-                .isCheckpointCapable(false)
-                .build();
-        this.txnStream = runtime.getStreamsView().get(txnStreamId, options);
     }
 
     /**
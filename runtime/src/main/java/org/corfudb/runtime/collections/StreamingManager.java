@@ -3,6 +3,7 @@ package org.corfudb.runtime.collections;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.protocols.wireprotocol.StreamAddressRange;
+import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.StreamingException;
 import org.corfudb.runtime.exceptions.TrimmedException;
@@ -12,13 +13,17 @@ import org.corfudb.runtime.view.stream.StreamAddressSpace;
 import org.corfudb.util.Utils;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A streaming subscription manager that allows clients to listen on
@@ -37,6 +42,12 @@ public class StreamingManager {
     // A map of all stream listeners and their subscription contexts.
     private final Map<StreamListener, StreamSubscription> subscriptions;
 
+    // The polling tasks, one per transaction stream, shared by all the subscriptions on that stream.
+    private final Map<UUID, StreamPollingTask> pollingTasks;
+
+    // Polling tasks with no new data, waiting for their stream tail to move.
+    private final Set<StreamPollingTask> idlePollingTasks;
+
     // Thread pool for executing stream polling tasks.
     private final ScheduledExecutorService pollingExecutor;
 
@@ -51,11 +62,18 @@ public class StreamingManager {
     public StreamingManager(@Nonnull CorfuRuntime runtime) {
         this.runtime = runtime;
         this.subscriptions = new HashMap<>();
+        this.pollingTasks = new HashMap<>();
+        this.idlePollingTasks = ConcurrentHashMap.newKeySet();
 
         this.pollingExecutor = Executors.newScheduledThreadPool(runtime.getParameters().getStreamingPollingThreadPoolSize(),
                 new ThreadFactoryBuilder().setNameFormat("streaming-poller-%d").build());
         this.notificationExecutor = Executors.newFixedThreadPool(runtime.getParameters().getStreamingNotificationThreadPoolSize(),
                 new ThreadFactoryBuilder().setNameFormat("streaming-notifier-%d").build());
+
+        // A single task checks the tails of all idle streams at once, and wakes up their polling tasks.
+        int idleWaitTime = Math.max(runtime.getParameters().getStreamingPollingIdleWaitTimeMs(), 1);
+        this.pollingExecutor.scheduleWithFixedDelay(this::checkStreamTails, idleWaitTime, idleWaitTime,
+                TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -105,8 +123,17 @@ public class StreamingManager {
                 runtime, streamListener, namespace, streamTag, tablesOfInterest, bufferSize);
         subscriptions.put(streamListener, subscription);
 
-        pollingExecutor.submit(new StreamPollingTask(this, lastAddress, subscription, pollingExecutor,
-                runtime.getParameters()));
+        StreamPollingTask pollingTask = pollingTasks.get(subscription.getTxnStreamId());
+        if (pollingTask == null) {
+            pollingTask = new StreamPollingTask(this, runtime, subscription.getTxnStreamId(), pollingExecutor);
+            pollingTasks.put(subscription.getTxnStreamId(), pollingTask);
+            pollingTask.addSubscription(subscription, lastAddress);
+            pollingExecutor.submit(pollingTask);
+        } else {
+            pollingTask.addSubscription(subscription, lastAddress);
+            wakeUp(pollingTask);
+        }
+
         notificationExecutor.submit(new StreamNotificationTask(this, subscription, notificationExecutor, runtime.getParameters()));
 
         log.info("Subscribed stream listener {}, numSubscribers: {}, streamTag: {}, lastAddress: {}, " +
@@ -156,7 +183,63 @@ public class StreamingManager {
         }
         subscription.stop();
         log.info("Unsubscribed stream listener {}", streamListener);
-        runtime.getStreamsView().removeStream(subscription.getTxnStream());
+
+        StreamPollingTask pollingTask = pollingTasks.get(subscription.getTxnStreamId());
+        if (pollingTask != null) {
+            pollingTask.removeSubscription(subscription);
+            if (!pollingTask.hasSubscriptions()) {
+                pollingTask.stop();
+                pollingTasks.remove(subscription.getTxnStreamId());
+                idlePollingTasks.remove(pollingTask);
+                runtime.getStreamsView().removeStream(pollingTask.getTxnStream());
+            }
+        }
+    }
+
+    /**
+     * Park a polling task that found no new data, until its stream tail moves.
+     *
+     * @param pollingTask the idle polling task
+     */
+    void awaitStreamTail(@Nonnull StreamPollingTask pollingTask) {
+        idlePollingTasks.add(pollingTask);
+    }
+
+    /**
+     * Resubmit a parked polling task, if it was not already woken up.
+     */
+    private void wakeUp(StreamPollingTask pollingTask) {
+        if (idlePollingTasks.remove(pollingTask)) {
+            pollingExecutor.submit(pollingTask);
+        }
+    }
+
+    /**
+     * Query the tails of the streams of all idle polling tasks in one request to the sequencer,
+     * and wake up the tasks whose stream has data beyond what all their subscriptions processed.
+     */
+    private void checkStreamTails() {
+        if (idlePollingTasks.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<StreamPollingTask> idleTasks = new ArrayList<>(idlePollingTasks);
+            UUID[] streamIds = idleTasks.stream()
+                    .map(StreamPollingTask::getTxnStreamId)
+                    .toArray(UUID[]::new);
+            TokenResponse tails = runtime.getSequencerView().query(streamIds);
+
+            for (StreamPollingTask pollingTask : idleTasks) {
+                Long streamTail = tails.getStreamTail(pollingTask.getTxnStreamId());
+                if (streamTail != null && streamTail > pollingTask.getMinReadAddress()) {
+                    wakeUp(pollingTask);
+                }
+            }
+        } catch (Exception e) {
+            // Keep the check scheduled, tails are queried again on the next cycle.
+            log.warn("checkStreamTails: failed to query stream tails.", e);
+        }
     }
 
     /**
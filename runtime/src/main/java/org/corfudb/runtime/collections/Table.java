@@ -404,4 +404,60 @@ public class Table<K extends Message, V extends Message, M extends Message> {
                         entry.getValue().getMetadata()))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Get by a range of values of a sorted secondary index.
+     *
+     * @param <I>           Type of index key.
+     * @param indexName     Index name.
+     * @param fromKey       Low endpoint of the range, or null if unbounded below.
+     * @param fromInclusive True if the low endpoint is included.
+     * @param toKey         High endpoint of the range, or null if unbounded above.
+     * @param toInclusive   True if the high endpoint is included.
+     * @return List of entries within the range, ordered by index key.
+     */
+    @Nonnull
+    <I extends Comparable<? super I>>
+    List<CorfuStoreEntry<K, V, M>> getByIndexRange(@Nonnull final String indexName,
+                                                   final I fromKey, final boolean fromInclusive,
+                                                   final I toKey, final boolean toInclusive) {
+        return toCorfuStoreEntries(corfuTable.getByIndexRange(() -> indexName,
+                fromKey, fromInclusive, toKey, toInclusive));
+    }
+
+    /**
+     * Get by a prefix of the values of a sorted string secondary index.
+     *
+     * @param indexName Index name.
+     * @param prefix    Prefix of the index keys to match.
+     * @return List of entries whose index key starts with the prefix, ordered by index key.
+     */
+    @Nonnull
+    List<CorfuStoreEntry<K, V, M>> getByIndexPrefix(@Nonnull final String indexName,
+                                                    @Nonnull final String prefix) {
+        return toCorfuStoreEntries(corfuTable.getByIndexPrefix(() -> indexName, prefix));
+    }
+
+    /**
+     * Get the first entries of a sorted secondary index.
+     *
+     * @param indexName  Index name.
+     * @param descending True to return the entries with the highest index keys first.
+     * @param limit      Maximum number of entries to return.
+     * @return List of at most limit entries, ordered by index key.
+     */
+    @Nonnull
+    List<CorfuStoreEntry<K, V, M>> getByIndexOrdered(@Nonnull final String indexName,
+                                                     final boolean descending, final int limit) {
+        return toCorfuStoreEntries(corfuTable.getByIndexOrdered(() -> indexName, descending, limit));
+    }
+
+    private List<CorfuStoreEntry<K, V, M>> toCorfuStoreEntries(
+            List<Map.Entry<K, CorfuRecord<V, M>>> entries) {
+        return entries.stream()
+                .map(entry -> new CorfuStoreEntry<K, V, M>(entry.getKey(),
+                        entry.getValue().getPayload(),
+                        entry.getValue().getMetadata()))
+                .collect(Collectors.toList());
+    }
 }
@@ -18,7 +18,19 @@ public class TableOptions<K, V> {
      */
     private final Path persistentDataPath;
 
+    /**
+     * If set, {@link CorfuStore} will back the in-memory {@link CorfuTable} with a
+     * {@link PersistentStreamingMap}, so that reads of the table can be served from immutable
+     * versions without locking it. Tables with sorted secondary indexes keep locking reads.
+     * Can't be combined with a persistent data path.
+     */
+    private final boolean lockFreeReadsEnabled;
+
     public Optional<Path> getPersistentDataPath() {
         return Optional.ofNullable(persistentDataPath);
     }
+
+    public boolean isLockFreeReadsEnabled() {
+        return lockFreeReadsEnabled;
+    }
 }
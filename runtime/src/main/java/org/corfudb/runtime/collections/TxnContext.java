@@ -532,6 +532,124 @@ public class TxnContext implements AutoCloseable {
         return this.getByIndex(this.getTable(tableName), indexName, indexKey);
     }
 
+    /**
+     * Query by a range of values of a sorted secondary index.
+     *
+     * @param table         Table object.
+     * @param indexName     Index name. The index must be declared as sorted.
+     * @param fromKey       Low endpoint of the range, or null if unbounded below.
+     * @param fromInclusive True if the low endpoint is included.
+     * @param toKey         High endpoint of the range, or null if unbounded above.
+     * @param toInclusive   True if the high endpoint is included.
+     * @param <K>           Type of Key.
+     * @param <V>           Type of Value.
+     * @param <I>           Type of index/secondary key.
+     * @return Result of the query, ordered by index key.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message, I extends Comparable<? super I>>
+    List<CorfuStoreEntry<K, V, M>> getByIndexRange(@Nonnull Table<K, V, M> table,
+                                                   @Nonnull final String indexName,
+                                                   final I fromKey, final boolean fromInclusive,
+                                                   final I toKey, final boolean toInclusive) {
+        applyWritesForReadOnTable(table);
+        table.getMetrics().incNumGetByIndexes();
+        return table.getByIndexRange(indexName, fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    /**
+     * Query by a range of values of a sorted secondary index given just the full tableName.
+     *
+     * @param tableName     fullyQualified name of the table.
+     * @param indexName     Index name. The index must be declared as sorted.
+     * @param fromKey       Low endpoint of the range, or null if unbounded below.
+     * @param fromInclusive True if the low endpoint is included.
+     * @param toKey         High endpoint of the range, or null if unbounded above.
+     * @param toInclusive   True if the high endpoint is included.
+     * @return Result of the query, ordered by index key.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message, I extends Comparable<? super I>>
+    List<CorfuStoreEntry<K, V, M>> getByIndexRange(@Nonnull String tableName,
+                                                   @Nonnull final String indexName,
+                                                   final I fromKey, final boolean fromInclusive,
+                                                   final I toKey, final boolean toInclusive) {
+        return this.getByIndexRange(this.getTable(tableName), indexName,
+                fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    /**
+     * Query by a prefix of the values of a sorted string secondary index.
+     *
+     * @param table     Table object.
+     * @param indexName Index name. The index must be declared as sorted.
+     * @param prefix    Prefix of the index keys to match.
+     * @return Result of the query, ordered by index key.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message>
+    List<CorfuStoreEntry<K, V, M>> getByIndexPrefix(@Nonnull Table<K, V, M> table,
+                                                    @Nonnull final String indexName,
+                                                    @Nonnull final String prefix) {
+        applyWritesForReadOnTable(table);
+        table.getMetrics().incNumGetByIndexes();
+        return table.getByIndexPrefix(indexName, prefix);
+    }
+
+    /**
+     * Query by a prefix of the values of a sorted string secondary index given just the full tableName.
+     *
+     * @param tableName fullyQualified name of the table.
+     * @param indexName Index name. The index must be declared as sorted.
+     * @param prefix    Prefix of the index keys to match.
+     * @return Result of the query, ordered by index key.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message>
+    List<CorfuStoreEntry<K, V, M>> getByIndexPrefix(@Nonnull String tableName,
+                                                    @Nonnull final String indexName,
+                                                    @Nonnull final String prefix) {
+        return this.getByIndexPrefix(this.getTable(tableName), indexName, prefix);
+    }
+
+    /**
+     * Query the first entries of a sorted secondary index, e.g., the top-N records by some field.
+     *
+     * @param table      Table object.
+     * @param indexName  Index name. The index must be declared as sorted.
+     * @param descending True to return the entries with the highest index keys first.
+     * @param limit      Maximum number of entries to return.
+     * @return Result of the query, ordered by index key.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message>
+    List<CorfuStoreEntry<K, V, M>> getByIndexOrdered(@Nonnull Table<K, V, M> table,
+                                                     @Nonnull final String indexName,
+                                                     final boolean descending,
+                                                     final int limit) {
+        applyWritesForReadOnTable(table);
+        table.getMetrics().incNumGetByIndexes();
+        return table.getByIndexOrdered(indexName, descending, limit);
+    }
+
+    /**
+     * Query the first entries of a sorted secondary index given just the full tableName.
+     *
+     * @param tableName  fullyQualified name of the table.
+     * @param indexName  Index name. The index must be declared as sorted.
+     * @param descending True to return the entries with the highest index keys first.
+     * @param limit      Maximum number of entries to return.
+     * @return Result of the query, ordered by index key.
+     */
+    @Nonnull
+    public <K extends Message, V extends Message, M extends Message>
+    List<CorfuStoreEntry<K, V, M>> getByIndexOrdered(@Nonnull String tableName,
+                                                     @Nonnull final String indexName,
+                                                     final boolean descending,
+                                                     final int limit) {
+        return this.getByIndexOrdered(this.getTable(tableName), indexName, descending, limit);
+    }
+
     /**
      * Gets the count of records in the table at a particular timestamp.
      *
@@ -133,7 +133,7 @@ public class CorfuCompileProxy<T extends ICorfuSMR<T>> implements ICorfuSMRProxy
         // because the VLO will control access to the stream
         underlyingObject = new VersionLockedObject<T>(this::getNewInstance,
                 new StreamViewSMRAdapter(rt, rt.getStreamsView().getUnsafe(streamID)),
-                wrapperObject);
+                wrapperObject, rt.getParameters().getMaxObjectVersions());
     }
 
     /**
@@ -171,6 +171,12 @@ public class CorfuCompileProxy<T extends ICorfuSMR<T>> implements ICorfuSMRProxy
 
         log.debug("Access[{}] conflictObj={} version={}", this, conflictObject, timestamp);
 
+        // Read a published version of the object, if any, without locking the object
+        T version = underlyingObject.getPublishedVersion(timestamp.get());
+        if (version != null) {
+            return accessMethod.access(version.getContext(ICorfuExecutionContext.DEFAULT));
+        }
+
         // Perform underlying access
         return underlyingObject.access(o -> o.getVersionUnsafe() >= timestamp.get()
                         && !o.isOptimisticallyModifiedUnsafe(),
@@ -16,6 +16,8 @@ import org.corfudb.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -23,6 +25,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.StampedLock;
 import java.util.function.Consumer;
@@ -45,6 +48,11 @@ import java.util.function.Supplier;
  * <p>syncObjectUnsafe() enables the user to bring the object to a given version, and the
  * VersionLockedObject manages any sync or rollback of updates necessary.
  *
+ * <p>If the object supports snapshots ({@link ICorfuSnapshotable}), the versions it goes
+ * through while syncing forward are also published, so that they can be read without locking
+ * the object, see getPublishedVersion(). Only the most recent versions are retained, reading
+ * older versions still requires rolling the object back.
+ *
  * <p>Created by mwei on 11/13/16.
  */
 @Slf4j
@@ -122,16 +130,29 @@ public class VersionLockedObject<T extends ICorfuSMR<T>> {
     private final Logger correctnessLogger = LoggerFactory.getLogger("correctness");
 
     private final Optional<AtomicLong> noRollBackExceptionCounter;
+
+    /**
+     * The published versions of the object, keyed by the first address they are valid at.
+     */
+    private final ConcurrentSkipListMap<Long, ObjectVersion<T>> versions;
+
+    /**
+     * The maximum number of published versions retained.
+     */
+    private final int maxVersions;
+
     /*
      * The VersionLockedObject maintains a versioned object which is backed by an ISMRStream,
      * and is optionally backed by an additional optimistic update stream.
      *
      * @param newObjectFn A function passed to instantiate a new instance of this object.
      * @param smrStream   Stream View backing this object.
+     * @param maxVersions The maximum number of published versions retained.
      */
     public VersionLockedObject(Supplier<T> newObjectFn,
                                StreamViewSMRAdapter smrStream,
-                               ICorfuSMR<T> wrapperObject) {
+                               ICorfuSMR<T> wrapperObject,
+                               int maxVersions) {
         this.smrStream = smrStream;
         this.upcallTargetMap = wrapperObject.getCorfuSMRUpcallMap();
         this.undoRecordFunctionMap = wrapperObject.getCorfuUndoRecordMap();
@@ -143,6 +164,8 @@ public class VersionLockedObject<T extends ICorfuSMR<T>> {
         this.object = newObjectFn.get();
         this.pendingUpcalls = ConcurrentHashMap.newKeySet();
         this.upcallResults = new ConcurrentHashMap<>();
+        this.versions = new ConcurrentSkipListMap<>();
+        this.maxVersions = maxVersions;
         lock = new StampedLock();
 
         Optional<MeterRegistry> metricsRegistry = MeterRegistryProvider.getInstance();
@@ -163,6 +186,7 @@ public class VersionLockedObject<T extends ICorfuSMR<T>> {
             ts = lock.writeLock();
             pendingUpcalls.removeIf(e -> e < trimMark);
             upcallResults.entrySet().removeIf(e -> e.getKey() < trimMark);
+            versions.headMap(trimMark).clear();
             smrStream.gc(trimMark);
         } finally {
             lock.unlock(ts);
@@ -263,6 +287,21 @@ public class VersionLockedObject<T extends ICorfuSMR<T>> {
         }
     }
 
+    /**
+     * Get a published version of the object. A published version is immutable, it can be
+     * accessed without locking the object.
+     *
+     * @param timestamp The version of the object.
+     * @return The object at the given version, or null if that version is not published.
+     */
+    public T getPublishedVersion(long timestamp) {
+        Map.Entry<Long, ObjectVersion<T>> version = versions.floorEntry(timestamp);
+        if (version == null || version.getValue().validUpTo < timestamp) {
+            return null;
+        }
+        return version.getValue().object;
+    }
+
     /**
      * Update the object under a write lock.
      *
@@ -471,6 +510,7 @@ public class VersionLockedObject<T extends ICorfuSMR<T>> {
         object = newObjectFn.get();
         smrStream.reset();
         optimisticStream = null;
+        versions.clear();
     }
 
     /**
@@ -677,10 +717,17 @@ public class VersionLockedObject<T extends ICorfuSMR<T>> {
                 ? "Optimistic" : "to " + timestamp);
         long syncTo = (timestamp == Address.OPTIMISTIC) ? Address.MAX : timestamp;
 
+        // Only the committed state of the object is published.
+        final VersionCollector collector = stream == smrStream && timestamp != Address.OPTIMISTIC
+                && !isOptimisticallyModifiedUnsafe() ? newVersionCollectorUnsafe() : null;
+
         Runnable syncStreamRunnable = () ->
                 stream.streamUpTo(syncTo)
                         .forEachOrdered(entry -> {
                             try {
+                                if (collector != null) {
+                                    collector.beforeUpdate(entry.getGlobalAddress());
+                                }
                                 Object res = applyUpdateUnsafe(entry, timestamp);
                                 if (timestamp == Address.OPTIMISTIC) {
                                     entry.setUpcallResult(res);
@@ -699,6 +746,10 @@ public class VersionLockedObject<T extends ICorfuSMR<T>> {
                         });
         MicroMeterUtils.time(syncStreamRunnable, "vlo.sync.timer",
                 "streamId", getID().toString());
+
+        if (collector != null) {
+            collector.publish(stream.pos());
+        }
     }
 
     /**
@@ -729,6 +780,141 @@ public class VersionLockedObject<T extends ICorfuSMR<T>> {
         seek(globalAddress + 1);
     }
 
+    /**
+     * Start collecting the versions of the object produced by a sync of the stream.
+     *
+     * @return A version collector, or null if the object does not support snapshots.
+     */
+    private VersionCollector newVersionCollectorUnsafe() {
+        if (maxVersions <= 0 || object.getVersionPolicy() == ICorfuVersionPolicy.MONOTONIC) {
+            return null;
+        }
+        T base = object.getSnapshot();
+        return base == null ? null : new VersionCollector(getVersionUnsafe(), base);
+    }
+
+    /**
+     * An immutable version of the object, which is the state of the object at every
+     * address from the one it is published at, up to validUpTo.
+     */
+    private static class ObjectVersion<T> {
+        final T object;
+
+        // Only ever increases, as the object is synced past this version.
+        volatile long validUpTo;
+
+        ObjectVersion(T object, long validUpTo) {
+            this.object = object;
+            this.validUpTo = validUpTo;
+        }
+    }
+
+    /**
+     * Collects a snapshot of the object after the updates of each address applied by a
+     * sync, and publishes them once the sync is complete. Nothing is published if the sync
+     * fails, or if its updates are not in increasing address order past the version the
+     * sync started from. Addresses whose versions are already published are skipped.
+     */
+    private class VersionCollector {
+        // The version of the object when the sync started, and the snapshot at that version.
+        private final long from;
+        private final T base;
+
+        private final List<Map.Entry<Long, T>> snapshots = new ArrayList<>();
+
+        private long lastAddress;
+
+        private boolean inOrder;
+
+        VersionCollector(long from, T base) {
+            this.from = from;
+            this.base = base;
+            this.lastAddress = from;
+            // When loading the object from scratch (e.g., from a checkpoint),
+            // only the final version is published.
+            this.inOrder = Address.isAddress(from);
+        }
+
+        void beforeUpdate(long address) {
+            if (!inOrder || (address == lastAddress && address != from)) {
+                return;
+            }
+
+            if (address <= lastAddress) {
+                inOrder = false;
+                return;
+            }
+
+            // All the updates of the previous address have been applied.
+            if (lastAddress != from) {
+                collectSnapshot();
+            }
+            lastAddress = address;
+        }
+
+        private void collectSnapshot() {
+            T snapshot = object.getSnapshot();
+            if (snapshot == null) {
+                inOrder = false;
+                return;
+            }
+            snapshots.add(new AbstractMap.SimpleImmutableEntry<>(lastAddress, snapshot));
+        }
+
+        void publish(long to) {
+            if (!Address.isAddress(to) || to < from || to < lastAddress) {
+                return;
+            }
+
+            if (!inOrder) {
+                if (!Address.isAddress(from)) {
+                    T snapshot = object.getSnapshot();
+                    if (snapshot != null) {
+                        versions.put(to, new ObjectVersion<>(snapshot, to));
+                        trimVersions();
+                    }
+                }
+                return;
+            }
+
+            if (lastAddress != from) {
+                collectSnapshot();
+                if (!inOrder) {
+                    return;
+                }
+            }
+
+            ObjectVersion<T> current;
+            Map.Entry<Long, ObjectVersion<T>> previous = versions.floorEntry(from);
+            if (previous != null && previous.getValue().validUpTo >= from) {
+                current = previous.getValue();
+            } else {
+                current = new ObjectVersion<>(base, from);
+                versions.put(from, current);
+            }
+
+            for (Map.Entry<Long, T> snapshot : snapshots) {
+                if (snapshot.getKey() <= current.validUpTo) {
+                    // Already published by an earlier sync over the same addresses,
+                    // e.g., before the object was rolled back.
+                    current = versions.floorEntry(snapshot.getKey()).getValue();
+                    continue;
+                }
+                current.validUpTo = snapshot.getKey() - 1;
+                current = new ObjectVersion<>(snapshot.getValue(), snapshot.getKey());
+                versions.put(snapshot.getKey(), current);
+            }
+            current.validUpTo = Math.max(current.validUpTo, to);
+            trimVersions();
+        }
+
+        private void trimVersions() {
+            while (versions.size() > maxVersions) {
+                versions.pollFirstEntry();
+            }
+        }
+    }
+
     @VisibleForTesting
     public ISMRStream getSmrStream() {
         return smrStream;
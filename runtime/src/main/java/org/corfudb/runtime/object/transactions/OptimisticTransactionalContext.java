@@ -14,6 +14,7 @@ import org.corfudb.protocols.wireprotocol.TxResolutionInfo;
 import org.corfudb.runtime.exceptions.AbortCause;
 import org.corfudb.runtime.exceptions.AppendException;
 import org.corfudb.runtime.exceptions.TransactionAbortedException;
+import org.corfudb.runtime.object.ICorfuExecutionContext;
 import org.corfudb.runtime.object.ICorfuSMR;
 import org.corfudb.runtime.object.ICorfuSMRAccess;
 import org.corfudb.runtime.object.ICorfuSMRProxyInternal;
@@ -79,6 +80,18 @@ public class OptimisticTransactionalContext extends AbstractTransactionalContext
         // updates.
         // Get snapshot timestamp in advance so it is not performed under the VLO lock
         long ts = getSnapshotTimestamp().getSequence();
+
+        // Without updates from this transaction (or a parent one), a published version
+        // of the object can be read without locking the object.
+        if (getParentContext() == null && getWriteSetEntrySize(proxy.getStreamID()) == 0) {
+            long streamReadPosition = getKnownStreamPosition().getOrDefault(proxy.getStreamID(), ts);
+            T version = proxy.getUnderlyingObject().getPublishedVersion(streamReadPosition);
+            if (version != null) {
+                getKnownStreamPosition().put(proxy.getStreamID(), streamReadPosition);
+                return accessFunction.access(version.getContext(ICorfuExecutionContext.DEFAULT));
+            }
+        }
+
         return proxy
                 .getUnderlyingObject()
                 .access(o -> {
@@ -9,6 +9,7 @@ import java.util.UUID;
 import lombok.Getter;
 
 import org.corfudb.protocols.logprotocol.SMREntry;
+import org.corfudb.runtime.object.ICorfuExecutionContext;
 import org.corfudb.runtime.object.ICorfuSMR;
 import org.corfudb.runtime.object.ICorfuSMRAccess;
 import org.corfudb.runtime.object.ICorfuSMRProxyInternal;
@@ -45,6 +46,14 @@ public class SnapshotTransactionalContext extends AbstractTransactionalContext {
         // In snapshot transactions, there are no conflicts.
         // Hence, we do not need to add this access to a conflict set
         // do not add: addToReadSet(proxy, conflictObject);
+
+        // Read a published version of the object, if any, without locking the object
+        T version = proxy.getUnderlyingObject()
+                .getPublishedVersion(getSnapshotTimestamp().getSequence());
+        if (version != null) {
+            return accessFunction.access(version.getContext(ICorfuExecutionContext.DEFAULT));
+        }
+
         return proxy.getUnderlyingObject().access(o -> o.getVersionUnsafe()
                         == getSnapshotTimestamp().getSequence()
                         && !o.isOptimisticallyModifiedUnsafe(),
@@ -1,18 +1,18 @@
 package org.corfudb.runtime.view;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
-import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.netty.handler.timeout.TimeoutException;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -35,6 +35,7 @@ import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.WriteSizeException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
+import org.corfudb.runtime.view.replication.IReplicationProtocol;
 import org.corfudb.util.CFUtils;
 import org.corfudb.util.Sleep;
 import org.corfudb.util.Utils;
@@ -51,8 +52,11 @@ import java.util.Map.Entry;
 import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -68,7 +72,8 @@ public class AddressSpaceView extends AbstractView {
     private final static long DEFAULT_MAX_CACHE_ENTRIES = 5000;
 
     /**
-     * A cache for read results.
+     * A cache for read results, bounded either by its number of entries
+     * or by the serialized size of its entries.
      */
     private final Cache<Long, ILogData> readCache;
     private final ReadOptions defaultReadOptions = ReadOptions.builder()
@@ -84,35 +89,38 @@ public class AddressSpaceView extends AbstractView {
     public AddressSpaceView(@Nonnull final CorfuRuntime runtime) {
         super(runtime);
 
-        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+        Caffeine<Long, ILogData> cacheBuilder = Caffeine.newBuilder()
+                .<Long, ILogData>removalListener(this::handleEviction)
+                .executor(Runnable::run)
+                .recordStats();
 
         final boolean cacheDisabled = runtime.getParameters().isCacheDisabled();
         final long maxCacheEntries = runtime.getParameters().getMaxCacheEntries();
         final long maxCacheWeight = runtime.getParameters().getMaxCacheWeight();
-        final int concurrencyLevel = runtime.getParameters().getCacheConcurrencyLevel();
+        final long cacheExpiryTime = runtime.getParameters().getCacheExpiryTime();
 
-        if (maxCacheWeight != 0) {
-            throw new UnsupportedOperationException("Weighing cache is not supported!");
+        if (maxCacheWeight != 0 && maxCacheEntries != 0) {
+            throw new UnsupportedOperationException("The cache can either be bounded by " +
+                    "its number of entries or by its weight, not both!");
         }
 
         if (cacheDisabled) {
             cacheBuilder.maximumSize(0); // Do not allocate memory when cache is disabled.
+        } else if (maxCacheWeight != 0) {
+            cacheBuilder.maximumWeight(maxCacheWeight).weigher(AddressSpaceView::getCacheWeight);
         } else if (maxCacheEntries != 0) {
             cacheBuilder.maximumSize(maxCacheEntries);
-        } else if (maxCacheWeight == 0) {
+        } else {
             // If cache weight/size are not set, then we default to using size based cache.
             cacheBuilder.maximumSize(DEFAULT_MAX_CACHE_ENTRIES);
         }
 
-        if (concurrencyLevel != 0) {
-            cacheBuilder.concurrencyLevel(concurrencyLevel);
+        if (cacheExpiryTime != Long.MAX_VALUE) {
+            cacheBuilder.expireAfterAccess(cacheExpiryTime, TimeUnit.SECONDS)
+                    .expireAfterWrite(cacheExpiryTime, TimeUnit.SECONDS);
         }
 
-        readCache = cacheBuilder.expireAfterAccess(runtime.getParameters().getCacheExpiryTime(), TimeUnit.SECONDS)
-                .expireAfterWrite(runtime.getParameters().getCacheExpiryTime(), TimeUnit.SECONDS)
-                .removalListener(this::handleEviction)
-                .recordStats()
-                .build();
+        readCache = cacheBuilder.build();
 
         Optional<MeterRegistry> metricsRegistry = MeterRegistryProvider.getInstance();
 
@@ -122,12 +130,21 @@ public class AddressSpaceView extends AbstractView {
                 .strongReference(true)
                 .register(registry));
 
-        metricsRegistry.map(registry -> GuavaCacheMetrics.monitor(registry, readCache, "address_space.read_cache"));
+        metricsRegistry.map(registry -> CaffeineCacheMetrics.monitor(registry, readCache, "address_space.read_cache"));
     }
 
-    private void handleEviction(RemovalNotification<Long, ILogData> notification) {
+    /**
+     * The weight of a cached entry is the serialized size of the entry and its key.
+     * This underestimates the heap used by a deserialized entry, especially when its
+     * payload was compressed, so maxCacheWeight only approximately bounds the heap.
+     */
+    private static int getCacheWeight(Long address, ILogData logData) {
+        return logData.getSerializedSizeEstimate() + Long.BYTES;
+    }
+
+    private void handleEviction(Long address, ILogData logData, RemovalCause cause) {
         if (log.isTraceEnabled()) {
-            log.trace("handleEviction: evicting {} cause {}", notification.getKey(), notification.getCause());
+            log.trace("handleEviction: evicting {} cause {}", address, cause);
         }
     }
 
@@ -190,18 +207,47 @@ public class AddressSpaceView extends AbstractView {
      *                             by the token has adopted
      *                             another value.
      * @throws WrongEpochException If the token epoch is invalid.
+     * @see AddressSpaceView#writeAsync(IToken, Object, CacheOption)
      */
     public void write(@Nonnull IToken token, @Nonnull Object data, @Nonnull CacheOption cacheOption) {
+        CFUtils.getUninterruptibly(writeAsync(token, data, cacheOption), UnrecoverableCorfuError.class);
+    }
 
-        Runnable writeRunnable = () -> {
-            ILogData ld;
-            if (data instanceof ILogData) {
-                ld = (ILogData) data;
-            } else {
-                ld = new LogData(DataType.DATA, data, runtime.getParameters().getCodecType());
+    /**
+     * Write the given log data using a token, without blocking
+     * the calling thread. The replicas are written by the replication
+     * protocol as the previous steps complete, so that a single thread
+     * can keep many writes in flight.
+     *
+     * <p>The returned future completes once the write has been completed
+     * successfully, or exceptionally with an OverwriteException if another
+     * value has been adopted, or a WrongEpochException (or StaleTokenException)
+     * if the token epoch is invalid.
+     *
+     * @param token       The token to use for the write.
+     * @param data        The data to write.
+     * @param cacheOption The caching behaviour for this write
+     * @return A future which completes once the write is done.
+     */
+    public CompletableFuture<Void> writeAsync(@Nonnull IToken token, @Nonnull Object data,
+                                              @Nonnull CacheOption cacheOption) {
+        Optional<Timer.Sample> sample = MicroMeterUtils.startTimer();
+        ILogData ld;
+        if (data instanceof ILogData) {
+            ld = (ILogData) data;
+        } else {
+            LogData logData = new LogData(DataType.DATA, data, runtime.getParameters().getCodecType());
+            if (runtime.getParameters().isCompressionDictionaryEnabled()) {
+                runtime.getCompressionDictionaryManager().prepare(logData,
+                        token.getBackpointerMap().keySet().toArray(new UUID[0]));
             }
-            recordLogSizeDist(ld.getSizeEstimate());
-            layoutHelper(e -> {
+            ld = logData;
+        }
+        recordLogSizeDist(ld.getSizeEstimate());
+
+        CompletableFuture<Void> write;
+        try {
+            write = layoutHelper(e -> {
                 Layout l = e.getLayout();
                 // Check if the token issued is in the same
                 // epoch as the layout we are about to write
@@ -214,41 +260,78 @@ public class AddressSpaceView extends AbstractView {
                 ld.useToken(token);
                 ld.setId(runtime.getParameters().getClientId());
 
+                // Errors resolving the replication protocol from the layout are thrown
+                // as is, only the failures of the write itself are validated below.
+                IReplicationProtocol replicationProtocol = l.getReplicationMode(token.getSequence())
+                        .getReplicationProtocol(runtime);
+
                 // Do the write
                 try {
-                    l.getReplicationMode(token.getSequence())
-                            .getReplicationProtocol(runtime)
-                            .write(e, ld);
-                } catch (OverwriteException ex) {
-                    if (ex.getOverWriteCause() == OverwriteCause.SAME_DATA) {
-                        // If we have an overwrite exception with the SAME_DATA cause, it means that the
-                        // server suspects our data has already been written, in this case we need to
-                        // validate the state of the write.
-                        validateStateOfWrittenEntry(token.getSequence(), ld);
-                    } else {
-                        // If we have an Overwrite exception with a different cause than SAME_DATA
-                        // we do not need to validate the state of the write, as we know we have been
-                        // certainly overwritten either by other data, by a hole or the address was trimmed.
-                        // Large writes are also rejected right away.
-                        throw ex;
-                    }
-                } catch (WriteSizeException | QuotaExceededException ie) {
-                    log.warn("write: write failed", ie);
-                    throw ie;
+                    return replicationProtocol.writeAsync(e, ld);
                 } catch (RuntimeException re) {
-                    log.error("write: Got exception during replication protocol write with token: {}", token, re);
-                    validateStateOfWrittenEntry(token.getSequence(), ld);
+                    CompletableFuture<Void> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(re);
+                    return failed;
                 }
-                return null;
             }, true);
+        } catch (RuntimeException re) {
+            // A stale token or a layout error, the write wasn't attempted and there is
+            // nothing to validate
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(re);
+            return failed;
+        }
 
+        CompletableFuture<Void> validatedWrite = write.handle((done, ex) -> {
+            Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+            if (cause instanceof OverwriteException) {
+                if (((OverwriteException) cause).getOverWriteCause() == OverwriteCause.SAME_DATA) {
+                    // If we have an overwrite exception with the SAME_DATA cause, it means that the
+                    // server suspects our data has already been written, in this case we need to
+                    // validate the state of the write.
+                    return validateStateOfWrittenEntryAsync(token.getSequence(), ld);
+                }
+                // If we have an Overwrite exception with a different cause than SAME_DATA
+                // we do not need to validate the state of the write, as we know we have been
+                // certainly overwritten either by other data, by a hole or the address was trimmed.
+                // Large writes are also rejected right away.
+            } else if (cause instanceof WriteSizeException || cause instanceof QuotaExceededException) {
+                log.warn("write: write failed", cause);
+            } else if (cause instanceof RuntimeException) {
+                log.error("write: Got exception during replication protocol write with token: {}",
+                        token, cause);
+                return validateStateOfWrittenEntryAsync(token.getSequence(), ld);
+            }
+            return write;
+        }).thenCompose(Function.identity()).thenRun(() -> {
             // Cache the successful write
             if (cacheOption == CacheOption.WRITE_THROUGH) {
                 readCache.put(token.getSequence(), ld);
             }
-        };
+        });
 
-        MicroMeterUtils.time(writeRunnable, "address_space.write.latency");
+        return MicroMeterUtils.timeWhenCompletes(validatedWrite, sample, "address_space.write.latency");
+    }
+
+    /**
+     * Validates the state of a write after an exception occurred. The validation reads the log,
+     * so it runs on the runtime's async client executor rather than on the thread which completed the write.
+     *
+     * @see AddressSpaceView#validateStateOfWrittenEntry(long, ILogData)
+     */
+    private CompletableFuture<Void> validateStateOfWrittenEntryAsync(long address, @Nonnull ILogData ld) {
+        return CompletableFuture.runAsync(() -> validateStateOfWrittenEntry(address, ld),
+                runtime.getAsyncClientExecutor());
+    }
+
+    /**
+     * Write the given log data without blocking the calling thread, and then
+     * add it to the address space cache (i.e. WRITE_THROUGH option)
+     *
+     * @see AddressSpaceView#writeAsync(IToken, Object, CacheOption)
+     */
+    public CompletableFuture<Void> writeAsync(IToken token, Object data) {
+        return writeAsync(token, data, CacheOption.WRITE_THROUGH);
     }
 
     /**
@@ -414,19 +497,7 @@ public class AddressSpaceView extends AbstractView {
             return loadedValue;
         }
 
-        try {
-            return cache.get(address, () -> loadedValue);
-        } catch (ExecutionException | UncheckedExecutionException e) {
-            // Guava wraps the exceptions thrown from the lower layers, therefore
-            // we need to unwrap them before throwing them to the upper layers that
-            // don't understand the guava exceptions
-            Throwable cause = e.getCause();
-            if (cause instanceof RuntimeException) {
-                throw (RuntimeException) cause;
-            } else {
-                throw new RuntimeException(cause);
-            }
-        }
+        return cache.get(address, key -> loadedValue);
     }
 
     /**
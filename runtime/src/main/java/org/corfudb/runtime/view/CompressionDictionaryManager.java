@@ -0,0 +1,274 @@
+package org.corfudb.runtime.view;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Message;
+import lombok.extern.slf4j.Slf4j;
+import org.corfudb.common.compression.Codec;
+import org.corfudb.common.compression.CompressionDictionaries;
+import org.corfudb.common.compression.ZSTDDictionaryCompression;
+import org.corfudb.protocols.wireprotocol.LogData;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.CorfuStoreMetadata.CompressionDictionary;
+import org.corfudb.runtime.CorfuStoreMetadata.CompressionDictionaryId;
+import org.corfudb.runtime.collections.CorfuStore;
+import org.corfudb.runtime.collections.CorfuStoreEntry;
+import org.corfudb.runtime.collections.Table;
+import org.corfudb.runtime.collections.TableOptions;
+import org.corfudb.runtime.collections.TxnContext;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+
+/**
+ * Trains a ZSTD dictionary from a sample of the payloads written by this runtime, persists it
+ * in a system table and compresses subsequent writes with it. Small payloads (e.g., individual
+ * table updates) share most of their structure, which plain ZSTD can't exploit within a single
+ * payload, so a dictionary significantly improves their compression ratio.
+ *
+ * <p>Dictionary ids are derived from their content and stamped on every entry compressed with
+ * them, so that any reader (or a log replicated to another cluster along with the dictionary
+ * table) can resolve the dictionary from the table.
+ */
+@Slf4j
+public class CompressionDictionaryManager {
+
+    public static final String COMPRESSION_DICTIONARY_TABLE_NAME = "CompressionDictionaryTable";
+
+    // Larger payloads compress well on their own and would dominate the training set.
+    private static final int MAX_SAMPLE_SIZE = 64 * 1024;
+
+    private final CorfuRuntime runtime;
+
+    private final boolean enabled;
+
+    private final int sampleCount;
+
+    private final int dictionarySize;
+
+    // Streams (and checkpoint streams) of the tables of the system namespace, whose writes
+    // must be decodable without resolving a dictionary.
+    private final Set<UUID> systemStreamIds = ConcurrentHashMap.newKeySet();
+
+    // Samples collected so far, guarded by itself.
+    private final List<byte[]> samples = new ArrayList<>();
+
+    // Set once the samples have been handed over for training, or a dictionary was loaded.
+    private final AtomicBoolean sampled = new AtomicBoolean(false);
+
+    private volatile ZSTDDictionaryCompression activeDictionary = null;
+
+    // Runs training and table accesses outside of the caller's transaction context.
+    private final ExecutorService executor;
+
+    private final LongFunction<Optional<byte[]>> loader = this::loadDictionary;
+
+    private volatile Table<CompressionDictionaryId, CompressionDictionary, Message> dictionaryTable = null;
+
+    public CompressionDictionaryManager(@Nonnull CorfuRuntime runtime) {
+        this.runtime = runtime;
+        this.enabled = runtime.getParameters().isCompressionDictionaryEnabled();
+        this.sampleCount = runtime.getParameters().getCompressionDictionarySampleCount();
+        this.dictionarySize = runtime.getParameters().getCompressionDictionarySize();
+        addSystemTable(TableRegistry.REGISTRY_TABLE_NAME);
+        addSystemTable(TableRegistry.PROTOBUF_DESCRIPTOR_TABLE_NAME);
+        addSystemTable(COMPRESSION_DICTIONARY_TABLE_NAME);
+        this.executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("CompressionDictionary-%d")
+                .build());
+
+        // Readers must be able to resolve dictionaries even if this runtime doesn't use them for writes,
+        // in which case the manager is only created once an entry compressed with one is read.
+        CompressionDictionaries.addLoader(loader);
+
+        if (enabled) {
+            executor.submit(this::loadActiveDictionary);
+        }
+    }
+
+    /**
+     * Prepare an entry for write: compress it with the active dictionary if there is one,
+     * otherwise sample its payload to train the dictionary.
+     *
+     * @param logData   entry to be written
+     * @param streamIds streams the entry is written to
+     */
+    public void prepare(@Nonnull LogData logData, @Nonnull UUID... streamIds) {
+        if (!enabled || logData.getPayloadCodecType() != Codec.Type.ZSTD) {
+            return;
+        }
+
+        for (UUID streamId : streamIds) {
+            if (systemStreamIds.contains(streamId)) {
+                return;
+            }
+        }
+
+        ZSTDDictionaryCompression dictionary = activeDictionary;
+        if (dictionary != null) {
+            logData.setPayloadCodecDictionaryId(dictionary.getDictionaryId());
+        } else if (!sampled.get()) {
+            logData.setPayloadSampler(this::addSample);
+        }
+    }
+
+    /**
+     * Exclude the writes to a table of the system namespace (e.g., the registry table) from
+     * dictionary compression.
+     *
+     * @param tableName name of the table within the system namespace
+     */
+    public void addSystemTable(@Nonnull String tableName) {
+        UUID streamId = CorfuRuntime.getStreamID(TableRegistry.getFullyQualifiedTableName(
+                TableRegistry.CORFU_SYSTEM_NAMESPACE, tableName));
+        systemStreamIds.add(streamId);
+        systemStreamIds.add(CorfuRuntime.getCheckpointStreamIdFromId(streamId));
+    }
+
+    /**
+     * Resolve the codec of a dictionary this runtime (or any other) persisted.
+     *
+     * @param dictionaryId dictionary id
+     * @return dictionary codec
+     */
+    public Codec getCodec(long dictionaryId) {
+        return CompressionDictionaries.get(dictionaryId);
+    }
+
+    public void shutdown() {
+        CompressionDictionaries.removeLoader(loader);
+        executor.shutdownNow();
+    }
+
+    private void addSample(byte[] sample) {
+        if (sample.length > MAX_SAMPLE_SIZE) {
+            return;
+        }
+
+        final List<byte[]> trainingSamples;
+        synchronized (samples) {
+            if (sampled.get()) {
+                return;
+            }
+            samples.add(sample);
+            if (samples.size() < sampleCount) {
+                return;
+            }
+            sampled.set(true);
+            trainingSamples = new ArrayList<>(samples);
+            samples.clear();
+        }
+
+        executor.submit(() -> trainDictionary(trainingSamples));
+    }
+
+    private void trainDictionary(List<byte[]> trainingSamples) {
+        try {
+            long startTime = System.currentTimeMillis();
+            byte[] dictionary = ZSTDDictionaryCompression.train(trainingSamples, dictionarySize);
+            ZSTDDictionaryCompression codec = CompressionDictionaries.register(dictionary);
+
+            // Only use the dictionary once readers are able to find it.
+            // Tables can't be opened within a transaction.
+            Table<CompressionDictionaryId, CompressionDictionary, Message> table = getDictionaryTable();
+            CorfuStore corfuStore = new CorfuStore(runtime);
+            try (TxnContext txn = corfuStore.txn(TableRegistry.CORFU_SYSTEM_NAMESPACE)) {
+                txn.putRecord(table,
+                        CompressionDictionaryId.newBuilder().setId(codec.getDictionaryId()).build(),
+                        CompressionDictionary.newBuilder()
+                                .setDictionary(ByteString.copyFrom(dictionary))
+                                .setCreationTime(System.currentTimeMillis())
+                                .build(),
+                        null);
+                txn.commit();
+            }
+
+            activeDictionary = codec;
+            log.info("trainDictionary: trained dictionary {} of {} bytes from {} samples in {}ms",
+                    Long.toHexString(codec.getDictionaryId()), dictionary.length, trainingSamples.size(),
+                    System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("trainDictionary: failed, payloads will be compressed without dictionary", e);
+        }
+    }
+
+    /**
+     * Adopt the latest persisted dictionary, if any, instead of training a new one.
+     */
+    private void loadActiveDictionary() {
+        try {
+            Table<CompressionDictionaryId, CompressionDictionary, Message> table = getDictionaryTable();
+            CorfuStore corfuStore = new CorfuStore(runtime);
+            List<CorfuStoreEntry<CompressionDictionaryId, CompressionDictionary, Message>> entries;
+            try (TxnContext txn = corfuStore.txn(TableRegistry.CORFU_SYSTEM_NAMESPACE)) {
+                entries = txn.executeQuery(table, entry -> true);
+                txn.commit();
+            }
+
+            entries.stream()
+                    .max(Comparator.comparingLong(entry -> entry.getPayload().getCreationTime()))
+                    .ifPresent(entry -> {
+                        sampled.set(true);
+                        activeDictionary = CompressionDictionaries.register(
+                                entry.getPayload().getDictionary().toByteArray());
+                        log.info("loadActiveDictionary: using dictionary {}",
+                                Long.toHexString(activeDictionary.getDictionaryId()));
+                    });
+        } catch (Exception e) {
+            log.error("loadActiveDictionary: failed to load dictionaries", e);
+        }
+    }
+
+    private Optional<byte[]> loadDictionary(long dictionaryId) {
+        try {
+            // Run it in a separate thread since the caller might be within a transaction.
+            return executor.submit(() -> {
+                Table<CompressionDictionaryId, CompressionDictionary, Message> table = getDictionaryTable();
+                CorfuStore corfuStore = new CorfuStore(runtime);
+                try (TxnContext txn = corfuStore.txn(TableRegistry.CORFU_SYSTEM_NAMESPACE)) {
+                    CorfuStoreEntry<CompressionDictionaryId, CompressionDictionary, Message> entry =
+                            txn.getRecord(table,
+                                    CompressionDictionaryId.newBuilder().setId(dictionaryId).build());
+                    txn.commit();
+                    return Optional.ofNullable(entry.getPayload())
+                            .map(dictionary -> dictionary.getDictionary().toByteArray());
+                }
+            }).get(runtime.getParameters().getRequestTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            log.error("loadDictionary: interrupted while loading dictionary {}", Long.toHexString(dictionaryId));
+        } catch (Exception e) {
+            log.error("loadDictionary: failed to load dictionary {}", Long.toHexString(dictionaryId), e);
+        }
+        return Optional.empty();
+    }
+
+    private Table<CompressionDictionaryId, CompressionDictionary, Message> getDictionaryTable()
+            throws ReflectiveOperationException {
+        if (dictionaryTable == null) {
+            synchronized (this) {
+                if (dictionaryTable == null) {
+                    dictionaryTable = new CorfuStore(runtime).openTable(TableRegistry.CORFU_SYSTEM_NAMESPACE,
+                            COMPRESSION_DICTIONARY_TABLE_NAME,
+                            CompressionDictionaryId.class,
+                            CompressionDictionary.class,
+                            null,
+                            TableOptions.builder().build());
+                }
+            }
+        }
+        return dictionaryTable;
+    }
+}
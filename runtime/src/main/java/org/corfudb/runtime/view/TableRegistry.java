@@ -18,6 +18,7 @@ import org.corfudb.runtime.CorfuStoreMetadata.ProtobufFileDescriptor;
 import org.corfudb.runtime.collections.CorfuRecord;
 import org.corfudb.runtime.collections.CorfuTable;
 import org.corfudb.runtime.collections.PersistedStreamingMap;
+import org.corfudb.runtime.collections.PersistentStreamingMap;
 import org.corfudb.runtime.collections.StreamManager;
 import org.corfudb.runtime.collections.StreamingManager;
 import org.corfudb.runtime.collections.StreamingMap;
@@ -127,9 +128,12 @@ public class TableRegistry {
             // This aims to overcome a current design limitation where the serializers are static and not
             // per runtime (to be changed).
             protoSerializer = Serializers.getSerializer(ProtobufSerializer.PROTOBUF_SERIALIZER_CODE);
+            checkRecordFormat(protoSerializer);
         } catch (SerializerException se) {
-            // This means the protobuf serializer had not been registered yet.
-            protoSerializer = new ProtobufSerializer(new ConcurrentHashMap<>());
+            // This means the protobuf serializer had not been registered yet. Being shared, it writes
+            // records in the format chosen by the runtime registering it.
+            protoSerializer = new ProtobufSerializer(new ConcurrentHashMap<>(),
+                    runtime.getParameters().isCompactProtobufRecordsEnabled());
             Serializers.registerSerializer(protoSerializer);
         }
         this.protobufSerializer = protoSerializer;
@@ -174,6 +178,23 @@ public class TableRegistry {
         }
     }
 
+    /**
+     * The protobuf serializer is shared by all the runtimes of the process, so it writes records
+     * in the format chosen by the runtime which registered it. Fail rather than let this runtime
+     * write records in another format than the one it is configured with.
+     *
+     * @param protoSerializer the registered protobuf serializer
+     */
+    private void checkRecordFormat(ISerializer protoSerializer) {
+        boolean compactRecordsEnabled = runtime.getParameters().isCompactProtobufRecordsEnabled();
+        if (protoSerializer instanceof ProtobufSerializer
+                && ((ProtobufSerializer) protoSerializer).isCompactRecordsEnabled() != compactRecordsEnabled) {
+            throw new IllegalStateException(String.format("Runtime has compactProtobufRecordsEnabled=%s, but "
+                            + "the protobuf serializer shared with the other runtimes was registered with %s",
+                    compactRecordsEnabled, !compactRecordsEnabled));
+        }
+    }
+
     /**
      * Register a table in the internal Table Registry.
      *
@@ -401,7 +422,17 @@ public class TableRegistry {
      * @return Type url string.
      */
     public static String getTypeUrl(Descriptor descriptor) {
-        return "type.googleapis.com/" + descriptor.getFullName();
+        return getTypeUrl(descriptor.getFullName());
+    }
+
+    /**
+     * Returns the type url of a protobuf message, given its full name.
+     *
+     * @param messageName Full name of the message, including its package.
+     * @return Type url string.
+     */
+    public static String getTypeUrl(String messageName) {
+        return "type.googleapis.com/" + messageName;
     }
 
     /**
@@ -446,7 +477,7 @@ public class TableRegistry {
         String typeUrl = getTypeUrl(msg.getDescriptorForType());
         // Register the schemas to schema table.
         ((ProtobufSerializer)Serializers.getSerializer(ProtobufSerializer.PROTOBUF_SERIALIZER_CODE))
-                .getClassMap().put(typeUrl, msg.getClass());
+                .registerType(typeUrl, msg.getClass());
     }
 
     /**
@@ -498,7 +529,12 @@ public class TableRegistry {
 
         ICorfuVersionPolicy.VersionPolicy versionPolicy = ICorfuVersionPolicy.DEFAULT;
         Supplier<StreamingMap<K, V>> mapSupplier = () -> new StreamingMapDecorator();
-        if (tableOptions.getPersistentDataPath().isPresent()) {
+        if (tableOptions.isLockFreeReadsEnabled()) {
+            if (tableOptions.getPersistentDataPath().isPresent()) {
+                throw new IllegalArgumentException("Lock free reads are not supported by disk-backed tables.");
+            }
+            mapSupplier = () -> new PersistentStreamingMap<>();
+        } else if (tableOptions.getPersistentDataPath().isPresent()) {
             versionPolicy = ICorfuVersionPolicy.MONOTONIC;
             mapSupplier = () -> new PersistedStreamingMap<>(
                     tableOptions.getPersistentDataPath().get(),
@@ -539,6 +575,10 @@ public class TableRegistry {
                 streamTagsUUIDForTable);
         tableMap.put(fullyQualifiedTableName, (Table<Message, Message, Message>) table);
 
+        if (namespace.equals(CORFU_SYSTEM_NAMESPACE) && runtime.getParameters().isCompressionDictionaryEnabled()) {
+            runtime.getCompressionDictionaryManager().addSystemTable(tableName);
+        }
+
         registerTable(namespace, tableName, kClass, vClass, mClass, tableOptions);
         return table;
     }
@@ -1,6 +1,7 @@
 package org.corfudb.runtime.view.replication;
 
 import com.google.common.collect.Iterables;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.common.metrics.micrometer.MicroMeterUtils;
 import org.corfudb.protocols.wireprotocol.ILogData;
@@ -22,7 +23,11 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -36,41 +41,95 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
     }
 
     /**
-     * {@inheritDoc}
+     * Write data to the member of the chain at the given index, timing the write
+     * once it completes.
      */
-
-    private void doWrite(RuntimeLayout runtimeLayout, long address, int index, Runnable writeRunnable) {
+    private CompletableFuture<Boolean> doWrite(RuntimeLayout runtimeLayout, long address, int index,
+                                               ILogData data) {
         String server = runtimeLayout.getLayout().getStripe(address).getLogServers().get(index);
-        MicroMeterUtils.time(writeRunnable, "chain_replication.write", "node", server);
+        LogUnitClient client = runtimeLayout.getLogUnitClient(server);
+        Optional<Timer.Sample> sample = MicroMeterUtils.startTimer();
+        return MicroMeterUtils.timeWhenCompletes(client.write(data), sample,
+                "chain_replication.write", "node", server);
     }
 
+    /**
+     * Write data to the member of the chain at the given index, completing
+     * with false instead of failing if the address was already written.
+     */
+    private CompletableFuture<Boolean> doWriteIgnoringOverwrite(RuntimeLayout runtimeLayout,
+                                                                long address, int index,
+                                                                ILogData data) {
+        return doWrite(runtimeLayout, address, index, data).handle((written, ex) -> {
+            if (ex == null) {
+                return true;
+            }
+            Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+            if (cause instanceof OverwriteException) {
+                return false;
+            }
+            throw new CompletionException(cause);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The write goes to the head of the chain first, and is then propagated down
+     * the chain. Each step is issued once the previous one completes, without
+     * blocking the calling thread.
+     */
     @Override
-    public void write(RuntimeLayout runtimeLayout, ILogData data) throws OverwriteException {
+    public CompletableFuture<Void> writeAsync(RuntimeLayout runtimeLayout, ILogData data) {
         final long globalAddress = data.getGlobalAddress();
         int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
         // To reduce the overhead of serialization, we serialize only the
-        // first time we write, saving when we go down the chain.
-        try (ILogData.SerializationHandle sh = data.getSerializedForm(true)) {
+        // first time we write, saving when we go down the chain. The serialized
+        // form is released once the whole chain has been written.
+        final ILogData.SerializationHandle sh = data.getSerializedForm(true);
+        try {
             log.trace("Write[{}]: chain head {}/{}", globalAddress, 1, numUnits);
             // In chain replication, we start at the chain head.
-            try {
-                final int headIndex = 0;
-                Runnable writable = () -> CFUtils.getUninterruptibly(
-                        runtimeLayout.getLogUnitClient(globalAddress, headIndex)
-                                .write(sh.getSerialized()),
-                        OverwriteException.class);
-                doWrite(runtimeLayout, globalAddress, headIndex, writable);
-                propagate(runtimeLayout, globalAddress, sh.getSerialized());
-            } catch (OverwriteException oe) {
-                // Some other wrote here (usually due to hole fill)
-                // We need to invoke the recovery protocol, in case
-                // the write wasn't driven to completion.
-                recover(runtimeLayout, globalAddress);
-                throw oe;
-            }
+            final int headIndex = 0;
+            CompletableFuture<Void> write = doWrite(runtimeLayout, globalAddress, headIndex,
+                    sh.getSerialized())
+                    .thenComposeAsync(written -> propagate(runtimeLayout, globalAddress, sh.getSerialized()),
+                            getExecutor(runtimeLayout));
+            return recoverIfOverwritten(runtimeLayout, globalAddress, write)
+                    .whenComplete((done, ex) -> sh.close());
+        } catch (RuntimeException re) {
+            sh.close();
+            throw re;
         }
     }
 
+    /**
+     * Get the executor running each step of a write once the previous one completes, so
+     * that the step isn't issued from the netty event loop which completed the previous one.
+     */
+    private static Executor getExecutor(RuntimeLayout runtimeLayout) {
+        return runtimeLayout.getRuntime().getAsyncClientExecutor();
+    }
+
+    /**
+     * If the given write fails because another client wrote to the head of the chain
+     * (usually due to hole fill), invoke the recovery protocol, in case the other
+     * write wasn't driven to completion.
+     *
+     * @return a future which completes like the given write, once the recovery is done
+     */
+    private CompletableFuture<Void> recoverIfOverwritten(RuntimeLayout runtimeLayout,
+                                                         long globalAddress,
+                                                         CompletableFuture<Void> write) {
+        return write.handleAsync((done, ex) -> {
+            Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+            if (cause instanceof OverwriteException) {
+                return recover(runtimeLayout, globalAddress).thenCompose(recovered -> write);
+            }
+            return write;
+        }, getExecutor(runtimeLayout)).thenCompose(Function.identity());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -244,37 +303,35 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
      * @param runtimeLayout the epoch stamped client containing the layout to use for propagation.
      * @param globalAddress the global address to start writing at.
      * @param data          the data to propagate, or NULL, if it is to be a hole.
+     * @return a future which completes once the write reached the tail of the chain.
      */
-    private void propagate(RuntimeLayout runtimeLayout,
-                           long globalAddress,
-                           @Nullable ILogData data) {
+    private CompletableFuture<Void> propagate(RuntimeLayout runtimeLayout,
+                                              long globalAddress,
+                                              @Nullable ILogData data) {
         int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
+        CompletableFuture<Void> propagated = CompletableFuture.completedFuture(null);
         for (int i = 1; i < numUnits; i++) {
-            log.trace("Propagate[{}]: chain {}/{}", Token.of(runtimeLayout.getLayout().getEpoch(),
-                    globalAddress),
-                    i + 1, numUnits);
-            // In chain replication, we write synchronously to every unit
-            // in the chain.
-            try {
-                Runnable writable;
-                final int writableIndex = i;
-                if (data != null) {
-                    writable = () -> CFUtils.getUninterruptibly(
-                            runtimeLayout.getLogUnitClient(globalAddress, writableIndex)
-                                    .write(data),
-                            OverwriteException.class);
-                } else {
+            final int writableIndex = i;
+            // In chain replication, we write to every unit in the chain
+            // once the previous unit has been written.
+            propagated = propagated.thenComposeAsync(previous -> {
+                log.trace("Propagate[{}]: chain {}/{}", Token.of(runtimeLayout.getLayout().getEpoch(),
+                        globalAddress),
+                        writableIndex + 1, numUnits);
+                ILogData writable = data;
+                if (data == null) {
                     Token token = new Token(runtimeLayout.getLayout().getEpoch(), globalAddress);
-                    LogData hole = LogData.getHole(token);
-                    writable = () -> CFUtils.getUninterruptibly(runtimeLayout
-                            .getLogUnitClient(globalAddress, writableIndex)
-                            .write(hole), OverwriteException.class);
+                    writable = LogData.getHole(token);
                 }
-                doWrite(runtimeLayout, globalAddress, i, writable);
-            } catch (OverwriteException oe) {
-                log.info("Propagate[{}]: Completed by other writer", globalAddress);
-            }
+                return doWriteIgnoringOverwrite(runtimeLayout, globalAddress, writableIndex, writable)
+                        .thenAccept(written -> {
+                            if (!written) {
+                                log.info("Propagate[{}]: Completed by other writer", globalAddress);
+                            }
+                        });
+            }, getExecutor(runtimeLayout));
         }
+        return propagated;
     }
 
     /**
@@ -293,7 +350,7 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
      * @param runtimeLayout the RuntimeLayout to use for the recovery.
      * @param globalAddress the global address to drive the recovery protocol
      */
-    private void recover(RuntimeLayout runtimeLayout, long globalAddress) {
+    private CompletableFuture<Void> recover(RuntimeLayout runtimeLayout, long globalAddress) {
         final Layout layout = runtimeLayout.getLayout();
         // In chain replication, we started writing from the head,
         // and propagated down to the tail. To recover, we start
@@ -303,38 +360,43 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         log.warn("Recover[{}]: read chain head {}/{}", Token.of(runtimeLayout.getLayout().getEpoch()
                 , globalAddress),
                 1, numUnits);
-        ILogData ld = CFUtils.getUninterruptibly(runtimeLayout
-                .getLogUnitClient(globalAddress, 0)
-                .read(globalAddress)).getAddresses().getOrDefault(globalAddress, null);
-        // If nothing was at the head, this is a bug and we
-        // should fail with a runtime exception, as there
-        // was nothing to recover - if the head was removed
-        // due to a reconfiguration, a network exception
-        // would have been thrown and the client should have
-        // retried it's operation (in this case of a write,
-        // it should have read to determine whether the
-        // write was successful or not.
-        if (ld == null || ld.isEmpty()) {
-            throw new RecoveryException("Failed to read data during recovery at chain head.");
-        }
-        // now we go down the chain and write, ignoring any overwrite exception we get.
-        for (int i = 1; i < numUnits; i++) {
-            log.debug("Recover[{}]: write chain {}/{}", layout, i + 1, numUnits);
-            final int writableIndex = i;
-            // In chain replication, we write synchronously to every unit in the chain.
-            try {
-                Runnable writable = () -> CFUtils.getUninterruptibly(
-                        runtimeLayout.getLogUnitClient(globalAddress, writableIndex).write(ld),
-                        OverwriteException.class);
-                doWrite(runtimeLayout, globalAddress, writableIndex, writable);
-                // We successfully recovered a write to this member of the chain
-                log.debug("Recover[{}]: recovered write at chain {}/{}", layout, i + 1, numUnits);
-            } catch (OverwriteException oe) {
-                // This member already had this data (in some cases, the write might have
-                // been committed to all members, so this is normal).
-                log.debug("Recover[{}]: overwritten at chain {}/{}", layout, i + 1, numUnits);
+        return runtimeLayout.getLogUnitClient(globalAddress, 0).read(globalAddress).thenComposeAsync(response -> {
+            ILogData ld = response.getAddresses().getOrDefault(globalAddress, null);
+            // If nothing was at the head, this is a bug and we
+            // should fail with a runtime exception, as there
+            // was nothing to recover - if the head was removed
+            // due to a reconfiguration, a network exception
+            // would have been thrown and the client should have
+            // retried it's operation (in this case of a write,
+            // it should have read to determine whether the
+            // write was successful or not.
+            if (ld == null || ld.isEmpty()) {
+                throw new RecoveryException("Failed to read data during recovery at chain head.");
             }
-        }
+            // now we go down the chain and write, ignoring any overwrite exception we get.
+            CompletableFuture<Void> recovered = CompletableFuture.completedFuture(null);
+            for (int i = 1; i < numUnits; i++) {
+                final int writableIndex = i;
+                // In chain replication, we write to every unit in the chain in turn.
+                recovered = recovered.thenComposeAsync(previous -> {
+                    log.debug("Recover[{}]: write chain {}/{}", layout, writableIndex + 1, numUnits);
+                    return doWriteIgnoringOverwrite(runtimeLayout, globalAddress, writableIndex, ld)
+                            .thenAccept(written -> {
+                                if (written) {
+                                    // We successfully recovered a write to this member of the chain
+                                    log.debug("Recover[{}]: recovered write at chain {}/{}",
+                                            layout, writableIndex + 1, numUnits);
+                                } else {
+                                    // This member already had this data (in some cases, the write
+                                    // might have been committed to all members, so this is normal).
+                                    log.debug("Recover[{}]: overwritten at chain {}/{}",
+                                            layout, writableIndex + 1, numUnits);
+                                }
+                            });
+                }, getExecutor(runtimeLayout));
+            }
+            return recovered;
+        }, getExecutor(runtimeLayout));
     }
 
     /**
@@ -345,21 +407,20 @@ public class ChainReplicationProtocol extends AbstractReplicationProtocol {
         int numUnits = runtimeLayout.getLayout().getSegmentLength(globalAddress);
         log.warn("fillHole[{}]: chain head {}/{}", Token.of(runtimeLayout.getLayout().getEpoch(), globalAddress),
                 1, numUnits);
-        // In chain replication, we write synchronously to every unit in
-        // the chain.
+        // In chain replication, we write to every unit in the chain in turn.
+        Token token = new Token(runtimeLayout.getLayout().getEpoch(), globalAddress);
+        LogData hole = LogData.getHole(token);
+        final int headIndex = 0;
+        CompletableFuture<Void> holeFill = doWrite(runtimeLayout, globalAddress, headIndex, hole)
+                .thenComposeAsync(written -> propagate(runtimeLayout, globalAddress, null),
+                        getExecutor(runtimeLayout));
         try {
-            Token token = new Token(runtimeLayout.getLayout().getEpoch(), globalAddress);
-            LogData hole = LogData.getHole(token);
-            final int headIndex = 0;
-            Runnable writable = () -> CFUtils.getUninterruptibly(runtimeLayout
-                    .getLogUnitClient(globalAddress, headIndex)
-                    .write(hole), OverwriteException.class);
-            doWrite(runtimeLayout, globalAddress, headIndex, writable);
-            propagate(runtimeLayout, globalAddress, null);
+            CFUtils.getUninterruptibly(recoverIfOverwritten(runtimeLayout, globalAddress, holeFill),
+                    OverwriteException.class);
         } catch (OverwriteException oe) {
-            // The hole-fill failed. We must ensure the other writer's
-            // value is adopted before returning.
-            recover(runtimeLayout, globalAddress);
+            // The hole-fill failed, and the other writer's
+            // value has been adopted by the recovery.
+            log.debug("fillHole[{}]: adopted the value of another writer", globalAddress);
         }
     }
 }
@@ -3,10 +3,12 @@ package org.corfudb.runtime.view.replication;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.view.RuntimeLayout;
+import org.corfudb.util.CFUtils;
 
 import javax.annotation.Nonnull;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -36,7 +38,24 @@ public interface IReplicationProtocol {
      * @throws OverwriteException If a write was committed to the log and
      *                            it was not the result of this call.
      */
-    void write(RuntimeLayout runtimeLayout, ILogData data) throws OverwriteException;
+    default void write(RuntimeLayout runtimeLayout, ILogData data) throws OverwriteException {
+        CFUtils.getUninterruptibly(writeAsync(runtimeLayout, data), OverwriteException.class);
+    }
+
+    /**
+     * Write data to the log at the given address, without blocking
+     * the calling thread.
+     *
+     * <p>The returned future completes once -a- write at the global
+     * address is committed to the log. It completes normally if the
+     * committed write was this write, and exceptionally with an
+     * OverwriteException otherwise.
+     *
+     * @param runtimeLayout the RuntimeLayout stamped with layout to use for the write.
+     * @param data          the ILogData to write to the log.
+     * @return a future which completes once a write at the global address is committed.
+     */
+    CompletableFuture<Void> writeAsync(RuntimeLayout runtimeLayout, ILogData data);
 
     /**
      * Read data from a given address.
@@ -180,6 +180,9 @@ public abstract class AbstractQueuedStreamView extends
                        Function<TokenResponse, Boolean> acquisitionCallback,
                        Function<TokenResponse, Boolean> deacquisitionCallback) {
         final LogData ld = new LogData(DataType.DATA, object, runtime.getParameters().getCodecType());
+        if (runtime.getParameters().isCompressionDictionaryEnabled()) {
+            runtime.getCompressionDictionaryManager().prepare(ld, getId());
+        }
 
         // Opening serialization handle before acquiring token, this way we prevent the
         // readers to wait for the possibly long serialization time in writer.
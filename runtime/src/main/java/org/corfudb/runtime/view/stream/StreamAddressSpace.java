@@ -11,6 +11,8 @@ import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Set;
 import java.util.function.LongConsumer;
 
@@ -35,6 +37,9 @@ final public class StreamAddressSpace {
     // Holds the complete map of addresses for this stream.
     private Roaring64NavigableMap bitmap;
 
+    // The low 32 bits of an address, which are stored in the same bucket of the bitmap.
+    private static final long BUCKET_MASK = 0xFFFFFFFFL;
+
     /**
      * This constructor is required to facilitate deserialization, keep it private.
      * The internal bitmap container shouldn't be exposed to external consumers.
@@ -78,8 +83,23 @@ final public class StreamAddressSpace {
      * @return returns a as the merged StreamAddressSpace
      */
     public static StreamAddressSpace merge(StreamAddressSpace a, StreamAddressSpace b) {
-        long newTrimMark = Long.max(a.getTrimMark(), b.getTrimMark());
-        a.bitmap.or(b.bitmap);
+        return merge(a, Collections.singletonList(b));
+    }
+
+    /**
+     * Merges all the address spaces in others into a and returns a as the final result.
+     * The bitmaps are merged first, so that the merged address space is trimmed only once.
+     *
+     * @param a      StreamAddressSpace to merge into
+     * @param others StreamAddressSpaces to merge
+     * @return returns a as the merged StreamAddressSpace
+     */
+    public static StreamAddressSpace merge(StreamAddressSpace a, Collection<StreamAddressSpace> others) {
+        long newTrimMark = a.getTrimMark();
+        for (StreamAddressSpace b : others) {
+            newTrimMark = Long.max(newTrimMark, b.getTrimMark());
+            a.bitmap.or(b.bitmap);
+        }
 
         // Because the trim mark can increase after the merge another
         // trim needs to be issued
@@ -147,6 +167,19 @@ final public class StreamAddressSpace {
         bitmap.addLong(address);
     }
 
+    /**
+     * Add a range of addresses to this address space.
+     *
+     * @param start first address of the range (inclusive)
+     * @param end   end of the range (exclusive)
+     */
+    public void addRange(long start, long end) {
+        if (start <= this.trimMark || Address.nonAddress(start) || end < start) {
+            throw new IllegalArgumentException("Range=[" + start + ", " + end + ") TrimMark=" + this.trimMark);
+        }
+        addRange(bitmap, start, end);
+    }
+
     /**
      * Trim all addresses lower or equal to trimMark and set new trim mark.
      *
@@ -204,6 +237,23 @@ final public class StreamAddressSpace {
      * @param start start address (inclusive)
      * @param end end address (exclusive)
      */
+    private static void addRange(Roaring64NavigableMap toAdd, long start, long end) {
+        // Only add ranges that are within a single 32-bit bucket of the bitmap, and
+        // that don't end on a bucket boundary, the last address of a bucket is added
+        // on its own.
+        long rangeStart = start;
+        while (rangeStart < end) {
+            final long bucketLast = rangeStart | BUCKET_MASK;
+            final long rangeEnd = Math.min(end, bucketLast);
+            if (rangeStart < rangeEnd) {
+                toAdd.add(rangeStart, rangeEnd);
+            }
+            if (end > bucketLast) {
+                toAdd.addLong(bucketLast);
+            }
+            rangeStart = bucketLast + 1;
+        }
+    }
 
     /**
      * Get addresses in range (end, start], where start > end.
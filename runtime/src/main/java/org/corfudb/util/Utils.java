@@ -6,6 +6,7 @@ import static com.google.common.base.Preconditions.checkState;
 
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -348,7 +349,7 @@ public class Utils {
     // coalesce the candidates to unique nodes only
     Set<String> segmentsHeadNodes = getChainHeadFromAllSegments(runtimeLayout.getLayout());
     AtomicLong globalTail = new AtomicLong(Address.NON_EXIST);
-    final Map<UUID, StreamAddressSpace> streamsAddressSpace = new HashMap<>();
+    final Map<UUID, List<StreamAddressSpace>> streamsAddressSpaces = new HashMap<>();
     List<CompletableFuture<StreamsAddressResponse>> cfs =
         segmentsHeadNodes.stream()
             .map(node -> runtimeLayout.getLogUnitClient(node).getLogAddressSpace())
@@ -363,9 +364,14 @@ public class Utils {
               // Find the global max global tail and stream tails across all responses
               globalTail.set(Long.max(resp.getLogTail(), globalTail.get()));
               resp.getAddressMap()
-                  .forEach((k, v) -> streamsAddressSpace.merge(k, v, StreamAddressSpace::merge));
+                  .forEach((k, v) -> streamsAddressSpaces.computeIfAbsent(k, id -> new ArrayList<>()).add(v));
             });
 
+    // Merge the address spaces of each stream at once
+    final Map<UUID, StreamAddressSpace> streamsAddressSpace = new HashMap<>();
+    streamsAddressSpaces.forEach((id, addressSpaces) -> streamsAddressSpace.put(id,
+        StreamAddressSpace.merge(addressSpaces.get(0), addressSpaces.subList(1, addressSpaces.size()))));
+
     log.debug(
         "getLogAddressSpace: nodes selected {} log tail {} stream addresses {}",
         segmentsHeadNodes,
@@ -30,6 +30,7 @@ import org.corfudb.runtime.collections.CorfuTable;
 import org.corfudb.runtime.collections.CorfuDynamicRecord;
 import org.corfudb.runtime.exceptions.SerializerException;
 import org.corfudb.runtime.view.ObjectOpenOption;
+import org.corfudb.util.serializer.ProtobufSerializer.DecodedRecord;
 import org.corfudb.util.serializer.ProtobufSerializer.MessageType;
 
 import java.io.IOException;
@@ -64,6 +65,8 @@ import static org.corfudb.runtime.view.TableRegistry.PROTOBUF_DESCRIPTOR_TABLE_N
  * message name. Using this message name we build the FileDescriptor recursively to deserialize the byteString.
  * On serialization, we create the Any message ot be persisted. The typeUrl is provided from {@link CorfuDynamicKey}
  * or {@link CorfuDynamicRecord}.
+ * Records written in the compact format of the {@link ProtobufSerializer} are read as well, their type ids are
+ * mapped to the typeUrls of the messages in the registry.
  */
 @Slf4j
 public class DynamicProtobufSerializer implements ISerializer {
@@ -86,6 +89,12 @@ public class DynamicProtobufSerializer implements ISerializer {
      */
     private final ConcurrentMap<String, String> messagesFdProtoNameMap = new ConcurrentHashMap<>();
 
+    /**
+     * This map is generated on initialization.
+     * Maps the type ids of the messages in the FileDescriptorProtos to their typeUrls.
+     */
+    private final ConcurrentMap<Long, String> typeUrlMap = new ConcurrentHashMap<>();
+
     /**
      * This is used as a file descriptor cache. Used for optimization.
      */
@@ -192,6 +201,8 @@ public class DynamicProtobufSerializer implements ISerializer {
                 messageName = fileDescriptorProto.getPackage() + "." + descriptorProto.getName();
             }
             messagesFdProtoNameMap.putIfAbsent(messageName, fileDescriptorProto.getName());
+            String typeUrl = getTypeUrl(messageName);
+            typeUrlMap.putIfAbsent(ProtobufSerializer.getTypeId(typeUrl), typeUrl);
         }
     }
 
@@ -237,7 +248,10 @@ public class DynamicProtobufSerializer implements ISerializer {
      * @return Message name.
      */
     private String getMessageName(Any message) {
-        String typeUrl = message.getTypeUrl();
+        return getMessageName(message.getTypeUrl());
+    }
+
+    private String getMessageName(String typeUrl) {
         String messageName = typeUrl.substring(typeUrl.lastIndexOf('.') + 1);
         if (messageName.contains("/")) {
             // In case the message lacks package name
@@ -256,10 +270,35 @@ public class DynamicProtobufSerializer implements ISerializer {
      * @return Full name of the message.
      */
     private String getFullMessageName(Any message) {
-        String typeUrl = message.getTypeUrl();
+        return getFullMessageName(message.getTypeUrl());
+    }
+
+    private String getFullMessageName(String typeUrl) {
         return typeUrl.substring(typeUrl.lastIndexOf('/') + 1);
     }
 
+    /**
+     * Creates a builder for the messages of a type, identified by its type id.
+     *
+     * @param typeId Type id of the message.
+     * @return Builder of the message.
+     */
+    private DynamicMessage.Builder newBuilder(long typeId) {
+        String typeUrl = typeUrlMap.get(typeId);
+        if (typeUrl == null) {
+            throw new SerializerException("DynamicProtobufSerializer type id " + typeId
+                    + " was never seen in registry");
+        }
+
+        try {
+            FileDescriptor fileDescriptor = getDescriptor(messagesFdProtoNameMap.get(getFullMessageName(typeUrl)));
+            return DynamicMessage.newBuilder(fileDescriptor.findMessageTypeByName(getMessageName(typeUrl)));
+        } catch (DescriptorValidationException e) {
+            log.error("Exception during deserialization!", e);
+            throw new SerializerException(e);
+        }
+    }
+
     public DynamicMessage createDynamicMessageFromJson(Any anyMsg,
         String jsonString) {
         FileDescriptor fileDescriptor;
@@ -299,9 +338,20 @@ public class DynamicProtobufSerializer implements ISerializer {
      */
     @Override
     public Object deserialize(ByteBuf b, CorfuRuntime rt) {
+        MessageType type = MessageType.valueOf(b.readInt());
+        if (type == MessageType.COMPACT_KEY || type == MessageType.COMPACT_VALUE) {
+            DecodedRecord record = ProtobufSerializer.readCompactRecord(b, this::newBuilder);
+            DynamicMessage value = (DynamicMessage) record.payload;
+            if (type == MessageType.COMPACT_KEY) {
+                return new CorfuDynamicKey(getTypeUrl(value.getDescriptorForType()), value);
+            }
+
+            DynamicMessage metadata = (DynamicMessage) record.metadata;
+            return new CorfuDynamicRecord(getTypeUrl(value.getDescriptorForType()), value,
+                    metadata == null ? null : getTypeUrl(metadata.getDescriptorForType()), metadata);
+        }
 
         try (ByteBufInputStream bbis = new ByteBufInputStream(b)) {
-            MessageType type = MessageType.valueOf(bbis.readInt());
             int size = bbis.readInt();
             byte[] data = new byte[size];
             bbis.readFully(data);
@@ -138,13 +138,25 @@ public interface ISerializer {
             // serializer then hashing.
             long hash;
             ByteBuf b = Unpooled.buffer();
-            serialize(o, b);
+            serializeForHash(o, b);
             hash = LongHashFunction.xx().hashBytes(b.nioBuffer());
             b.release();
             return Utils.longToBigEndianByteArray(hash);
         }
     }
 
+    /**
+     * Serialize an object into a given byte buffer, to generate its hash.
+     * Serializers whose format may vary override this, so that the hash of an
+     * object doesn't depend on the format it is written in.
+     *
+     * @param o The object to serialize.
+     * @param b The bytebuf to serialize it into.
+     */
+    default void serializeForHash(Object o, ByteBuf b) {
+        serialize(o, b);
+    }
+
     /**
      * Clone an object through serialization.
      *
@@ -1,24 +1,41 @@
 package org.corfudb.util.serializer;
 
+import com.google.common.hash.Hashing;
 import com.google.protobuf.Any;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.Internal;
 import com.google.protobuf.Message;
+import com.google.protobuf.WireFormat;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
 import io.netty.buffer.ByteBufOutputStream;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongFunction;
 
 import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.CorfuStoreMetadata.CompactRecord;
 import org.corfudb.runtime.CorfuStoreMetadata.Record;
 import org.corfudb.runtime.collections.CorfuRecord;
 import lombok.extern.slf4j.Slf4j;
 import org.corfudb.runtime.exceptions.SerializerException;
 
+import javax.annotation.Nullable;
+
+import static org.corfudb.runtime.view.TableRegistry.getTypeUrl;
+
 /**
  * The Protobuf serializer is the main component that allows CorfuStore to use Protobufs to
  * convert a language specific (Java here) object into an identifiable byte buffer that
@@ -29,6 +46,12 @@ import org.corfudb.runtime.exceptions.SerializerException;
  * Any type carries with it a typeUrl which helps identify the class uniquely.
  * This typeUrl is then used to index the classMap to retrieve the actual Protobuf message
  * while deserializing.
+ * <p>
+ * Optionally, records are written in a compact format, in which the type of each message is
+ * identified by a type id derived from its typeUrl, rather than by the typeUrl itself. Since
+ * the ids are derived rather than assigned, the records can be read by any client and in any
+ * cluster the type is registered in, as long as the client reads this format. Records of
+ * either format are read.
  */
 @Slf4j
 public class ProtobufSerializer implements ISerializer {
@@ -37,17 +60,65 @@ public class ProtobufSerializer implements ISerializer {
 
     public static final byte PROTOBUF_SERIALIZER_CODE = (byte) 25;
 
+    private static final int PAYLOAD_TYPE_TAG = makeTag(
+            CompactRecord.PAYLOAD_TYPE_FIELD_NUMBER, WireFormat.WIRETYPE_FIXED64);
+
+    private static final int PAYLOAD_TAG = makeTag(
+            CompactRecord.PAYLOAD_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+    private static final int METADATA_TYPE_TAG = makeTag(
+            CompactRecord.METADATA_TYPE_FIELD_NUMBER, WireFormat.WIRETYPE_FIXED64);
+
+    private static final int METADATA_TAG = makeTag(
+            CompactRecord.METADATA_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
     @Getter
     private final ConcurrentMap<String, Class<? extends Message>> classMap;
 
+    /**
+     * Whether records are written in the compact format, which clients of
+     * previous versions can't read.
+     */
+    @Getter
+    private final boolean compactRecordsEnabled;
+
+    /**
+     * Maps the type ids to the typeUrls of the registered types.
+     */
+    private final ConcurrentMap<Long, String> typeUrlMap = new ConcurrentHashMap<>();
+
+    /**
+     * Caches the type ids of the serialized message types.
+     */
+    private final ConcurrentMap<Descriptor, Long> typeIdCache = new ConcurrentHashMap<>();
+
+    /**
+     * Caches the default instances of the deserialized types, by type id.
+     */
+    private final ConcurrentMap<Long, Message> defaultInstanceCache = new ConcurrentHashMap<>();
+
     public ProtobufSerializer(ConcurrentMap<String, Class<? extends Message>> classMap) {
+        this(classMap, false);
+    }
+
+    public ProtobufSerializer(ConcurrentMap<String, Class<? extends Message>> classMap,
+                              boolean compactRecordsEnabled) {
         this.type = PROTOBUF_SERIALIZER_CODE;
         this.classMap = classMap;
+        this.compactRecordsEnabled = compactRecordsEnabled;
+        classMap.keySet().forEach(this::registerTypeId);
+    }
+
+    private static int makeTag(int fieldNumber, int wireType) {
+        // The low three bits of a tag hold the wire type.
+        return (fieldNumber << 3) | wireType;
     }
 
     enum MessageType {
         KEY(1),
-        VALUE(2);
+        VALUE(2),
+        COMPACT_KEY(3),
+        COMPACT_VALUE(4);
 
         static final Map<Integer, MessageType> valToTypeMap = new HashMap<>();
 
@@ -73,6 +144,69 @@ public class ProtobufSerializer implements ISerializer {
         return type;
     }
 
+    /**
+     * Returns the id identifying a type in serialized records.
+     *
+     * @param typeUrl typeUrl of the type
+     * @return the type id
+     */
+    public static long getTypeId(String typeUrl) {
+        return Hashing.murmur3_128().hashString(typeUrl, StandardCharsets.UTF_8).asLong();
+    }
+
+    /**
+     * Registers a type, so that the records holding messages of this type can be deserialized.
+     *
+     * @param typeUrl typeUrl of the type
+     * @param clazz   message class of the type
+     */
+    public void registerType(String typeUrl, Class<? extends Message> clazz) {
+        registerTypeId(typeUrl);
+        classMap.put(typeUrl, clazz);
+    }
+
+    private void registerTypeId(String typeUrl) {
+        String registeredTypeUrl = typeUrlMap.putIfAbsent(getTypeId(typeUrl), typeUrl);
+        if (registeredTypeUrl != null && !registeredTypeUrl.equals(typeUrl)) {
+            throw new SerializerException("Type id of " + typeUrl + " is already used by "
+                    + registeredTypeUrl);
+        }
+    }
+
+    private Class<? extends Message> getClass(String typeUrl) {
+        if (!classMap.containsKey(typeUrl)) {
+            log.error("Deserialization error: Encountered a log update for this class "+typeUrl
+                    +" but its corresponding class type cannot be found in in-memory type map. Dumping map..\n");
+            for (String entry: classMap.keySet()) {
+                log.error(entry + "=>" + classMap.get(entry));
+            }
+            throw new SerializerException(typeUrl+" not in map!");
+        }
+        return classMap.get(typeUrl);
+    }
+
+    private Message.Builder newBuilder(long typeId) {
+        return defaultInstanceCache.computeIfAbsent(typeId, this::getDefaultInstance).newBuilderForType();
+    }
+
+    private Message getDefaultInstance(long typeId) {
+        String typeUrl = typeUrlMap.get(typeId);
+        if (typeUrl == null) {
+            // The type may have been added to the class map directly.
+            classMap.keySet().forEach(this::registerTypeId);
+            typeUrl = typeUrlMap.get(typeId);
+        }
+        if (typeUrl == null) {
+            throw new SerializerException("Type id " + typeId + " not in map!");
+        }
+        return Internal.getDefaultInstance(getClass(typeUrl));
+    }
+
+    private long getTypeId(Message message) {
+        return typeIdCache.computeIfAbsent(message.getDescriptorForType(),
+                descriptor -> getTypeId(getTypeUrl(descriptor)));
+    }
+
     /**
      * Deserialize an object from a given byte buffer.
      *
@@ -81,23 +215,20 @@ public class ProtobufSerializer implements ISerializer {
      */
     @Override
     public Object deserialize(ByteBuf b, CorfuRuntime rt) {
+        MessageType type = MessageType.valueOf(b.readInt());
+        if (type == MessageType.COMPACT_KEY || type == MessageType.COMPACT_VALUE) {
+            DecodedRecord record = readCompactRecord(b, this::newBuilder);
+            return type == MessageType.COMPACT_KEY
+                    ? record.payload : new CorfuRecord(record.payload, record.metadata);
+        }
 
         try (ByteBufInputStream bbis = new ByteBufInputStream(b)) {
-            MessageType type = MessageType.valueOf(bbis.readInt());
             int size = bbis.readInt();
             byte[] data = new byte[size];
             bbis.readFully(data);
             Record record = Record.parseFrom(data);
             Any payload = record.getPayload();
-            if (!classMap.containsKey(payload.getTypeUrl())) {
-                log.error("Deserialization error: Encountered a log update for this class "+payload.getTypeUrl()
-                        +" but its corresponding class type cannot be found in in-memory type map. Dumping map..\n");
-                for (String entry: classMap.keySet()) {
-                    log.error(entry + "=>" + classMap.get(entry));
-                }
-                throw new SerializerException(payload.getTypeUrl()+" not in map!");
-            }
-            Message value = payload.unpack(classMap.get(payload.getTypeUrl()));
+            Message value = payload.unpack(getClass(payload.getTypeUrl()));
 
             if (type.equals(MessageType.KEY)) {
                 return value;
@@ -123,7 +254,36 @@ public class ProtobufSerializer implements ISerializer {
      */
     @Override
     public void serialize(Object o, ByteBuf b) {
+        if (!compactRecordsEnabled) {
+            serializeWithTypeUrls(o, b);
+        } else if (o instanceof CorfuRecord) {
+            CorfuRecord corfuRecord = (CorfuRecord) o;
+            Message payload = corfuRecord.getPayload();
+            Message metadata = corfuRecord.getMetadata();
+            writeCompactRecord(b, MessageType.COMPACT_VALUE, getTypeId(payload), payload,
+                    metadata == null ? 0L : getTypeId(metadata), metadata);
+        } else {
+            Message key = (Message) o;
+            writeCompactRecord(b, MessageType.COMPACT_KEY, getTypeId(key), key, 0L, null);
+        }
+    }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Conflicts are always hashed over the records in the format with typeUrls, so that
+     * clients writing either format (or of previous versions) derive the same conflict keys.
+     */
+    @Override
+    public void serializeForHash(Object o, ByteBuf b) {
+        serializeWithTypeUrls(o, b);
+    }
+
+    /**
+     * Serializes an object into a record holding its messages packed in Any, along with
+     * their typeUrls.
+     */
+    private void serializeWithTypeUrls(Object o, ByteBuf b) {
         Record record;
         MessageType type;
 
@@ -156,4 +316,112 @@ public class ProtobufSerializer implements ISerializer {
             throw new SerializerException(ie);
         }
     }
+
+    /**
+     * The messages of a record.
+     */
+    @RequiredArgsConstructor
+    static class DecodedRecord {
+        final Message payload;
+        @Nullable
+        final Message metadata;
+    }
+
+    /**
+     * Writes a record in the compact format. The messages are written directly into the
+     * buffer, without being copied first.
+     *
+     * @param b            buffer to write the record into
+     * @param type         type of the record, either {@link MessageType#COMPACT_KEY} or
+     *                     {@link MessageType#COMPACT_VALUE}
+     * @param payloadType  type id of the payload
+     * @param payload      payload of the record
+     * @param metadataType type id of the metadata
+     * @param metadata     metadata of the record, if any
+     */
+    static void writeCompactRecord(ByteBuf b, MessageType type, long payloadType, Message payload,
+                                   long metadataType, @Nullable Message metadata) {
+        int size = CodedOutputStream.computeFixed64Size(CompactRecord.PAYLOAD_TYPE_FIELD_NUMBER, payloadType)
+                + CodedOutputStream.computeMessageSize(CompactRecord.PAYLOAD_FIELD_NUMBER, payload);
+        if (metadata != null) {
+            size += CodedOutputStream.computeFixed64Size(CompactRecord.METADATA_TYPE_FIELD_NUMBER, metadataType)
+                    + CodedOutputStream.computeMessageSize(CompactRecord.METADATA_FIELD_NUMBER, metadata);
+        }
+
+        b.writeInt(type.val);
+        b.writeInt(size);
+        b.ensureWritable(size);
+
+        try {
+            if (b.nioBufferCount() == 1) {
+                // The buffer is contiguous, so the record is written in place.
+                ByteBuffer out = b.nioBuffer(b.writerIndex(), size);
+                writeCompactRecord(CodedOutputStream.newInstance(out),
+                        payloadType, payload, metadataType, metadata);
+                b.writerIndex(b.writerIndex() + size);
+            } else {
+                byte[] out = new byte[size];
+                writeCompactRecord(CodedOutputStream.newInstance(out),
+                        payloadType, payload, metadataType, metadata);
+                b.writeBytes(out);
+            }
+        } catch (IOException ie) {
+            log.error("Exception during serialization!", ie);
+            throw new SerializerException(ie);
+        }
+    }
+
+    private static void writeCompactRecord(CodedOutputStream out, long payloadType, Message payload,
+                                           long metadataType, @Nullable Message metadata) throws IOException {
+        out.writeFixed64(CompactRecord.PAYLOAD_TYPE_FIELD_NUMBER, payloadType);
+        out.writeMessage(CompactRecord.PAYLOAD_FIELD_NUMBER, payload);
+        if (metadata != null) {
+            out.writeFixed64(CompactRecord.METADATA_TYPE_FIELD_NUMBER, metadataType);
+            out.writeMessage(CompactRecord.METADATA_FIELD_NUMBER, metadata);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a record written in the compact format, following its type.
+     *
+     * @param b          buffer to read the record from
+     * @param newBuilder provides a builder for the messages of a type id
+     * @return the messages of the record
+     */
+    static DecodedRecord readCompactRecord(ByteBuf b, LongFunction<Message.Builder> newBuilder) {
+        int size = b.readInt();
+        CodedInputStream in = CodedInputStream.newInstance(b.nioBuffer(b.readerIndex(), size));
+        b.skipBytes(size);
+
+        try {
+            Message.Builder payload = null;
+            Message.Builder metadata = null;
+            boolean done = false;
+            while (!done) {
+                int tag = in.readTag();
+                if (tag == 0) {
+                    done = true;
+                } else if (tag == PAYLOAD_TYPE_TAG) {
+                    payload = newBuilder.apply(in.readFixed64());
+                } else if (tag == PAYLOAD_TAG && payload != null) {
+                    in.readMessage(payload, ExtensionRegistryLite.getEmptyRegistry());
+                } else if (tag == METADATA_TYPE_TAG) {
+                    metadata = newBuilder.apply(in.readFixed64());
+                } else if (tag == METADATA_TAG && metadata != null) {
+                    in.readMessage(metadata, ExtensionRegistryLite.getEmptyRegistry());
+                } else {
+                    throw new SerializerException("Malformed record, unexpected tag " + tag);
+                }
+            }
+
+            if (payload == null) {
+                throw new SerializerException("Malformed record, the payload type is missing");
+            }
+            return new DecodedRecord(payload.build(), metadata == null ? null : metadata.build());
+        } catch (IOException ie) {
+            log.error("Exception during deserialization!", ie);
+            throw new SerializerException(ie);
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package org.corfudb.protocols.wireprotocol;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.ByteString;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.UUID;
+
+import org.corfudb.protocols.CorfuProtocolLogData;
+import org.junit.Test;
+
+public class LogDataTest {
+
+    private LogData getLogData() {
+        final int payloadSize = 100;
+        LogData logData = new LogData(DataType.DATA, Unpooled.wrappedBuffer(new byte[payloadSize]));
+        logData.setGlobalAddress(1L);
+        logData.setBackpointerMap(ImmutableMap.of(UUID.randomUUID(), 0L, UUID.randomUUID(), 0L));
+        return logData;
+    }
+
+    @Test
+    public void testSerializedSizeEstimate() {
+        LogData logData = getLogData();
+        int estimate = logData.getSerializedSizeEstimate();
+        assertThat(estimate).isGreaterThan(logData.getSizeEstimate());
+
+        // The estimate is computed once
+        logData.setCheckpointedStreamStartLogAddress(0L);
+        assertThat(logData.getSerializedSizeEstimate()).isEqualTo(estimate);
+
+        // Once serialized, the estimate is the exact serialized size
+        ByteBuf buf = Unpooled.buffer();
+        logData.doSerialize(buf);
+        int serializedSize = buf.readableBytes();
+        assertThat(logData.getSerializedSizeEstimate()).isEqualTo(serializedSize);
+
+        // Same for deserialized log data
+        LogData deserialized = new LogData(buf);
+        assertThat(deserialized.getSerializedSizeEstimate()).isEqualTo(serializedSize);
+    }
+
+    /**
+     * Checks that a log data created from its serialized entry only deserializes what is
+     * accessed, and that the serialized entry is dropped once the log data is modified.
+     */
+    @Test
+    public void testSerializedEntry() {
+        LogData logData = getLogData();
+        ByteString serializedEntry = CorfuProtocolLogData.getLogDataMsg(logData).getEntry();
+
+        LogData forwardable = LogData.fromSerializedEntry(serializedEntry);
+        assertThat(forwardable.isMetadataDeserialized()).isFalse();
+        assertThat(forwardable.getGlobalAddress()).isEqualTo(logData.getGlobalAddress());
+        assertThat(forwardable.isMetadataDeserialized()).isTrue();
+        assertThat(forwardable.isDeserialized()).isFalse();
+        assertThat(CorfuProtocolLogData.getLogDataMsg(forwardable).getEntry()).isSameAs(serializedEntry);
+
+        forwardable.setEpoch(1L);
+        assertThat(forwardable.getSerializedEntry()).isNull();
+        assertThat(forwardable.isDeserialized()).isTrue();
+        assertThat(forwardable.getData()).isEqualTo(logData.getData());
+
+        LogData modified = CorfuProtocolLogData.getLogData(CorfuProtocolLogData.getLogDataMsg(forwardable));
+        assertThat(modified.getEpoch()).isEqualTo(1L);
+        assertThat(modified.getBackpointerMap()).isEqualTo(logData.getBackpointerMap());
+        assertThat(modified.getData()).isEqualTo(logData.getData());
+    }
+}
@@ -0,0 +1,132 @@
+package org.corfudb.runtime.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PersistentHashMapTest {
+
+    /**
+     * A key with a chosen hash code, to exercise hash collisions.
+     */
+    private static final class CollidingKey {
+        private final int hash;
+        private final int id;
+
+        CollidingKey(int hash, int id) {
+            this.hash = hash;
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).hash == hash
+                    && ((CollidingKey) o).id == id;
+        }
+    }
+
+    @Test
+    public void testPlusAndMinus() {
+        PersistentHashMap<String, Integer> empty = PersistentHashMap.empty();
+        PersistentHashMap<String, Integer> one = empty.plus("a", 1);
+        PersistentHashMap<String, Integer> two = one.plus("b", 2).plus(null, null);
+
+        assertThat(empty).isEmpty();
+        assertThat(one).containsOnlyKeys("a").containsEntry("a", 1);
+        assertThat(two).hasSize(3).containsEntry("b", 2).containsKey(null);
+        assertThat(two.get("c")).isNull();
+
+        assertThat(two.plus("a", 1)).isSameAs(two);
+        assertThat(two.plus("a", 3).get("a")).isEqualTo(3);
+        assertThat(two.minus("c")).isSameAs(two);
+        assertThat(two.minus("a", 3)).isSameAs(two);
+        assertThat(two.minus("a", 1)).hasSize(2).doesNotContainKey("a");
+        assertThat(one.minus("a")).isSameAs(PersistentHashMap.empty());
+
+        // Deriving maps doesn't change the maps they are derived from.
+        assertThat(one).hasSize(1);
+        assertThat(two).hasSize(3);
+
+        assertThatThrownBy(() -> two.put("c", 3)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> two.keySet().remove("a"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testCollisions() {
+        PersistentHashMap<CollidingKey, Integer> map = PersistentHashMap.empty();
+        final int numKeys = 10;
+        for (int i = 0; i < numKeys; i++) {
+            map = map.plus(new CollidingKey(1, i), i);
+        }
+        map = map.plus(new CollidingKey(1 << Integer.SIZE - 1, 0), -1);
+
+        assertThat(map).hasSize(numKeys + 1);
+        for (int i = 0; i < numKeys; i++) {
+            assertThat(map.get(new CollidingKey(1, i))).isEqualTo(i);
+        }
+
+        for (int i = 0; i < numKeys; i++) {
+            map = map.minus(new CollidingKey(1, i));
+        }
+        assertThat(map).hasSize(1).containsEntry(new CollidingKey(1 << Integer.SIZE - 1, 0), -1);
+    }
+
+    /**
+     * Checks that the maps derived by random updates, and all the maps they are derived from,
+     * have the same mappings as regular maps with the same updates.
+     */
+    @Test
+    public void testVersions() {
+        final int numUpdates = 50_000;
+        final int numKeys = 5_000;
+        final int versionInterval = 5_000;
+        final Random random = new Random(0);
+
+        PersistentHashMap<Object, Integer> map = PersistentHashMap.empty();
+        Map<Object, Integer> expected = new HashMap<>();
+        List<PersistentHashMap<Object, Integer>> versions = new ArrayList<>();
+        List<Map<Object, Integer>> expectedVersions = new ArrayList<>();
+
+        for (int i = 0; i < numUpdates; i++) {
+            // Colliding keys share a few hash codes, which also collide with some integers.
+            Object key = random.nextInt(4) == 0
+                    ? new CollidingKey(random.nextInt(8), random.nextInt(numKeys))
+                    : (Object) random.nextInt(numKeys);
+            if (random.nextInt(3) == 0) {
+                map = map.minus(key);
+                expected.remove(key);
+            } else {
+                map = map.plus(key, i);
+                expected.put(key, i);
+            }
+
+            if (i % versionInterval == 0) {
+                versions.add(map);
+                expectedVersions.add(new HashMap<>(expected));
+            }
+        }
+        versions.add(map);
+        expectedVersions.add(expected);
+
+        for (int i = 0; i < versions.size(); i++) {
+            assertThat(versions.get(i)).isEqualTo(expectedVersions.get(i));
+            assertThat(versions.get(i).entrySet()).hasSize(expectedVersions.get(i).size());
+            for (Object key : expectedVersions.get(i).keySet()) {
+                assertThat(versions.get(i).containsKey(key)).isTrue();
+            }
+        }
+    }
+}
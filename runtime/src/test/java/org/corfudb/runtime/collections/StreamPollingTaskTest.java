@@ -0,0 +1,125 @@
+package org.corfudb.runtime.collections;
+
+import org.corfudb.protocols.wireprotocol.ILogData;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.CorfuRuntime.CorfuRuntimeParameters;
+import org.corfudb.runtime.view.StreamOptions;
+import org.corfudb.runtime.view.StreamsView;
+import org.corfudb.runtime.view.stream.IStreamView;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StreamPollingTaskTest {
+
+    private static final int NUM_UPDATES = 10;
+    private static final int BUFFER_SIZE = 2;
+
+    private final UUID txnStreamId = UUID.randomUUID();
+    private final AtomicLong streamPosition = new AtomicLong();
+    private final List<Long> readPositions = new ArrayList<>();
+    private StreamPollingTask pollingTask;
+
+    /**
+     * Create a polling task over a transaction stream holding the addresses 0 to NUM_UPDATES - 1.
+     */
+    @Before
+    public void setUp() {
+        IStreamView txnStream = mock(IStreamView.class);
+        doAnswer(invocation -> {
+            streamPosition.set((long) invocation.getArguments()[0]);
+            readPositions.add(streamPosition.get());
+            return null;
+        }).when(txnStream).seek(anyLong());
+        when(txnStream.remainingAtMost(anyInt())).thenAnswer(invocation -> {
+            long from = streamPosition.get();
+            long to = Math.min(NUM_UPDATES, from + (int) invocation.getArguments()[0]);
+            streamPosition.set(to);
+            return LongStream.range(from, to).mapToObj(this::getUpdate).collect(Collectors.toList());
+        });
+
+        StreamsView streamsView = mock(StreamsView.class);
+        when(streamsView.get(eq(txnStreamId), any(StreamOptions.class))).thenReturn(txnStream);
+        CorfuRuntime runtime = mock(CorfuRuntime.class);
+        when(runtime.getParameters()).thenReturn(CorfuRuntimeParameters.builder()
+                .streamingPollingBlockingTimeMs(0)
+                .build());
+        when(runtime.getStreamsView()).thenReturn(streamsView);
+
+        pollingTask = new StreamPollingTask(mock(StreamingManager.class), runtime, txnStreamId,
+                mock(ScheduledExecutorService.class));
+    }
+
+    private ILogData getUpdate(long address) {
+        ILogData update = mock(ILogData.class);
+        when(update.getGlobalAddress()).thenReturn(address);
+        return update;
+    }
+
+    /**
+     * Create a subscription that records the addresses it receives, as long as it is not stalled.
+     */
+    private StreamSubscription getSubscription(List<Long> received, AtomicBoolean stalled)
+            throws Exception {
+        StreamSubscription subscription = mock(StreamSubscription.class);
+        when(subscription.getStreamBufferSize()).thenReturn(BUFFER_SIZE);
+        when(subscription.enqueueStreamEntry(any(ILogData.class), anyLong())).thenAnswer(invocation -> {
+            if (stalled.get()) {
+                return false;
+            }
+            received.add(((ILogData) invocation.getArguments()[0]).getGlobalAddress());
+            return true;
+        });
+        return subscription;
+    }
+
+    /**
+     * Tests that a subscription whose buffer stays full doesn't hold back the other
+     * subscriptions of the stream, and that it later receives all the updates in order.
+     */
+    @Test
+    public void testStalledSubscriptionDoesNotBlockOthers() throws Exception {
+        List<Long> fastReceived = new ArrayList<>();
+        List<Long> stalledReceived = new ArrayList<>();
+        AtomicBoolean stalled = new AtomicBoolean(true);
+        pollingTask.addSubscription(getSubscription(fastReceived, new AtomicBoolean(false)), -1L);
+        pollingTask.addSubscription(getSubscription(stalledReceived, stalled), -1L);
+
+        List<Long> allUpdates = LongStream.range(0, NUM_UPDATES).boxed().collect(Collectors.toList());
+        for (int i = 0; i < NUM_UPDATES; i++) {
+            pollingTask.run();
+        }
+
+        // Each window of the stream is read once, whatever the stalled subscription is doing.
+        assertThat(fastReceived).isEqualTo(allUpdates);
+        assertThat(stalledReceived).isEmpty();
+        assertThat(readPositions).startsWith(0L, 2L, 4L, 6L, 8L);
+        assertThat(pollingTask.getMinReadAddress()).isEqualTo(-1L);
+
+        stalled.set(false);
+        for (int i = 0; i < NUM_UPDATES; i++) {
+            pollingTask.run();
+        }
+
+        assertThat(stalledReceived).isEqualTo(allUpdates);
+        assertThat(fastReceived).isEqualTo(allUpdates);
+        assertThat(pollingTask.getMinReadAddress()).isEqualTo(NUM_UPDATES - 1L);
+    }
+}
@@ -18,6 +18,9 @@ public class ServerContextBuilder {
     String logPath = null;
     boolean noVerify = false;
     boolean noSync = false;
+    boolean mmapReads = false;
+    boolean groupCommit = false;
+    boolean serializedLogEntries = false;
     boolean noAutoCommit = true;
 
     boolean tlsEnabled = false;
@@ -72,6 +75,9 @@ public class ServerContextBuilder {
          builder
                  .put("--no-verify", noVerify)
                  .put("--no-sync", noSync)
+                 .put("--mmap-reads", mmapReads)
+                 .put("--group-commit", groupCommit)
+                 .put("--serialized-log-entries", serializedLogEntries)
                  .put("--no-auto-commit", true)
                  .put("--address", address)
                  .put("--cache-heap-ratio", cacheSizeHeapRatio)
@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.corfudb.infrastructure.log.StreamLogFiles.METADATA_SIZE;
 import static org.corfudb.infrastructure.log.StreamLogFiles.RECORDS_PER_LOG_FILE;
 
+import com.google.protobuf.ByteString;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 
@@ -12,13 +13,17 @@ import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 import org.apache.commons.io.FileUtils;
 import org.assertj.core.api.Assertions;
@@ -28,11 +33,16 @@ import org.corfudb.infrastructure.ServerContextBuilder;
 import org.corfudb.infrastructure.log.StreamLogFiles.Checksum;
 import org.corfudb.infrastructure.log.LogFormat.Metadata;
 import org.corfudb.infrastructure.log.LogFormat.LogHeader;
+import org.corfudb.infrastructure.log.LogFormat.SegmentIndex;
+import org.corfudb.protocols.CorfuProtocolLogData;
+import org.corfudb.protocols.logprotocol.CheckpointEntry;
 import org.corfudb.protocols.wireprotocol.DataType;
 import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.runtime.exceptions.DataCorruptionException;
 import org.corfudb.runtime.exceptions.OverwriteException;
+import org.corfudb.runtime.exceptions.TrimmedException;
+import org.corfudb.runtime.proto.LogData.LogDataMsg;
 import org.corfudb.runtime.view.Address;
 import org.corfudb.test.LsofSpec;
 import org.corfudb.util.serializer.Serializers;
@@ -143,6 +153,449 @@ StreamLogFilesTest extends AbstractCorfuTest {
         assertThat(writeEntries).isEqualTo(readEntries);
     }
 
+    @Test
+    public void testMemoryMappedReads() throws Exception {
+        ServerContext sc = getContext();
+        StreamLogFiles log = new StreamLogFiles(sc, false, true);
+
+        // Fill the first segment completely (sealed) and partially
+        // write the second segment (active tail segment)
+        final int numIter = StreamLogFiles.RECORDS_PER_LOG_FILE + StreamLogFiles.RECORDS_PER_LOG_FILE / 2;
+        List<LogData> writeEntries = new ArrayList<>();
+        for (int x = 0; x < numIter; x++) {
+            writeEntries.add(getEntry(x));
+        }
+
+        log.append(writeEntries);
+        log.sync(true);
+
+        SegmentHandle sealed = log.getSegmentHandleForAddress(0L);
+        SegmentHandle tail = log.getSegmentHandleForAddress(numIter - 1L);
+        assertThat(sealed.isSealed()).isTrue();
+        assertThat(tail.isSealed()).isFalse();
+        sealed.release();
+        tail.release();
+
+        assertThat(readRange(0, numIter, log)).isEqualTo(writeEntries);
+
+        // Reads from a re-opened log should also be served from the mapped segment
+        StreamLog log2 = new StreamLogFiles(sc, false, true);
+        assertThat(readRange(0, numIter, log2)).isEqualTo(writeEntries);
+    }
+
+    @Test
+    public void testBatchedReads() throws Exception {
+        StreamLogFiles log = new StreamLogFiles(getContext(), false, true);
+
+        // Seal the first segment and partially write the second one, leaving a gap
+        final int numIter = RECORDS_PER_LOG_FILE + RECORDS_PER_LOG_FILE / 2;
+        final long gap = RECORDS_PER_LOG_FILE + 1L;
+        List<LogData> writeEntries = new ArrayList<>();
+        for (int x = 0; x < numIter; x++) {
+            if (x != gap) {
+                writeEntries.add(getEntry(x));
+            }
+        }
+        log.append(writeEntries.subList(0, (int) gap));
+        log.append(writeEntries.subList((int) gap, writeEntries.size()));
+        final long trimMark = 10L;
+        log.prefixTrim(trimMark - 1);
+
+        // Addresses of both segments, out of order, with trimmed and unwritten addresses
+        final int stride = 7;
+        List<Long> addresses = new ArrayList<>();
+        for (long address = numIter + 1L; address >= 0; address -= stride) {
+            addresses.add(address);
+        }
+        addresses.add(gap);
+
+        Map<Long, LogData> entries = log.readAll(addresses);
+        for (long address : addresses) {
+            if (address < trimMark) {
+                assertThat(entries.get(address).isTrimmed()).isTrue();
+            } else if (address == gap || address >= numIter) {
+                assertThat(entries).doesNotContainKey(address);
+            } else {
+                assertThat(entries.get(address)).isEqualTo(log.read(address));
+            }
+        }
+        log.close();
+    }
+
+    private StreamLogFiles getSerializedEntriesLog(ServerContext context) {
+        return new StreamLogFiles(context, false, false, false, true);
+    }
+
+    @Test
+    public void testEntriesAreServedInTheirWireFormat() throws Exception {
+        StreamLogFiles log = getSerializedEntriesLog(getContext());
+        final long address = 0L;
+        final UUID streamId = UUID.randomUUID();
+        LogData entry = getEntry(address);
+        entry.setBackpointerMap(Collections.singletonMap(streamId, Address.NON_ADDRESS));
+        LogDataMsg written = CorfuProtocolLogData.getLogDataMsg(entry);
+        log.append(address, CorfuProtocolLogData.getForwardableLogData(written));
+
+        // An entry written without its address is persisted field by field.
+        final long otherAddress = 1L;
+        log.append(otherAddress, getEntry(Address.NON_ADDRESS));
+
+        // Only the address is persisted alongside the serialized entry.
+        LogFormat.LogEntry record = LogFormat.LogEntry.parseFrom(
+                log.readRaw(Collections.singletonList(address)).substring(METADATA_SIZE));
+        assertThat(record.getSerializedEntry()).isEqualTo(written.getEntry());
+        assertThat(record.getAllFields()).hasSize(2);
+
+        // The entry read is forwarded without being deserialized.
+        LogData read = log.read(address);
+        assertThat(read.getSerializedEntry()).isEqualTo(written.getEntry());
+        assertThat(CorfuProtocolLogData.getLogDataMsg(read)).isEqualTo(written);
+        assertThat(read.isMetadataDeserialized()).isFalse();
+        assertThat(read.getGlobalAddress()).isEqualTo(address);
+        assertThat(read.isMetadataDeserialized()).isTrue();
+        assertThat(read.isDeserialized()).isFalse();
+        assertThat(read.getPayload(null)).isEqualTo("Payload".getBytes());
+        assertThat(read.isDeserialized()).isTrue();
+
+        // Reads of the recovered log are served in the same format.
+        log.close();
+        log = getSerializedEntriesLog(getContext());
+        assertThat(log.read(address).getSerializedEntry()).isEqualTo(written.getEntry());
+        assertThat(log.getStreamsAddressSpace().getAddressMap().get(streamId).contains(address)).isTrue();
+
+        LogData other = log.read(otherAddress);
+        assertThat(other.getSerializedEntry()).isNull();
+        assertThat(other.getGlobalAddress()).isEqualTo(otherAddress);
+        log.close();
+    }
+
+    private void writeLogHeader(int version) throws IOException {
+        String logDir = getContext().getServerConfig().get("--log-path") + File.separator + "log";
+        new File(logDir).mkdir();
+        LogHeader header = LogHeader.newBuilder()
+                .setVersion(version)
+                .setVerifyChecksum(true)
+                .build();
+        try (RandomAccessFile logFile = new RandomAccessFile(logDir + File.separator + 0 + ".log", "rw")) {
+            logFile.getChannel().write(StreamLogFiles.getByteBufferWithMetaData(header));
+        }
+    }
+
+    /**
+     * Checks that segments of the previous log version are created unless serialized entries
+     * are enabled, and that they keep being written in their version once they are.
+     */
+    @Test
+    public void testPayloadOnlyVersionSegment() {
+        StreamLogFiles log = new StreamLogFiles(getContext(), false);
+        final long address = 0L;
+        log.append(address, getEntry(address));
+        log.close();
+
+        log = getSerializedEntriesLog(getContext());
+        final long nextAddress = 1L;
+        log.append(nextAddress, getEntry(nextAddress));
+        final long nextSegmentAddress = RECORDS_PER_LOG_FILE;
+        log.append(nextSegmentAddress, getEntry(nextSegmentAddress));
+        log.close();
+
+        log = getSerializedEntriesLog(getContext());
+        for (long payloadOnlyAddress : Arrays.asList(address, nextAddress)) {
+            LogData read = log.read(payloadOnlyAddress);
+            assertThat(read.getSerializedEntry()).isNull();
+            assertThat(read.getGlobalAddress()).isEqualTo(payloadOnlyAddress);
+            assertThat(read.getPayload(null)).isEqualTo("Payload".getBytes());
+        }
+        assertThat(log.read(nextSegmentAddress).getSerializedEntry()).isNotNull();
+
+        // Raw records holding serialized entries are converted to the previous version.
+        ServerContext sourceContext = new ServerContextBuilder()
+                .setLogPath(com.google.common.io.Files.createTempDir().getAbsolutePath())
+                .setMemory(false)
+                .build();
+        StreamLog source = getSerializedEntriesLog(sourceContext);
+        final long rawAddress = 2L;
+        final UUID streamId = UUID.randomUUID();
+        LogData rawEntry = getEntry(rawAddress);
+        rawEntry.setBackpointerMap(Collections.singletonMap(streamId, Address.NON_ADDRESS));
+        source.append(rawAddress, rawEntry);
+        log.appendRaw(source.readRaw(Collections.singletonList(rawAddress)));
+        source.close();
+        log.close();
+
+        // Entries of a segment of the latest version are read whether or not serialized entries are enabled.
+        log = new StreamLogFiles(getContext(), false);
+        LogData raw = log.read(rawAddress);
+        assertThat(raw.getSerializedEntry()).isNull();
+        assertThat(raw.getBackpointerMap()).isEqualTo(rawEntry.getBackpointerMap());
+        assertThat(raw.getPayload(null)).isEqualTo("Payload".getBytes());
+        assertThat(log.getStreamsAddressSpace().getAddressMap().get(streamId).contains(rawAddress)).isTrue();
+        assertThat(log.read(nextSegmentAddress).getSerializedEntry()).isNotNull();
+        log.close();
+    }
+
+    @Test
+    public void testUnknownVersionIsRejected() throws Exception {
+        writeLogHeader(StreamLogFiles.VERSION + 1);
+        assertThatThrownBy(() -> new StreamLogFiles(getContext(), false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Log version " + (StreamLogFiles.VERSION + 1));
+    }
+
+    @Test
+    public void testSegmentIndex() throws Exception {
+        ServerContext sc = getContext();
+        StreamLog log = new StreamLogFiles(sc, false);
+
+        // Seal the first segment and partially write the second one
+        final int numIter = StreamLogFiles.RECORDS_PER_LOG_FILE + StreamLogFiles.RECORDS_PER_LOG_FILE / 2;
+        List<LogData> writeEntries = new ArrayList<>();
+        for (int x = 0; x < numIter; x++) {
+            writeEntries.add(getEntry(x));
+        }
+
+        log.append(writeEntries);
+        log.sync(true);
+        log.close();
+
+        // Only sealed segments are indexed
+        String logDir = sc.getServerConfig().get("--log-path") + File.separator + "log";
+        File index = new File(logDir + File.separator + 0 + StreamLogFiles.SEGMENT_INDEX_EXTENSION);
+        assertThat(index).exists();
+        assertThat(new File(logDir + File.separator + 1 + StreamLogFiles.SEGMENT_INDEX_EXTENSION))
+                .doesNotExist();
+
+        // Load the sealed segment from its index
+        StreamLog log2 = new StreamLogFiles(sc, false);
+        assertThat(log2.getLogTail()).isEqualTo(numIter - 1L);
+        assertThat(readRange(0, numIter, log2)).isEqualTo(writeEntries);
+        log2.close();
+
+        // Corrupt the index, the segment should be scanned and its index rebuilt
+        final byte[] garbage = "garbage".getBytes();
+        try (RandomAccessFile indexFile = new RandomAccessFile(index, "rw")) {
+            indexFile.seek(indexFile.length() - garbage.length);
+            indexFile.write(garbage);
+        }
+        final long corruptedLength = index.length();
+
+        StreamLog log3 = new StreamLogFiles(sc, false);
+        assertThat(log3.getLogTail()).isEqualTo(numIter - 1L);
+        assertThat(readRange(0, numIter, log3)).isEqualTo(writeEntries);
+        assertThat(index).exists();
+        assertThat(index.length()).isEqualTo(corruptedLength);
+        log3.close();
+
+        byte[] indexBytes = Files.readAllBytes(index.toPath());
+        SegmentIndex rebuilt = SegmentIndex.parseFrom(
+                Arrays.copyOfRange(indexBytes, METADATA_SIZE, indexBytes.length));
+        assertThat(rebuilt.getSegment()).isZero();
+        assertThat(rebuilt.getEntriesCount()).isEqualTo(RECORDS_PER_LOG_FILE);
+        for (int x = 0; x < RECORDS_PER_LOG_FILE; x++) {
+            assertThat(rebuilt.getEntries(x).getAddress()).isEqualTo(x);
+        }
+
+        // The rebuilt index is loaded, the segment isn't scanned anymore
+        StreamLog log4 = new StreamLogFiles(sc, false);
+        assertThat(log4.getLogTail()).isEqualTo(numIter - 1L);
+        assertThat(readRange(0, numIter, log4)).isEqualTo(writeEntries);
+        assertThat(Files.readAllBytes(index.toPath())).isEqualTo(indexBytes);
+        log4.close();
+    }
+
+    @Test
+    public void testIndexedSegmentVerification() throws Exception {
+        ServerContext sc = getContext();
+        StreamLog log = new StreamLogFiles(sc, false);
+
+        final int numIter = StreamLogFiles.RECORDS_PER_LOG_FILE;
+        List<LogData> writeEntries = new ArrayList<>();
+        for (int x = 0; x < numIter; x++) {
+            writeEntries.add(getEntry(x));
+        }
+        log.append(writeEntries);
+        log.close();
+
+        // Index files aren't charged to the log size quota
+        Path logDir = Paths.get(sc.getServerConfig().get("--log-path").toString(), "log");
+        File segmentFile = logDir.resolve(0 + ".log").toFile();
+        assertThat(logDir.resolve(0 + StreamLogFiles.SEGMENT_INDEX_EXTENSION).toFile()).exists();
+        assertThat(StreamLogFiles.estimateSize(logDir)).isEqualTo(segmentFile.length());
+
+        // Corrupt the payload of the last record without changing the segment size
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "rw")) {
+            file.seek(file.length() - 1);
+            final byte last = file.readByte();
+            file.seek(file.length() - 1);
+            file.writeByte(~last);
+        }
+
+        // The segment is loaded from its index, its records are verified when read
+        StreamLog log2 = new StreamLogFiles(sc, false);
+        assertThat(readRange(0, 1, log2)).containsExactly(writeEntries.get(0));
+        assertThatThrownBy(() -> log2.read(numIter - 1))
+                .isInstanceOf(DataCorruptionException.class);
+        log2.close();
+    }
+
+    @Test
+    public void testSegmentIndexWithoutSync() {
+        ServerContext sc = getContext();
+        StreamLog log = new StreamLogFiles(sc, false, false, true);
+
+        final int numIter = StreamLogFiles.RECORDS_PER_LOG_FILE;
+        List<LogData> writeEntries = new ArrayList<>();
+        for (int x = 0; x < numIter; x++) {
+            writeEntries.add(getEntry(x));
+        }
+        log.append(writeEntries);
+        log.close();
+
+        // The index is written even if it isn't synced
+        String logDir = sc.getServerConfig().get("--log-path") + File.separator + "log";
+        assertThat(new File(logDir + File.separator + 0 + StreamLogFiles.SEGMENT_INDEX_EXTENSION)).exists();
+
+        StreamLog log2 = new StreamLogFiles(sc, false);
+        assertThat(readRange(0, numIter, log2)).isEqualTo(writeEntries);
+        log2.close();
+    }
+
+    @Test
+    public void testRawRecordsTransfer() throws Exception {
+        StreamLog source = new StreamLogFiles(getContext(), false);
+        final UUID streamId = UUID.randomUUID();
+
+        // Seal the first segment and partially write the second one
+        final int numIter = RECORDS_PER_LOG_FILE + RECORDS_PER_LOG_FILE / 2;
+        List<LogData> writeEntries = new ArrayList<>();
+        for (int x = 0; x < numIter; x++) {
+            LogData entry = getEntry(x);
+            entry.setBackpointerMap(Collections.singletonMap(streamId, Address.NON_ADDRESS));
+            writeEntries.add(entry);
+        }
+        source.append(writeEntries);
+
+        ServerContext destinationContext = new ServerContextBuilder()
+                .setLogPath(com.google.common.io.Files.createTempDir().getAbsolutePath())
+                .setMemory(false)
+                .build();
+        StreamLog destination = new StreamLogFiles(destinationContext, false);
+
+        // Transfer the log in batches, one of the addresses is written regularly
+        final int batchSize = 100;
+        final long skipped = 1L;
+        for (long start = 0; start < numIter; start += batchSize) {
+            List<Long> addresses = new ArrayList<>();
+            for (long address = start; address < Math.min(start + batchSize, numIter); address++) {
+                if (address != skipped) {
+                    addresses.add(address);
+                }
+            }
+            destination.appendRaw(source.readRaw(addresses));
+        }
+        destination.append(skipped, source.read(skipped));
+
+        assertThat(readRange(0, numIter, destination)).isEqualTo(writeEntries);
+        assertThat(destination.getLogTail()).isEqualTo(numIter - 1L);
+        assertThat(destination.getAllTails().getStreamTails()).containsEntry(streamId, numIter - 1L);
+
+        // Transferred addresses can't be overwritten
+        assertThatThrownBy(() -> destination.appendRaw(source.readRaw(Collections.singletonList(0L))))
+                .isInstanceOf(OverwriteException.class);
+
+        // Corrupted records are rejected
+        byte[] corrupted = source.readRaw(Collections.singletonList(0L)).toByteArray();
+        corrupted[corrupted.length - 1] ^= 1;
+        assertThatThrownBy(() -> destination.appendRaw(ByteString.copyFrom(corrupted)))
+                .isInstanceOf(DataCorruptionException.class);
+
+        // The transferred segments are indexed and read back after a restart
+        destination.close();
+        StreamLog destination2 = new StreamLogFiles(destinationContext, false);
+        assertThat(readRange(0, numIter, destination2)).isEqualTo(writeEntries);
+        destination2.close();
+        source.close();
+    }
+
+    /**
+     * Checks that the raw records of a batch update the log metadata like a range write,
+     * in particular the trim mark of a stream which only has a checkpoint in the batch.
+     */
+    @Test
+    public void testRawRecordsTransferMetadata() throws Exception {
+        StreamLog source = new StreamLogFiles(getContext(), false);
+        final UUID checkpointedStreamId = UUID.randomUUID();
+        final UUID checkpointStreamId = UUID.randomUUID();
+        final long checkpointedAddress = 5L;
+        final int numIter = 10;
+
+        List<LogData> writeEntries = new ArrayList<>();
+        for (int x = 0; x < numIter; x++) {
+            LogData entry = getEntry(x);
+            if (x == numIter - 1) {
+                entry.setBackpointerMap(Collections.singletonMap(checkpointStreamId, Address.NON_ADDRESS));
+                entry.setCheckpointType(CheckpointEntry.CheckpointEntryType.END);
+                entry.setCheckpointId(UUID.randomUUID());
+                entry.setCheckpointedStreamId(checkpointedStreamId);
+                entry.setCheckpointedStreamStartLogAddress(checkpointedAddress);
+            }
+            writeEntries.add(entry);
+        }
+        source.append(writeEntries);
+
+        List<Long> addresses = new ArrayList<>();
+        for (long x = 0; x < numIter; x++) {
+            addresses.add(x);
+        }
+
+        StreamLog rangeDestination = new StreamLogFiles(new ServerContextBuilder()
+                .setLogPath(com.google.common.io.Files.createTempDir().getAbsolutePath())
+                .setMemory(false)
+                .build(), false);
+        rangeDestination.append(readRange(0, numIter, source));
+        StreamLog rawDestination = new StreamLogFiles(new ServerContextBuilder()
+                .setLogPath(com.google.common.io.Files.createTempDir().getAbsolutePath())
+                .setMemory(false)
+                .build(), false);
+        rawDestination.appendRaw(source.readRaw(addresses));
+
+        assertThat(rangeDestination.getStreamsAddressSpace().getAddressMap().get(checkpointedStreamId)
+                .getTrimMark()).isEqualTo(checkpointedAddress);
+        assertThat(rawDestination.getStreamsAddressSpace()).isEqualTo(rangeDestination.getStreamsAddressSpace());
+        assertThat(rawDestination.getAllTails()).isEqualTo(rangeDestination.getAllTails());
+        rangeDestination.close();
+        rawDestination.close();
+        source.close();
+    }
+
+    /**
+     * Checks that raw records can be transferred to and from a stream log kept in memory.
+     */
+    @Test
+    public void testInMemoryRawRecordsTransfer() {
+        StreamLog source = new StreamLogFiles(getContext(), false);
+        final int numIter = 10;
+        List<LogData> writeEntries = new ArrayList<>();
+        List<Long> addresses = new ArrayList<>();
+        for (int x = 0; x < numIter; x++) {
+            writeEntries.add(getEntry(x));
+            addresses.add((long) x);
+        }
+        source.append(writeEntries);
+
+        StreamLog inMemory = new InMemoryStreamLog();
+        inMemory.appendRaw(source.readRaw(addresses));
+        assertThat(readRange(0, numIter, inMemory)).isEqualTo(writeEntries);
+        assertThat(inMemory.getLogTail()).isEqualTo(numIter - 1L);
+        assertThat(inMemory.readRaw(addresses)).isEqualTo(source.readRaw(addresses));
+
+        assertThatThrownBy(() -> inMemory.appendRaw(source.readRaw(Collections.singletonList(0L))))
+                .isInstanceOf(OverwriteException.class);
+        inMemory.prefixTrim(0L);
+        assertThatThrownBy(() -> inMemory.readRaw(addresses)).isInstanceOf(TrimmedException.class);
+        source.close();
+    }
+
     @Test
     public void testRangeWriteTrim() throws Exception {
         StreamLog log = new StreamLogFiles(getContext(), false);
@@ -414,6 +867,13 @@ StreamLogFilesTest extends AbstractCorfuTest {
         assertThat(log.getChannelsToSync().size()).isEqualTo(0);
     }
 
+    /**
+     * Lists the segment files in a log directory (i.e. excluding segment index files)
+     */
+    private String[] listSegmentFiles(File logDir) {
+        return logDir.list((dir, name) -> name.endsWith(".log"));
+    }
+
     private void writeToLog(StreamLog log, long address) {
         ByteBuf b = Unpooled.buffer();
         byte[] streamEntry = "Payload".getBytes();
@@ -476,7 +936,7 @@ StreamLogFilesTest extends AbstractCorfuTest {
 
         File logs = new File(logDir);
 
-        assertThat((long) logs.list().length).isEqualTo(numSegments);
+        assertThat((long) listSegmentFiles(logs).length).isEqualTo(numSegments);
 
         final long endSegment = 25;
         long trimAddress = endSegment * StreamLogFiles.RECORDS_PER_LOG_FILE + 1;
@@ -496,7 +956,7 @@ StreamLogFilesTest extends AbstractCorfuTest {
         assertThat(log.getOpenSegmentHandles().size()).isEqualTo((int) endSegment);
 
         // Verify that first 25 segments have been deleted
-        String[] afterTrimFiles = logs.list();
+        String[] afterTrimFiles = listSegmentFiles(logs);
         assertThat(afterTrimFiles).hasSize((int) (numSegments - endSegment));
 
         Set<String> fileNames = new HashSet<>(Arrays.asList(afterTrimFiles));
@@ -560,9 +1020,11 @@ StreamLogFilesTest extends AbstractCorfuTest {
         log = new StreamLogFiles(getContext(), false);
         log.compact();
 
+        // Only the last segment and its index are left
         File logs = new File(logDir);
-        final int numFilesLeft = 1;
-        assertThat(logs.list()).hasSize(numFilesLeft);
+        final long lastSegment = numSegments - 1;
+        assertThat(logs.list()).containsExactlyInAnyOrder(lastSegment + ".log",
+                lastSegment + StreamLogFiles.SEGMENT_INDEX_EXTENSION);
     }
 
     /**
@@ -587,7 +1049,7 @@ StreamLogFilesTest extends AbstractCorfuTest {
         final int expectedFilesBeforeReset = (int) (numSegments - filesToBeTrimmed);
         final long globalTailBeforeReset = (RECORDS_PER_LOG_FILE * numSegments) - 1;
         final long trimMarkBeforeReset = RECORDS_PER_LOG_FILE * filesToBeTrimmed + 1;
-        assertThat(logsDir.list()).hasSize(expectedFilesBeforeReset);
+        assertThat(listSegmentFiles(logsDir)).hasSize(expectedFilesBeforeReset);
         assertThat(log.getLogTail()).isEqualTo(globalTailBeforeReset);
         assertThat(log.getTrimMark()).isEqualTo(trimMarkBeforeReset);
 
@@ -0,0 +1,212 @@
+package org.corfudb.infrastructure.logreplication;
+
+import com.google.common.reflect.TypeToken;
+import org.corfudb.infrastructure.logreplication.replication.receive.LogReplicationMetadataManager;
+import org.corfudb.infrastructure.logreplication.replication.receive.StreamsSnapshotWriter;
+import org.corfudb.infrastructure.logreplication.replication.send.logreader.SnapshotReadMessage;
+import org.corfudb.infrastructure.logreplication.replication.send.logreader.StreamsSnapshotReader;
+import org.corfudb.protocols.logprotocol.OpaqueEntry;
+import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.LogReplication.LogReplicationEntryMsg;
+import org.corfudb.runtime.collections.CorfuTable;
+import org.corfudb.runtime.view.AbstractViewTest;
+import org.corfudb.util.serializer.Serializers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.corfudb.protocols.service.CorfuProtocolLogReplication.extractOpaqueEntries;
+
+/**
+ * Tests the snapshot sync reader and writer, which read several streams concurrently.
+ */
+public class StreamsSnapshotReaderTest extends AbstractViewTest {
+
+    private static final int NUM_STREAMS = 5;
+    private static final int NUM_KEYS = 20;
+    private static final int MAX_MSG_SIZE = 400;
+    private static final int PARALLELISM = 3;
+    private static final String STREAM_NAME_PREFIX = "Table00";
+    private static final String CLUSTER_ID = "local_cluster";
+
+    private final UUID syncRequestId = UUID.randomUUID();
+    private final Map<String, Map<String, String>> expectedTables = new HashMap<>();
+    private CorfuRuntime runtime;
+    private long snapshot;
+
+    @Before
+    public void setRuntime() {
+        runtime = getDefaultRuntime();
+    }
+
+    private CorfuTable<String, String> openTable(CorfuRuntime rt, String name) {
+        return rt.getObjectsView()
+                .build()
+                .setStreamName(name)
+                .setTypeToken(new TypeToken<CorfuTable<String, String>>() {})
+                .setSerializer(Serializers.PRIMITIVE)
+                .open();
+    }
+
+    /**
+     * Write NUM_KEYS entries to each of NUM_STREAMS tables, every put being a separate log entry.
+     */
+    private void writeTables() {
+        for (int i = NUM_STREAMS - 1; i >= 0; i--) {
+            String name = STREAM_NAME_PREFIX + i;
+            CorfuTable<String, String> table = openTable(runtime, name);
+            Map<String, String> expected = new HashMap<>();
+            for (int key = 0; key < NUM_KEYS; key++) {
+                table.put(String.valueOf(key), name + key);
+                expected.put(String.valueOf(key), name + key);
+            }
+            expectedTables.put(name, expected);
+        }
+        snapshot = runtime.getAddressSpaceView().getLogTail();
+    }
+
+    private LogReplicationConfig getConfig(int parallelism) {
+        LogReplicationConfig config = new LogReplicationConfig(expectedTables.keySet(),
+                LogReplicationConfig.DEFAULT_MAX_NUM_MSG_PER_BATCH, MAX_MSG_SIZE);
+        config.setSnapshotSyncParallelism(parallelism);
+        return config;
+    }
+
+    private StreamsSnapshotReader getReader(int parallelism) {
+        return new StreamsSnapshotReader(getNewRuntime(getDefaultNode()).connect(), getConfig(parallelism));
+    }
+
+    /**
+     * Read at most maxMessages messages, or all the messages of the snapshot sync.
+     */
+    private List<LogReplicationEntryMsg> read(StreamsSnapshotReader reader, int maxMessages) {
+        List<LogReplicationEntryMsg> messages = new ArrayList<>();
+        while (messages.size() < maxMessages) {
+            SnapshotReadMessage readMessage = reader.read(syncRequestId);
+            messages.addAll(readMessage.getMessages());
+            if (readMessage.isEndRead()) {
+                break;
+            }
+        }
+        return messages;
+    }
+
+    private List<LogReplicationEntryMsg> readAll(StreamsSnapshotReader reader) {
+        return read(reader, Integer.MAX_VALUE);
+    }
+
+    private static String getStreamName(LogReplicationEntryMsg message) {
+        List<OpaqueEntry> entries = extractOpaqueEntries(message);
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).getEntries()).hasSize(1);
+        UUID streamId = entries.get(0).getEntries().keySet().iterator().next();
+        for (int i = 0; i < NUM_STREAMS; i++) {
+            if (CorfuRuntime.getStreamID(STREAM_NAME_PREFIX + i).equals(streamId)) {
+                return STREAM_NAME_PREFIX + i;
+            }
+        }
+        throw new IllegalArgumentException("Unexpected stream " + streamId);
+    }
+
+    /**
+     * Checks that the streams read ahead concurrently are sent one after the other, in
+     * the same messages and order as when they are read one at a time.
+     */
+    @Test
+    public void testParallelReadOrder() {
+        writeTables();
+
+        StreamsSnapshotReader sequentialReader = getReader(1);
+        sequentialReader.reset(snapshot);
+        List<LogReplicationEntryMsg> expected = readAll(sequentialReader);
+        sequentialReader.close();
+
+        StreamsSnapshotReader parallelReader = getReader(PARALLELISM);
+        parallelReader.reset(snapshot);
+        List<LogReplicationEntryMsg> messages = readAll(parallelReader);
+        parallelReader.close();
+
+        // Every stream is split in several messages.
+        assertThat(messages.size()).isGreaterThan(NUM_STREAMS);
+        assertThat(messages).isEqualTo(expected);
+
+        List<String> streamOrder = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            assertThat(messages.get(i).getMetadata().getSnapshotSyncSeqNum()).isEqualTo(i);
+            assertThat(messages.get(i).getMetadata().getSnapshotTimestamp()).isEqualTo(snapshot);
+            String streamName = getStreamName(messages.get(i));
+            if (streamOrder.isEmpty() || !streamOrder.get(streamOrder.size() - 1).equals(streamName)) {
+                streamOrder.add(streamName);
+            }
+        }
+        assertThat(streamOrder).containsExactlyElementsOf(new TreeSet<>(expectedTables.keySet()));
+    }
+
+    /**
+     * Checks that a reset in the middle of a snapshot sync restarts it from the
+     * beginning, and that a closed reader can't be read from.
+     */
+    @Test
+    public void testResetAndClose() {
+        writeTables();
+
+        StreamsSnapshotReader reader = getReader(PARALLELISM);
+        reader.reset(snapshot);
+        List<LogReplicationEntryMsg> expected = readAll(reader);
+
+        reader.reset(snapshot);
+        assertThat(read(reader, NUM_STREAMS)).isEqualTo(expected.subList(0, NUM_STREAMS));
+        reader.reset(snapshot);
+        assertThat(readAll(reader)).isEqualTo(expected);
+
+        reader.reset(snapshot);
+        assertThat(read(reader, 1)).isEqualTo(expected.subList(0, 1));
+        reader.close();
+        assertThatThrownBy(() -> reader.read(syncRequestId)).isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Checks that the shadow streams applied concurrently by the snapshot
+     * writer restore the tables to the state of the snapshot.
+     */
+    @Test
+    public void testParallelSnapshotTransfer() {
+        writeTables();
+
+        StreamsSnapshotReader reader = getReader(PARALLELISM);
+        reader.reset(snapshot);
+        List<LogReplicationEntryMsg> messages = readAll(reader);
+        reader.close();
+
+        // Diverge from the snapshot.
+        for (String name : expectedTables.keySet()) {
+            CorfuTable<String, String> table = openTable(runtime, name);
+            table.clear();
+            table.put("extra", name);
+        }
+
+        CorfuRuntime writerRuntime = getNewRuntime(getDefaultNode()).connect();
+        LogReplicationMetadataManager metadataManager =
+                new LogReplicationMetadataManager(writerRuntime, 0, CLUSTER_ID);
+        StreamsSnapshotWriter writer = new StreamsSnapshotWriter(writerRuntime, getConfig(PARALLELISM),
+                metadataManager);
+        long topologyConfigId = messages.get(0).getMetadata().getTopologyConfigID();
+        metadataManager.setBaseSnapshotStart(topologyConfigId, snapshot);
+        writer.reset(topologyConfigId, snapshot);
+        messages.forEach(writer::apply);
+        writer.startSnapshotSyncApply();
+
+        CorfuRuntime verifyRuntime = getNewRuntime(getDefaultNode()).connect();
+        for (String name : expectedTables.keySet()) {
+            assertThat(new HashMap<>(openTable(verifyRuntime, name))).isEqualTo(expectedTables.get(name));
+        }
+    }
+}
@@ -729,6 +729,77 @@ public class StreamingIT extends AbstractIT {
         assertThat(shutdownCorfuServer(corfuServer)).isTrue();
     }
 
+    /**
+     * Test that subscribers sharing a stream tag but starting from different addresses
+     * each get exactly the updates after their own start address, including updates
+     * written after all of them have caught up with the stream tail.
+     */
+    @Test
+    @SuppressWarnings("checkstyle:magicnumber")
+    public void testSubscribersOnSameStreamAtDifferentAddresses() throws Exception {
+        // Run a corfu server.
+        Process corfuServer = runSinglePersistentServer(corfuSingleNodeHost, corfuStringNodePort);
+
+        // Start a Corfu runtime.
+        runtime = createRuntime(singleNodeEndpoint);
+
+        runtime.setTransactionLogging(true);
+        CorfuStore store = new CorfuStore(runtime);
+
+        Timestamp ts1 = Timestamp.newBuilder().setEpoch(0L).setSequence(Address.NON_ADDRESS).build();
+
+        Table<Uuid, SampleTableAMsg, Uuid> tableA = store.openTable(
+                "test_namespace", "tableA",
+                Uuid.class, SampleTableAMsg.class, Uuid.class,
+                TableOptions.builder().build()
+        );
+
+        final int numUpdates = 6;
+        final int numLateUpdates = 4;
+        Timestamp ts2 = null;
+
+        for (int i = 0; i < numUpdates; i++) {
+            SampleTableAMsg msg = SampleTableAMsg.newBuilder().setPayload(String.valueOf(i)).build();
+            Uuid uuid = Uuid.newBuilder().setMsb(i).setLsb(i).build();
+            TxnContext tx = store.txn("test_namespace");
+            tx.putRecord(tableA, uuid, msg, uuid);
+            Timestamp commitTs = tx.commit();
+            if (i == numUpdates / 2 - 1) {
+                ts2 = commitTs;
+            }
+        }
+
+        StreamListenerImpl fromStart = new StreamListenerImpl("fromStart");
+        StreamListenerImpl fromMiddle = new StreamListenerImpl("fromMiddle");
+        store.subscribeListener(fromStart, "test_namespace", "sample_streamer_1",
+                Collections.singletonList("tableA"), ts1);
+        store.subscribeListener(fromMiddle, "test_namespace", "sample_streamer_1",
+                Collections.singletonList("tableA"), ts2);
+
+        TimeUnit.MILLISECONDS.sleep(sleepTime);
+        assertThat(fromStart.getUpdates().size()).isEqualTo(numUpdates);
+        assertThat(fromMiddle.getUpdates().size()).isEqualTo(numUpdates / 2);
+
+        // Both subscribers are now idle at the tail, new updates must wake them up.
+        for (int i = numUpdates; i < numUpdates + numLateUpdates; i++) {
+            SampleTableAMsg msg = SampleTableAMsg.newBuilder().setPayload(String.valueOf(i)).build();
+            Uuid uuid = Uuid.newBuilder().setMsb(i).setLsb(i).build();
+            TxnContext tx = store.txn("test_namespace");
+            tx.putRecord(tableA, uuid, msg, uuid);
+            tx.commit();
+        }
+
+        TimeUnit.MILLISECONDS.sleep(sleepTime);
+        assertThat(fromStart.getUpdates().size()).isEqualTo(numUpdates + numLateUpdates);
+        assertThat(fromMiddle.getUpdates().size()).isEqualTo(numUpdates / 2 + numLateUpdates);
+        assertThat(fromMiddle.getUpdates().getFirst().getTimestamp().getSequence())
+                .isGreaterThan(ts2.getSequence());
+
+        store.unsubscribeListener(fromStart);
+        store.unsubscribeListener(fromMiddle);
+        assertThat(shutdownCorfuServer(corfuServer)).isTrue();
+    }
+
     /**
      * Test the case where a table is empty at the time of subscription, and that it is able
      * to receive deltas once updates to the table happen.
@@ -1,10 +1,15 @@
 package org.corfudb.runtime;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
 
 import org.corfudb.common.compression.Codec;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
+import org.corfudb.runtime.ExampleSchemas.Uuid;
+import org.corfudb.runtime.collections.CorfuStore;
+import org.corfudb.runtime.collections.TableOptions;
 import org.corfudb.runtime.view.AbstractViewTest;
+import org.corfudb.runtime.view.TableRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -13,6 +18,7 @@ import org.junit.runners.Parameterized;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -126,4 +132,54 @@ public class CompressionTest extends AbstractViewTest {
         CorfuRuntime readerRt = getRuntimeWithCodec(codec);
         addresses.forEach(address -> assertThat(read(readerRt, address)).isEqualTo(DEFAULT_PAYLOAD));
     }
+
+    /**
+     * Test that once enough payloads have been sampled, a dictionary is trained and used to
+     * compress subsequent writes, which can be read back by another runtime.
+     */
+    @Test
+    public void testDictionaryCompression() throws Exception {
+        assumeTrue(codec == Codec.Type.ZSTD);
+
+        final int sampleCount = 200;
+        final int dictionarySize = 1024;
+        final int maxWrites = 10_000;
+
+        CorfuRuntime rt = getRuntimeWithCodec(codec);
+        rt.getParameters().setCompressionDictionaryEnabled(true);
+        rt.getParameters().setCompressionDictionarySampleCount(sampleCount);
+        rt.getParameters().setCompressionDictionarySize(dictionarySize);
+
+        UUID streamId = CorfuRuntime.getStreamID("dictionaryStream");
+        long address = -1L;
+        byte[] payload = null;
+        Long dictionaryId = null;
+        for (int i = 0; i < maxWrites && dictionaryId == null; i++) {
+            payload = getSamplePayload(i);
+            address = rt.getStreamsView().append(payload, null, streamId);
+            rt.getAddressSpaceView().invalidateClientCache();
+            dictionaryId = rt.getAddressSpaceView().read(address).getPayloadCodecDictionaryId();
+        }
+        assertThat(dictionaryId).isNotNull();
+
+        // Writes to the tables of the system namespace are not compressed with the dictionary.
+        new CorfuStore(rt).openTable("namespace", "table", Uuid.class, Uuid.class, null,
+                TableOptions.builder().build());
+        long registryAddress = rt.getSequencerView().query(CorfuRuntime.getStreamID(
+                TableRegistry.getFullyQualifiedTableName(TableRegistry.CORFU_SYSTEM_NAMESPACE,
+                        TableRegistry.REGISTRY_TABLE_NAME)));
+        rt.getAddressSpaceView().invalidateClientCache();
+        assertThat(rt.getAddressSpaceView().read(registryAddress).getPayloadCodecDictionaryId()).isNull();
+
+        // Read back from a runtime that doesn't use dictionaries for writes.
+        CorfuRuntime readerRt = getRuntimeWithCodec(Codec.Type.NONE);
+        assertThat(read(readerRt, address)).isEqualTo(payload);
+    }
+
+    private byte[] getSamplePayload(int index) {
+        final int sources = 7;
+        final int severities = 3;
+        return String.format("{\"type\": \"event\", \"source\": \"node-%d\", \"severity\": %d, " +
+                "\"message\": \"sample payload number %d\"}", index % sources, index % severities, index).getBytes();
+    }
 }
@@ -362,7 +362,7 @@ public class CheckpointSmokeTest extends AbstractViewTest {
         * per checkpoint entry. This test looks into the continuation record and this will
         * eliminate batchSize strategy dependency altogether.
         */
-        final double batchThresholdPercentage = 0.000005;
+        final double batchThresholdPercentage = 0.000001;
         cpw.setBatchThresholdPercentage(batchThresholdPercentage);
         cpw.setPostAppendFunc((cp, pos) -> {
             // No mutation, be we need to add a history snapshot at this START/END location.
@@ -685,6 +685,51 @@ public class CheckpointTest extends AbstractObjectTest {
         }
     }
 
+    /**
+     * Checkpoint more maps than checkpoint writer threads, trim the log and verify that
+     * all the maps can be rebuilt from their checkpoints by a fresh runtime.
+     */
+    @Test
+    public void concurrentCkpointTest() throws Exception {
+        final int numMaps = 10;
+        final int numThreads = 3;
+        final int mapSize = PARAMETERS.NUM_ITERATIONS_LOW;
+        final String streamPrefix = "concurrentCkpoint";
+
+        CorfuRuntime rt = getNewRuntime();
+        rt.getParameters().setCheckpointWriterThreads(numThreads);
+        CorfuRuntime runtime = getNewRuntime();
+
+        try {
+            MultiCheckpointWriter mcw = new MultiCheckpointWriter();
+            for (int m = 0; m < numMaps; m++) {
+                Map<String, Long> map = openMap(rt, streamPrefix + m);
+                for (int i = 0; i < mapSize; i++) {
+                    map.put(String.valueOf(i), (long) (m * mapSize + i));
+                }
+                mcw.addMap((CorfuTable) map);
+            }
+
+            Token checkpointAddress = mcw.appendCheckpoints(rt, author);
+
+            rt.getAddressSpaceView().prefixTrim(checkpointAddress);
+            rt.getAddressSpaceView().gc();
+            rt.getAddressSpaceView().invalidateServerCaches();
+            rt.getAddressSpaceView().invalidateClientCache();
+
+            for (int m = 0; m < numMaps; m++) {
+                Map<String, Long> map = openMap(runtime, streamPrefix + m);
+                assertThat(map.size()).isEqualTo(mapSize);
+                for (int i = 0; i < mapSize; i++) {
+                    assertThat(map.get(String.valueOf(i))).isEqualTo((long) (m * mapSize + i));
+                }
+            }
+        } finally {
+            rt.shutdown();
+            runtime.shutdown();
+        }
+    }
+
     /**
      * This test creates a CorfuTable backed by a RocksDb can be checkpointed.
      */
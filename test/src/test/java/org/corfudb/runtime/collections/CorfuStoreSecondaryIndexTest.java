@@ -6,6 +6,7 @@ import org.corfudb.runtime.ExampleSchemas;
 import org.corfudb.runtime.ExampleSchemas.ExampleValue;
 import org.corfudb.runtime.ExampleSchemas.ManagedMetadata;
 import org.corfudb.runtime.ExampleSchemas.Adult;
+import org.corfudb.runtime.exceptions.TransactionAbortedException;
 import org.corfudb.runtime.proto.RpcCommon.UuidMsg;
 import org.corfudb.runtime.view.AbstractViewTest;
 import org.junit.Test;
@@ -1626,4 +1627,95 @@ public class CorfuStoreSecondaryIndexTest extends AbstractViewTest {
             readWriteTxn.commit();
         }
     }
+
+    /**
+     * Verify range, prefix and ordered queries over sorted secondary indexes
+     * (see EventInfo in example_schemas.proto).
+     *
+     * @throws Exception exception
+     */
+    @Test
+    public void testSortedSecondaryIndexes() throws Exception {
+        CorfuRuntime corfuRuntime = getTestRuntime();
+        CorfuStoreShim shimStore = new CorfuStoreShim(corfuRuntime);
+
+        final String someNamespace = "some-namespace";
+        final String tableName = "Events";
+
+        Table<UuidMsg, ExampleSchemas.EventInfo, ManagedMetadata> table = shimStore.openTable(
+                someNamespace,
+                tableName,
+                UuidMsg.class,
+                ExampleSchemas.EventInfo.class,
+                ManagedMetadata.class,
+                TableOptions.builder().build());
+
+        final int totalRecords = 10;
+        final long baseTime = 100L;
+        final int ageGroups = 3;
+        ManagedMetadata user = ManagedMetadata.newBuilder().setCreateUser("user_UT").build();
+        List<UuidMsg> keys = new ArrayList<>();
+
+        try (ManagedTxnContext txn = shimStore.tx(someNamespace)) {
+            // Insert in reverse order, so the index order differs from the insertion order
+            for (int i = totalRecords - 1; i >= 0; i--) {
+                UuidMsg key = UuidMsg.newBuilder().setMsb(i).setLsb(i).build();
+                keys.add(0, key);
+                txn.putRecord(table, key, ExampleSchemas.EventInfo.newBuilder()
+                        .setName((i % 2 == 0 ? "alpha-" : "beta-") + i)
+                        .setEventTime(baseTime + i)
+                        .setOrganizer(ExampleSchemas.Person.newBuilder().setAge(i % ageGroups))
+                        .build(), user);
+            }
+            txn.commit();
+        }
+
+        try (ManagedTxnContext readWriteTxn = shimStore.tx(someNamespace)) {
+            // Half-open range [103, 106)
+            List<CorfuStoreEntry<UuidMsg, ExampleSchemas.EventInfo, ManagedMetadata>> entries = readWriteTxn
+                    .getByIndexRange(table, "event_time", baseTime + 3, true, baseTime + 6, false);
+            assertThat(entries).extracting(e -> e.getPayload().getEventTime())
+                    .containsExactly(baseTime + 3, baseTime + 4, baseTime + 5);
+
+            // Range unbounded below
+            entries = readWriteTxn.getByIndexRange(table, "event_time", null, true, baseTime + 1, true);
+            assertThat(entries).extracting(e -> e.getPayload().getEventTime())
+                    .containsExactly(baseTime, baseTime + 1);
+
+            // Prefix over a string index
+            entries = readWriteTxn.getByIndexPrefix(table, "name", "beta-");
+            assertThat(entries).extracting(e -> e.getPayload().getName())
+                    .containsExactly("beta-1", "beta-3", "beta-5", "beta-7", "beta-9");
+
+            // Top-3 most recent events
+            entries = readWriteTxn.getByIndexOrdered(table, "event_time", true, 3);
+            assertThat(entries).extracting(e -> e.getPayload().getEventTime())
+                    .containsExactly(baseTime + 9, baseTime + 8, baseTime + 7);
+
+            // Nested sorted index, accessed through its alias
+            entries = readWriteTxn.getByIndexOrdered(table, "organizerAge", false, totalRecords);
+            assertThat(entries).extracting(e -> e.getPayload().getOrganizer().getAge())
+                    .isSorted()
+                    .hasSize(totalRecords);
+
+            // Keys of another type than the index values don't match any entry
+            assertThat(readWriteTxn.getByIndexPrefix(table, "event_time", "10")).isEmpty();
+            assertThat(readWriteTxn.getByIndex(table, "event_time", String.valueOf(baseTime))).isEmpty();
+            assertThat(readWriteTxn.getByIndex(table, "event_time", baseTime)).hasSize(1);
+
+            // Queries observe the transaction's own writes
+            readWriteTxn.delete(table, keys.get(totalRecords - 1));
+            entries = readWriteTxn.getByIndexOrdered(table, "event_time", true, 1);
+            assertThat(entries).extracting(e -> e.getPayload().getEventTime())
+                    .containsExactly(baseTime + 8);
+            readWriteTxn.commit();
+        }
+
+        // Querying an index that isn't defined aborts the transaction
+        try (ManagedTxnContext readWriteTxn = shimStore.tx(someNamespace)) {
+            TransactionAbortedException tae = assertThrows(TransactionAbortedException.class,
+                    () -> readWriteTxn.getByIndexOrdered(table, "notAnIndex", false, 1));
+            assertThat(tae).hasCauseInstanceOf(IllegalArgumentException.class);
+        }
+    }
 }
@@ -18,6 +18,9 @@ import org.corfudb.runtime.ExampleSchemas;
 import org.corfudb.runtime.LogReplication.LogReplicationEntryMetadataMsg;
 import org.corfudb.runtime.Queue;
 import org.corfudb.runtime.exceptions.StaleRevisionUpdateException;
+import org.corfudb.runtime.object.CorfuCompileProxy;
+import org.corfudb.runtime.object.ICorfuSMR;
+import org.corfudb.runtime.object.VersionLockedObject;
 import org.corfudb.runtime.object.transactions.TransactionType;
 import org.corfudb.runtime.object.transactions.TransactionalContext;
 import org.corfudb.runtime.proto.RpcCommon;
@@ -25,12 +28,14 @@ import org.corfudb.runtime.proto.RpcCommon.UuidMsg;
 import org.corfudb.runtime.view.AbstractViewTest;
 import org.corfudb.runtime.ExampleSchemas.ManagedMetadata;
 import org.corfudb.runtime.view.Address;
+import org.corfudb.runtime.view.ObjectsView;
 import org.corfudb.runtime.view.TableRegistry;
 import org.corfudb.runtime.view.stream.StreamAddressSpace;
 import org.corfudb.test.SampleSchema;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -983,6 +988,101 @@ public class CorfuStoreShimTest extends AbstractViewTest {
         assertThat(tableRegistry.getRegistryTable().get(tableNameProto).getMetadata().getTableOptions().getOwnershipValidation()).isTrue();
     }
 
+    /**
+     * The protobuf serializer is shared by all the runtimes of the process, so a runtime
+     * can't open its table registry with another record format than the registered one.
+     */
+    @Test
+    public void checkRecordFormatMismatchIsRejected() {
+        // Registers the protobuf serializer with the default, non compact, record format.
+        getTestRuntime().getTableRegistry();
+
+        CorfuRuntime compactRuntime = getNewRuntime(CorfuRuntime.CorfuRuntimeParameters.builder()
+                .compactProtobufRecordsEnabled(true)
+                .build());
+        compactRuntime.parseConfigurationString(getDefaultConfigurationString()).connect();
+
+        assertThatThrownBy(compactRuntime::getTableRegistry)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("compactProtobufRecordsEnabled=true");
+    }
+
+    /**
+     * Tables opened with lock free reads publish the versions of their state, so that
+     * snapshot and current reads are served without locking the table.
+     * Such tables are in-memory only.
+     *
+     * @throws Exception exception
+     */
+    @Test
+    public void checkLockFreeReads() throws Exception {
+        CorfuRuntime corfuRuntime = getTestRuntime();
+        CorfuStore corfuStore = new CorfuStore(corfuRuntime);
+
+        final String someNamespace = "some-namespace";
+        final String tableName = "LockFreeTable";
+        final TableOptions lockFreeOptions = TableOptions.builder().lockFreeReadsEnabled(true).build();
+
+        Table<UuidMsg, ExampleSchemas.ExampleValue, ManagedMetadata> table = corfuStore.openTable(
+                someNamespace,
+                tableName,
+                UuidMsg.class,
+                ExampleSchemas.ExampleValue.class,
+                ManagedMetadata.class,
+                lockFreeOptions);
+
+        UUID uuid = UUID.nameUUIDFromBytes("1".getBytes());
+        UuidMsg key = UuidMsg.newBuilder()
+                .setMsb(uuid.getMostSignificantBits()).setLsb(uuid.getLeastSignificantBits())
+                .build();
+        final long anotherKey = 123L;
+        ManagedMetadata metadata = ManagedMetadata.newBuilder().setCreateUser("user_1").build();
+
+        CorfuStoreMetadata.Timestamp firstWrite;
+        try (TxnContext txn = corfuStore.txn(someNamespace)) {
+            txn.putRecord(table, key, ExampleSchemas.ExampleValue.newBuilder()
+                    .setPayload("v1").setAnotherKey(anotherKey).build(), metadata);
+            firstWrite = txn.commit();
+        }
+        try (TxnContext txn = corfuStore.txn(someNamespace)) {
+            txn.putRecord(table, key, ExampleSchemas.ExampleValue.newBuilder()
+                    .setPayload("v2").setAnotherKey(anotherKey).build(), metadata);
+            txn.commit();
+        }
+
+        try (TxnContext txn = corfuStore.txn(someNamespace)) {
+            assertThat(txn.getRecord(table, key).getPayload().getPayload()).isEqualTo("v2");
+            List<CorfuStoreEntry<UuidMsg, ExampleSchemas.ExampleValue, ManagedMetadata>> entries =
+                    txn.getByIndex(table, "anotherKey", anotherKey);
+            assertThat(entries).hasSize(1);
+            assertThat(entries.get(0).getPayload().getPayload()).isEqualTo("v2");
+            txn.commit();
+        }
+
+        // The versions synced through by the current read are published.
+        ObjectsView.ObjectID<CorfuTable> oid = new ObjectsView.ObjectID(table.getStreamUUID(), CorfuTable.class);
+        VersionLockedObject vlo = ((CorfuCompileProxy) ((ICorfuSMR) corfuRuntime.getObjectsView()
+                .getObjectCache().get(oid)).getCorfuSMRProxy()).getUnderlyingObject();
+        assertThat(vlo.getPublishedVersion(firstWrite.getSequence())).isNotNull();
+
+        try (TxnContext txn = corfuStore.txn(someNamespace, IsolationLevel.snapshot(firstWrite))) {
+            assertThat(txn.getRecord(table, key).getPayload().getPayload()).isEqualTo("v1");
+            txn.commit();
+        }
+
+        assertThatThrownBy(() -> corfuStore.openTable(
+                someNamespace,
+                "LockFreeDiskBackedTable",
+                UuidMsg.class,
+                ExampleSchemas.ExampleValue.class,
+                ManagedMetadata.class,
+                TableOptions.builder()
+                        .lockFreeReadsEnabled(true)
+                        .persistentDataPath(Paths.get(PARAMETERS.TEST_TEMP_DIR))
+                        .build()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
     private void printMessage(byte[] data, Map<String, FileDescriptorProto> map) throws Exception {
 
         FileDescriptor firewallDescriptor = getDescriptors("sample_schema.proto", map);
@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -19,9 +20,12 @@ import org.assertj.core.data.MapEntry;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
+import org.corfudb.runtime.CorfuRuntime;
 import org.corfudb.runtime.exceptions.unrecoverable.UnrecoverableCorfuError;
 import org.corfudb.runtime.object.CorfuCompileProxy;
 import org.corfudb.runtime.object.ICorfuSMR;
+import org.corfudb.runtime.object.ICorfuVersionPolicy;
+import org.corfudb.runtime.object.VersionLockedObject;
 import org.corfudb.runtime.object.transactions.TransactionType;
 import org.corfudb.runtime.view.AbstractViewTest;
 import org.corfudb.test.TestSchema;
@@ -358,4 +362,73 @@ public class CorfuTableTest extends AbstractViewTest {
                 MapEntry.entry("k1", "aa"), MapEntry.entry("k3", "aa"),
                 MapEntry.entry("k4", "bb"), MapEntry.entry("k2", "cc"));
     }
+
+    /**
+     * Ensure that a table backed by a {@link PersistentStreamingMap} publishes the versions
+     * it is synced through, and that reads of a published version (including lookups by
+     * index) see the state of the table at that version.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void readsPublishedVersions() {
+        final Supplier<ContextAwareMap<String, String>> mapSupplier = PersistentStreamingMap::new;
+        CorfuTable<String, String>
+                corfuTable = getDefaultRuntime().getObjectsView().build()
+                .setTypeToken(new TypeToken<CorfuTable<String, String>>() {})
+                .setArguments(new StringIndexer(), mapSupplier, ICorfuVersionPolicy.DEFAULT)
+                .setStreamName("test")
+                .open();
+        final UUID streamId = CorfuRuntime.getStreamID("test");
+        final VersionLockedObject<CorfuTable<String, String>> vlo =
+                ((CorfuCompileProxy) ((ICorfuSMR) corfuTable).getCorfuSMRProxy()).getUnderlyingObject();
+
+        corfuTable.insert("k1", "a");
+        final long firstVersion = getDefaultRuntime().getSequencerView().query(streamId);
+        corfuTable.insert("k2", "ab");
+        corfuTable.delete("k1");
+        corfuTable.insert("k3", "b");
+        final long secondVersion = getDefaultRuntime().getSequencerView().query(streamId);
+
+        // Loading the table publishes its current version.
+        assertThat(corfuTable.size()).isEqualTo(2);
+        assertThat(vlo.getPublishedVersion(secondVersion)).isNotNull();
+        assertThat(vlo.getPublishedVersion(firstVersion)).isNull();
+
+        // Syncing forward publishes the new version, and keeps the previous one.
+        corfuTable.insert("k4", "bb");
+        final long thirdVersion = getDefaultRuntime().getSequencerView().query(streamId);
+        assertThat(corfuTable.get("k4")).isEqualTo("bb");
+        assertThat(vlo.getPublishedVersion(thirdVersion).get("k4")).isEqualTo("bb");
+
+        final CorfuTable<String, String> version = vlo.getPublishedVersion(secondVersion);
+        assertThat(version.keySet()).containsExactlyInAnyOrder("k2", "k3");
+        assertThat(project(version.getByIndex(StringIndexer.BY_FIRST_LETTER, "b")))
+                .containsExactly("b");
+
+        getDefaultRuntime().getObjectsView().TXBuild()
+                .type(TransactionType.SNAPSHOT)
+                .snapshot(new Token(0L, secondVersion))
+                .build()
+                .begin();
+        assertThat(corfuTable.get("k4")).isNull();
+        assertThat(project(corfuTable.getByIndex(StringIndexer.BY_FIRST_LETTER, "a")))
+                .containsExactly("ab");
+        getDefaultRuntime().getObjectsView().TXEnd();
+
+        // Older versions are still read by rolling the table back.
+        getDefaultRuntime().getObjectsView().TXBuild()
+                .type(TransactionType.SNAPSHOT)
+                .snapshot(new Token(0L, firstVersion))
+                .build()
+                .begin();
+        assertThat(corfuTable.get("k1")).isEqualTo("a");
+        assertThat(project(corfuTable.getByIndex(StringIndexer.BY_FIRST_LETTER, "b"))).isEmpty();
+        getDefaultRuntime().getObjectsView().TXEnd();
+
+        // Syncing forward again over the published versions keeps them.
+        assertThat(corfuTable.get("k4")).isEqualTo("bb");
+        assertThat(project(vlo.getPublishedVersion(thirdVersion)
+                .getByIndex(StringIndexer.BY_FIRST_LETTER, "b"))).containsExactlyInAnyOrder("b", "bb");
+        assertThat(vlo.getPublishedVersion(secondVersion).keySet()).containsExactlyInAnyOrder("k2", "k3");
+    }
 }
@@ -47,6 +47,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
@@ -319,6 +320,46 @@ public class DiskBackedCorfuClientTest extends AbstractViewTest implements AutoC
         }
     }
 
+    /**
+     * Property based test that does a putAll, followed by updates of the same keys,
+     * which should not change the size of the map.
+     */
+    @Property(tries = NUM_OF_TRIES)
+    void putAllUpdate(@ForAll @Size(SAMPLE_SIZE) Set<String> intended) {
+        resetTests();
+        try (final CorfuTable<String, String> table = setupTable()) {
+            final Map<String, String> mappings = intended.stream()
+                    .collect(Collectors.toMap(Function.identity(), Function.identity()));
+            table.putAll(mappings);
+            Assertions.assertEquals(table.size(), intended.size());
+            Assertions.assertEquals(table.keySet(), intended);
+
+            executeTx(() -> intended.forEach(value -> table.put(value, value + value)));
+            Assertions.assertEquals(table.size(), intended.size());
+            intended.forEach(value -> Assertions.assertEquals(table.get(value), value + value));
+        }
+    }
+
+    /**
+     * Property based test that checks that a put returns the previous value of its key,
+     * and that a putAll of keys which are already mapped doesn't change the size of the map.
+     */
+    @Property(tries = NUM_OF_TRIES)
+    void putPreviousValue(@ForAll @Size(SAMPLE_SIZE) Set<String> intended) {
+        resetTests();
+        try (final CorfuTable<String, String> table = setupTable()) {
+            intended.forEach(value -> Assertions.assertNull(table.put(value, value)));
+            intended.forEach(value -> Assertions.assertEquals(table.put(value, value + value), value));
+            Assertions.assertEquals(table.size(), intended.size());
+
+            table.putAll(intended.stream()
+                    .collect(Collectors.toMap(Function.identity(), Function.identity())));
+            Assertions.assertEquals(table.size(), intended.size());
+            Assertions.assertEquals(table.keySet(), intended);
+            intended.forEach(value -> Assertions.assertEquals(table.get(value), value));
+        }
+    }
+
     /**
      * Non-transactional property based test that does inserts followed by removes.
      */
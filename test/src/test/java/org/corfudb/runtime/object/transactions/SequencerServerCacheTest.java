@@ -85,6 +85,39 @@ public class SequencerServerCacheTest extends AbstractObjectTest {
         }
     }
 
+    /**
+     * Check that updating the same conflict keys many times neither grows
+     * the cache nor breaks the eviction order of the resolution window.
+     */
+    @Test
+    public void testCacheKeyUpdates() {
+        final int numKeys = 10;
+        final int updates = 100;
+        SequencerServerCache cache = new SequencerServerCache(numKeys, Address.NOT_FOUND);
+        final UUID streamId = UUID.randomUUID();
+
+        long address = 0;
+        for (int i = 0; i < updates; i++) {
+            for (int key = 0; key < numKeys; key++) {
+                assertThat(cache.put(streamId, new byte[]{(byte) key}, address++)).isTrue();
+            }
+        }
+
+        assertThat(cache.size()).isEqualTo(numKeys);
+        assertThat(cache.firstAddress()).isEqualTo(address - numKeys);
+        assertThat(cache.getMaxConflictWildcard()).isEqualTo(Address.NOT_FOUND);
+        for (int key = 0; key < numKeys; key++) {
+            assertThat(cache.get(streamId, new byte[]{(byte) key})).isEqualTo(address - numKeys + key);
+        }
+
+        // A new key evicts the oldest version only
+        cache.put(streamId, new byte[]{(byte) numKeys}, address);
+        assertThat(cache.size()).isEqualTo(numKeys);
+        assertThat(cache.get(streamId, new byte[]{0})).isEqualTo(Address.NON_ADDRESS);
+        assertThat(cache.getMaxConflictWildcard()).isEqualTo(address - numKeys);
+        assertThat(cache.firstAddress()).isEqualTo(address - numKeys + 1);
+    }
+
     public static final int entryPerAddress = 20;
     public static final int iterations = 100;
     public static final int cacheSize = iterations * entryPerAddress;
@@ -4,7 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 
-import com.google.common.cache.Cache;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.google.common.collect.ContiguousSet;
 import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.Range;
@@ -15,6 +15,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import org.corfudb.common.compression.Codec;
 import org.corfudb.infrastructure.LogUnitServerAssertions;
 import org.corfudb.infrastructure.TestLayoutBuilder;
@@ -23,6 +24,7 @@ import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.protocols.wireprotocol.TokenResponse;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.exceptions.StaleTokenException;
 import org.corfudb.runtime.view.stream.IStreamView;
 import org.junit.Test;
 
@@ -57,21 +59,49 @@ public class AddressSpaceViewTest extends AbstractViewTest {
 
     @Test
     public void incorrectCacheSetting() {
-        setupNodes();
         final int oneMb = 1_000_000;
 
-        CorfuRuntime.CorfuRuntimeParameters params = CorfuRuntime.CorfuRuntimeParameters
+        assertThatThrownBy(() -> CorfuRuntime.CorfuRuntimeParameters
                 .builder()
                 .maxCacheWeight(oneMb)
                 .maxCacheEntries(oneMb)
+                .build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void weightedCache() {
+        setupNodes();
+        final int payloadSize = 1_000;
+        final int numEntries = 50;
+        final int maxCachedEntries = 10;
+        final long maxCacheWeight = (long) payloadSize * maxCachedEntries;
+
+        CorfuRuntime.CorfuRuntimeParameters params = CorfuRuntime.CorfuRuntimeParameters
+                .builder()
+                .maxCacheWeight(maxCacheWeight)
                 .build();
 
         CorfuRuntime rt = CorfuRuntime.fromParameters(params)
                 .parseConfigurationString(getDefaultConfigurationString())
                 .connect();
+        rt.getParameters().setCodecType(Codec.Type.NONE);
 
-        assertThatThrownBy(() -> rt.getAddressSpaceView())
-                .isInstanceOf(UnsupportedOperationException.class);
+        final long epoch = rt.getLayoutView().getLayout().getEpoch();
+        final UUID streamId = CorfuRuntime.getStreamID("stream1");
+        for (long address = 0; address < numEntries; address++) {
+            rt.getAddressSpaceView().write(new TokenResponse(new Token(epoch, address),
+                            Collections.singletonMap(streamId, Address.NO_BACKPOINTER)),
+                    new byte[payloadSize]);
+        }
+
+        // Entries are evicted by weight, so that the cache never exceeds its max weight
+        Cache<Long, ILogData> clientCache = rt.getAddressSpaceView().getReadCache();
+        clientCache.cleanUp();
+        assertThat(clientCache.policy().eviction().get().weightedSize().getAsLong())
+                .isLessThanOrEqualTo(maxCacheWeight);
+        assertThat(clientCache.estimatedSize()).isLessThan(maxCachedEntries);
+        assertThat(clientCache.estimatedSize()).isPositive();
     }
 
     @Test
@@ -186,6 +216,23 @@ public class AddressSpaceViewTest extends AbstractViewTest {
         assertThat(clientCache.getIfPresent(2L)).isNotNull();
     }
 
+    @Test
+    public void testStaleTokenWriteAsync() {
+        setupNodes();
+        CorfuRuntime rt = getRuntime().connect();
+
+        final long staleEpoch = rt.getLayoutView().getLayout().getEpoch() - 1;
+        CompletableFuture<Void> write = rt.getAddressSpaceView().writeAsync(
+                new TokenResponse(new Token(staleEpoch, 0),
+                        Collections.singletonMap(CorfuRuntime.getStreamID("stream1"), Address.NO_BACKPOINTER)),
+                "payload".getBytes(), CacheOption.WRITE_THROUGH);
+
+        // The stale token fails the write as is, nothing is read back to validate it
+        assertThatThrownBy(write::join).hasCauseInstanceOf(StaleTokenException.class);
+        assertThat(rt.getAddressSpaceView().getReadCache().getIfPresent(0L)).isNull();
+        LogUnitServerAssertions.assertThat(getLogUnit(SERVERS.PORT_0)).isEmptyAtAddress(0);
+    }
+
     @Test
     public void testGetTrimMark() {
         setupNodes();
@@ -8,14 +8,22 @@ import org.corfudb.protocols.wireprotocol.ILogData;
 import org.corfudb.protocols.wireprotocol.LogData;
 import org.corfudb.protocols.wireprotocol.Token;
 import org.corfudb.runtime.CorfuRuntime;
+import org.corfudb.runtime.clients.TestRule;
 import org.corfudb.runtime.exceptions.OverwriteException;
 import org.corfudb.runtime.exceptions.TrimmedException;
 import org.corfudb.runtime.exceptions.WrongEpochException;
 import org.corfudb.runtime.view.Layout;
 import org.corfudb.runtime.view.RuntimeLayout;
+import org.corfudb.util.CFUtils;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
@@ -93,6 +101,72 @@ public class ChainReplicationProtocolTest extends AbstractReplicationProtocolTes
     }
 
 
+    /**
+     * Check that asynchronous writes can be kept in flight together, and that
+     * each of them reaches every member of the chain once it completes.
+     */
+    @Test
+    public void asyncWritesArePipelined() {
+        setupNodes();
+        final CorfuRuntime r = getDefaultRuntime();
+        final IReplicationProtocol rp = getProtocol();
+        final RuntimeLayout runtimeLayout = r.getLayoutView().getRuntimeLayout();
+        final int numWrites = 100;
+
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < numWrites; i++) {
+            writes.add(rp.writeAsync(runtimeLayout, getLogData(i, ("data" + i).getBytes())));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+
+        for (String endpoint : Arrays.asList(SERVERS.ENDPOINT_0, SERVERS.ENDPOINT_1, SERVERS.ENDPOINT_2)) {
+            for (long address = 0; address < numWrites; address++) {
+                ILogData readResult = CFUtils.getUninterruptibly(runtimeLayout.getLogUnitClient(endpoint)
+                        .read(address)).getAddresses().get(address);
+                assertThat(readResult.getPayload(r)).isEqualTo(("data" + address).getBytes());
+            }
+        }
+
+        // Overwriting a committed address fails the returned future.
+        assertThatThrownBy(() -> rp.writeAsync(runtimeLayout, getLogData(0, "overwrite".getBytes())).join())
+                .hasCauseInstanceOf(OverwriteException.class);
+    }
+
+    /**
+     * Check that an asynchronous write to a chain whose second member doesn't respond
+     * doesn't block the caller, that the next member is written from the runtime's async
+     * client executor rather than from the thread which completed the previous write,
+     * and that the write fails once the request times out.
+     */
+    @Test
+    public void asyncWriteWithUnresponsiveReplica() {
+        setupNodes();
+        final CorfuRuntime r = getDefaultRuntime();
+        final IReplicationProtocol rp = getProtocol();
+        final RuntimeLayout runtimeLayout = r.getLayoutView().getRuntimeLayout();
+
+        // Open the router to the second member of the chain, in order to install a rule on it.
+        runtimeLayout.getLogUnitClient(SERVERS.ENDPOINT_1);
+        List<String> writerThreads = new CopyOnWriteArrayList<>();
+        addClientRule(r, SERVERS.ENDPOINT_1, new TestRule().requestMatches(msg -> {
+            if (!msg.getPayload().hasWriteLogRequest()) {
+                return false;
+            }
+            writerThreads.add(Thread.currentThread().getName());
+            return true;
+        }).drop());
+
+        CompletableFuture<Void> write = rp.writeAsync(runtimeLayout, getLogData(0, "data".getBytes()));
+        assertThat(write).isNotDone();
+        assertThatThrownBy(write::join).hasCauseInstanceOf(TimeoutException.class);
+
+        assertThat(writerThreads).hasSize(1);
+        assertThat(writerThreads.get(0)).startsWith("CorfuRuntime-async-client");
+        ILogData headResult = CFUtils.getUninterruptibly(runtimeLayout.getLogUnitClient(SERVERS.ENDPOINT_0)
+                .read(0)).getAddresses().get(0L);
+        assertThat(headResult.getPayload(r)).isEqualTo("data".getBytes());
+    }
+
     /**
      * Check to see that a read correctly
      * completes a failed write from another client.
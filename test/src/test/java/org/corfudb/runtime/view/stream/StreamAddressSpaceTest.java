@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.DataInputStream;
 import java.io.DataOutput;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -76,6 +77,52 @@ public class StreamAddressSpaceTest {
         assertThat(streamA.getTrimMark()).isEqualTo(6L);
     }
 
+    @Test
+    public void testBulkMerge() {
+        StreamAddressSpace streamA = new StreamAddressSpace();
+        streamA.addAddress(1L);
+
+        StreamAddressSpace streamB = new StreamAddressSpace();
+        streamB.addRange(2L, 10L);
+
+        StreamAddressSpace streamC = new StreamAddressSpace();
+        streamC.addRange(10L, 20L);
+        streamC.trim(4L);
+
+        // Merge streamB and streamC into streamA and verify that the highest trim mark is adopted
+        StreamAddressSpace.merge(streamA, Arrays.asList(streamB, streamC));
+        assertThat(streamA.getTrimMark()).isEqualTo(4L);
+        assertThat(streamA.getTail()).isEqualTo(19L);
+        assertThat(streamA.toArray()).isEqualTo(LongStream.range(5L, 20L).toArray());
+    }
+
+    @Test
+    public void testAddRange() {
+        StreamAddressSpace streamA = new StreamAddressSpace();
+        final long start = 5L;
+        final long end = 15L;
+        streamA.addRange(start, end);
+        streamA.addRange(end, end);
+
+        assertThat(streamA.size()).isEqualTo(end - start);
+        assertThat(streamA.toArray()).isEqualTo(LongStream.range(start, end).toArray());
+
+        // Ranges that span two 32-bit buckets of the bitmap
+        final long bucket = 1L << Integer.SIZE;
+        StreamAddressSpace streamB = new StreamAddressSpace();
+        streamB.addRange(bucket - 2, bucket + 2);
+        assertThat(streamB.toArray()).isEqualTo(new long[]{bucket - 2, bucket - 1, bucket, bucket + 1});
+
+        StreamAddressSpace streamC = new StreamAddressSpace();
+        streamC.addRange(bucket - 2, bucket);
+        assertThat(streamC.toArray()).isEqualTo(new long[]{bucket - 2, bucket - 1});
+
+        // Ranges below the trim mark are rejected
+        streamA.trim(end - 1);
+        assertThrows(IllegalArgumentException.class, () -> streamA.addRange(start, end));
+        assertThrows(IllegalArgumentException.class, () -> streamA.addRange(end + 1, end));
+    }
+
     @Test
     public void testForEachUpTo() {
         StreamAddressSpace stream = new StreamAddressSpace();
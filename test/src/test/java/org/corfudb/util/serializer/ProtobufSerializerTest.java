@@ -0,0 +1,166 @@
+package org.corfudb.util.serializer;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.Message;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import org.corfudb.runtime.CorfuStoreMetadata.Record;
+import org.corfudb.runtime.ExampleSchemas.ExampleValue;
+import org.corfudb.runtime.ExampleSchemas.ManagedMetadata;
+import org.corfudb.runtime.ExampleSchemas.Uuid;
+import org.corfudb.runtime.collections.CorfuRecord;
+import org.corfudb.runtime.exceptions.SerializerException;
+import org.corfudb.util.serializer.ProtobufSerializer.MessageType;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.corfudb.runtime.view.TableRegistry.getTypeUrl;
+
+public class ProtobufSerializerTest {
+
+    private final Uuid key = Uuid.newBuilder().setMsb(1L).setLsb(2L).build();
+
+    private final ExampleValue value = ExampleValue.newBuilder()
+            .setPayload("payload")
+            .setUuid(key)
+            .build();
+
+    private final ManagedMetadata metadata = ManagedMetadata.newBuilder().setRevision(1L).build();
+
+    private ProtobufSerializer getSerializer() {
+        return getSerializer(true);
+    }
+
+    private ProtobufSerializer getSerializer(boolean compactRecordsEnabled) {
+        ProtobufSerializer serializer = new ProtobufSerializer(new ConcurrentHashMap<>(), compactRecordsEnabled);
+        serializer.registerType(getTypeUrl(Uuid.getDescriptor()), Uuid.class);
+        serializer.registerType(getTypeUrl(ExampleValue.getDescriptor()), ExampleValue.class);
+        serializer.registerType(getTypeUrl(ManagedMetadata.getDescriptor()), ManagedMetadata.class);
+        return serializer;
+    }
+
+    private Object roundTrip(ISerializer serializer, Object o, ByteBuf b) {
+        serializer.serialize(o, b);
+        Object deserialized = serializer.deserialize(b, null);
+        assertThat(b.isReadable()).isFalse();
+        return deserialized;
+    }
+
+    @Test
+    public void testSerializeAndDeserialize() {
+        ProtobufSerializer serializer = getSerializer();
+
+        assertThat(roundTrip(serializer, key, Unpooled.buffer())).isEqualTo(key);
+        assertThat(roundTrip(serializer, Uuid.getDefaultInstance(), Unpooled.buffer()))
+                .isEqualTo(Uuid.getDefaultInstance());
+
+        CorfuRecord<?, ?> record = (CorfuRecord<?, ?>) roundTrip(serializer,
+                new CorfuRecord<>(value, metadata), Unpooled.buffer());
+        assertThat(record.getPayload()).isEqualTo(value);
+        assertThat(record.getMetadata()).isEqualTo(metadata);
+
+        record = (CorfuRecord<?, ?>) roundTrip(serializer,
+                new CorfuRecord<>(value, null), Unpooled.buffer());
+        assertThat(record.getPayload()).isEqualTo(value);
+        assertThat(record.getMetadata()).isNull();
+
+        // Buffers that are not contiguous are written through an intermediate array.
+        CompositeByteBuf composite = Unpooled.compositeBuffer();
+        composite.addComponent(true, Unpooled.buffer(1));
+        composite.addComponent(true, Unpooled.buffer(1));
+        composite.clear();
+        record = (CorfuRecord<?, ?>) roundTrip(serializer, new CorfuRecord<>(value, metadata), composite);
+        assertThat(record.getPayload()).isEqualTo(value);
+        assertThat(record.getMetadata()).isEqualTo(metadata);
+    }
+
+    @Test
+    public void testTypeUrlsAreNotSerialized() {
+        ByteBuf b = Unpooled.buffer();
+        getSerializer().serialize(new CorfuRecord<>(value, metadata), b);
+
+        byte[] typeUrl = getTypeUrl(ExampleValue.getDescriptor()).getBytes(StandardCharsets.UTF_8);
+        assertThat(ByteBufUtil.indexOf(Unpooled.wrappedBuffer(typeUrl), b)).isEqualTo(-1);
+        assertThat(b.readableBytes()).isLessThan(Integer.BYTES * 2 + Record.newBuilder()
+                .setPayload(Any.pack(value))
+                .setMetadata(Any.pack(metadata))
+                .build()
+                .getSerializedSize());
+    }
+
+    @Test
+    public void testRecordsWithTypeUrlsByDefault() {
+        ProtobufSerializer serializer = getSerializer(false);
+        ByteBuf b = Unpooled.buffer();
+        serializer.serialize(new CorfuRecord<>(value, metadata), b);
+        assertThat(b.getInt(0)).isEqualTo(MessageType.VALUE.val);
+
+        CorfuRecord<?, ?> record = (CorfuRecord<?, ?>) serializer.deserialize(b, null);
+        assertThat(record.getPayload()).isEqualTo(value);
+        assertThat(record.getMetadata()).isEqualTo(metadata);
+    }
+
+    @Test
+    public void testHashDoesNotDependOnTheFormat() {
+        assertThat(getSerializer(true).hash(key)).isEqualTo(getSerializer(false).hash(key));
+        assertThat(getSerializer(true).hash(key))
+                .isNotEqualTo(getSerializer(true).hash(Uuid.getDefaultInstance()));
+    }
+
+    @Test
+    public void testDeserializeRecordsWithTypeUrls() {
+        ProtobufSerializer serializer = getSerializer();
+
+        ByteBuf b = Unpooled.buffer();
+        writeRecord(b, MessageType.KEY, Record.newBuilder().setPayload(Any.pack(key)).build());
+        assertThat(serializer.deserialize(b, null)).isEqualTo(key);
+
+        writeRecord(b, MessageType.VALUE, Record.newBuilder()
+                .setPayload(Any.pack(value))
+                .setMetadata(Any.pack(metadata))
+                .build());
+        CorfuRecord<?, ?> record = (CorfuRecord<?, ?>) serializer.deserialize(b, null);
+        assertThat(record.getPayload()).isEqualTo(value);
+        assertThat(record.getMetadata()).isEqualTo(metadata);
+    }
+
+    private void writeRecord(ByteBuf b, MessageType type, Record record) {
+        b.writeInt(type.val);
+        b.writeInt(record.getSerializedSize());
+        b.writeBytes(record.toByteArray());
+    }
+
+    @Test
+    public void testUnknownTypes() {
+        ByteBuf b = Unpooled.buffer();
+        getSerializer().serialize(key, b);
+
+        ProtobufSerializer serializer = new ProtobufSerializer(new ConcurrentHashMap<>());
+        assertThatThrownBy(() -> serializer.deserialize(b.duplicate(), null))
+                .isInstanceOf(SerializerException.class);
+
+        // Types added to the class map directly are found as well.
+        serializer.getClassMap().put(getTypeUrl(Uuid.getDescriptor()), Uuid.class);
+        assertThat(serializer.deserialize(b, null)).isEqualTo(key);
+    }
+
+    @Test
+    public void testTypeIds() {
+        String typeUrl = getTypeUrl(Uuid.getDescriptor());
+        assertThat(ProtobufSerializer.getTypeId(typeUrl)).isEqualTo(ProtobufSerializer.getTypeId(typeUrl));
+        assertThat(ProtobufSerializer.getTypeId(typeUrl))
+                .isNotEqualTo(ProtobufSerializer.getTypeId(getTypeUrl(ExampleValue.getDescriptor())));
+
+        // Registering a type again is allowed.
+        ProtobufSerializer serializer = getSerializer();
+        serializer.registerType(typeUrl, Uuid.class);
+        Message deserialized = (Message) roundTrip(serializer, key, Unpooled.buffer());
+        assertThat(deserialized).isEqualTo(key);
+    }
+}